@@ -1,18 +1,31 @@
 package com.yshebkb.common.gps;
 
 import com.yshebkb.common.gps.polygon.Point;
+import com.yshebkb.common.gps.polygon.PointArray;
 
-import java.text.DecimalFormat;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
 
 /**
- * 将百度地图编码过的坐标转化为标准BD09坐标
+ * 将百度地图编码过的坐标(百度墨卡托)转化为标准BD09坐标, 以及反方向的转换
+ * <p>
+ * 所有方法都是无状态的, 可以被任意多个线程同时调用
  *
  * @author whiteclaw
  * created on 2019-01-18
  */
 public class BaiduMapTrans {
 
-    private final static DecimalFormat DECIMAL_FORMAT = new DecimalFormat("#.000000");
+    /**
+     * 经纬度结果保留6位小数
+     */
+    private final static int LL_DECIMALS = 6;
+    private final static double LL_SCALE = 1e6;
+    /**
+     * 墨卡托结果保留2位小数
+     */
+    private final static int MC_DECIMALS = 2;
+    private final static double MC_SCALE = 1e2;
     private final static double EARTHRADIUS = 6370996.81;
     private final static double[] MCBAND = new double[]{1.289059486e7, 8362377.87, 5591021, 3481989.83, 1678043.12, 0};
     private final static int[] LLBAND = new int[]{75, 60, 45, 30, 15, 0};
@@ -42,32 +55,248 @@ public class BaiduMapTrans {
      * @return 转化后的经纬度
      */
     public static Point trans(double lng, double lat) {
-        double[] factor = null;
+        double[] result = new double[2];
+        if (trans(lng, lat, -1, result, 0, result, 1) < 0) {
+            return null;
+        }
+        return new Point(result[0], result[1]);
+    }
+
+    /**
+     * bd09的经纬度转化为百度墨卡托坐标, 即{@link #trans(double, double)}的逆运算.
+     * 和百度地图JS API一样, 经度先规整到[-180, 180], 纬度截断到[-74, 74], 结果保留2位小数.
+     * 经度为NaN或无穷大时x和y都是NaN.
+     * <p>
+     * 两个方向的系数表是各自拟合的, 并不严格互逆: 国内范围内编码再解码的误差在1e-6°以内,
+     * 45°纬度带分界附近约3e-6°, 60°以上的纬度带最大约7e-5°
+     *
+     * @param lng bd09经度
+     * @param lat bd09纬度
+     * @return 百度墨卡托坐标, lng为x, lat为y
+     */
+    public static Point bd09ToMercator(double lng, double lat) {
+        double[] result = new double[2];
+        bd09ToMercator(lng, lat, -1, result, 0, result, 1);
+        return new Point(result[0], result[1]);
+    }
+
+    /**
+     * 批量将bd09的经纬度转化为百度墨卡托坐标, 结果写入调用方提供的数组, 转换过程中不创建任何对象.
+     * 经度为NaN或无穷大的坐标输出NaN
+     *
+     * @param lng  bd09经度数组
+     * @param lat  bd09纬度数组
+     * @param outX 墨卡托x输出数组, 可以和lng是同一个数组
+     * @param outY 墨卡托y输出数组, 可以和lat是同一个数组
+     */
+    public static void bd09ToMercator(double[] lng, double[] lat, double[] outX, double[] outY) {
+        bd09ToMercator(lng, lat, outX, outY, 0, CoordinateTransformUtil.checkLength(lng, lat, outX, outY));
+    }
+
+    /**
+     * 批量转换[offset, offset + length)区间的坐标
+     */
+    public static void bd09ToMercator(double[] lng, double[] lat, double[] outX, double[] outY, int offset, int length) {
+        CoordinateTransformUtil.checkRange(lng, lat, outX, outY, offset, length);
+        int band = -1;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            band = bd09ToMercator(lng[i], lat[i], band, outX, i, outY, i);
+        }
+    }
+
+    /**
+     * 批量转换, 原地覆盖输入数组
+     */
+    public static void bd09ToMercator(double[] lng, double[] lat) {
+        bd09ToMercator(lng, lat, lng, lat);
+    }
+
+    /**
+     * 批量将百度转码后的经纬度转化为bd09的经纬度, 结果写入调用方提供的数组, 转换过程中不创建任何对象.
+     * 无法转换的坐标(纬度为负数或NaN)输出NaN
+     *
+     * @param lng    百度转码后的经度数组
+     * @param lat    百度转码后的纬度数组
+     * @param outLng bd09经度输出数组, 可以和lng是同一个数组
+     * @param outLat bd09纬度输出数组, 可以和lat是同一个数组
+     */
+    public static void trans(double[] lng, double[] lat, double[] outLng, double[] outLat) {
+        trans(lng, lat, outLng, outLat, 0, CoordinateTransformUtil.checkLength(lng, lat, outLng, outLat));
+    }
+
+    /**
+     * 批量转换[offset, offset + length)区间的坐标
+     */
+    public static void trans(double[] lng, double[] lat, double[] outLng, double[] outLat, int offset, int length) {
+        CoordinateTransformUtil.checkRange(lng, lat, outLng, outLat, offset, length);
+        int band = -1;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            band = trans(lng[i], lat[i], band, outLng, i, outLat, i);
+        }
+    }
+
+    /**
+     * 批量转换, 原地覆盖输入数组
+     */
+    public static void trans(double[] lng, double[] lat) {
+        trans(lng, lat, lng, lat);
+    }
+
+    /**
+     * 批量将百度转码后的经纬度转化为bd09的经纬度, 原地覆盖点序列中的坐标, 点序列不能是紧凑模式
+     *
+     * @param points 百度墨卡托坐标序列
+     */
+    public static void trans(PointArray points) {
+        double[] result = new double[2];
+        int band = -1;
+        for (int i = 0, size = points.size(); i < size; i++) {
+            band = trans(points.getLng(i), points.getLat(i), band, result, 0, result, 1);
+            points.set(i, result[0], result[1]);
+        }
+    }
+
+    /**
+     * 批量将bd09的经纬度转化为百度墨卡托坐标, 原地覆盖点序列中的坐标, 点序列不能是紧凑模式
+     *
+     * @param points bd09坐标序列
+     */
+    public static void bd09ToMercator(PointArray points) {
+        double[] result = new double[2];
+        int band = -1;
+        for (int i = 0, size = points.size(); i < size; i++) {
+            band = bd09ToMercator(points.getLng(i), points.getLat(i), band, result, 0, result, 1);
+            points.set(i, result[0], result[1]);
+        }
+    }
+
+    /**
+     * 单点解码, 结果写入outLng[lngIndex]和outLat[latIndex]. 相邻的点基本都在同一个纬度带里, 先检查上一个点所在的纬度带
+     *
+     * @param band 上一个点的纬度带, 没有时传-1
+     * @return 当前点的纬度带
+     */
+    private static int trans(double lng, double lat, int band, double[] outLng, int lngIndex, double[] outLat, int latIndex) {
+        if (band < 0 || !(lat >= MCBAND[band] && (band == 0 || lat < MCBAND[band - 1]))) {
+            band = mcBand(lat);
+        }
+        if (band < 0) {
+            outLng[lngIndex] = Double.NaN;
+            outLat[latIndex] = Double.NaN;
+            return band;
+        }
+        double[] factor = MC2LL[band];
+        outLng[lngIndex] = round(convertX(lng, factor), LL_DECIMALS, LL_SCALE, RoundingMode.HALF_EVEN);
+        outLat[latIndex] = round(convertY(lat, factor), LL_DECIMALS, LL_SCALE, RoundingMode.HALF_EVEN);
+        return band;
+    }
+
+    /**
+     * 单点编码, 结果写入outX[xIndex]和outY[yIndex]. 负纬度的规则不同, 纬度带缓存不会命中, 每次都重新查找
+     *
+     * @param band 上一个点的纬度带, 没有时传-1
+     * @return 当前点的纬度带
+     */
+    private static int bd09ToMercator(double lng, double lat, int band, double[] outX, int xIndex, double[] outY, int yIndex) {
+        if (!Double.isFinite(lng)) {
+            outX[xIndex] = Double.NaN;
+            outY[yIndex] = Double.NaN;
+            return band;
+        }
+        double x = loopLng(lng);
+        double y = clampLat(lat);
+        if (band < 0 || !(y >= LLBAND[band] && (band == 0 || y < LLBAND[band - 1]))) {
+            band = llBand(y);
+        }
+        double[] factor = LL2MC[band];
+        outX[xIndex] = round(convertX(x, factor), MC_DECIMALS, MC_SCALE, RoundingMode.HALF_UP);
+        outY[yIndex] = round(convertY(y, factor), MC_DECIMALS, MC_SCALE, RoundingMode.HALF_UP);
+        return band;
+    }
+
+    /**
+     * 查找墨卡托纬度所在的纬度带
+     *
+     * @return 纬度带下标, 找不到返回-1
+     */
+    private static int mcBand(double lat) {
         for (int i = 0; i < MCBAND.length; i++) {
             if (lat >= MCBAND[i]) {
-                factor = MC2LL[i];
-                break;
+                return i;
             }
         }
-        return convert(new Point(lng, lat), factor);
+        return -1;
     }
 
-    private static Point convert(Point fromPoint, double[] factor) {
-        if (fromPoint == null || factor == null) {
-            return null;
+    /**
+     * 查找经纬度所在的纬度带. 负纬度沿用百度JS API的规则, 从最后一个纬度带开始匹配
+     *
+     * @return 纬度带下标
+     */
+    private static int llBand(double lat) {
+        for (int i = 0; i < LLBAND.length; i++) {
+            if (lat >= LLBAND[i]) {
+                return i;
+            }
+        }
+        for (int i = LLBAND.length - 1; i >= 0; i--) {
+            if (lat <= -LLBAND[i]) {
+                return i;
+            }
+        }
+        // 只有NaN会走到这里
+        return LLBAND.length - 1;
+    }
+
+    /**
+     * 把经度规整到[-180, 180], 和逐次加减360的结果相同: 大于180的规整到(-180, 180], 小于-180的规整到[-180, 180).
+     * 用取余代替循环, 很大的经度也是常数时间. 浮点数取余没有舍入误差, 非有限值返回NaN
+     */
+    private static double loopLng(double lng) {
+        if (lng > 180) {
+            double r = lng % 360;
+            return r > 180 ? r - 360 : r;
         }
+        if (lng < -180) {
+            double r = lng % 360;
+            return r < -180 ? r + 360 : r;
+        }
+        return lng;
+    }
+
+    private static double clampLat(double lat) {
+        return Math.min(Math.max(lat, -74), 74);
+    }
+
+    /**
+     * x方向的转换: factor[0] + factor[1] * |x|, 符号和x保持一致
+     */
+    private static double convertX(double x, double[] factor) {
+        double result = factor[0] + factor[1] * Math.abs(x);
+        return x < 0 ? -result : result;
+    }
+
+    /**
+     * y方向的转换: 以|y| / factor[9]为自变量, factor[2]到factor[8]为系数的6次多项式, 符号和y保持一致
+     */
+    private static double convertY(double y, double[] factor) {
+        double t = Math.abs(y) / factor[9];
+        double result = factor[2] + t * (factor[3] + t * (factor[4] + t * (factor[5]
+                + t * (factor[6] + t * (factor[7] + t * factor[8])))));
+        return y < 0 ? -result : result;
+    }
 
-        double x = factor[0] + factor[1] * Math.abs(fromPoint.lng);
-
-        double temp = Math.abs(fromPoint.lat) / factor[9];
-        double y = factor[2] + factor[3] * temp +
-                factor[4] * temp * temp +
-                factor[5] * temp * temp * temp +
-                factor[6] * temp * temp * temp * temp +
-                factor[7] * temp * temp * temp * temp * temp +
-                factor[8] * temp * temp * temp * temp * temp * temp;
-        x *= fromPoint.lng < 0 ? -1 : 1;
-        y *= fromPoint.lat < 0 ? -1 : 1;
-        return new Point(Double.parseDouble(DECIMAL_FORMAT.format(x)), Double.parseDouble(DECIMAL_FORMAT.format(y)));
+    /**
+     * 保留指定位数的小数, 结果和DecimalFormat(HALF_EVEN)或JS的toFixed(HALF_UP)格式化后再解析完全一致, 但是不创建字符串.
+     * value * scale本身有舍入误差, 只有在它离两个整数的中点不到一个ulp, 无法确定进位方向时才用BigDecimal精确计算
+     */
+    private static double round(double value, int decimals, double scale, RoundingMode mode) {
+        double scaled = value * scale;
+        double floor = Math.floor(scaled);
+        double fraction = scaled - floor;
+        if (Math.abs(fraction - 0.5) <= Math.ulp(scaled)) {
+            return new BigDecimal(value).setScale(decimals, mode).doubleValue();
+        }
+        return (fraction < 0.5 ? floor : floor + 1) / scale;
     }
 }
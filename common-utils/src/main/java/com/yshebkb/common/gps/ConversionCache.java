@@ -0,0 +1,418 @@
+package com.yshebkb.common.gps;
+
+import com.yshebkb.common.gps.polygon.Point;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * 坐标转换结果的缓存, 适用于反复转换同一批坐标的场景, 例如车辆长时间停在少数几个地点
+ * <p>
+ * 输入坐标按quantum取整后作为键, 缓存的是取整后坐标(格子中心)的转换结果, 同一个格子内的输入得到相同的结果,
+ * 与访问顺序无关. quantum为{@link #EXACT}时以输入坐标的二进制值为键, 只有完全相同的输入才会命中,
+ * 结果与不使用缓存时逐位相同. 禁用缓存、输入不是有限值或者输入除以quantum后超出long的精确范围(2^62)时
+ * 直接调用转换函数, 结果也与不使用缓存时逐位相同.
+ * <p>
+ * 缓存是容量固定的组相联表: 每个键经过哈希后落在一个8路的桶中, 桶内开放寻址, 键和值都存放在基本类型数组中.
+ * 桶满时按CLOCK算法淘汰: 命中时设置访问位, 淘汰时从桶的指针处开始, 清除有访问位的槽位, 淘汰第一个没有访问位的槽位.
+ * 桶按编号分为若干条带, 每个条带一把{@link StampedLock}: 查找使用乐观读, 不写入任何共享状态(访问位除外),
+ * 只有放入和淘汰需要获取写锁, 不同条带的写入互不阻塞. 未命中时在锁外计算转换结果.
+ *
+ * @author whiteclaw
+ * created on 2026-10-18
+ */
+public class ConversionCache {
+
+    /**
+     * 精确匹配, 以输入坐标的二进制值为键
+     */
+    public static final double EXACT = 0;
+
+    /**
+     * 经纬度的默认取整单位, 1e-6度约0.1米
+     */
+    public static final double DEFAULT_QUANTUM = 1e-6;
+
+    /**
+     * 每个桶的槽位数
+     */
+    private static final int WAYS = 8;
+
+    private static final int MAX_STRIPES = 64;
+
+    /**
+     * 取整后的键的绝对值上限, 超过时{@link Math#round(double)}会饱和, 不相关的坐标会落到同一个键上
+     */
+    private static final double MAX_KEY = 0x1p62;
+
+    private final Conversion conversion;
+    private final double quantum;
+    private final int capacity;
+    private final int bucketMask;
+    private final int stripeMask;
+    private final StampedLock[] locks;
+
+    /**
+     * 每个槽位的键、转换结果、是否使用和访问位
+     */
+    private final long[] keyX;
+    private final long[] keyY;
+    private final double[] valueX;
+    private final double[] valueY;
+    private final boolean[] used;
+    private final boolean[] referenced;
+
+    /**
+     * 每个桶的CLOCK指针
+     */
+    private final byte[] hands;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private volatile boolean enabled = true;
+
+    /**
+     * @param conversion 转换函数
+     * @param capacity   最多缓存的坐标数, 向上取整为8的倍数和2的幂
+     */
+    public ConversionCache(Conversion conversion, int capacity) {
+        this(conversion, capacity, DEFAULT_QUANTUM);
+    }
+
+    /**
+     * @param conversion 转换函数
+     * @param capacity   最多缓存的坐标数, 向上取整为8的倍数和2的幂
+     * @param quantum    输入坐标的取整单位, 与输入坐标的单位相同, 为{@link #EXACT}时精确匹配
+     */
+    public ConversionCache(Conversion conversion, int capacity, double quantum) {
+        if (conversion == null) {
+            throw new IllegalArgumentException("conversion不能为null");
+        }
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("capacity必须在1到2^30之间");
+        }
+        if (!(quantum >= 0) || Double.isInfinite(quantum)) {
+            throw new IllegalArgumentException("quantum不能为负数");
+        }
+        int buckets = (capacity + WAYS - 1) / WAYS;
+        if (Integer.bitCount(buckets) != 1) {
+            buckets = Integer.highestOneBit(buckets) << 1;
+        }
+        int stripes = Math.min(MAX_STRIPES, buckets);
+        this.conversion = conversion;
+        this.quantum = quantum;
+        this.capacity = buckets * WAYS;
+        this.bucketMask = buckets - 1;
+        this.stripeMask = stripes - 1;
+        this.locks = new StampedLock[stripes];
+        for (int i = 0; i < stripes; i++) {
+            locks[i] = new StampedLock();
+        }
+        keyX = new long[this.capacity];
+        keyY = new long[this.capacity];
+        valueX = new double[this.capacity];
+        valueY = new double[this.capacity];
+        used = new boolean[this.capacity];
+        referenced = new boolean[this.capacity];
+        hands = new byte[buckets];
+    }
+
+    /**
+     * 转换一个坐标
+     *
+     * @param x 经度或墨卡托x
+     * @param y 纬度或墨卡托y
+     * @return 转换结果, 转换失败(结果为NaN)时返回null
+     */
+    public Point convert(double x, double y) {
+        double[] out = new double[2];
+        convert(x, y, out);
+        return Double.isNaN(out[0]) ? null : new Point(out[0], out[1]);
+    }
+
+    /**
+     * 转换一个坐标, 结果写入out[0]和out[1]
+     *
+     * @param x   经度或墨卡托x
+     * @param y   纬度或墨卡托y
+     * @param out 输出数组, 长度至少为2
+     */
+    public void convert(double x, double y, double[] out) {
+        if (!enabled || !isFinite(x) || !isFinite(y)) {
+            conversion.convert(x, y, out);
+            return;
+        }
+        long kx;
+        long ky;
+        double cx;
+        double cy;
+        if (quantum == EXACT) {
+            kx = Double.doubleToLongBits(x);
+            ky = Double.doubleToLongBits(y);
+            cx = x;
+            cy = y;
+        } else {
+            double qx = x / quantum;
+            double qy = y / quantum;
+            if (!(Math.abs(qx) < MAX_KEY && Math.abs(qy) < MAX_KEY)) {
+                // quantum相对输入太小, 无法取整为键
+                conversion.convert(x, y, out);
+                return;
+            }
+            kx = Math.round(qx);
+            ky = Math.round(qy);
+            cx = kx * quantum;
+            cy = ky * quantum;
+        }
+        int bucket = hash(kx, ky) & bucketMask;
+        StampedLock lock = locks[bucket & stripeMask];
+        int start = bucket * WAYS;
+        long stamp = lock.tryOptimisticRead();
+        int slot = find(start, kx, ky);
+        double vx = slot < 0 ? 0 : valueX[slot];
+        double vy = slot < 0 ? 0 : valueY[slot];
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                slot = find(start, kx, ky);
+                vx = slot < 0 ? 0 : valueX[slot];
+                vy = slot < 0 ? 0 : valueY[slot];
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        if (slot >= 0) {
+            // 访问位只影响淘汰顺序, 不需要加锁
+            referenced[slot] = true;
+            out[0] = vx;
+            out[1] = vy;
+            hits.increment();
+            return;
+        }
+        misses.increment();
+        conversion.convert(cx, cy, out);
+        stamp = lock.writeLock();
+        try {
+            insert(start, kx, ky, out[0], out[1]);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * 批量转换
+     *
+     * @param xs   经度或墨卡托x数组
+     * @param ys   纬度或墨卡托y数组
+     * @param outX 结果x输出数组, 可以和xs是同一个数组
+     * @param outY 结果y输出数组, 可以和ys是同一个数组
+     */
+    public void convert(double[] xs, double[] ys, double[] outX, double[] outY) {
+        if (xs.length != ys.length || outX.length < xs.length || outY.length < xs.length) {
+            throw new IllegalArgumentException("坐标数组长度不一致");
+        }
+        double[] out = new double[2];
+        for (int i = 0; i < xs.length; i++) {
+            convert(xs[i], ys[i], out);
+            outX[i] = out[0];
+            outY[i] = out[1];
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 启用或禁用缓存, 禁用时直接调用转换函数, 不清空已缓存的结果
+     *
+     * @param enabled 是否启用
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public double getQuantum() {
+        return quantum;
+    }
+
+    /**
+     * 实际容量, 不小于构造时指定的容量
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * 已缓存的坐标数, 需要遍历所有条带
+     */
+    public int size() {
+        int size = 0;
+        for (int stripe = 0; stripe < locks.length; stripe++) {
+            long stamp = locks[stripe].readLock();
+            try {
+                for (int bucket = stripe; bucket <= bucketMask; bucket += locks.length) {
+                    for (int i = bucket * WAYS; i < (bucket + 1) * WAYS; i++) {
+                        if (used[i]) {
+                            size++;
+                        }
+                    }
+                }
+            } finally {
+                locks[stripe].unlockRead(stamp);
+            }
+        }
+        return size;
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * 命中率, 没有访问时为0
+     */
+    public double getHitRatio() {
+        long hit = hits.sum();
+        long total = hit + misses.sum();
+        return total == 0 ? 0 : (double) hit / total;
+    }
+
+    public void resetCounters() {
+        hits.reset();
+        misses.reset();
+        evictions.reset();
+    }
+
+    /**
+     * 清空缓存, 不重置计数
+     */
+    public void clear() {
+        for (int stripe = 0; stripe < locks.length; stripe++) {
+            long stamp = locks[stripe].writeLock();
+            try {
+                for (int bucket = stripe; bucket <= bucketMask; bucket += locks.length) {
+                    for (int i = bucket * WAYS; i < (bucket + 1) * WAYS; i++) {
+                        used[i] = false;
+                        referenced[i] = false;
+                    }
+                    hands[bucket] = 0;
+                }
+            } finally {
+                locks[stripe].unlockWrite(stamp);
+            }
+        }
+    }
+
+    private int find(int start, long kx, long ky) {
+        for (int i = start; i < start + WAYS; i++) {
+            if (used[i] && keyX[i] == kx && keyY[i] == ky) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 在桶中放入一个键, 已存在时不做任何事, 桶满时按CLOCK淘汰. 调用方持有条带的锁
+     */
+    private void insert(int start, long kx, long ky, double vx, double vy) {
+        int free = -1;
+        for (int i = start; i < start + WAYS; i++) {
+            if (!used[i]) {
+                if (free < 0) {
+                    free = i;
+                }
+            } else if (keyX[i] == kx && keyY[i] == ky) {
+                // 其他线程已经放入
+                return;
+            }
+        }
+        if (free < 0) {
+            int bucket = start / WAYS;
+            int hand = hands[bucket];
+            while (referenced[start + hand]) {
+                referenced[start + hand] = false;
+                hand = (hand + 1) & (WAYS - 1);
+            }
+            free = start + hand;
+            hands[bucket] = (byte) ((hand + 1) & (WAYS - 1));
+            evictions.increment();
+        }
+        keyX[free] = kx;
+        keyY[free] = ky;
+        valueX[free] = vx;
+        valueY[free] = vy;
+        used[free] = true;
+        referenced[free] = false;
+    }
+
+    private static int hash(long x, long y) {
+        long h = (x * 0x9E3779B97F4A7C15L + y) * 0xC2B2AE3D27D4EB4FL;
+        return (int) (h ^ h >>> 31);
+    }
+
+    private static boolean isFinite(double value) {
+        return value - value == 0;
+    }
+
+    /**
+     * 坐标转换函数, 失败时结果为NaN
+     */
+    public interface Conversion {
+        /**
+         * WGS84经纬度转BD09经纬度, 即{@link CoordinateTransformUtil#wgs84ToBD09(double, double)}
+         */
+        Conversion WGS84_TO_BD09 = (x, y, out) -> {
+            double[] result = CoordinateTransformUtil.wgs84ToBD09(y, x);
+            out[0] = result[1];
+            out[1] = result[0];
+        };
+
+        /**
+         * WGS84经纬度转GCJ02经纬度, 即{@link CoordinateTransformUtil#wgs84ToGCJ02(double, double)}
+         */
+        Conversion WGS84_TO_GCJ02 = (x, y, out) -> {
+            double[] result = CoordinateTransformUtil.wgs84ToGCJ02(y, x);
+            out[0] = result[1];
+            out[1] = result[0];
+        };
+
+        /**
+         * GCJ02经纬度转BD09经纬度, 即{@link CoordinateTransformUtil#gcj02ToBD09(double, double)}
+         */
+        Conversion GCJ02_TO_BD09 = (x, y, out) -> {
+            double[] result = CoordinateTransformUtil.gcj02ToBD09(y, x);
+            out[0] = result[1];
+            out[1] = result[0];
+        };
+
+        /**
+         * 百度墨卡托转BD09经纬度, 即{@link BaiduMapTrans#trans(double, double)}. 墨卡托坐标以米为单位,
+         * quantum应相应地取0.01等. 这个转换本身只需要几十纳秒, 与命中缓存的耗时相当, 只有转换后还要取整等场景才值得缓存
+         */
+        Conversion BAIDU_MERCATOR_TO_BD09 = (x, y, out) -> {
+            Point result = BaiduMapTrans.trans(x, y);
+            out[0] = result == null ? Double.NaN : result.getLng();
+            out[1] = result == null ? Double.NaN : result.getLat();
+        };
+
+        /**
+         * 转换一个坐标
+         *
+         * @param x   经度或墨卡托x
+         * @param y   纬度或墨卡托y
+         * @param out 结果, out[0]为经度或x, out[1]为纬度或y
+         */
+        void convert(double x, double y, double[] out);
+    }
+}
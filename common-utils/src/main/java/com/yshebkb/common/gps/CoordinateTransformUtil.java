@@ -1,5 +1,7 @@
 package com.yshebkb.common.gps;
 
+import com.yshebkb.common.gps.polygon.PointArray;
+
 /**
  * 百度坐标（BD09）、国测局坐标（火星坐标，GCJ02）、和WGS84坐标系之间的转换的工具
  *
@@ -18,6 +20,36 @@ public class CoordinateTransformUtil {
      * 扁率
      */
     private static final double EE = 0.00669342162296594323;
+    /**
+     * 国内坐标范围, 超出范围的坐标不做偏移
+     */
+    static final double CHINA_MIN_LON = 72.004;
+    static final double CHINA_MAX_LON = 137.8347;
+    static final double CHINA_MIN_LAT = 0.8293;
+    static final double CHINA_MAX_LAT = 55.8271;
+    /**
+     * 精确逆转换默认的收敛阈值(度), 约1厘米
+     */
+    public static final double DEFAULT_TOLERANCE = 1e-7;
+    /**
+     * 精确逆转换默认的最大迭代次数
+     */
+    public static final int DEFAULT_MAX_ITERATIONS = 10;
+
+    /**
+     * 逆转换(GCJ02转WGS84, BD09转GCJ02)的精度
+     */
+    public enum Precision {
+        /**
+         * 一步近似, 用输入点处的偏移量代替真实偏移量, GCJ02转WGS84的误差可达1.5m, BD09转GCJ02约0.2m
+         */
+        FAST,
+        /**
+         * 在一步近似的基础上不动点迭代, 直到正向转换的残差小于{@link #DEFAULT_TOLERANCE}.
+         * GCJ02转WGS84平均迭代2次, 误差小于0.1mm, 耗时约为FAST的3倍(见GcjInverseBenchmark)
+         */
+        PRECISE
+    }
 
     /**
      * 百度坐标系(BD-09)转WGS坐标
@@ -27,8 +59,10 @@ public class CoordinateTransformUtil {
      * @return WGS84坐标数组
      */
     public static double[] bd09ToWGS84(double lat, double lon) {
-        double[] gcj = bd09ToGCJ02(lat, lon);
-        return gcj02ToWGS84(gcj[0], gcj[1]);
+        double[] result = new double[2];
+        bd09ToGCJ02(lat, lon, result, 0, result, 1);
+        gcj02ToWGS84(result[0], result[1], result, 0, result, 1);
+        return result;
     }
 
     /**
@@ -39,8 +73,10 @@ public class CoordinateTransformUtil {
      * @return 百度坐标数组
      */
     public static double[] wgs84ToBD09(double lat, double lon) {
-        double[] gcj = wgs84ToGCJ02(lat, lon);
-        return gcj02ToBD09(gcj[0], gcj[1]);
+        double[] result = new double[2];
+        wgs84ToGCJ02(lat, lon, result, 0, result, 1);
+        gcj02ToBD09(result[0], result[1], result, 0, result, 1);
+        return result;
     }
 
     /**
@@ -52,11 +88,9 @@ public class CoordinateTransformUtil {
      * @return 百度坐标数组
      */
     public static double[] gcj02ToBD09(double lat, double lon) {
-        double z = Math.sqrt(lon * lon + lat * lat) + 0.00002 * Math.sin(lat * X_PI);
-        double theta = Math.atan2(lat, lon) + 0.000003 * Math.cos(lon * X_PI);
-        double bdLon = z * Math.cos(theta) + 0.0065;
-        double bdLat = z * Math.sin(theta) + 0.006;
-        return new double[]{bdLat, bdLon};
+        double[] result = new double[2];
+        gcj02ToBD09(lat, lon, result, 0, result, 1);
+        return result;
     }
 
     /**
@@ -68,13 +102,9 @@ public class CoordinateTransformUtil {
      * @return 火星坐标数组
      */
     public static double[] bd09ToGCJ02(double lat, double lon) {
-        double x = lon - 0.0065;
-        double y = lat - 0.006;
-        double z = Math.sqrt(x * x + y * y) - 0.00002 * Math.sin(y * X_PI);
-        double theta = Math.atan2(y, x) - 0.000003 * Math.cos(x * X_PI);
-        double googleLon = z * Math.cos(theta);
-        double googleLat = z * Math.sin(theta);
-        return new double[]{googleLat, googleLon};
+        double[] result = new double[2];
+        bd09ToGCJ02(lat, lon, result, 0, result, 1);
+        return result;
     }
 
     /**
@@ -85,8 +115,498 @@ public class CoordinateTransformUtil {
      * @return 火星坐标数组
      */
     public static double[] wgs84ToGCJ02(double lat, double lon) {
+        double[] result = new double[2];
+        wgs84ToGCJ02(lat, lon, result, 0, result, 1);
+        return result;
+    }
+
+    /**
+     * GCJ02(火星坐标系)转GPS84
+     *
+     * @param lon 火星坐标系的经度
+     * @param lat 火星坐标系纬度
+     * @return WGS84坐标数组
+     */
+    public static double[] gcj02ToWGS84(double lat, double lon) {
+        double[] result = new double[2];
+        gcj02ToWGS84(lat, lon, result, 0, result, 1);
+        return result;
+    }
+
+    /**
+     * 百度坐标系(BD-09)转WGS坐标
+     *
+     * @param lat       百度坐标纬度
+     * @param lon       百度坐标经度
+     * @param precision 逆转换精度
+     * @return WGS84坐标数组
+     */
+    public static double[] bd09ToWGS84(double lat, double lon, Precision precision) {
+        if (checkPrecision(precision) == Precision.FAST) {
+            return bd09ToWGS84(lat, lon);
+        }
+        double[] result = new double[2];
+        bd09ToGCJ02(lat, lon, DEFAULT_TOLERANCE, DEFAULT_MAX_ITERATIONS, result, 0, result, 1);
+        gcj02ToWGS84(result[0], result[1], DEFAULT_TOLERANCE, DEFAULT_MAX_ITERATIONS, result, 0, result, 1);
+        return result;
+    }
+
+    /**
+     * 百度坐标系(BD-09)转火星坐标系(GCJ-02)
+     *
+     * @param lat       百度坐标纬度
+     * @param lon       百度坐标经度
+     * @param precision 逆转换精度
+     * @return 火星坐标数组
+     */
+    public static double[] bd09ToGCJ02(double lat, double lon, Precision precision) {
+        if (checkPrecision(precision) == Precision.FAST) {
+            return bd09ToGCJ02(lat, lon);
+        }
+        return bd09ToGCJ02(lat, lon, DEFAULT_TOLERANCE, DEFAULT_MAX_ITERATIONS);
+    }
+
+    /**
+     * 百度坐标系(BD-09)转火星坐标系(GCJ-02), 迭代到gcj02ToBD09(结果)和输入的差小于tolerance
+     *
+     * @param lat           百度坐标纬度
+     * @param lon           百度坐标经度
+     * @param tolerance     收敛阈值(度)
+     * @param maxIterations 最大迭代次数, 0等同于{@link Precision#FAST}
+     * @return 火星坐标数组
+     */
+    public static double[] bd09ToGCJ02(double lat, double lon, double tolerance, int maxIterations) {
+        checkIteration(tolerance, maxIterations);
+        double[] result = new double[2];
+        bd09ToGCJ02(lat, lon, tolerance, maxIterations, result, 0, result, 1);
+        return result;
+    }
+
+    /**
+     * GCJ02(火星坐标系)转GPS84
+     *
+     * @param lat       火星坐标系纬度
+     * @param lon       火星坐标系的经度
+     * @param precision 逆转换精度
+     * @return WGS84坐标数组
+     */
+    public static double[] gcj02ToWGS84(double lat, double lon, Precision precision) {
+        if (checkPrecision(precision) == Precision.FAST) {
+            return gcj02ToWGS84(lat, lon);
+        }
+        return gcj02ToWGS84(lat, lon, DEFAULT_TOLERANCE, DEFAULT_MAX_ITERATIONS);
+    }
+
+    /**
+     * GCJ02(火星坐标系)转GPS84, 迭代到wgs84ToGCJ02(结果)和输入的差小于tolerance
+     *
+     * @param lat           火星坐标系纬度
+     * @param lon           火星坐标系的经度
+     * @param tolerance     收敛阈值(度)
+     * @param maxIterations 最大迭代次数, 0等同于{@link Precision#FAST}
+     * @return WGS84坐标数组
+     */
+    public static double[] gcj02ToWGS84(double lat, double lon, double tolerance, int maxIterations) {
+        checkIteration(tolerance, maxIterations);
+        double[] result = new double[2];
+        gcj02ToWGS84(lat, lon, tolerance, maxIterations, result, 0, result, 1);
+        return result;
+    }
+
+    /**
+     * 批量百度坐标系(BD-09)转WGS坐标, 结果写入调用方提供的数组, 转换过程中不创建任何对象
+     *
+     * @param lat    百度坐标纬度数组
+     * @param lon    百度坐标经度数组
+     * @param outLat WGS84纬度输出数组, 可以和lat是同一个数组
+     * @param outLon WGS84经度输出数组, 可以和lon是同一个数组
+     */
+    public static void bd09ToWGS84(double[] lat, double[] lon, double[] outLat, double[] outLon) {
+        bd09ToWGS84(lat, lon, outLat, outLon, 0, checkLength(lat, lon, outLat, outLon));
+    }
+
+    /**
+     * 批量百度坐标系(BD-09)转WGS坐标, 只转换[offset, offset + length)区间
+     */
+    public static void bd09ToWGS84(double[] lat, double[] lon, double[] outLat, double[] outLon, int offset, int length) {
+        checkRange(lat, lon, outLat, outLon, offset, length);
+        for (int i = offset, end = offset + length; i < end; i++) {
+            bd09ToGCJ02(lat[i], lon[i], outLat, i, outLon, i);
+            gcj02ToWGS84(outLat[i], outLon[i], outLat, i, outLon, i);
+        }
+    }
+
+    /**
+     * 批量百度坐标系(BD-09)转WGS坐标, 原地覆盖输入数组
+     */
+    public static void bd09ToWGS84(double[] lat, double[] lon) {
+        bd09ToWGS84(lat, lon, lat, lon);
+    }
+
+    /**
+     * 批量WGS坐标转百度坐标系(BD-09), 结果写入调用方提供的数组, 转换过程中不创建任何对象
+     *
+     * @param lat    WGS84纬度数组
+     * @param lon    WGS84经度数组
+     * @param outLat 百度坐标纬度输出数组, 可以和lat是同一个数组
+     * @param outLon 百度坐标经度输出数组, 可以和lon是同一个数组
+     */
+    public static void wgs84ToBD09(double[] lat, double[] lon, double[] outLat, double[] outLon) {
+        wgs84ToBD09(lat, lon, outLat, outLon, 0, checkLength(lat, lon, outLat, outLon));
+    }
+
+    /**
+     * 批量WGS坐标转百度坐标系(BD-09), 只转换[offset, offset + length)区间
+     */
+    public static void wgs84ToBD09(double[] lat, double[] lon, double[] outLat, double[] outLon, int offset, int length) {
+        checkRange(lat, lon, outLat, outLon, offset, length);
+        for (int i = offset, end = offset + length; i < end; i++) {
+            wgs84ToGCJ02(lat[i], lon[i], outLat, i, outLon, i);
+            gcj02ToBD09(outLat[i], outLon[i], outLat, i, outLon, i);
+        }
+    }
+
+    /**
+     * 批量WGS坐标转百度坐标系(BD-09), 原地覆盖输入数组
+     */
+    public static void wgs84ToBD09(double[] lat, double[] lon) {
+        wgs84ToBD09(lat, lon, lat, lon);
+    }
+
+    /**
+     * 批量火星坐标系(GCJ-02)转百度坐标系(BD-09), 结果写入调用方提供的数组, 转换过程中不创建任何对象
+     *
+     * @param lat    火星坐标纬度数组
+     * @param lon    火星坐标经度数组
+     * @param outLat 百度坐标纬度输出数组, 可以和lat是同一个数组
+     * @param outLon 百度坐标经度输出数组, 可以和lon是同一个数组
+     */
+    public static void gcj02ToBD09(double[] lat, double[] lon, double[] outLat, double[] outLon) {
+        gcj02ToBD09(lat, lon, outLat, outLon, 0, checkLength(lat, lon, outLat, outLon));
+    }
+
+    /**
+     * 批量火星坐标系(GCJ-02)转百度坐标系(BD-09), 只转换[offset, offset + length)区间
+     */
+    public static void gcj02ToBD09(double[] lat, double[] lon, double[] outLat, double[] outLon, int offset, int length) {
+        checkRange(lat, lon, outLat, outLon, offset, length);
+        for (int i = offset, end = offset + length; i < end; i++) {
+            gcj02ToBD09(lat[i], lon[i], outLat, i, outLon, i);
+        }
+    }
+
+    /**
+     * 批量火星坐标系(GCJ-02)转百度坐标系(BD-09), 原地覆盖输入数组
+     */
+    public static void gcj02ToBD09(double[] lat, double[] lon) {
+        gcj02ToBD09(lat, lon, lat, lon);
+    }
+
+    /**
+     * 批量百度坐标系(BD-09)转火星坐标系(GCJ-02), 结果写入调用方提供的数组, 转换过程中不创建任何对象
+     *
+     * @param lat    百度坐标纬度数组
+     * @param lon    百度坐标经度数组
+     * @param outLat 火星坐标纬度输出数组, 可以和lat是同一个数组
+     * @param outLon 火星坐标经度输出数组, 可以和lon是同一个数组
+     */
+    public static void bd09ToGCJ02(double[] lat, double[] lon, double[] outLat, double[] outLon) {
+        bd09ToGCJ02(lat, lon, outLat, outLon, 0, checkLength(lat, lon, outLat, outLon));
+    }
+
+    /**
+     * 批量百度坐标系(BD-09)转火星坐标系(GCJ-02), 只转换[offset, offset + length)区间
+     */
+    public static void bd09ToGCJ02(double[] lat, double[] lon, double[] outLat, double[] outLon, int offset, int length) {
+        checkRange(lat, lon, outLat, outLon, offset, length);
+        for (int i = offset, end = offset + length; i < end; i++) {
+            bd09ToGCJ02(lat[i], lon[i], outLat, i, outLon, i);
+        }
+    }
+
+    /**
+     * 批量百度坐标系(BD-09)转火星坐标系(GCJ-02), 原地覆盖输入数组
+     */
+    public static void bd09ToGCJ02(double[] lat, double[] lon) {
+        bd09ToGCJ02(lat, lon, lat, lon);
+    }
+
+    /**
+     * 批量WGS84转GCJ02(火星坐标系), 结果写入调用方提供的数组, 转换过程中不创建任何对象
+     *
+     * @param lat    WGS84纬度数组
+     * @param lon    WGS84经度数组
+     * @param outLat 火星坐标纬度输出数组, 可以和lat是同一个数组
+     * @param outLon 火星坐标经度输出数组, 可以和lon是同一个数组
+     */
+    public static void wgs84ToGCJ02(double[] lat, double[] lon, double[] outLat, double[] outLon) {
+        wgs84ToGCJ02(lat, lon, outLat, outLon, 0, checkLength(lat, lon, outLat, outLon));
+    }
+
+    /**
+     * 批量WGS84转GCJ02(火星坐标系), 只转换[offset, offset + length)区间
+     */
+    public static void wgs84ToGCJ02(double[] lat, double[] lon, double[] outLat, double[] outLon, int offset, int length) {
+        checkRange(lat, lon, outLat, outLon, offset, length);
+        for (int i = offset, end = offset + length; i < end; i++) {
+            wgs84ToGCJ02(lat[i], lon[i], outLat, i, outLon, i);
+        }
+    }
+
+    /**
+     * 批量WGS84转GCJ02(火星坐标系), 原地覆盖输入数组
+     */
+    public static void wgs84ToGCJ02(double[] lat, double[] lon) {
+        wgs84ToGCJ02(lat, lon, lat, lon);
+    }
+
+    /**
+     * 批量GCJ02(火星坐标系)转GPS84, 结果写入调用方提供的数组, 转换过程中不创建任何对象
+     *
+     * @param lat    火星坐标纬度数组
+     * @param lon    火星坐标经度数组
+     * @param outLat WGS84纬度输出数组, 可以和lat是同一个数组
+     * @param outLon WGS84经度输出数组, 可以和lon是同一个数组
+     */
+    public static void gcj02ToWGS84(double[] lat, double[] lon, double[] outLat, double[] outLon) {
+        gcj02ToWGS84(lat, lon, outLat, outLon, 0, checkLength(lat, lon, outLat, outLon));
+    }
+
+    /**
+     * 批量GCJ02(火星坐标系)转GPS84, 只转换[offset, offset + length)区间
+     */
+    public static void gcj02ToWGS84(double[] lat, double[] lon, double[] outLat, double[] outLon, int offset, int length) {
+        checkRange(lat, lon, outLat, outLon, offset, length);
+        for (int i = offset, end = offset + length; i < end; i++) {
+            gcj02ToWGS84(lat[i], lon[i], outLat, i, outLon, i);
+        }
+    }
+
+    /**
+     * 批量GCJ02(火星坐标系)转GPS84, 原地覆盖输入数组
+     */
+    public static void gcj02ToWGS84(double[] lat, double[] lon) {
+        gcj02ToWGS84(lat, lon, lat, lon);
+    }
+
+    /**
+     * 批量百度坐标系(BD-09)转WGS坐标, 可以指定逆转换精度, outLat/outLon可以和lat/lon是同一个数组
+     */
+    public static void bd09ToWGS84(double[] lat, double[] lon, double[] outLat, double[] outLon, Precision precision) {
+        bd09ToWGS84(lat, lon, outLat, outLon, 0, checkLength(lat, lon, outLat, outLon), precision);
+    }
+
+    /**
+     * 批量百度坐标系(BD-09)转WGS坐标, 可以指定逆转换精度, 只转换[offset, offset + length)区间
+     */
+    public static void bd09ToWGS84(double[] lat, double[] lon, double[] outLat, double[] outLon,
+                                   int offset, int length, Precision precision) {
+        if (checkPrecision(precision) == Precision.FAST) {
+            bd09ToWGS84(lat, lon, outLat, outLon, offset, length);
+            return;
+        }
+        bd09ToWGS84(lat, lon, outLat, outLon, offset, length, DEFAULT_TOLERANCE, DEFAULT_MAX_ITERATIONS);
+    }
+
+    /**
+     * 批量百度坐标系(BD-09)转WGS坐标, 两步逆转换都迭代到残差小于tolerance, 只转换[offset, offset + length)区间
+     *
+     * @param tolerance     收敛阈值(度)
+     * @param maxIterations 最大迭代次数, 0等同于{@link Precision#FAST}
+     */
+    public static void bd09ToWGS84(double[] lat, double[] lon, double[] outLat, double[] outLon,
+                                   int offset, int length, double tolerance, int maxIterations) {
+        checkIteration(tolerance, maxIterations);
+        checkRange(lat, lon, outLat, outLon, offset, length);
+        for (int i = offset, end = offset + length; i < end; i++) {
+            bd09ToGCJ02(lat[i], lon[i], tolerance, maxIterations, outLat, i, outLon, i);
+            gcj02ToWGS84(outLat[i], outLon[i], tolerance, maxIterations, outLat, i, outLon, i);
+        }
+    }
+
+    /**
+     * 批量百度坐标系(BD-09)转火星坐标系(GCJ-02), 可以指定逆转换精度, outLat/outLon可以和lat/lon是同一个数组
+     */
+    public static void bd09ToGCJ02(double[] lat, double[] lon, double[] outLat, double[] outLon, Precision precision) {
+        bd09ToGCJ02(lat, lon, outLat, outLon, 0, checkLength(lat, lon, outLat, outLon), precision);
+    }
+
+    /**
+     * 批量百度坐标系(BD-09)转火星坐标系(GCJ-02), 可以指定逆转换精度, 只转换[offset, offset + length)区间
+     */
+    public static void bd09ToGCJ02(double[] lat, double[] lon, double[] outLat, double[] outLon,
+                                   int offset, int length, Precision precision) {
+        if (checkPrecision(precision) == Precision.FAST) {
+            bd09ToGCJ02(lat, lon, outLat, outLon, offset, length);
+            return;
+        }
+        bd09ToGCJ02(lat, lon, outLat, outLon, offset, length, DEFAULT_TOLERANCE, DEFAULT_MAX_ITERATIONS);
+    }
+
+    /**
+     * 批量百度坐标系(BD-09)转火星坐标系(GCJ-02), 迭代到残差小于tolerance, 只转换[offset, offset + length)区间
+     *
+     * @param tolerance     收敛阈值(度)
+     * @param maxIterations 最大迭代次数, 0等同于{@link Precision#FAST}
+     */
+    public static void bd09ToGCJ02(double[] lat, double[] lon, double[] outLat, double[] outLon,
+                                   int offset, int length, double tolerance, int maxIterations) {
+        checkIteration(tolerance, maxIterations);
+        checkRange(lat, lon, outLat, outLon, offset, length);
+        for (int i = offset, end = offset + length; i < end; i++) {
+            bd09ToGCJ02(lat[i], lon[i], tolerance, maxIterations, outLat, i, outLon, i);
+        }
+    }
+
+    /**
+     * 批量GCJ02(火星坐标系)转GPS84, 可以指定逆转换精度, outLat/outLon可以和lat/lon是同一个数组
+     */
+    public static void gcj02ToWGS84(double[] lat, double[] lon, double[] outLat, double[] outLon, Precision precision) {
+        gcj02ToWGS84(lat, lon, outLat, outLon, 0, checkLength(lat, lon, outLat, outLon), precision);
+    }
+
+    /**
+     * 批量GCJ02(火星坐标系)转GPS84, 可以指定逆转换精度, 只转换[offset, offset + length)区间
+     */
+    public static void gcj02ToWGS84(double[] lat, double[] lon, double[] outLat, double[] outLon,
+                                    int offset, int length, Precision precision) {
+        if (checkPrecision(precision) == Precision.FAST) {
+            gcj02ToWGS84(lat, lon, outLat, outLon, offset, length);
+            return;
+        }
+        gcj02ToWGS84(lat, lon, outLat, outLon, offset, length, DEFAULT_TOLERANCE, DEFAULT_MAX_ITERATIONS);
+    }
+
+    /**
+     * 批量GCJ02(火星坐标系)转GPS84, 迭代到残差小于tolerance, 只转换[offset, offset + length)区间
+     *
+     * @param tolerance     收敛阈值(度)
+     * @param maxIterations 最大迭代次数, 0等同于{@link Precision#FAST}
+     */
+    public static void gcj02ToWGS84(double[] lat, double[] lon, double[] outLat, double[] outLon,
+                                    int offset, int length, double tolerance, int maxIterations) {
+        checkIteration(tolerance, maxIterations);
+        checkRange(lat, lon, outLat, outLon, offset, length);
+        for (int i = offset, end = offset + length; i < end; i++) {
+            gcj02ToWGS84(lat[i], lon[i], tolerance, maxIterations, outLat, i, outLon, i);
+        }
+    }
+
+    /**
+     * 百度坐标系(BD-09)转WGS坐标, 原地覆盖点序列中的坐标
+     *
+     * @param points 点序列
+     */
+    public static void bd09ToWGS84(PointArray points) {
+        double[] result = new double[2];
+        for (int i = 0, size = points.size(); i < size; i++) {
+            bd09ToGCJ02(points.getLat(i), points.getLng(i), result, 0, result, 1);
+            gcj02ToWGS84(result[0], result[1], result, 0, result, 1);
+            points.set(i, result[1], result[0]);
+        }
+    }
+
+    /**
+     * WGS坐标转百度坐标系(BD-09), 原地覆盖点序列中的坐标
+     *
+     * @param points 点序列
+     */
+    public static void wgs84ToBD09(PointArray points) {
+        double[] result = new double[2];
+        for (int i = 0, size = points.size(); i < size; i++) {
+            wgs84ToGCJ02(points.getLat(i), points.getLng(i), result, 0, result, 1);
+            gcj02ToBD09(result[0], result[1], result, 0, result, 1);
+            points.set(i, result[1], result[0]);
+        }
+    }
+
+    /**
+     * 火星坐标系(GCJ-02)转百度坐标系(BD-09), 原地覆盖点序列中的坐标
+     *
+     * @param points 点序列
+     */
+    public static void gcj02ToBD09(PointArray points) {
+        double[] result = new double[2];
+        for (int i = 0, size = points.size(); i < size; i++) {
+            gcj02ToBD09(points.getLat(i), points.getLng(i), result, 0, result, 1);
+            points.set(i, result[1], result[0]);
+        }
+    }
+
+    /**
+     * 百度坐标系(BD-09)转火星坐标系(GCJ-02), 原地覆盖点序列中的坐标
+     *
+     * @param points 点序列
+     */
+    public static void bd09ToGCJ02(PointArray points) {
+        double[] result = new double[2];
+        for (int i = 0, size = points.size(); i < size; i++) {
+            bd09ToGCJ02(points.getLat(i), points.getLng(i), result, 0, result, 1);
+            points.set(i, result[1], result[0]);
+        }
+    }
+
+    /**
+     * WGS84转GCJ02(火星坐标系), 原地覆盖点序列中的坐标
+     *
+     * @param points 点序列
+     */
+    public static void wgs84ToGCJ02(PointArray points) {
+        double[] result = new double[2];
+        for (int i = 0, size = points.size(); i < size; i++) {
+            wgs84ToGCJ02(points.getLat(i), points.getLng(i), result, 0, result, 1);
+            points.set(i, result[1], result[0]);
+        }
+    }
+
+    /**
+     * GCJ02(火星坐标系)转GPS84, 原地覆盖点序列中的坐标
+     *
+     * @param points 点序列
+     */
+    public static void gcj02ToWGS84(PointArray points) {
+        double[] result = new double[2];
+        for (int i = 0, size = points.size(); i < size; i++) {
+            gcj02ToWGS84(points.getLat(i), points.getLng(i), result, 0, result, 1);
+            points.set(i, result[1], result[0]);
+        }
+    }
+
+    /**
+     * 火星坐标系(GCJ-02)转百度坐标系(BD-09)的计算核心, 单点和批量转换共用, 保证结果完全一致.
+     * 结果分别写入outLat[latIndex]和outLon[lonIndex], 输入先读入局部变量, 所以允许原地覆盖
+     */
+    private static void gcj02ToBD09(double lat, double lon, double[] outLat, int latIndex, double[] outLon, int lonIndex) {
+        double z = Math.sqrt(lon * lon + lat * lat) + 0.00002 * Math.sin(lat * X_PI);
+        double theta = Math.atan2(lat, lon) + 0.000003 * Math.cos(lon * X_PI);
+        double bdLon = z * Math.cos(theta) + 0.0065;
+        double bdLat = z * Math.sin(theta) + 0.006;
+        outLat[latIndex] = bdLat;
+        outLon[lonIndex] = bdLon;
+    }
+
+    /**
+     * 百度坐标系(BD-09)转火星坐标系(GCJ-02)的计算核心
+     */
+    private static void bd09ToGCJ02(double lat, double lon, double[] outLat, int latIndex, double[] outLon, int lonIndex) {
+        double x = lon - 0.0065;
+        double y = lat - 0.006;
+        double z = Math.sqrt(x * x + y * y) - 0.00002 * Math.sin(y * X_PI);
+        double theta = Math.atan2(y, x) - 0.000003 * Math.cos(x * X_PI);
+        double googleLon = z * Math.cos(theta);
+        double googleLat = z * Math.sin(theta);
+        outLat[latIndex] = googleLat;
+        outLon[lonIndex] = googleLon;
+    }
+
+    /**
+     * WGS84转GCJ02(火星坐标系)的计算核心
+     */
+    private static void wgs84ToGCJ02(double lat, double lon, double[] outLat, int latIndex, double[] outLon, int lonIndex) {
         if (outOfChina(lat, lon)) {
-            return new double[]{lat, lon};
+            outLat[latIndex] = lat;
+            outLon[lonIndex] = lon;
+            return;
         }
         double dLat = transformLat(lon - 105.0, lat - 35.0);
         double dLon = transformLon(lon - 105.0, lat - 35.0);
@@ -96,21 +616,18 @@ public class CoordinateTransformUtil {
         double sqrtmagic = Math.sqrt(magic);
         dLat = (dLat * 180.0) / ((A * (1 - EE)) / (magic * sqrtmagic) * Math.PI);
         dLon = (dLon * 180.0) / (A / sqrtmagic * Math.cos(radlat) * Math.PI);
-        double mglat = lat + dLat;
-        double mgLon = lon + dLon;
-        return new double[]{mglat, mgLon};
+        outLat[latIndex] = lat + dLat;
+        outLon[lonIndex] = lon + dLon;
     }
 
     /**
-     * GCJ02(火星坐标系)转GPS84
-     *
-     * @param lon 火星坐标系的经度
-     * @param lat 火星坐标系纬度
-     * @return WGS84坐标数组
+     * GCJ02(火星坐标系)转GPS84的计算核心
      */
-    public static double[] gcj02ToWGS84(double lat, double lon) {
+    private static void gcj02ToWGS84(double lat, double lon, double[] outLat, int latIndex, double[] outLon, int lonIndex) {
         if (outOfChina(lat, lon)) {
-            return new double[]{lat, lon};
+            outLat[latIndex] = lat;
+            outLon[lonIndex] = lon;
+            return;
         }
         double dLat = transformLat(lon - 105.0, lat - 35.0);
         double dLon = transformLon(lon - 105.0, lat - 35.0);
@@ -122,7 +639,105 @@ public class CoordinateTransformUtil {
         dLon = (dLon * 180.0) / (A / sqrtmagic * Math.cos(radlat) * Math.PI);
         double mglat = lat + dLat;
         double mgLon = lon + dLon;
-        return new double[]{lat * 2 - mglat, lon * 2 - mgLon};
+        outLat[latIndex] = lat * 2 - mglat;
+        outLon[lonIndex] = lon * 2 - mgLon;
+    }
+
+    /**
+     * 迭代求解BD09转GCJ02: 以一步近似为初值, 每次用正向转换的残差修正结果
+     *
+     * @return 实际迭代次数
+     */
+    static int bd09ToGCJ02(double lat, double lon, double tolerance, int maxIterations,
+                           double[] outLat, int latIndex, double[] outLon, int lonIndex) {
+        bd09ToGCJ02(lat, lon, outLat, latIndex, outLon, lonIndex);
+        int iterations = 0;
+        while (iterations < maxIterations) {
+            iterations++;
+            double gcjLat = outLat[latIndex];
+            double gcjLon = outLon[lonIndex];
+            gcj02ToBD09(gcjLat, gcjLon, outLat, latIndex, outLon, lonIndex);
+            double dLat = outLat[latIndex] - lat;
+            double dLon = outLon[lonIndex] - lon;
+            outLat[latIndex] = gcjLat - dLat;
+            outLon[lonIndex] = gcjLon - dLon;
+            if (Math.abs(dLat) < tolerance && Math.abs(dLon) < tolerance) {
+                break;
+            }
+        }
+        return iterations;
+    }
+
+    /**
+     * 迭代求解GCJ02转WGS84: 以一步近似为初值, 每次用正向转换的残差修正结果
+     *
+     * @return 实际迭代次数
+     */
+    static int gcj02ToWGS84(double lat, double lon, double tolerance, int maxIterations,
+                            double[] outLat, int latIndex, double[] outLon, int lonIndex) {
+        gcj02ToWGS84(lat, lon, outLat, latIndex, outLon, lonIndex);
+        if (outOfChina(lat, lon)) {
+            return 0;
+        }
+        int iterations = 0;
+        while (iterations < maxIterations) {
+            iterations++;
+            double wgsLat = outLat[latIndex];
+            double wgsLon = outLon[lonIndex];
+            wgs84ToGCJ02(wgsLat, wgsLon, outLat, latIndex, outLon, lonIndex);
+            double dLat = outLat[latIndex] - lat;
+            double dLon = outLon[lonIndex] - lon;
+            outLat[latIndex] = wgsLat - dLat;
+            outLon[lonIndex] = wgsLon - dLon;
+            if (Math.abs(dLat) < tolerance && Math.abs(dLon) < tolerance) {
+                break;
+            }
+        }
+        return iterations;
+    }
+
+    /**
+     * 计算指定坐标处GCJ02相对WGS84的偏移量(度), 不判断是否在国内, 供偏移网格在边界外插值使用
+     *
+     * @param out out[0]为纬度偏移, out[1]为经度偏移
+     */
+    static void gcj02Offset(double lat, double lon, double[] out) {
+        double dLat = transformLat(lon - 105.0, lat - 35.0);
+        double dLon = transformLon(lon - 105.0, lat - 35.0);
+        double radlat = lat / 180.0 * Math.PI;
+        double magic = Math.sin(radlat);
+        magic = 1 - EE * magic * magic;
+        double sqrtmagic = Math.sqrt(magic);
+        out[0] = (dLat * 180.0) / ((A * (1 - EE)) / (magic * sqrtmagic) * Math.PI);
+        out[1] = (dLon * 180.0) / (A / sqrtmagic * Math.cos(radlat) * Math.PI);
+    }
+
+    static int checkLength(double[] lat, double[] lon, double[] outLat, double[] outLon) {
+        if (lat.length != lon.length || outLat.length < lat.length || outLon.length < lat.length) {
+            throw new IllegalArgumentException("坐标数组长度不一致");
+        }
+        return lat.length;
+    }
+
+    private static Precision checkPrecision(Precision precision) {
+        if (precision == null) {
+            throw new IllegalArgumentException("precision不能为null");
+        }
+        return precision;
+    }
+
+    private static void checkIteration(double tolerance, int maxIterations) {
+        if (!(tolerance >= 0) || maxIterations < 0) {
+            throw new IllegalArgumentException("tolerance和maxIterations不能为负数");
+        }
+    }
+
+    static void checkRange(double[] lat, double[] lon, double[] outLat, double[] outLon, int offset, int length) {
+        int end = offset + length;
+        if (offset < 0 || length < 0 || end < 0 || end > lat.length || end > lon.length
+                || end > outLat.length || end > outLon.length) {
+            throw new IndexOutOfBoundsException("offset: " + offset + ", length: " + length);
+        }
     }
 
     /**
@@ -151,9 +766,9 @@ public class CoordinateTransformUtil {
      * 判断是否在国内，不在国内不做偏移
      */
     public static boolean outOfChina(double lat, double lon) {
-        if (lon < 72.004 || lon > 137.8347) {
+        if (lon < CHINA_MIN_LON || lon > CHINA_MAX_LON) {
             return true;
-        } else if (lat < 0.8293 || lat > 55.8271) {
+        } else if (lat < CHINA_MIN_LAT || lat > CHINA_MAX_LAT) {
             return true;
         }
         return false;
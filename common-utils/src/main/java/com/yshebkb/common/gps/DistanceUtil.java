@@ -0,0 +1,426 @@
+package com.yshebkb.common.gps;
+
+import com.yshebkb.common.gps.polygon.Point;
+
+/**
+ * 距离、方位角和目标点计算的工具
+ * <p>
+ * 提供三种精度不同的算法, 见{@link Mode}. 批量计算的结果写入调用方提供的数组, 计算过程中不创建任何对象.
+ * 经纬度和方位角的单位都是度, 方位角从正北顺时针计算, 取值范围[0, 360), 距离的单位是米.
+ *
+ * @author whiteclaw
+ * created on 2026-10-18
+ */
+public class DistanceUtil {
+
+    /**
+     * 地球平均半径(米), 即WGS84椭球的(2a + b) / 3
+     */
+    public static final double EARTH_RADIUS = 6371008.8;
+
+    /**
+     * WGS84椭球的长半轴、扁率、短半轴和第一偏心率的平方
+     */
+    private static final double A = 6378137.0;
+    private static final double F = 1 / 298.257223563;
+    private static final double B = A * (1 - F);
+    private static final double E2 = F * (2 - F);
+
+    /**
+     * Vincenty迭代的收敛阈值(弧度, 约0.006mm)和最大迭代次数
+     */
+    private static final double VINCENTY_TOLERANCE = 1e-12;
+    private static final int VINCENTY_MAX_ITERATIONS = 200;
+
+    /**
+     * 距离算法, 误差是与VINCENTY比较的相对误差, 耗时是单核上单点计算的大致耗时(见DistanceBenchmark)
+     */
+    public enum Mode {
+        /**
+         * WGS84椭球上的Vincenty公式, 误差小于0.5mm. 几乎对跖的两点迭代可能不收敛,
+         * 迭代200次后退回到HAVERSINE. 耗时约500ns
+         */
+        VINCENTY,
+        /**
+         * 平均半径球面上的haversine公式, 误差不超过0.6%, 平均0.2%到0.4%, 纬度越高越大. 耗时约110ns
+         */
+        HAVERSINE,
+        /**
+         * 在两点的中间纬度处用椭球的子午圈和卯酉圈曲率半径展开成平面, 适合短距离.
+         * 纬度不超过70度时, 10km以内误差小于0.0001%, 比HAVERSINE准得多; 100km以内小于0.01%; 1000km时可达1%.
+         * 纬度更高时误差增大, 不适用于跨越极点的两点. 耗时约30ns
+         */
+        FLAT
+    }
+
+    private DistanceUtil() {
+    }
+
+    /**
+     * 用haversine公式计算两点之间的大圆距离
+     *
+     * @param lng1 第一个点的经度
+     * @param lat1 第一个点的纬度
+     * @param lng2 第二个点的经度
+     * @param lat2 第二个点的纬度
+     * @return 距离(米)
+     */
+    public static double haversine(double lng1, double lat1, double lng2, double lat2) {
+        double sinLat = Math.sin(Math.toRadians(lat2 - lat1) / 2);
+        double sinLng = Math.sin(Math.toRadians(lng2 - lng1) / 2);
+        double h = sinLat * sinLat + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * sinLng * sinLng;
+        return 2 * EARTH_RADIUS * Math.asin(Math.sqrt(Math.min(h, 1)));
+    }
+
+    /**
+     * 计算两点之间的距离
+     *
+     * @param lng1 第一个点的经度
+     * @param lat1 第一个点的纬度
+     * @param lng2 第二个点的经度
+     * @param lat2 第二个点的纬度
+     * @param mode 算法
+     * @return 距离(米)
+     */
+    public static double distance(double lng1, double lat1, double lng2, double lat2, Mode mode) {
+        switch (mode) {
+            case VINCENTY:
+                return vincenty(lng1, lat1, lng2, lat2, false);
+            case HAVERSINE:
+                return haversine(lng1, lat1, lng2, lat2);
+            default:
+                return flat(lng1, lat1, lng2, lat2, false);
+        }
+    }
+
+    public static double distance(Point from, Point to, Mode mode) {
+        return distance(from.getLng(), from.getLat(), to.getLng(), to.getLat(), mode);
+    }
+
+    /**
+     * 计算从第一个点到第二个点的初始方位角, 两点重合时返回0
+     *
+     * @param lng1 起点经度
+     * @param lat1 起点纬度
+     * @param lng2 终点经度
+     * @param lat2 终点纬度
+     * @param mode 算法, HAVERSINE表示球面上的大圆方位角
+     * @return 方位角(度), 取值范围[0, 360)
+     */
+    public static double bearing(double lng1, double lat1, double lng2, double lat2, Mode mode) {
+        switch (mode) {
+            case VINCENTY:
+                return vincenty(lng1, lat1, lng2, lat2, true);
+            case HAVERSINE:
+                return sphericalBearing(lng1, lat1, lng2, lat2);
+            default:
+                return flat(lng1, lat1, lng2, lat2, true);
+        }
+    }
+
+    /**
+     * 计算从起点沿给定方位角走过给定距离后到达的点
+     *
+     * @param lng      起点经度
+     * @param lat      起点纬度
+     * @param bearing  方位角(度)
+     * @param distance 距离(米)
+     * @param mode     算法, HAVERSINE表示沿球面上的大圆
+     * @return 目标点, 经度取值范围[-180, 180)
+     */
+    public static Point destination(double lng, double lat, double bearing, double distance, Mode mode) {
+        double[] result = new double[2];
+        destination(lng, lat, bearing, distance, mode, result, 0, result, 1);
+        return new Point(result[0], result[1]);
+    }
+
+    /**
+     * 批量计算lng1[i], lat1[i]到lng2[i], lat2[i]的距离
+     *
+     * @param out  距离输出数组
+     * @param mode 算法
+     */
+    public static void distance(double[] lng1, double[] lat1, double[] lng2, double[] lat2, double[] out, Mode mode) {
+        int length = checkLength(lng1, lat1, lng2, lat2, out);
+        switch (mode) {
+            case VINCENTY:
+                for (int i = 0; i < length; i++) {
+                    out[i] = vincenty(lng1[i], lat1[i], lng2[i], lat2[i], false);
+                }
+                break;
+            case HAVERSINE:
+                for (int i = 0; i < length; i++) {
+                    out[i] = haversine(lng1[i], lat1[i], lng2[i], lat2[i]);
+                }
+                break;
+            default:
+                for (int i = 0; i < length; i++) {
+                    out[i] = flat(lng1[i], lat1[i], lng2[i], lat2[i], false);
+                }
+        }
+    }
+
+    /**
+     * 批量计算一个点到多个点的距离
+     *
+     * @param lng  起点经度
+     * @param lat  起点纬度
+     * @param lngs 终点经度数组
+     * @param lats 终点纬度数组
+     * @param out  距离输出数组
+     * @param mode 算法
+     */
+    public static void distance(double lng, double lat, double[] lngs, double[] lats, double[] out, Mode mode) {
+        int length = checkLength(lngs, lats, lngs, lats, out);
+        switch (mode) {
+            case VINCENTY:
+                for (int i = 0; i < length; i++) {
+                    out[i] = vincenty(lng, lat, lngs[i], lats[i], false);
+                }
+                break;
+            case HAVERSINE:
+                // 起点纬度的余弦只算一次
+                double cosLat = Math.cos(Math.toRadians(lat));
+                for (int i = 0; i < length; i++) {
+                    double sinLat = Math.sin(Math.toRadians(lats[i] - lat) / 2);
+                    double sinLng = Math.sin(Math.toRadians(lngs[i] - lng) / 2);
+                    double h = sinLat * sinLat + cosLat * Math.cos(Math.toRadians(lats[i])) * sinLng * sinLng;
+                    out[i] = 2 * EARTH_RADIUS * Math.asin(Math.sqrt(Math.min(h, 1)));
+                }
+                break;
+            default:
+                for (int i = 0; i < length; i++) {
+                    out[i] = flat(lng, lat, lngs[i], lats[i], false);
+                }
+        }
+    }
+
+    /**
+     * 批量计算lng1[i], lat1[i]到lng2[i], lat2[i]的初始方位角
+     *
+     * @param out  方位角输出数组
+     * @param mode 算法
+     */
+    public static void bearing(double[] lng1, double[] lat1, double[] lng2, double[] lat2, double[] out, Mode mode) {
+        int length = checkLength(lng1, lat1, lng2, lat2, out);
+        for (int i = 0; i < length; i++) {
+            out[i] = bearing(lng1[i], lat1[i], lng2[i], lat2[i], mode);
+        }
+    }
+
+    /**
+     * 批量计算目标点
+     *
+     * @param lng      起点经度数组
+     * @param lat      起点纬度数组
+     * @param bearing  方位角数组
+     * @param distance 距离数组
+     * @param outLng   目标点经度输出数组, 可以和lng是同一个数组
+     * @param outLat   目标点纬度输出数组, 可以和lat是同一个数组
+     * @param mode     算法
+     */
+    public static void destination(double[] lng, double[] lat, double[] bearing, double[] distance,
+                                   double[] outLng, double[] outLat, Mode mode) {
+        int length = checkLength(lng, lat, bearing, distance, outLng);
+        if (outLat.length < length) {
+            throw new IllegalArgumentException("坐标数组长度不一致");
+        }
+        for (int i = 0; i < length; i++) {
+            destination(lng[i], lat[i], bearing[i], distance[i], mode, outLng, i, outLat, i);
+        }
+    }
+
+    private static int checkLength(double[] a, double[] b, double[] c, double[] d, double[] out) {
+        int length = a.length;
+        if (b.length != length || c.length != length || d.length != length || out.length < length) {
+            throw new IllegalArgumentException("坐标数组长度不一致");
+        }
+        return length;
+    }
+
+    /**
+     * 单点计算目标点, 结果写入outLng[lngIndex]和outLat[latIndex]
+     */
+    private static void destination(double lng, double lat, double bearing, double distance, Mode mode,
+                                    double[] outLng, int lngIndex, double[] outLat, int latIndex) {
+        double alpha = Math.toRadians(bearing);
+        double phi = Math.toRadians(lat);
+        double lambda;
+        if (mode == Mode.VINCENTY) {
+            double sinAlpha1 = Math.sin(alpha);
+            double cosAlpha1 = Math.cos(alpha);
+            double tanU1 = (1 - F) * Math.tan(phi);
+            double cosU1 = 1 / Math.sqrt(1 + tanU1 * tanU1);
+            double sinU1 = tanU1 * cosU1;
+            double sigma1 = Math.atan2(tanU1, cosAlpha1);
+            double sinAlpha = cosU1 * sinAlpha1;
+            double cosSqAlpha = 1 - sinAlpha * sinAlpha;
+            double uSq = cosSqAlpha * (A * A - B * B) / (B * B);
+            double bigA = 1 + uSq / 16384 * (4096 + uSq * (-768 + uSq * (320 - 175 * uSq)));
+            double bigB = uSq / 1024 * (256 + uSq * (-128 + uSq * (74 - 47 * uSq)));
+
+            double sigma = distance / (B * bigA);
+            double sinSigma;
+            double cosSigma;
+            double cos2SigmaM;
+            int iterations = 0;
+            while (true) {
+                cos2SigmaM = Math.cos(2 * sigma1 + sigma);
+                sinSigma = Math.sin(sigma);
+                cosSigma = Math.cos(sigma);
+                double deltaSigma = bigB * sinSigma * (cos2SigmaM + bigB / 4 * (cosSigma * (-1 + 2 * cos2SigmaM * cos2SigmaM)
+                        - bigB / 6 * cos2SigmaM * (-3 + 4 * sinSigma * sinSigma) * (-3 + 4 * cos2SigmaM * cos2SigmaM)));
+                double next = distance / (B * bigA) + deltaSigma;
+                if (Math.abs(next - sigma) < VINCENTY_TOLERANCE || ++iterations >= VINCENTY_MAX_ITERATIONS) {
+                    sigma = next;
+                    break;
+                }
+                sigma = next;
+            }
+            sinSigma = Math.sin(sigma);
+            cosSigma = Math.cos(sigma);
+            double x = sinU1 * sinSigma - cosU1 * cosSigma * cosAlpha1;
+            phi = Math.atan2(sinU1 * cosSigma + cosU1 * sinSigma * cosAlpha1,
+                    (1 - F) * Math.sqrt(sinAlpha * sinAlpha + x * x));
+            double l = Math.atan2(sinSigma * sinAlpha1, cosU1 * cosSigma - sinU1 * sinSigma * cosAlpha1);
+            double c = F / 16 * cosSqAlpha * (4 + F * (4 - 3 * cosSqAlpha));
+            lambda = l - (1 - c) * F * sinAlpha
+                    * (sigma + c * sinSigma * (cos2SigmaM + c * cosSigma * (-1 + 2 * cos2SigmaM * cos2SigmaM)));
+        } else if (mode == Mode.HAVERSINE) {
+            double delta = distance / EARTH_RADIUS;
+            double sinPhi = Math.sin(phi);
+            double cosPhi = Math.cos(phi);
+            double sinPhi2 = sinPhi * Math.cos(delta) + cosPhi * Math.sin(delta) * Math.cos(alpha);
+            lambda = Math.atan2(Math.sin(alpha) * Math.sin(delta) * cosPhi, Math.cos(delta) - sinPhi * sinPhi2);
+            phi = Math.asin(sinPhi2);
+        } else {
+            // 先用起点纬度处的曲率半径估计终点纬度, 再用中间纬度处的曲率半径计算, 与距离计算保持一致
+            double north = distance * Math.cos(alpha);
+            double east = distance * Math.sin(alpha);
+            double sinPhi = Math.sin(phi);
+            double w = 1 - E2 * sinPhi * sinPhi;
+            double middle = phi + north * w * Math.sqrt(w) / (A * (1 - E2)) / 2;
+            sinPhi = Math.sin(middle);
+            w = 1 - E2 * sinPhi * sinPhi;
+            double n = A / Math.sqrt(w);
+            double m = n * (1 - E2) / w;
+            lambda = east / (n * Math.sqrt(1 - sinPhi * sinPhi));
+            phi += north / m;
+        }
+        outLng[lngIndex] = normalizeLng(lng + Math.toDegrees(lambda));
+        outLat[latIndex] = Math.toDegrees(phi);
+    }
+
+    /**
+     * Vincenty反算
+     *
+     * @param bearing 为true时返回初始方位角, 否则返回距离
+     */
+    private static double vincenty(double lng1, double lat1, double lng2, double lat2, boolean bearing) {
+        double l = Math.toRadians(lng2 - lng1);
+        double tanU1 = (1 - F) * Math.tan(Math.toRadians(lat1));
+        double cosU1 = 1 / Math.sqrt(1 + tanU1 * tanU1);
+        double sinU1 = tanU1 * cosU1;
+        double tanU2 = (1 - F) * Math.tan(Math.toRadians(lat2));
+        double cosU2 = 1 / Math.sqrt(1 + tanU2 * tanU2);
+        double sinU2 = tanU2 * cosU2;
+
+        double lambda = l;
+        double sinLambda;
+        double cosLambda;
+        double sinSigma;
+        double cosSigma;
+        double sigma;
+        double cosSqAlpha;
+        double cos2SigmaM;
+        int iterations = 0;
+        while (true) {
+            sinLambda = Math.sin(lambda);
+            cosLambda = Math.cos(lambda);
+            double y = cosU1 * sinU2 - sinU1 * cosU2 * cosLambda;
+            double sinSqSigma = (cosU2 * sinLambda) * (cosU2 * sinLambda) + y * y;
+            if (sinSqSigma == 0) {
+                // 两点重合
+                return 0;
+            }
+            sinSigma = Math.sqrt(sinSqSigma);
+            cosSigma = sinU1 * sinU2 + cosU1 * cosU2 * cosLambda;
+            sigma = Math.atan2(sinSigma, cosSigma);
+            double sinAlpha = cosU1 * cosU2 * sinLambda / sinSigma;
+            cosSqAlpha = 1 - sinAlpha * sinAlpha;
+            // 两点都在赤道上时cosSqAlpha为0
+            cos2SigmaM = cosSqAlpha != 0 ? cosSigma - 2 * sinU1 * sinU2 / cosSqAlpha : 0;
+            double c = F / 16 * cosSqAlpha * (4 + F * (4 - 3 * cosSqAlpha));
+            double previous = lambda;
+            lambda = l + (1 - c) * F * sinAlpha
+                    * (sigma + c * sinSigma * (cos2SigmaM + c * cosSigma * (-1 + 2 * cos2SigmaM * cos2SigmaM)));
+            if (Math.abs(lambda - previous) < VINCENTY_TOLERANCE) {
+                break;
+            }
+            if (++iterations >= VINCENTY_MAX_ITERATIONS || Math.abs(lambda) > Math.PI * 2) {
+                // 几乎对跖的点不收敛, 退回到球面公式
+                return bearing ? sphericalBearing(lng1, lat1, lng2, lat2) : haversine(lng1, lat1, lng2, lat2);
+            }
+        }
+        if (bearing) {
+            double alpha = Math.atan2(cosU2 * sinLambda, cosU1 * sinU2 - sinU1 * cosU2 * cosLambda);
+            return normalizeBearing(Math.toDegrees(alpha));
+        }
+        double uSq = cosSqAlpha * (A * A - B * B) / (B * B);
+        double bigA = 1 + uSq / 16384 * (4096 + uSq * (-768 + uSq * (320 - 175 * uSq)));
+        double bigB = uSq / 1024 * (256 + uSq * (-128 + uSq * (74 - 47 * uSq)));
+        double deltaSigma = bigB * sinSigma * (cos2SigmaM + bigB / 4 * (cosSigma * (-1 + 2 * cos2SigmaM * cos2SigmaM)
+                - bigB / 6 * cos2SigmaM * (-3 + 4 * sinSigma * sinSigma) * (-3 + 4 * cos2SigmaM * cos2SigmaM)));
+        return B * bigA * (sigma - deltaSigma);
+    }
+
+    private static double sphericalBearing(double lng1, double lat1, double lng2, double lat2) {
+        double phi1 = Math.toRadians(lat1);
+        double phi2 = Math.toRadians(lat2);
+        double dLambda = Math.toRadians(lng2 - lng1);
+        double y = Math.sin(dLambda) * Math.cos(phi2);
+        double x = Math.cos(phi1) * Math.sin(phi2) - Math.sin(phi1) * Math.cos(phi2) * Math.cos(dLambda);
+        return normalizeBearing(Math.toDegrees(Math.atan2(y, x)));
+    }
+
+    /**
+     * 在中间纬度处展开成平面, 南北方向用子午圈曲率半径, 东西方向用卯酉圈曲率半径
+     *
+     * @param bearing 为true时返回方位角, 否则返回距离
+     */
+    private static double flat(double lng1, double lat1, double lng2, double lat2, boolean bearing) {
+        double sinPhi = Math.sin(Math.toRadians((lat1 + lat2) / 2));
+        double w = 1 - E2 * sinPhi * sinPhi;
+        double n = A / Math.sqrt(w);
+        double m = n * (1 - E2) / w;
+        double dLng = lng2 - lng1;
+        if (dLng > 180) {
+            dLng -= 360;
+        } else if (dLng < -180) {
+            dLng += 360;
+        }
+        double x = n * Math.sqrt(1 - sinPhi * sinPhi) * Math.toRadians(dLng);
+        double y = m * Math.toRadians(lat2 - lat1);
+        if (bearing) {
+            return normalizeBearing(Math.toDegrees(Math.atan2(x, y)));
+        }
+        return Math.sqrt(x * x + y * y);
+    }
+
+    private static double normalizeBearing(double degrees) {
+        double result = degrees % 360;
+        if (result < 0) {
+            result += 360;
+        }
+        // -0.0和极小的负数加360后可能等于360
+        return result >= 360 ? 0 : result;
+    }
+
+    private static double normalizeLng(double lng) {
+        double result = (lng + 180) % 360;
+        if (result < 0) {
+            result += 360;
+        }
+        return result - 180;
+    }
+}
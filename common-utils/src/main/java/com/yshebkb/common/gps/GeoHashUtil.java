@@ -0,0 +1,566 @@
+package com.yshebkb.common.gps;
+
+import com.yshebkb.common.gps.polygon.Point;
+import com.yshebkb.common.gps.polygon.PointArray;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 格子编码工具, 包括Morton码(Z序)和geohash
+ * <p>
+ * 经度和纬度各量化为31位整数, 经度的位在高, 纬度的位在低, 交错成62位的Morton码. Morton码总是非负的,
+ * 按有符号long排序就是Z序, 可以直接作为有序存储的键做范围扫描. 最细的格子约为1.7e-7度, 赤道上约2cm.
+ * 位交错用移位和掩码完成, 不逐位循环.
+ * <p>
+ * 第level层(0到31)的格子把经纬度各等分为2^level份, 格子编号是Morton码的高2*level位,
+ * 同一个格子内所有点的Morton码是连续的一段, 见{@link #rangeStart(long, int)}和{@link #rangeEnd(long, int)}.
+ * <p>
+ * geohash的位顺序与Morton码相同, 精度为p个字符的geohash就是Morton码的高5p位, 按base32编码.
+ *
+ * @author whiteclaw
+ * created on 2026-10-18
+ */
+public class GeoHashUtil {
+
+    /**
+     * 格子的最大层数, 即每个坐标轴的位数
+     */
+    public static final int MAX_LEVEL = 31;
+
+    /**
+     * geohash的最大字符数
+     */
+    public static final int MAX_PRECISION = 12;
+
+    private static final int KEY_BITS = 2 * MAX_LEVEL;
+    private static final double SCALE = 1L << MAX_LEVEL;
+    private static final long AXIS_MAX = (1L << MAX_LEVEL) - 1;
+
+    private static final char[] BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz".toCharArray();
+    private static final byte[] BASE32_DECODE = new byte[128];
+
+    static {
+        Arrays.fill(BASE32_DECODE, (byte) -1);
+        for (int i = 0; i < BASE32.length; i++) {
+            BASE32_DECODE[BASE32[i]] = (byte) i;
+        }
+    }
+
+    private GeoHashUtil() {
+    }
+
+    /**
+     * 计算一个点的Morton码
+     *
+     * @param lng 经度, [-180, 180]
+     * @param lat 纬度, [-90, 90]
+     * @return Morton码, 非负
+     */
+    public static long encodeMorton(double lng, double lat) {
+        return spread(quantizeLng(lng)) << 1 | spread(quantizeLat(lat));
+    }
+
+    public static long encodeMorton(Point point) {
+        return encodeMorton(point.getLng(), point.getLat());
+    }
+
+    /**
+     * 批量计算Morton码
+     *
+     * @param lngs 经度数组
+     * @param lats 纬度数组
+     * @param out  Morton码输出数组
+     */
+    public static void encodeMorton(double[] lngs, double[] lats, long[] out) {
+        if (lngs.length != lats.length || out.length < lngs.length) {
+            throw new IllegalArgumentException("坐标数组长度不一致");
+        }
+        for (int i = 0; i < lngs.length; i++) {
+            out[i] = spread(quantizeLng(lngs[i])) << 1 | spread(quantizeLat(lats[i]));
+        }
+    }
+
+    /**
+     * 批量计算Morton码
+     *
+     * @param points 点
+     * @param out    Morton码输出数组
+     */
+    public static void encodeMorton(PointArray points, long[] out) {
+        int size = points.size();
+        if (out.length < size) {
+            throw new IllegalArgumentException("坐标数组长度不一致");
+        }
+        for (int i = 0; i < size; i++) {
+            out[i] = spread(quantizeLng(points.getLng(i))) << 1 | spread(quantizeLat(points.getLat(i)));
+        }
+    }
+
+    /**
+     * 把Morton码解码为最细一层格子的中心
+     *
+     * @param key Morton码
+     * @return 格子中心
+     */
+    public static Point decodeMorton(long key) {
+        checkKey(key);
+        return new Point(lng(compact(key >>> 1), MAX_LEVEL, 0.5), lat(compact(key), MAX_LEVEL, 0.5));
+    }
+
+    /**
+     * 批量解码Morton码
+     *
+     * @param keys   Morton码
+     * @param outLng 格子中心经度输出数组
+     * @param outLat 格子中心纬度输出数组
+     */
+    public static void decodeMorton(long[] keys, double[] outLng, double[] outLat) {
+        if (outLng.length < keys.length || outLat.length < keys.length) {
+            throw new IllegalArgumentException("坐标数组长度不一致");
+        }
+        for (int i = 0; i < keys.length; i++) {
+            long key = keys[i];
+            checkKey(key);
+            outLng[i] = lng(compact(key >>> 1), MAX_LEVEL, 0.5);
+            outLat[i] = lat(compact(key), MAX_LEVEL, 0.5);
+        }
+    }
+
+    /**
+     * 获取Morton码所在的第level层格子
+     *
+     * @param key   Morton码
+     * @param level 层数, [0, 31]
+     * @return 格子编号
+     */
+    public static long cell(long key, int level) {
+        checkKey(key);
+        checkLevel(level);
+        return key >>> (KEY_BITS - 2 * level);
+    }
+
+    /**
+     * 获取上一层的格子
+     *
+     * @param cell 第level层的格子, level大于0
+     * @return 第level - 1层的格子
+     */
+    public static long parent(long cell) {
+        return cell >>> 2;
+    }
+
+    /**
+     * 获取下一层的格子
+     *
+     * @param cell     第level层的格子, level小于31
+     * @param quadrant 子格子的序号, [0, 3], 高位为1表示东半, 低位为1表示北半
+     * @return 第level + 1层的格子
+     */
+    public static long child(long cell, int quadrant) {
+        if (quadrant < 0 || quadrant > 3) {
+            throw new IllegalArgumentException("quadrant必须在0到3之间");
+        }
+        return cell << 2 | quadrant;
+    }
+
+    /**
+     * 格子内最小的Morton码
+     *
+     * @param cell  格子编号
+     * @param level 层数
+     * @return Morton码
+     */
+    public static long rangeStart(long cell, int level) {
+        checkLevel(level);
+        return cell << (KEY_BITS - 2 * level);
+    }
+
+    /**
+     * 格子内最大的Morton码
+     *
+     * @param cell  格子编号
+     * @param level 层数
+     * @return Morton码
+     */
+    public static long rangeEnd(long cell, int level) {
+        checkLevel(level);
+        int shift = KEY_BITS - 2 * level;
+        return cell << shift | ((1L << shift) - 1);
+    }
+
+    /**
+     * 获取格子的范围
+     *
+     * @param cell  格子编号
+     * @param level 层数
+     * @return {最小经度, 最小纬度, 最大经度, 最大纬度}
+     */
+    public static double[] cellBounds(long cell, int level) {
+        checkLevel(level);
+        long x = compact(cell >>> 1);
+        long y = compact(cell);
+        return new double[]{lng(x, level, 0), lat(y, level, 0), lng(x, level, 1), lat(y, level, 1)};
+    }
+
+    /**
+     * 获取相邻的格子, 经度方向跨越180度经线时回绕
+     *
+     * @param cell  格子编号
+     * @param level 层数
+     * @param dx    经度方向的偏移格数
+     * @param dy    纬度方向的偏移格数
+     * @return 格子编号, 超出南北极时返回-1
+     */
+    public static long neighbor(long cell, int level, int dx, int dy) {
+        checkLevel(level);
+        return neighborBits(cell, 2 * level, dx, dy);
+    }
+
+    /**
+     * 获取周围最多8个格子, 去掉超出南北极的、重复的和格子自身
+     *
+     * @param cell  格子编号
+     * @param level 层数
+     * @param out   输出数组, 长度至少为8
+     * @return 格子数
+     */
+    public static int neighbors(long cell, int level, long[] out) {
+        checkLevel(level);
+        int count = 0;
+        for (int dy = -1; dy <= 1; dy++) {
+            for (int dx = -1; dx <= 1; dx++) {
+                long neighbor = neighborBits(cell, 2 * level, dx, dy);
+                if (neighbor >= 0 && neighbor != cell && indexOf(out, count, neighbor) < 0) {
+                    out[count++] = neighbor;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 计算一个点的geohash
+     *
+     * @param lng       经度, [-180, 180]
+     * @param lat       纬度, [-90, 90]
+     * @param precision 字符数, [1, 12]
+     * @return geohash
+     */
+    public static String geohash(double lng, double lat, int precision) {
+        checkPrecision(precision);
+        return toBase32(encodeMorton(lng, lat) >>> (KEY_BITS - 5 * precision), precision);
+    }
+
+    public static String geohash(Point point, int precision) {
+        return geohash(point.getLng(), point.getLat(), precision);
+    }
+
+    /**
+     * 批量计算geohash
+     *
+     * @param lngs      经度数组
+     * @param lats      纬度数组
+     * @param precision 字符数, [1, 12]
+     * @param out       geohash输出数组
+     */
+    public static void geohash(double[] lngs, double[] lats, int precision, String[] out) {
+        checkPrecision(precision);
+        if (lngs.length != lats.length || out.length < lngs.length) {
+            throw new IllegalArgumentException("坐标数组长度不一致");
+        }
+        int shift = KEY_BITS - 5 * precision;
+        for (int i = 0; i < lngs.length; i++) {
+            long key = spread(quantizeLng(lngs[i])) << 1 | spread(quantizeLat(lats[i]));
+            out[i] = toBase32(key >>> shift, precision);
+        }
+    }
+
+    /**
+     * 把geohash解码为格子中心
+     *
+     * @param geohash geohash
+     * @return 格子中心
+     */
+    public static Point decodeGeohash(String geohash) {
+        double[] bounds = geohashBounds(geohash);
+        return new Point((bounds[0] + bounds[2]) / 2, (bounds[1] + bounds[3]) / 2);
+    }
+
+    /**
+     * 获取geohash格子的范围
+     *
+     * @param geohash geohash
+     * @return {最小经度, 最小纬度, 最大经度, 最大纬度}
+     */
+    public static double[] geohashBounds(String geohash) {
+        int bits = 5 * geohash.length();
+        long key = fromBase32(geohash) << (KEY_BITS - bits);
+        int xBits = (bits + 1) / 2;
+        int yBits = bits / 2;
+        long x = compact(key >>> 1) >>> (MAX_LEVEL - xBits);
+        long y = compact(key) >>> (MAX_LEVEL - yBits);
+        return new double[]{lng(x, xBits, 0), lat(y, yBits, 0), lng(x, xBits, 1), lat(y, yBits, 1)};
+    }
+
+    /**
+     * 获取相邻的geohash格子, 经度方向跨越180度经线时回绕
+     *
+     * @param geohash geohash
+     * @param dx      经度方向的偏移格数
+     * @param dy      纬度方向的偏移格数
+     * @return geohash, 超出南北极时返回null
+     */
+    public static String geohashNeighbor(String geohash, int dx, int dy) {
+        long neighbor = neighborBits(fromBase32(geohash), 5 * geohash.length(), dx, dy);
+        return neighbor < 0 ? null : toBase32(neighbor, geohash.length());
+    }
+
+    /**
+     * 获取周围最多8个geohash格子, 去掉超出南北极的、重复的和格子自身
+     *
+     * @param geohash geohash
+     * @return geohash
+     */
+    public static List<String> geohashNeighbors(String geohash) {
+        long value = fromBase32(geohash);
+        int bits = 5 * geohash.length();
+        long[] cells = new long[8];
+        int count = 0;
+        for (int dy = -1; dy <= 1; dy++) {
+            for (int dx = -1; dx <= 1; dx++) {
+                long neighbor = neighborBits(value, bits, dx, dy);
+                if (neighbor >= 0 && neighbor != value && indexOf(cells, count, neighbor) < 0) {
+                    cells[count++] = neighbor;
+                }
+            }
+        }
+        List<String> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(toBase32(cells[i], geohash.length()));
+        }
+        return result;
+    }
+
+    /**
+     * 把闭矩形分解为若干段连续的Morton码, 用于在按Morton码排序的存储上做范围扫描
+     * <p>
+     * 从第0层开始逐层细分与矩形边界相交的格子, 完全在矩形内的格子直接输出, 直到再细分一层会超过maxRanges段,
+     * 此时剩下的边界格子整体输出. 因此结果覆盖矩形内所有点, 也可能包含矩形外的点, 扫描后需要再过滤.
+     * 跨越180度经线的矩形需要分成两个调用.
+     *
+     * @param minLng    矩形的最小经度
+     * @param minLat    矩形的最小纬度
+     * @param maxLng    矩形的最大经度
+     * @param maxLat    矩形的最大纬度
+     * @param maxRanges 最多输出的段数, 至少为1
+     * @return {start0, end0, start1, end1, ...}, 闭区间, 升序且互不相邻
+     */
+    public static long[] ranges(double minLng, double minLat, double maxLng, double maxLat, int maxRanges) {
+        if (minLng > maxLng || minLat > maxLat) {
+            throw new IllegalArgumentException("矩形的最小值不能大于最大值");
+        }
+        if (maxRanges < 1) {
+            throw new IllegalArgumentException("maxRanges至少为1");
+        }
+        long x0 = quantizeLng(minLng);
+        long y0 = quantizeLat(minLat);
+        long x1 = quantizeLng(maxLng);
+        long y1 = quantizeLat(maxLat);
+
+        LongList ranges = new LongList();
+        LongList boundary = new LongList();
+        boundary.add(0);
+        int level = 0;
+        while (boundary.size > 0) {
+            if (level == MAX_LEVEL) {
+                break;
+            }
+            int shift = MAX_LEVEL - level - 1;
+            LongList inside = new LongList();
+            LongList next = new LongList();
+            for (int i = 0; i < boundary.size; i++) {
+                for (int quadrant = 0; quadrant < 4; quadrant++) {
+                    long cell = boundary.values[i] << 2 | quadrant;
+                    long cx0 = compact(cell >>> 1) << shift;
+                    long cy0 = compact(cell) << shift;
+                    long cx1 = cx0 + (1L << shift) - 1;
+                    long cy1 = cy0 + (1L << shift) - 1;
+                    if (cx1 < x0 || cx0 > x1 || cy1 < y0 || cy0 > y1) {
+                        continue;
+                    }
+                    if (cx0 >= x0 && cx1 <= x1 && cy0 >= y0 && cy1 <= y1) {
+                        inside.add(cell);
+                    } else {
+                        next.add(cell);
+                    }
+                }
+            }
+            if (ranges.size / 2 + inside.size + next.size > maxRanges) {
+                break;
+            }
+            level++;
+            for (int i = 0; i < inside.size; i++) {
+                ranges.add(rangeStart(inside.values[i], level));
+                ranges.add(rangeEnd(inside.values[i], level));
+            }
+            boundary = next;
+        }
+        for (int i = 0; i < boundary.size; i++) {
+            ranges.add(rangeStart(boundary.values[i], level));
+            ranges.add(rangeEnd(boundary.values[i], level));
+        }
+        return merge(ranges);
+    }
+
+    /**
+     * 按起点排序, 合并相邻的区间
+     */
+    private static long[] merge(LongList ranges) {
+        int count = ranges.size / 2;
+        long[][] pairs = new long[count][];
+        for (int i = 0; i < count; i++) {
+            pairs[i] = new long[]{ranges.values[2 * i], ranges.values[2 * i + 1]};
+        }
+        Arrays.sort(pairs, (a, b) -> Long.compare(a[0], b[0]));
+        LongList merged = new LongList();
+        for (long[] pair : pairs) {
+            if (merged.size > 0 && pair[0] <= merged.values[merged.size - 1] + 1) {
+                merged.values[merged.size - 1] = Math.max(merged.values[merged.size - 1], pair[1]);
+            } else {
+                merged.add(pair[0]);
+                merged.add(pair[1]);
+            }
+        }
+        return Arrays.copyOf(merged.values, merged.size);
+    }
+
+    /**
+     * 对高bits位有效的编码(经度占(bits + 1) / 2位, 纬度占bits / 2位)求相邻格子
+     */
+    private static long neighborBits(long value, int bits, int dx, int dy) {
+        int xBits = (bits + 1) / 2;
+        int yBits = bits / 2;
+        long key = value << (KEY_BITS - bits);
+        long x = compact(key >>> 1) >>> (MAX_LEVEL - xBits);
+        long y = (compact(key) >>> (MAX_LEVEL - yBits)) + dy;
+        if (y < 0 || y >= 1L << yBits) {
+            return -1;
+        }
+        x = (x + dx) & ((1L << xBits) - 1);
+        key = spread(x << (MAX_LEVEL - xBits)) << 1 | spread(y << (MAX_LEVEL - yBits));
+        return key >>> (KEY_BITS - bits);
+    }
+
+    /**
+     * 把32位整数的各位分散到64位的偶数位上
+     */
+    private static long spread(long x) {
+        x &= 0xFFFFFFFFL;
+        x = (x | x << 16) & 0x0000FFFF0000FFFFL;
+        x = (x | x << 8) & 0x00FF00FF00FF00FFL;
+        x = (x | x << 4) & 0x0F0F0F0F0F0F0F0FL;
+        x = (x | x << 2) & 0x3333333333333333L;
+        return (x | x << 1) & 0x5555555555555555L;
+    }
+
+    /**
+     * spread的逆运算, 取出偶数位
+     */
+    private static long compact(long x) {
+        x &= 0x5555555555555555L;
+        x = (x | x >>> 1) & 0x3333333333333333L;
+        x = (x | x >>> 2) & 0x0F0F0F0F0F0F0F0FL;
+        x = (x | x >>> 4) & 0x00FF00FF00FF00FFL;
+        x = (x | x >>> 8) & 0x0000FFFF0000FFFFL;
+        return (x | x >>> 16) & 0xFFFFFFFFL;
+    }
+
+    private static long quantizeLng(double lng) {
+        if (!(lng >= -180 && lng <= 180)) {
+            throw new IllegalArgumentException("经度超出范围: " + lng);
+        }
+        return Math.min((long) ((lng + 180) / 360 * SCALE), AXIS_MAX);
+    }
+
+    private static long quantizeLat(double lat) {
+        if (!(lat >= -90 && lat <= 90)) {
+            throw new IllegalArgumentException("纬度超出范围: " + lat);
+        }
+        return Math.min((long) ((lat + 90) / 180 * SCALE), AXIS_MAX);
+    }
+
+    /**
+     * 第x个格子内偏移offset(0到1)处的经度, 经度方向共2^bits个格子
+     */
+    private static double lng(long x, int bits, double offset) {
+        return (x + offset) / (1L << bits) * 360 - 180;
+    }
+
+    private static double lat(long y, int bits, double offset) {
+        return (y + offset) / (1L << bits) * 180 - 90;
+    }
+
+    private static String toBase32(long value, int precision) {
+        char[] chars = new char[precision];
+        for (int i = precision - 1; i >= 0; i--) {
+            chars[i] = BASE32[(int) (value & 31)];
+            value >>>= 5;
+        }
+        return new String(chars);
+    }
+
+    private static long fromBase32(String geohash) {
+        checkPrecision(geohash.length());
+        long value = 0;
+        for (int i = 0; i < geohash.length(); i++) {
+            char c = geohash.charAt(i);
+            int digit = c < 128 ? BASE32_DECODE[c] : -1;
+            if (digit < 0) {
+                throw new IllegalArgumentException("geohash中有非法字符: " + geohash);
+            }
+            value = value << 5 | digit;
+        }
+        return value;
+    }
+
+    private static int indexOf(long[] values, int size, long value) {
+        for (int i = 0; i < size; i++) {
+            if (values[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static void checkKey(long key) {
+        if (key < 0 || key >>> KEY_BITS != 0) {
+            throw new IllegalArgumentException("Morton码超出范围: " + key);
+        }
+    }
+
+    private static void checkLevel(int level) {
+        if (level < 0 || level > MAX_LEVEL) {
+            throw new IllegalArgumentException("level必须在0到" + MAX_LEVEL + "之间");
+        }
+    }
+
+    private static void checkPrecision(int precision) {
+        if (precision < 1 || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("geohash的长度必须在1到" + MAX_PRECISION + "之间");
+        }
+    }
+
+    private static final class LongList {
+        long[] values = new long[16];
+        int size;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size << 1);
+            }
+            values[size++] = value;
+        }
+    }
+}
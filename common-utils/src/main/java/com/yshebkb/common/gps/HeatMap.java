@@ -0,0 +1,657 @@
+package com.yshebkb.common.gps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * 按Web墨卡托瓦片统计点密度的热力图
+ * <p>
+ * 固定层级zoom, 每个瓦片划分为resolution * resolution个格子, 每个格子一个计数. 瓦片按需创建, 只保存有点的瓦片.
+ * 计数默认是int, 单个格子可能超过int范围时用{@link Builder#longCounts()}.
+ * 每个瓦片占用resolution * resolution * 4字节(long计数为8字节), 层级较高、点分布较广时应减小resolution.
+ * <p>
+ * 每次add都在已有计数上累加. 并行累加时, 输入数组被切成与线程池并行度相同的段, 每段在自己的局部瓦片表中计数,
+ * 互不共享, 全部完成后再合并到热力图中, 合并前局部瓦片表最多占用并行度倍的内存. 设置了坐标转换时, 每段按块把坐标复制到局部缓冲区后转换, 不修改输入数组.
+ * <p>
+ * 纬度超出{@link TileUtil#MAX_LATITUDE}、经度超出[-180, 180]或为NaN的点不计数, 记入{@link #getDroppedCount()}.
+ * 所有方法都是线程安全的, 但{@link Grid}是实时视图, 会随之后的add变化.
+ *
+ * @author whiteclaw
+ * created on 2026-10-18
+ */
+public class HeatMap {
+
+    /**
+     * 每段的最小点数, 点数较少时不拆分
+     */
+    static final int MIN_CHUNK_SIZE = 1 << 16;
+
+    /**
+     * 坐标转换时每块的点数
+     */
+    private static final int BLOCK_SIZE = 4096;
+
+    private final int zoom;
+    private final int resolution;
+    private final boolean longCounts;
+    private final CoordinateTransform transform;
+
+    /**
+     * 每个瓦片的格子下标占用的位数, 即log2(resolution)
+     */
+    private final int shift;
+    private final long bins;
+
+    private final TileTable tiles = new TileTable();
+    private long total;
+    private long dropped;
+
+    /**
+     * 逐点累加时坐标转换用的数组, 由this的锁保护
+     */
+    private final double[] pointLng = new double[1];
+    private final double[] pointLat = new double[1];
+
+    private HeatMap(Builder builder) {
+        this.zoom = builder.zoom;
+        this.resolution = builder.resolution;
+        this.longCounts = builder.longCounts;
+        this.transform = builder.transform;
+        this.shift = Integer.numberOfTrailingZeros(resolution);
+        this.bins = (long) resolution << zoom;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int getZoom() {
+        return zoom;
+    }
+
+    public int getResolution() {
+        return resolution;
+    }
+
+    /**
+     * 在当前线程中累加一个点
+     *
+     * @param lng 经度
+     * @param lat 纬度
+     */
+    public synchronized void add(double lng, double lat) {
+        if (transform != null) {
+            pointLng[0] = lng;
+            pointLat[0] = lat;
+            transform.transform(pointLng, pointLat, 1);
+            lng = pointLng[0];
+            lat = pointLat[0];
+        }
+        if (!bin(tiles, lng, lat)) {
+            dropped++;
+        }
+        total++;
+    }
+
+    /**
+     * 在当前线程中累加一批点
+     *
+     * @param lngs 经度数组
+     * @param lats 纬度数组
+     */
+    public void add(double[] lngs, double[] lats) {
+        add(lngs, lats, 0, checkLength(lngs, lats));
+    }
+
+    /**
+     * 在当前线程中累加一批点的[offset, offset + length)区间
+     *
+     * @param lngs   经度数组
+     * @param lats   纬度数组
+     * @param offset 起始下标
+     * @param length 点数
+     */
+    public synchronized void add(double[] lngs, double[] lats, int offset, int length) {
+        checkRange(lngs, lats, offset, length);
+        dropped += count(tiles, lngs, lats, offset, offset + length);
+        total += length;
+    }
+
+    /**
+     * 在线程池中并行累加一批点
+     *
+     * @param lngs 经度数组
+     * @param lats 纬度数组
+     * @param pool 线程池
+     */
+    public void add(double[] lngs, double[] lats, ForkJoinPool pool) {
+        int length = checkLength(lngs, lats);
+        int chunks = (int) Math.min(pool.getParallelism(), (length + (long) MIN_CHUNK_SIZE - 1) / MIN_CHUNK_SIZE);
+        if (chunks <= 1) {
+            add(lngs, lats, 0, length);
+            return;
+        }
+        List<ChunkTask> tasks = new ArrayList<>(chunks);
+        for (int i = 0; i < chunks; i++) {
+            tasks.add(new ChunkTask(lngs, lats, (int) ((long) length * i / chunks), (int) ((long) length * (i + 1) / chunks)));
+        }
+        pool.invoke(new RecursiveTask<Void>() {
+            @Override
+            protected Void compute() {
+                invokeAll(tasks);
+                return null;
+            }
+        });
+        synchronized (this) {
+            for (ChunkTask task : tasks) {
+                merge(task.tiles);
+                dropped += task.dropped;
+            }
+            total += length;
+        }
+    }
+
+    /**
+     * 把另一个热力图的计数累加到这个热力图中, 两者的层级、格子数和计数类型必须相同
+     *
+     * @param other 热力图
+     */
+    public void merge(HeatMap other) {
+        if (other == this) {
+            throw new IllegalArgumentException("不能合并自身");
+        }
+        if (other.zoom != zoom || other.resolution != resolution || other.longCounts != longCounts) {
+            throw new IllegalArgumentException("热力图的层级、格子数或计数类型不同");
+        }
+        TileTable copy = new TileTable();
+        long otherTotal;
+        long otherDropped;
+        synchronized (other) {
+            for (Grid grid : other.tiles.values()) {
+                copy.put(grid.copy());
+            }
+            otherTotal = other.total;
+            otherDropped = other.dropped;
+        }
+        synchronized (this) {
+            merge(copy);
+            total += otherTotal;
+            dropped += otherDropped;
+        }
+    }
+
+    /**
+     * 获取瓦片的格子计数
+     *
+     * @param x 瓦片x编号
+     * @param y 瓦片y编号
+     * @return 格子计数, 瓦片内没有点时返回null
+     */
+    public synchronized Grid getGrid(int x, int y) {
+        return tiles.get(TileUtil.tileKey(x, y));
+    }
+
+    /**
+     * 获取所有有点的瓦片, 按x、y排序
+     *
+     * @return 格子计数
+     */
+    public synchronized List<Grid> getGrids() {
+        List<Grid> grids = tiles.values();
+        grids.sort((a, b) -> Long.compare(TileUtil.tileKey(a.x, a.y), TileUtil.tileKey(b.x, b.y)));
+        return grids;
+    }
+
+    public synchronized int getTileCount() {
+        return tiles.size;
+    }
+
+    /**
+     * 累加过的点数, 包括不计数的点
+     */
+    public synchronized long getTotal() {
+        return total;
+    }
+
+    /**
+     * 超出范围不计数的点数
+     */
+    public synchronized long getDroppedCount() {
+        return dropped;
+    }
+
+    public synchronized void clear() {
+        tiles.clear();
+        total = 0;
+        dropped = 0;
+    }
+
+    private void merge(TileTable partial) {
+        for (Grid grid : partial.values()) {
+            long key = TileUtil.tileKey(grid.x, grid.y);
+            Grid target = tiles.get(key);
+            if (target == null) {
+                tiles.put(grid);
+            } else {
+                target.add(grid);
+            }
+        }
+    }
+
+    /**
+     * 把[from, to)区间的点计入table, 需要时先转换坐标
+     *
+     * @return 不计数的点数
+     */
+    private long count(TileTable table, double[] lngs, double[] lats, int from, int to) {
+        if (transform == null) {
+            return bin(table, lngs, lats, from, to);
+        }
+        double[] blockLng = new double[Math.min(BLOCK_SIZE, to - from)];
+        double[] blockLat = new double[blockLng.length];
+        long count = 0;
+        for (int start = from; start < to; start += BLOCK_SIZE) {
+            int length = Math.min(BLOCK_SIZE, to - start);
+            System.arraycopy(lngs, start, blockLng, 0, length);
+            System.arraycopy(lats, start, blockLat, 0, length);
+            transform.transform(blockLng, blockLat, length);
+            count += bin(table, blockLng, blockLat, 0, length);
+        }
+        return count;
+    }
+
+    /**
+     * 把[from, to)区间的点计入table
+     *
+     * @return 不计数的点数
+     */
+    private long bin(TileTable table, double[] lngs, double[] lats, int from, int to) {
+        long dropped = 0;
+        int mask = resolution - 1;
+        long lastKey = -1;
+        Grid grid = null;
+        for (int i = from; i < to; i++) {
+            double lng = lngs[i];
+            double lat = lats[i];
+            if (!inRange(lng, lat)) {
+                dropped++;
+                continue;
+            }
+            long bx = Math.min((long) (TileUtil.mercatorX(lng) * bins), bins - 1);
+            long by = Math.min((long) (TileUtil.mercatorY(lat) * bins), bins - 1);
+            int x = (int) (bx >>> shift);
+            int y = (int) (by >>> shift);
+            long key = TileUtil.tileKey(x, y);
+            // 连续的点通常落在同一个瓦片中
+            if (key != lastKey) {
+                grid = grid(table, x, y, key);
+                lastKey = key;
+            }
+            grid.increment(((int) by & mask) << shift | ((int) bx & mask));
+        }
+        return dropped;
+    }
+
+    /**
+     * 把一个点计入table
+     *
+     * @return 点在Web墨卡托范围外, 不计数时返回false
+     */
+    private boolean bin(TileTable table, double lng, double lat) {
+        if (!inRange(lng, lat)) {
+            return false;
+        }
+        int mask = resolution - 1;
+        long bx = Math.min((long) (TileUtil.mercatorX(lng) * bins), bins - 1);
+        long by = Math.min((long) (TileUtil.mercatorY(lat) * bins), bins - 1);
+        int x = (int) (bx >>> shift);
+        int y = (int) (by >>> shift);
+        grid(table, x, y, TileUtil.tileKey(x, y)).increment(((int) by & mask) << shift | ((int) bx & mask));
+        return true;
+    }
+
+    private Grid grid(TileTable table, int x, int y, long key) {
+        Grid grid = table.get(key);
+        if (grid == null) {
+            grid = new Grid(x, y, zoom, resolution, longCounts);
+            table.put(grid);
+        }
+        return grid;
+    }
+
+    private static boolean inRange(double lng, double lat) {
+        return lng >= -180 && lng <= 180 && lat >= -TileUtil.MAX_LATITUDE && lat <= TileUtil.MAX_LATITUDE;
+    }
+
+    private static int checkLength(double[] lngs, double[] lats) {
+        if (lngs.length != lats.length) {
+            throw new IllegalArgumentException("坐标数组长度不一致");
+        }
+        return lngs.length;
+    }
+
+    private static void checkRange(double[] lngs, double[] lats, int offset, int length) {
+        int end = offset + length;
+        if (offset < 0 || length < 0 || end < 0 || end > lngs.length || end > lats.length) {
+            throw new IndexOutOfBoundsException("offset: " + offset + ", length: " + length);
+        }
+    }
+
+    /**
+     * 一段点的计数任务, 计入自己的局部瓦片表
+     */
+    private class ChunkTask extends RecursiveTask<Void> {
+        private static final long serialVersionUID = 1L;
+
+        private final double[] lngs;
+        private final double[] lats;
+        private final int from;
+        private final int to;
+        private final TileTable tiles = new TileTable();
+        private long dropped;
+
+        ChunkTask(double[] lngs, double[] lats, int from, int to) {
+            this.lngs = lngs;
+            this.lats = lats;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Void compute() {
+            dropped = count(tiles, lngs, lats, from, to);
+            return null;
+        }
+    }
+
+    /**
+     * 一个瓦片的格子计数, 第row行第col列的格子下标为row * resolution + col, 第0行在北边
+     */
+    public static final class Grid {
+        private final int x;
+        private final int y;
+        private final int zoom;
+        private final int resolution;
+        private final int[] intCounts;
+        private final long[] longCounts;
+
+        private Grid(int x, int y, int zoom, int resolution, boolean wide) {
+            this(x, y, zoom, resolution, wide ? null : new int[resolution * resolution],
+                    wide ? new long[resolution * resolution] : null);
+        }
+
+        private Grid(int x, int y, int zoom, int resolution, int[] intCounts, long[] longCounts) {
+            this.x = x;
+            this.y = y;
+            this.zoom = zoom;
+            this.resolution = resolution;
+            this.intCounts = intCounts;
+            this.longCounts = longCounts;
+        }
+
+        public int getX() {
+            return x;
+        }
+
+        public int getY() {
+            return y;
+        }
+
+        public int getZoom() {
+            return zoom;
+        }
+
+        public int getResolution() {
+            return resolution;
+        }
+
+        /**
+         * 获取格子的计数
+         *
+         * @param col 列, [0, resolution)
+         * @param row 行, [0, resolution)
+         * @return 计数
+         */
+        public long get(int col, int row) {
+            if (col < 0 || row < 0 || col >= resolution || row >= resolution) {
+                throw new IndexOutOfBoundsException("col: " + col + ", row: " + row);
+            }
+            int index = row * resolution + col;
+            return intCounts != null ? intCounts[index] : longCounts[index];
+        }
+
+        /**
+         * 瓦片内的总点数
+         */
+        public long getTotal() {
+            long sum = 0;
+            for (int i = 0; i < resolution * resolution; i++) {
+                sum += intCounts != null ? intCounts[i] : longCounts[i];
+            }
+            return sum;
+        }
+
+        /**
+         * 计数最大的格子的计数
+         */
+        public long getMax() {
+            long max = 0;
+            for (int i = 0; i < resolution * resolution; i++) {
+                max = Math.max(max, intCounts != null ? intCounts[i] : longCounts[i]);
+            }
+            return max;
+        }
+
+        /**
+         * 复制所有格子的计数
+         *
+         * @return 按行排列的计数
+         */
+        public long[] toArray() {
+            if (longCounts != null) {
+                return longCounts.clone();
+            }
+            long[] result = new long[intCounts.length];
+            for (int i = 0; i < result.length; i++) {
+                result[i] = intCounts[i];
+            }
+            return result;
+        }
+
+        /**
+         * 瓦片的经纬度范围
+         *
+         * @return {最小经度, 最小纬度, 最大经度, 最大纬度}
+         */
+        public double[] getBounds() {
+            return TileUtil.tileBounds(x, y, zoom);
+        }
+
+        private void increment(int index) {
+            if (intCounts != null) {
+                intCounts[index]++;
+            } else {
+                longCounts[index]++;
+            }
+        }
+
+        private void add(Grid other) {
+            if (intCounts != null) {
+                for (int i = 0; i < intCounts.length; i++) {
+                    intCounts[i] += other.intCounts[i];
+                }
+            } else {
+                for (int i = 0; i < longCounts.length; i++) {
+                    longCounts[i] += other.longCounts[i];
+                }
+            }
+        }
+
+        private Grid copy() {
+            return new Grid(x, y, zoom, resolution, intCounts == null ? null : intCounts.clone(),
+                    longCounts == null ? null : longCounts.clone());
+        }
+    }
+
+    /**
+     * 以瓦片编号为键的开放寻址表, 避免装箱
+     */
+    private static final class TileTable {
+        private static final long EMPTY = -1;
+
+        long[] keys;
+        Grid[] grids;
+        int size;
+
+        TileTable() {
+            clear();
+        }
+
+        Grid get(long key) {
+            int mask = keys.length - 1;
+            for (int i = hash(key) & mask; ; i = (i + 1) & mask) {
+                if (keys[i] == key) {
+                    return grids[i];
+                }
+                if (keys[i] == EMPTY) {
+                    return null;
+                }
+            }
+        }
+
+        /**
+         * 放入一个表中没有的瓦片
+         */
+        void put(Grid grid) {
+            if (size * 2 >= keys.length) {
+                long[] oldKeys = keys;
+                Grid[] oldGrids = grids;
+                keys = new long[oldKeys.length << 1];
+                grids = new Grid[keys.length];
+                Arrays.fill(keys, EMPTY);
+                for (int i = 0; i < oldKeys.length; i++) {
+                    if (oldKeys[i] != EMPTY) {
+                        insert(oldKeys[i], oldGrids[i]);
+                    }
+                }
+            }
+            insert(TileUtil.tileKey(grid.x, grid.y), grid);
+            size++;
+        }
+
+        List<Grid> values() {
+            List<Grid> result = new ArrayList<>(size);
+            for (Grid grid : grids) {
+                if (grid != null) {
+                    result.add(grid);
+                }
+            }
+            return result;
+        }
+
+        void clear() {
+            keys = new long[16];
+            grids = new Grid[16];
+            Arrays.fill(keys, EMPTY);
+            size = 0;
+        }
+
+        private void insert(long key, Grid grid) {
+            int mask = keys.length - 1;
+            int i = hash(key) & mask;
+            while (keys[i] != EMPTY) {
+                i = (i + 1) & mask;
+            }
+            keys[i] = key;
+            grids[i] = grid;
+        }
+
+        private static int hash(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ h >>> 32);
+        }
+    }
+
+    /**
+     * 计数前的坐标转换, 在长度为length的前缀上原地转换
+     * <p>
+     * 例如WGS84坐标在高德瓦片上统计:
+     * <pre>
+     * (lngs, lats, length) -&gt; CoordinateTransformUtil.wgs84ToGCJ02(lats, lngs, lats, lngs, 0, length)
+     * </pre>
+     */
+    public interface CoordinateTransform {
+        /**
+         * 转换坐标
+         *
+         * @param lngs   经度数组
+         * @param lats   纬度数组
+         * @param length 需要转换的点数
+         */
+        void transform(double[] lngs, double[] lats, int length);
+    }
+
+    public static class Builder {
+        private int zoom = -1;
+        private int resolution = TileUtil.TILE_SIZE;
+        private boolean longCounts;
+        private CoordinateTransform transform;
+
+        /**
+         * 层级, 必须设置
+         *
+         * @param zoom [0, 30]
+         * @return Builder
+         */
+        public Builder zoom(int zoom) {
+            TileUtil.checkZoom(zoom);
+            this.zoom = zoom;
+            return this;
+        }
+
+        /**
+         * 每个瓦片每边的格子数, 默认256即每个像素一个格子
+         *
+         * @param resolution 1到256之间的2的幂
+         * @return Builder
+         */
+        public Builder resolution(int resolution) {
+            if (resolution < 1 || resolution > TileUtil.TILE_SIZE || Integer.bitCount(resolution) != 1) {
+                throw new IllegalArgumentException("resolution必须是1到256之间的2的幂");
+            }
+            this.resolution = resolution;
+            return this;
+        }
+
+        /**
+         * 使用long计数, 每个格子占用的内存是int的两倍
+         *
+         * @return Builder
+         */
+        public Builder longCounts() {
+            this.longCounts = true;
+            return this;
+        }
+
+        /**
+         * 计数前的坐标转换, 默认不转换
+         *
+         * @param transform 坐标转换
+         * @return Builder
+         */
+        public Builder transform(CoordinateTransform transform) {
+            this.transform = transform;
+            return this;
+        }
+
+        public HeatMap build() {
+            if (zoom < 0) {
+                throw new IllegalArgumentException("zoom必须设置");
+            }
+            return new HeatMap(this);
+        }
+    }
+}
@@ -0,0 +1,367 @@
+package com.yshebkb.common.gps;
+
+import com.yshebkb.common.gps.polygon.PointArray;
+import com.yshebkb.common.gps.polygon.Polygon;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * 百度POI围栏文件的加载器
+ * <p>
+ * 文件每行一个POI, 格式为:
+ * <pre>
+ * id \t 类型|minX,minY;maxX,maxY|1-x,y,x,y,...;
+ * </pre>
+ * 坐标是百度墨卡托坐标, 加载时转换为bd09经纬度. 第三段可以有多个以;结尾的环, 第一个是外环, 其余作为洞.
+ * <p>
+ * 文件被映射到内存后按行边界切成若干块并行解析, 每块直接扫描字节, 数字在字节上解析,
+ * 不创建String, 不装箱. 结果按文件中的顺序返回.
+ *
+ * @author whiteclaw
+ * created on 2026-10-18
+ */
+public class PoiLoader {
+
+    /**
+     * 每块的最小字节数, 小文件不拆分
+     */
+    static final int MIN_CHUNK_BYTES = 1 << 20;
+
+    private static final double[] POW10 = new double[19];
+
+    static {
+        POW10[0] = 1;
+        for (int i = 1; i < POW10.length; i++) {
+            POW10[i] = POW10[i - 1] * 10;
+        }
+    }
+
+    private PoiLoader() {
+    }
+
+    /**
+     * 用公共线程池加载文件
+     *
+     * @param path 文件路径
+     * @return 按文件顺序排列的POI
+     * @throws IOException 读取失败
+     */
+    public static List<Poi> load(Path path) throws IOException {
+        return load(path, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * 加载文件
+     *
+     * @param path 文件路径
+     * @param pool 解析用的线程池
+     * @return 按文件顺序排列的POI
+     * @throws IOException 读取失败
+     */
+    public static List<Poi> load(Path path, ForkJoinPool pool) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("文件超过2GB: " + path);
+            }
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return load(buffer, pool);
+        }
+    }
+
+    /**
+     * 解析内存中的文件内容
+     *
+     * @param buffer 文件内容, 从0到limit
+     * @param pool   解析用的线程池
+     * @return 按文件顺序排列的POI
+     */
+    public static List<Poi> load(ByteBuffer buffer, ForkJoinPool pool) {
+        int chunks = Math.max(1, Math.min(pool.getParallelism() * 4, buffer.limit() / MIN_CHUNK_BYTES));
+        return load(buffer, pool, chunks);
+    }
+
+    /**
+     * 把内容切成chunks块并行解析
+     */
+    static List<Poi> load(ByteBuffer buffer, ForkJoinPool pool, int chunks) {
+        int size = buffer.limit();
+        // 按行边界切分, 每块从一行的开头开始
+        int[] bounds = new int[chunks + 1];
+        for (int c = 1; c < chunks; c++) {
+            int position = Math.max((int) ((long) size * c / chunks), bounds[c - 1]);
+            while (position < size && buffer.get(position - 1) != '\n') {
+                position++;
+            }
+            bounds[c] = position;
+        }
+        bounds[chunks] = size;
+
+        List<ChunkTask> tasks = new ArrayList<>(chunks);
+        for (int c = 0; c < chunks; c++) {
+            tasks.add(new ChunkTask(buffer, bounds[c], bounds[c + 1]));
+        }
+        if (chunks == 1) {
+            return tasks.get(0).compute();
+        }
+        return pool.invoke(new RecursiveTask<List<Poi>>() {
+            @Override
+            protected List<Poi> compute() {
+                invokeAll(tasks);
+                List<Poi> result = new ArrayList<>();
+                for (ChunkTask task : tasks) {
+                    result.addAll(task.join());
+                }
+                return result;
+            }
+        });
+    }
+
+    /**
+     * 解析[from, to)中的完整行
+     */
+    static List<Poi> parse(ByteBuffer buffer, int from, int to) {
+        List<Poi> result = new ArrayList<>();
+        Tokenizer tokenizer = new Tokenizer(buffer, from, to);
+        PointArray points = PointArray.create(256);
+        while (tokenizer.skipBlankLines()) {
+            long id = tokenizer.parseLong();
+            tokenizer.expect('\t');
+            int type = (int) tokenizer.parseLong();
+            tokenizer.expect('|');
+            // 包围盒可以由顶点算出, 跳过
+            tokenizer.skipPast('|');
+
+            Polygon.Builder builder = Polygon.Builder();
+            int rings = 0;
+            while (!tokenizer.atLineEnd()) {
+                // 环的前缀, 如"1-"
+                tokenizer.parseLong();
+                tokenizer.expect('-');
+                points.clear();
+                while (true) {
+                    double x = tokenizer.parseDouble();
+                    tokenizer.expect(',');
+                    double y = tokenizer.parseDouble();
+                    points.add(x, y);
+                    if (tokenizer.peek() == ',') {
+                        tokenizer.next();
+                    } else {
+                        break;
+                    }
+                }
+                if (tokenizer.peek() == ';') {
+                    tokenizer.next();
+                }
+                BaiduMapTrans.trans(points);
+                if (rings++ > 0) {
+                    builder.close();
+                }
+                builder.addVertices(points);
+            }
+            tokenizer.nextLine();
+            result.add(new Poi(id, type, builder.build()));
+        }
+        return result;
+    }
+
+    /**
+     * 一个POI围栏
+     */
+    public static class Poi {
+        private final long id;
+        private final int type;
+        private final Polygon polygon;
+
+        public Poi(long id, int type, Polygon polygon) {
+            this.id = id;
+            this.type = type;
+            this.polygon = polygon;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public int getType() {
+            return type;
+        }
+
+        /**
+         * bd09坐标的围栏多边形
+         */
+        public Polygon getPolygon() {
+            return polygon;
+        }
+    }
+
+    private static class ChunkTask extends RecursiveTask<List<Poi>> {
+        private static final long serialVersionUID = 1L;
+
+        private final ByteBuffer buffer;
+        private final int from;
+        private final int to;
+
+        ChunkTask(ByteBuffer buffer, int from, int to) {
+            this.buffer = buffer;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected List<Poi> compute() {
+            return parse(buffer, from, to);
+        }
+    }
+
+    /**
+     * 在字节上逐个读取字段, 使用绝对位置读取, 多个线程可以共享同一个buffer
+     */
+    private static class Tokenizer {
+        private final ByteBuffer buffer;
+        private final int end;
+        private int position;
+
+        Tokenizer(ByteBuffer buffer, int from, int to) {
+            this.buffer = buffer;
+            this.position = from;
+            this.end = to;
+        }
+
+        int peek() {
+            return position < end ? buffer.get(position) : -1;
+        }
+
+        void next() {
+            position++;
+        }
+
+        void expect(char c) {
+            if (peek() != c) {
+                throw error("应为'" + c + "'");
+            }
+            position++;
+        }
+
+        void skipPast(char c) {
+            while (position < end && buffer.get(position) != c) {
+                position++;
+            }
+            expect(c);
+        }
+
+        boolean atLineEnd() {
+            int c = peek();
+            return c == -1 || c == '\n' || c == '\r';
+        }
+
+        void nextLine() {
+            while (position < end && buffer.get(position) != '\n') {
+                position++;
+            }
+            position++;
+        }
+
+        /**
+         * 跳过空行
+         *
+         * @return 是否还有内容
+         */
+        boolean skipBlankLines() {
+            while (position < end && (buffer.get(position) == '\n' || buffer.get(position) == '\r')) {
+                position++;
+            }
+            return position < end;
+        }
+
+        long parseLong() {
+            int start = position;
+            boolean negative = peek() == '-';
+            if (negative) {
+                position++;
+            }
+            long value = 0;
+            while (position < end) {
+                int c = buffer.get(position) - '0';
+                if (c < 0 || c > 9) {
+                    break;
+                }
+                value = value * 10 + c;
+                position++;
+            }
+            if (position == start + (negative ? 1 : 0)) {
+                throw error("应为数字");
+            }
+            return negative ? -value : value;
+        }
+
+        /**
+         * 解析十进制小数. 有效数字不超过15位时, 整数尾数和10的幂都能精确表示为double,
+         * 一次除法的结果与{@link Double#parseDouble(String)}相同; 否则退回到Double.parseDouble
+         */
+        double parseDouble() {
+            int start = position;
+            boolean negative = peek() == '-';
+            if (negative) {
+                position++;
+            }
+            long mantissa = 0;
+            int digits = 0;
+            int fraction = -1;
+            while (position < end) {
+                int c = buffer.get(position);
+                if (c >= '0' && c <= '9') {
+                    mantissa = mantissa * 10 + (c - '0');
+                    if (mantissa != 0) {
+                        digits++;
+                    }
+                    if (fraction >= 0) {
+                        fraction++;
+                    }
+                } else if (c == '.' && fraction < 0) {
+                    fraction = 0;
+                } else {
+                    break;
+                }
+                position++;
+            }
+            int c = peek();
+            if (position == start + (negative ? 1 : 0)) {
+                throw error("应为数字");
+            }
+            if (digits > 15 || fraction >= POW10.length || c == 'e' || c == 'E') {
+                return slowParse(start);
+            }
+            double value = fraction > 0 ? mantissa / POW10[fraction] : mantissa;
+            return negative ? -value : value;
+        }
+
+        private double slowParse(int start) {
+            while (position < end) {
+                int c = buffer.get(position);
+                if ((c >= '0' && c <= '9') || c == '.' || c == 'e' || c == 'E' || c == '-' || c == '+') {
+                    position++;
+                } else {
+                    break;
+                }
+            }
+            byte[] bytes = new byte[position - start];
+            for (int i = 0; i < bytes.length; i++) {
+                bytes[i] = buffer.get(start + i);
+            }
+            return Double.parseDouble(new String(bytes, StandardCharsets.US_ASCII));
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException("第" + position + "字节处格式错误: " + message);
+        }
+    }
+}
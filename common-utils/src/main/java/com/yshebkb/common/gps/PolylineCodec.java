@@ -0,0 +1,421 @@
+package com.yshebkb.common.gps;
+
+import com.yshebkb.common.gps.polygon.Point;
+import com.yshebkb.common.gps.polygon.PointArray;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 轨迹的编码折线(encoded polyline)编解码器, 与谷歌地图的格式兼容
+ * <p>
+ * 坐标乘以10^precision后取整, 按纬度、经度的顺序对相邻点的差值编码: 差值左移一位、负数取反(zigzag),
+ * 再从低位起每5位一组, 除最后一组外加0x20, 加63后成为一个可打印ASCII字符. precision为5时与谷歌一致,
+ * 每个点通常只需要4到8个字节, 比JSON小一个数量级; OSRM等使用precision为6.
+ * <p>
+ * 编码直接写入byte[]或{@link ByteBuffer}, 解码直接写入{@link PointArray}或基本类型数组, 不创建Point和String.
+ * 取整的误差不超过0.5 * 10^-precision度, 差值在取整后的整数上计算, 误差不会沿轨迹累积.
+ * 实例不可变, 可以被多个线程共享.
+ *
+ * @author whiteclaw
+ * created on 2026-10-18
+ */
+public final class PolylineCodec {
+
+    /**
+     * 谷歌地图使用的精度
+     */
+    public static final int DEFAULT_PRECISION = 5;
+
+    /**
+     * 最大精度, 此时坐标放大后仍在long范围内且能精确表示
+     */
+    public static final int MAX_PRECISION = 9;
+
+    /**
+     * 变长编码中一个值的最大移位, 再多的延续字节会超出long的64位
+     */
+    private static final int MAX_SHIFT = 60;
+
+    private static final PolylineCodec DEFAULT = new PolylineCodec(DEFAULT_PRECISION);
+
+    private final int precision;
+    private final double factor;
+
+    /**
+     * 单个差值编码后的最大字节数
+     */
+    private final int maxValueBytes;
+
+    public PolylineCodec(int precision) {
+        if (precision < 0 || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("precision必须在0到" + MAX_PRECISION + "之间");
+        }
+        this.precision = precision;
+        this.factor = Math.pow(10, precision);
+        // 经度差值的绝对值不超过360 * factor, zigzag后再乘2
+        long max = Math.round(720 * factor) + 1;
+        this.maxValueBytes = (64 - Long.numberOfLeadingZeros(max) + 4) / 5;
+    }
+
+    /**
+     * 获取精度为{@link #DEFAULT_PRECISION}的编解码器
+     */
+    public static PolylineCodec getDefault() {
+        return DEFAULT;
+    }
+
+    public int getPrecision() {
+        return precision;
+    }
+
+    /**
+     * 编码count个点最多需要的字节数
+     *
+     * @param count 点数
+     * @return 字节数
+     */
+    public int maxEncodedLength(int count) {
+        return count * 2 * maxValueBytes;
+    }
+
+    public byte[] encode(List<Point> points) {
+        byte[] buffer = new byte[maxEncodedLength(points.size())];
+        int length = 0;
+        long lastLat = 0;
+        long lastLng = 0;
+        for (Point point : points) {
+            long lat = scale(point.getLat());
+            long lng = scale(point.getLng());
+            length = write(lat - lastLat, buffer, length);
+            length = write(lng - lastLng, buffer, length);
+            lastLat = lat;
+            lastLng = lng;
+        }
+        return Arrays.copyOf(buffer, length);
+    }
+
+    public byte[] encode(PointArray points) {
+        int size = points.size();
+        byte[] buffer = new byte[maxEncodedLength(size)];
+        int length = 0;
+        long lastLat = 0;
+        long lastLng = 0;
+        for (int i = 0; i < size; i++) {
+            long lat = scale(points.getLat(i));
+            long lng = scale(points.getLng(i));
+            length = write(lat - lastLat, buffer, length);
+            length = write(lng - lastLng, buffer, length);
+            lastLat = lat;
+            lastLng = lng;
+        }
+        return Arrays.copyOf(buffer, length);
+    }
+
+    public byte[] encode(double[] lngs, double[] lats) {
+        byte[] buffer = new byte[maxEncodedLength(checkLength(lngs, lats))];
+        return Arrays.copyOf(buffer, encode(lngs, lats, 0, lngs.length, buffer, 0));
+    }
+
+    /**
+     * 编码[offset, offset + length)区间的点, 写入out[outOffset]起的位置
+     *
+     * @param lngs      经度数组
+     * @param lats      纬度数组
+     * @param offset    起始下标
+     * @param length    点数
+     * @param out       输出数组
+     * @param outOffset 输出的起始位置
+     * @return 写入的字节数
+     */
+    public int encode(double[] lngs, double[] lats, int offset, int length, byte[] out, int outOffset) {
+        checkRange(lngs, lats, offset, length);
+        if (outOffset < 0 || outOffset > out.length) {
+            throw new IndexOutOfBoundsException("outOffset: " + outOffset);
+        }
+        if (out.length - outOffset < maxEncodedLength(length)) {
+            // 空间可能不够时先编码到临时数组
+            byte[] buffer = new byte[maxEncodedLength(length)];
+            int written = encode(lngs, lats, offset, length, buffer, 0);
+            if (written > out.length - outOffset) {
+                throw new IndexOutOfBoundsException("输出数组空间不足, 需要" + written + "字节");
+            }
+            System.arraycopy(buffer, 0, out, outOffset, written);
+            return written;
+        }
+        int position = outOffset;
+        long lastLat = 0;
+        long lastLng = 0;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            long lat = scale(lats[i]);
+            long lng = scale(lngs[i]);
+            position = write(lat - lastLat, out, position);
+            position = write(lng - lastLng, out, position);
+            lastLat = lat;
+            lastLng = lng;
+        }
+        return position - outOffset;
+    }
+
+    /**
+     * 编码后写入ByteBuffer的当前位置
+     *
+     * @param lngs 经度数组
+     * @param lats 纬度数组
+     * @param out  输出缓冲区
+     * @return 写入的字节数
+     * @throws BufferOverflowException 剩余空间不足时抛出, 此时缓冲区的位置不变
+     */
+    public int encode(double[] lngs, double[] lats, ByteBuffer out) {
+        int length = checkLength(lngs, lats);
+        if (out.hasArray() && !out.isReadOnly() && out.remaining() >= maxEncodedLength(length)) {
+            int written = encode(lngs, lats, 0, length, out.array(), out.arrayOffset() + out.position());
+            out.position(out.position() + written);
+            return written;
+        }
+        byte[] encoded = encode(lngs, lats);
+        out.put(encoded);
+        return encoded.length;
+    }
+
+    /**
+     * 编码为字符串, 用于URL或JSON中
+     */
+    public String encodeToString(List<Point> points) {
+        return new String(encode(points), StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * 解码为点序列
+     *
+     * @param data 编码后的字节
+     * @return 点序列
+     */
+    public PointArray decode(byte[] data) {
+        PointArray points = PointArray.create(countTerminators(data, 0, data.length) / 2);
+        decode(data, 0, data.length, points);
+        return points;
+    }
+
+    /**
+     * 解码字符串
+     *
+     * @param encoded 编码后的字符串
+     * @return 点序列
+     */
+    public PointArray decode(CharSequence encoded) {
+        byte[] data = new byte[encoded.length()];
+        for (int i = 0; i < data.length; i++) {
+            char c = encoded.charAt(i);
+            data[i] = c < 128 ? (byte) c : 0;
+        }
+        return decode(data);
+    }
+
+    /**
+     * 解码ByteBuffer中剩余的字节, 解码后位置移到末尾
+     *
+     * @param data 编码后的字节
+     * @return 点序列
+     */
+    public PointArray decode(ByteBuffer data) {
+        byte[] bytes;
+        int offset;
+        int length = data.remaining();
+        if (data.hasArray()) {
+            bytes = data.array();
+            offset = data.arrayOffset() + data.position();
+        } else {
+            bytes = new byte[length];
+            data.duplicate().get(bytes);
+            offset = 0;
+        }
+        PointArray points = PointArray.create(countTerminators(bytes, offset, length) / 2);
+        decode(bytes, offset, length, points);
+        data.position(data.position() + length);
+        return points;
+    }
+
+    /**
+     * 解码data[offset, offset + length)区间, 追加到out中. out是紧凑模式时坐标按微度取整
+     *
+     * @param data   编码后的字节
+     * @param offset 起始位置
+     * @param length 字节数
+     * @param out    输出的点序列
+     * @return 解码的点数
+     */
+    public int decode(byte[] data, int offset, int length, PointArray out) {
+        checkRange(data, offset, length);
+        int end = offset + length;
+        int position = offset;
+        int count = 0;
+        long lat = 0;
+        long lng = 0;
+        while (position < end) {
+            long value = 0;
+            int shift = 0;
+            int b;
+            do {
+                if (shift > MAX_SHIFT) {
+                    throw new IllegalArgumentException("编码折线在位置" + (position - offset) + "处的数值过长");
+                }
+                b = next(data, position++, end);
+                value |= (long) (b & 0x1F) << shift;
+                shift += 5;
+            } while (b >= 0x20);
+            lat += (value >>> 1) ^ -(value & 1);
+
+            if (position == end) {
+                throw new IllegalArgumentException("编码折线在位置" + (position - offset) + "处缺少经度");
+            }
+            value = 0;
+            shift = 0;
+            do {
+                if (shift > MAX_SHIFT) {
+                    throw new IllegalArgumentException("编码折线在位置" + (position - offset) + "处的数值过长");
+                }
+                b = next(data, position++, end);
+                value |= (long) (b & 0x1F) << shift;
+                shift += 5;
+            } while (b >= 0x20);
+            lng += (value >>> 1) ^ -(value & 1);
+            out.add(lng / factor, lat / factor);
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * 解码到基本类型数组
+     *
+     * @param data   编码后的字节
+     * @param outLng 经度输出数组
+     * @param outLat 纬度输出数组
+     * @return 解码的点数
+     * @throws IndexOutOfBoundsException 输出数组长度不足时抛出
+     */
+    public int decode(byte[] data, double[] outLng, double[] outLat) {
+        int end = data.length;
+        int position = 0;
+        int count = 0;
+        long lat = 0;
+        long lng = 0;
+        while (position < end) {
+            long value = 0;
+            int shift = 0;
+            int b;
+            do {
+                if (shift > MAX_SHIFT) {
+                    throw new IllegalArgumentException("编码折线在位置" + position + "处的数值过长");
+                }
+                b = next(data, position++, end);
+                value |= (long) (b & 0x1F) << shift;
+                shift += 5;
+            } while (b >= 0x20);
+            lat += (value >>> 1) ^ -(value & 1);
+
+            if (position == end) {
+                throw new IllegalArgumentException("编码折线在位置" + position + "处缺少经度");
+            }
+            value = 0;
+            shift = 0;
+            do {
+                if (shift > MAX_SHIFT) {
+                    throw new IllegalArgumentException("编码折线在位置" + position + "处的数值过长");
+                }
+                b = next(data, position++, end);
+                value |= (long) (b & 0x1F) << shift;
+                shift += 5;
+            } while (b >= 0x20);
+            lng += (value >>> 1) ^ -(value & 1);
+            if (count >= outLng.length || count >= outLat.length) {
+                throw new IndexOutOfBoundsException("输出数组长度不足");
+            }
+            outLng[count] = lng / factor;
+            outLat[count] = lat / factor;
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * 统计编码中的点数, 不完整解码
+     *
+     * @param data 编码后的字节
+     * @return 点数
+     */
+    public static int count(byte[] data) {
+        return countTerminators(data, 0, data.length) / 2;
+    }
+
+    private long scale(double value) {
+        if (!(value >= -180 && value <= 180)) {
+            throw new IllegalArgumentException("经纬度超出范围: " + value);
+        }
+        return Math.round(value * factor);
+    }
+
+    /**
+     * 以zigzag和5位一组的变长编码写入一个差值
+     *
+     * @return 写入后的位置
+     */
+    private static int write(long delta, byte[] out, int position) {
+        long value = delta << 1 ^ delta >> 63;
+        while (value >= 0x20) {
+            out[position++] = (byte) ((0x20 | (value & 0x1F)) + 63);
+            value >>>= 5;
+        }
+        out[position++] = (byte) (value + 63);
+        return position;
+    }
+
+    /**
+     * 读取一个字节并减去63
+     */
+    private static int next(byte[] data, int position, int end) {
+        if (position >= end) {
+            throw new IllegalArgumentException("编码折线在位置" + position + "处不完整");
+        }
+        int b = data[position] - 63;
+        if (b < 0 || b > 0x3F) {
+            throw new IllegalArgumentException("编码折线在位置" + position + "处有非法字符");
+        }
+        return b;
+    }
+
+    private static int countTerminators(byte[] data, int offset, int length) {
+        int count = 0;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            if (data[i] - 63 < 0x20) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static int checkLength(double[] lngs, double[] lats) {
+        if (lngs.length != lats.length) {
+            throw new IllegalArgumentException("坐标数组长度不一致");
+        }
+        return lngs.length;
+    }
+
+    private static void checkRange(double[] lngs, double[] lats, int offset, int length) {
+        int end = offset + length;
+        if (offset < 0 || length < 0 || end < 0 || end > lngs.length || end > lats.length) {
+            throw new IndexOutOfBoundsException("offset: " + offset + ", length: " + length);
+        }
+    }
+
+    private static void checkRange(byte[] data, int offset, int length) {
+        int end = offset + length;
+        if (offset < 0 || length < 0 || end < 0 || end > data.length) {
+            throw new IndexOutOfBoundsException("offset: " + offset + ", length: " + length);
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.yshebkb.common.gps;
+
+/**
+ * Web墨卡托瓦片计算工具, 与常见在线地图(OSM、谷歌、高德等)的XYZ瓦片编号一致
+ * <p>
+ * 第zoom层的世界被分成2^zoom * 2^zoom个瓦片, 每个瓦片256 * 256像素. 瓦片和像素的x从西经180度向东增加,
+ * y从北纬{@link #MAX_LATITUDE}向南增加. 世界像素坐标是整个世界范围内的像素坐标, 取值范围[0, 256 * 2^zoom].
+ * 坐标系由调用方决定, 国内地图的瓦片需要先转换为对应的坐标系.
+ *
+ * @author whiteclaw
+ * created on 2026-10-18
+ */
+public class TileUtil {
+
+    /**
+     * 瓦片的像素边长
+     */
+    public static final int TILE_SIZE = 256;
+
+    /**
+     * 最大层级, 此时瓦片编号仍可以用int表示
+     */
+    public static final int MAX_ZOOM = 30;
+
+    /**
+     * Web墨卡托的纬度范围, 使整个世界投影为正方形
+     */
+    public static final double MAX_LATITUDE = 85.05112877980659;
+
+    private TileUtil() {
+    }
+
+    /**
+     * 经度对应的世界像素x坐标
+     *
+     * @param lng  经度
+     * @param zoom 层级
+     * @return 世界像素x坐标
+     */
+    public static double worldX(double lng, int zoom) {
+        checkZoom(zoom);
+        return mercatorX(lng) * worldSize(zoom);
+    }
+
+    /**
+     * 纬度对应的世界像素y坐标, 纬度超出Web墨卡托范围时取边界值
+     *
+     * @param lat  纬度
+     * @param zoom 层级
+     * @return 世界像素y坐标
+     */
+    public static double worldY(double lat, int zoom) {
+        checkZoom(zoom);
+        return mercatorY(lat) * worldSize(zoom);
+    }
+
+    /**
+     * 批量计算世界像素坐标
+     *
+     * @param lngs 经度数组
+     * @param lats 纬度数组
+     * @param zoom 层级
+     * @param outX 世界像素x坐标输出数组
+     * @param outY 世界像素y坐标输出数组
+     */
+    public static void worldXY(double[] lngs, double[] lats, int zoom, double[] outX, double[] outY) {
+        checkZoom(zoom);
+        if (lngs.length != lats.length || outX.length < lngs.length || outY.length < lngs.length) {
+            throw new IllegalArgumentException("坐标数组长度不一致");
+        }
+        double size = worldSize(zoom);
+        for (int i = 0; i < lngs.length; i++) {
+            outX[i] = mercatorX(lngs[i]) * size;
+            outY[i] = mercatorY(lats[i]) * size;
+        }
+    }
+
+    /**
+     * 经度所在的瓦片x编号
+     *
+     * @param lng  经度
+     * @param zoom 层级
+     * @return 瓦片x编号, [0, 2^zoom)
+     */
+    public static int tileX(double lng, int zoom) {
+        checkZoom(zoom);
+        return clamp(mercatorX(lng), zoom);
+    }
+
+    /**
+     * 纬度所在的瓦片y编号
+     *
+     * @param lat  纬度
+     * @param zoom 层级
+     * @return 瓦片y编号, [0, 2^zoom)
+     */
+    public static int tileY(double lat, int zoom) {
+        checkZoom(zoom);
+        return clamp(mercatorY(lat), zoom);
+    }
+
+    /**
+     * 经度在所在瓦片内的像素x坐标
+     *
+     * @param lng  经度
+     * @param zoom 层级
+     * @return 像素x坐标, [0, 256)
+     */
+    public static int pixelX(double lng, int zoom) {
+        return pixel(worldX(lng, zoom), zoom);
+    }
+
+    /**
+     * 纬度在所在瓦片内的像素y坐标
+     *
+     * @param lat  纬度
+     * @param zoom 层级
+     * @return 像素y坐标, [0, 256)
+     */
+    public static int pixelY(double lat, int zoom) {
+        return pixel(worldY(lat, zoom), zoom);
+    }
+
+    /**
+     * 世界像素x坐标对应的经度
+     *
+     * @param worldX 世界像素x坐标
+     * @param zoom   层级
+     * @return 经度
+     */
+    public static double lng(double worldX, int zoom) {
+        checkZoom(zoom);
+        return worldX / worldSize(zoom) * 360 - 180;
+    }
+
+    /**
+     * 世界像素y坐标对应的纬度
+     *
+     * @param worldY 世界像素y坐标
+     * @param zoom   层级
+     * @return 纬度
+     */
+    public static double lat(double worldY, int zoom) {
+        checkZoom(zoom);
+        double n = Math.PI * (1 - 2 * worldY / worldSize(zoom));
+        return Math.toDegrees(Math.atan(Math.sinh(n)));
+    }
+
+    /**
+     * 获取瓦片的经纬度范围
+     *
+     * @param x    瓦片x编号
+     * @param y    瓦片y编号
+     * @param zoom 层级
+     * @return {最小经度, 最小纬度, 最大经度, 最大纬度}
+     */
+    public static double[] tileBounds(int x, int y, int zoom) {
+        checkZoom(zoom);
+        if (x < 0 || y < 0 || x >= 1L << zoom || y >= 1L << zoom) {
+            throw new IllegalArgumentException("瓦片编号超出范围: " + x + ", " + y);
+        }
+        return new double[]{lng((double) x * TILE_SIZE, zoom), lat((y + 1.0) * TILE_SIZE, zoom),
+                lng((x + 1.0) * TILE_SIZE, zoom), lat((double) y * TILE_SIZE, zoom)};
+    }
+
+    /**
+     * 把瓦片编号合成一个long, 用作Map的键
+     *
+     * @param x 瓦片x编号
+     * @param y 瓦片y编号
+     * @return 高32位为x, 低32位为y
+     */
+    public static long tileKey(int x, int y) {
+        return (long) x << 32 | (y & 0xFFFFFFFFL);
+    }
+
+    public static int keyX(long key) {
+        return (int) (key >>> 32);
+    }
+
+    public static int keyY(long key) {
+        return (int) key;
+    }
+
+    /**
+     * 经度在世界宽度中的比例, [0, 1]
+     */
+    static double mercatorX(double lng) {
+        return (lng + 180) / 360;
+    }
+
+    /**
+     * 纬度在世界高度中的比例, 北边为0, [0, 1]
+     */
+    static double mercatorY(double lat) {
+        double sin = Math.sin(Math.toRadians(Math.max(-MAX_LATITUDE, Math.min(MAX_LATITUDE, lat))));
+        return 0.5 - Math.log((1 + sin) / (1 - sin)) / (4 * Math.PI);
+    }
+
+    static void checkZoom(int zoom) {
+        if (zoom < 0 || zoom > MAX_ZOOM) {
+            throw new IllegalArgumentException("zoom必须在0到" + MAX_ZOOM + "之间");
+        }
+    }
+
+    private static double worldSize(int zoom) {
+        return (double) TILE_SIZE * (1L << zoom);
+    }
+
+    private static int clamp(double ratio, int zoom) {
+        long tiles = 1L << zoom;
+        long tile = (long) Math.floor(ratio * tiles);
+        return (int) Math.max(0, Math.min(tiles - 1, tile));
+    }
+
+    private static int pixel(double world, int zoom) {
+        long pixel = Math.max(0, Math.min(((long) TILE_SIZE << zoom) - 1, (long) Math.floor(world)));
+        return (int) (pixel & (TILE_SIZE - 1));
+    }
+}
@@ -0,0 +1,216 @@
+package com.yshebkb.common.gps.polygon;
+
+/**
+ * 多边形的网格覆盖, 大部分点只需一次数组访问就能判断是否在多边形内
+ * <p>
+ * 把多边形的包围盒等分成2^depth × 2^depth个格子, 每个格子标记为:
+ * <ul>
+ * <li>{@link CellState#INSIDE} 整个格子都在多边形内</li>
+ * <li>{@link CellState#OUTSIDE} 整个格子都在多边形外</li>
+ * <li>{@link CellState#BOUNDARY} 格子与多边形的边相交, 需要调用{@link Polygon#contains(double, double)}精确判断</li>
+ * </ul>
+ * 构建时用四叉树自顶向下划分, 与边不相交的节点整体标记, 只有与边相交的节点继续细分, 每层只检查父节点中相交的边.
+ * 每个格子用2位存放, depth为10时占用256KB.
+ * <p>
+ * 深度越大, BOUNDARY格子所占的面积比例越小, 内存按4倍增长. 可以用{@link #getResolvedRatio()}和
+ * {@link #getMemoryBytes()}选择合适的深度, 需要统计实际查询的命中情况时用{@link #getState(double, double)}
+ * 判断点是否落在BOUNDARY格子中.
+ * <p>
+ * 构建后只读, 线程安全, 查询不写入任何字段.
+ *
+ * @author whiteclaw
+ * created on 2026-10-18
+ */
+public class CellCovering {
+
+    /**
+     * 格子的状态
+     */
+    public enum CellState {
+        OUTSIDE, INSIDE, BOUNDARY
+    }
+
+    public static final int MAX_DEPTH = 13;
+
+    private static final int OUTSIDE = 0;
+    private static final int INSIDE = 1;
+    private static final int BOUNDARY = 2;
+
+    private final Polygon polygon;
+    private final int depth;
+    private final int side;
+    private final double minX;
+    private final double minY;
+    private final double maxX;
+    private final double maxY;
+    private final double scaleX;
+    private final double scaleY;
+
+    /**
+     * 每个格子2位, 按行存放
+     */
+    private final long[] cells;
+
+    private final int[] counts = new int[3];
+
+    /**
+     * @param polygon 多边形
+     * @param depth   四叉树深度, 取值范围[0, 13], 每个方向有2^depth个格子
+     */
+    public CellCovering(Polygon polygon, int depth) {
+        if (depth < 0 || depth > MAX_DEPTH) {
+            throw new IllegalArgumentException("depth必须在0到" + MAX_DEPTH + "之间");
+        }
+        this.polygon = polygon;
+        this.depth = depth;
+        this.side = 1 << depth;
+        this.minX = polygon.getMinX();
+        this.minY = polygon.getMinY();
+        this.maxX = polygon.getMaxX();
+        this.maxY = polygon.getMaxY();
+        this.scaleX = maxX > minX ? side / (maxX - minX) : 0;
+        this.scaleY = maxY > minY ? side / (maxY - minY) : 0;
+        this.cells = new long[(int) (((long) side * side * 2 + 63) >> 6)];
+
+        int n = polygon.getVertexCount();
+        int[] edges = new int[n];
+        for (int i = 0; i < n; i++) {
+            edges[i] = i;
+        }
+        classify(0, 0, 0, edges, n);
+    }
+
+    /**
+     * 判断点是否在多边形内, 结果与{@link Polygon#contains(double, double)}相同
+     *
+     * @param x 经度
+     * @param y 纬度
+     * @return 在多边形内返回true
+     */
+    public boolean contains(double x, double y) {
+        if (x < minX || x > maxX || y < minY || y > maxY) {
+            return false;
+        }
+        int state = state(x, y);
+        if (state == BOUNDARY) {
+            return polygon.contains(x, y);
+        }
+        return state == INSIDE;
+    }
+
+    /**
+     * 获取点所在格子的状态, 包围盒外的点是{@link CellState#OUTSIDE}
+     *
+     * @param x 经度
+     * @param y 纬度
+     * @return 格子的状态
+     */
+    public CellState getState(double x, double y) {
+        if (x < minX || x > maxX || y < minY || y > maxY) {
+            return CellState.OUTSIDE;
+        }
+        return CellState.values()[state(x, y)];
+    }
+
+    public Polygon getPolygon() {
+        return polygon;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public int getInsideCells() {
+        return counts[INSIDE];
+    }
+
+    public int getOutsideCells() {
+        return counts[OUTSIDE];
+    }
+
+    public int getBoundaryCells() {
+        return counts[BOUNDARY];
+    }
+
+    /**
+     * 包围盒内均匀分布的点不需要精确判断的比例, 即非BOUNDARY格子所占的比例
+     *
+     * @return 比例, 取值范围[0, 1]
+     */
+    public double getResolvedRatio() {
+        return 1 - (double) counts[BOUNDARY] / ((long) side * side);
+    }
+
+    /**
+     * 获取格子占用的内存字节数(不含对象头)
+     *
+     * @return 内存字节数
+     */
+    public long getMemoryBytes() {
+        return (long) cells.length * Long.BYTES;
+    }
+
+    private int state(double x, double y) {
+        int col = Math.min((int) ((x - minX) * scaleX), side - 1);
+        int row = Math.min((int) ((y - minY) * scaleY), side - 1);
+        long index = ((long) row * side + col) << 1;
+        return (int) (cells[(int) (index >> 6)] >>> (index & 63)) & 3;
+    }
+
+    /**
+     * 划分第level层的节点(col, row), edges是与它相交的边
+     */
+    private void classify(int level, int col, int row, int[] edges, int count) {
+        int cellsPerNode = 1 << (depth - level);
+        int fromCol = col * cellsPerNode;
+        int fromRow = row * cellsPerNode;
+        // 查询时格子的下标由浮点数截断得到, 略微扩大节点范围, 避免边界上的点被归错格子
+        double padX = 1e-6 / Math.max(scaleX, 1e-300);
+        double padY = 1e-6 / Math.max(scaleY, 1e-300);
+        double nodeMinX = minX + fromCol / scaleX - padX;
+        double nodeMinY = minY + fromRow / scaleY - padY;
+        double nodeMaxX = minX + (fromCol + cellsPerNode) / scaleX + padX;
+        double nodeMaxY = minY + (fromRow + cellsPerNode) / scaleY + padY;
+        if (scaleX == 0) {
+            nodeMinX = minX;
+            nodeMaxX = maxX;
+        }
+        if (scaleY == 0) {
+            nodeMinY = minY;
+            nodeMaxY = maxY;
+        }
+
+        int[] crossing = new int[count];
+        int crossed = 0;
+        for (int k = 0; k < count; k++) {
+            if (polygon.edgeIntersects(edges[k], nodeMinX, nodeMinY, nodeMaxX, nodeMaxY)) {
+                crossing[crossed++] = edges[k];
+            }
+        }
+
+        if (crossed == 0) {
+            // 节点内没有边, 整体在多边形内或外, 取中心点判断
+            boolean inside = polygon.contains((nodeMinX + nodeMaxX) / 2, (nodeMinY + nodeMaxY) / 2);
+            fill(fromCol, fromRow, cellsPerNode, inside ? INSIDE : OUTSIDE);
+        } else if (level == depth) {
+            fill(fromCol, fromRow, 1, BOUNDARY);
+        } else {
+            for (int child = 0; child < 4; child++) {
+                classify(level + 1, (col << 1) + (child & 1), (row << 1) + (child >> 1), crossing, crossed);
+            }
+        }
+    }
+
+    private void fill(int fromCol, int fromRow, int size, int state) {
+        counts[state] += size * size;
+        if (state == OUTSIDE) {
+            return;
+        }
+        for (int row = fromRow; row < fromRow + size; row++) {
+            for (int col = fromCol; col < fromCol + size; col++) {
+                long index = ((long) row * side + col) << 1;
+                cells[(int) (index >> 6)] |= (long) state << (index & 63);
+            }
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.yshebkb.common.gps.polygon;
+
+/**
+ * 多边形边的水平分带索引
+ * <p>
+ * 把包围盒在纬度方向上等分成若干条带, 每条带记录与它有交集的边. 水平射线只可能与跨过查询点纬度的边相交,
+ * 因此查询只需检查查询点所在条带内的边, 耗时与条带内的边数成正比, 而不是与顶点总数成正比.
+ * <p>
+ * 条带内的边以CSR格式存放: 条带s的边是edges[start[s]]到edges[start[s + 1] - 1].
+ * 构建后不可变, 可以被多个线程共享.
+ *
+ * @author whiteclaw
+ * created on 2026-10-18
+ */
+final class EdgeIndex {
+
+    /**
+     * 条带数的上限, 避免超大多边形的索引过度膨胀
+     */
+    private static final int MAX_SLABS = 1 << 18;
+
+    private final double minY;
+    private final double scale;
+    private final int slabs;
+    private final int[] start;
+    private final int[] edges;
+
+    /**
+     * @param ys     各顶点的纬度
+     * @param nextYs 各条边终点的纬度
+     * @param minY   包围盒的最小纬度
+     * @param maxY   包围盒的最大纬度
+     */
+    EdgeIndex(double[] ys, double[] nextYs, double minY, double maxY) {
+        int n = ys.length;
+        this.minY = minY;
+        this.slabs = maxY > minY ? slabs(ys, nextYs, maxY - minY) : 1;
+        this.scale = maxY > minY ? slabs / (maxY - minY) : 0;
+
+        // 第一遍统计每条带的边数, 第二遍填充
+        int[] counts = new int[slabs + 1];
+        for (int i = 0; i < n; i++) {
+            int from = slab(Math.min(ys[i], nextYs[i]));
+            int to = slab(Math.max(ys[i], nextYs[i]));
+            for (int s = from; s <= to; s++) {
+                counts[s + 1]++;
+            }
+        }
+        for (int s = 0; s < slabs; s++) {
+            counts[s + 1] += counts[s];
+        }
+        this.start = counts.clone();
+        this.edges = new int[counts[slabs]];
+        for (int i = 0; i < n; i++) {
+            int from = slab(Math.min(ys[i], nextYs[i]));
+            int to = slab(Math.max(ys[i], nextYs[i]));
+            for (int s = from; s <= to; s++) {
+                edges[counts[s]++] = i;
+            }
+        }
+    }
+
+    /**
+     * 选择条带数. 一条边出现在它跨过的每条带中, 条带数为S时索引共有约 n + S × span 项,
+     * span是所有边纬度跨度之和与包围盒高度之比. 普通边界的span很小, 条带数取n;
+     * 锯齿状的边界span很大, 减少条带数, 使索引不超过约5n项
+     */
+    private static int slabs(double[] ys, double[] nextYs, double height) {
+        int n = ys.length;
+        double span = 0;
+        for (int i = 0; i < n; i++) {
+            span += Math.abs(nextYs[i] - ys[i]);
+        }
+        span /= height;
+        double slabs = Math.min(Math.min(n, MAX_SLABS), 4.0 * n / Math.max(span, 1));
+        return Math.max(1, (int) slabs);
+    }
+
+    /**
+     * 获取纬度所在的条带, 超出包围盒的纬度归入首尾条带
+     */
+    int slab(double y) {
+        int s = (int) ((y - minY) * scale);
+        return s < 0 ? 0 : (s >= slabs ? slabs - 1 : s);
+    }
+
+    /**
+     * 条带在{@link #edges()}中的起始位置(包含)
+     */
+    int from(int slab) {
+        return start[slab];
+    }
+
+    /**
+     * 条带在{@link #edges()}中的结束位置(不包含)
+     */
+    int to(int slab) {
+        return start[slab + 1];
+    }
+
+    int[] edges() {
+        return edges;
+    }
+
+    int getSlabs() {
+        return slabs;
+    }
+
+    /**
+     * 获取索引占用的内存字节数(不含对象头)
+     *
+     * @return 内存字节数
+     */
+    long getMemoryBytes() {
+        return (long) (start.length + edges.length) * Integer.BYTES;
+    }
+}
@@ -0,0 +1,315 @@
+package com.yshebkb.common.gps.polygon;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 可以在线更新的围栏集合, 代替"重建RTree和HashMap&lt;String, Polygon&gt;后再替换"的做法
+ * <p>
+ * 集合的每个版本是一个不可变的{@link Snapshot}, 包含围栏的Map和对应的{@link GeofenceIndex}.
+ * 更新时在当前版本的基础上应用一组增加、删除、替换操作, 构建出新的快照, 再用一次{@link AtomicReference}的赋值发布.
+ * 读操作只读取一次引用, 不加锁, 不会被更新阻塞, 也不会看到更新了一半的状态. 需要多次查询同一个版本时,
+ * 先用{@link #snapshot()}取得快照再查询.
+ * <p>
+ * 更新之间互斥. 每次更新都复制整个Map并重建整个索引, 耗时为O(N log N), N为更新后的围栏总数, 与更新了几个围栏无关,
+ * 频繁的小更新应合并成一个{@link Update}. 可以用{@link #applyAsync(Update)}放到后台线程, 异步更新按提交顺序依次生效;
+ * {@link #apply(Update)}在调用时立即生效, 不等待尚未完成的异步更新.
+ * 旧快照不再被正在进行的查询引用后, 由GC回收.
+ *
+ * @author whiteclaw
+ * created on 2026-10-18
+ */
+public class FenceSet {
+
+    private final AtomicReference<Snapshot> current;
+    private final Object writeLock = new Object();
+
+    /**
+     * 最后提交的异步更新, 下一个异步更新在它完成后开始, 由asyncLock保护
+     */
+    private final Object asyncLock = new Object();
+    private CompletableFuture<Snapshot> lastAsync = CompletableFuture.completedFuture(null);
+
+    public FenceSet() {
+        current = new AtomicReference<>(new Snapshot(0, Collections.emptyMap()));
+    }
+
+    /**
+     * 用一组围栏创建集合, 版本号为0
+     *
+     * @param fences 围栏名称到多边形的映射
+     */
+    public FenceSet(Map<String, Polygon> fences) {
+        current = new AtomicReference<>(new Snapshot(0, copy(fences)));
+    }
+
+    public static Update update() {
+        return new Update();
+    }
+
+    /**
+     * 获取当前版本的快照
+     *
+     * @return 快照
+     */
+    public Snapshot snapshot() {
+        return current.get();
+    }
+
+    public long getVersion() {
+        return current.get().version;
+    }
+
+    /**
+     * 在当前版本上应用更新, 构建并发布新版本, 在当前线程中完成.
+     * 复制围栏Map并重建索引, 耗时O(N log N), N为围栏总数
+     *
+     * @param update 更新
+     * @return 新版本的快照
+     */
+    public Snapshot apply(Update update) {
+        return apply(update.operations);
+    }
+
+    private Snapshot apply(Map<String, Polygon> operations) {
+        synchronized (writeLock) {
+            Snapshot base = current.get();
+            Map<String, Polygon> fences = new HashMap<>(base.fences);
+            for (Map.Entry<String, Polygon> operation : operations.entrySet()) {
+                if (operation.getValue() == null) {
+                    fences.remove(operation.getKey());
+                } else {
+                    fences.put(operation.getKey(), operation.getValue());
+                }
+            }
+            Snapshot next = new Snapshot(base.version + 1, fences);
+            current.set(next);
+            return next;
+        }
+    }
+
+    /**
+     * 在公共线程池中应用更新, 见{@link #applyAsync(Update, Executor)}
+     *
+     * @param update 更新
+     * @return 新版本发布后完成
+     */
+    public CompletableFuture<Snapshot> applyAsync(Update update) {
+        return applyAsync(update, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * 在给定的线程池中应用更新. 提交时复制更新中的操作, 之后修改或复用update不影响这次更新.
+     * 异步更新按提交顺序依次生效, 前一个异步更新失败不影响后面的更新
+     *
+     * @param update   更新
+     * @param executor 构建快照的线程池
+     * @return 新版本发布后完成
+     */
+    public CompletableFuture<Snapshot> applyAsync(Update update, Executor executor) {
+        Map<String, Polygon> operations = new LinkedHashMap<>(update.operations);
+        synchronized (asyncLock) {
+            CompletableFuture<Snapshot> next = lastAsync
+                    .handle((snapshot, error) -> null)
+                    .thenApplyAsync(ignored -> apply(operations), executor);
+            lastAsync = next;
+            return next;
+        }
+    }
+
+    /**
+     * 在当前版本中查询包含给定点的一个围栏
+     *
+     * @see Snapshot#first(double, double)
+     */
+    public String first(double lng, double lat) {
+        return current.get().first(lng, lat);
+    }
+
+    /**
+     * 在当前版本中查询包含给定点的所有围栏
+     *
+     * @see Snapshot#search(double, double, FenceConsumer)
+     */
+    public int search(double lng, double lat, FenceConsumer consumer) {
+        return current.get().search(lng, lat, consumer);
+    }
+
+    private static Map<String, Polygon> copy(Map<String, Polygon> fences) {
+        Map<String, Polygon> result = new HashMap<>(fences.size() * 4 / 3 + 1);
+        for (Map.Entry<String, Polygon> entry : fences.entrySet()) {
+            if (entry.getKey() == null || entry.getValue() == null) {
+                throw new IllegalArgumentException("围栏名称和多边形不能为null");
+            }
+            result.put(entry.getKey(), entry.getValue());
+        }
+        return result;
+    }
+
+    /**
+     * 围栏集合的一个不可变版本, 可以被多个线程共享
+     */
+    public static final class Snapshot {
+        private final long version;
+        private final Map<String, Polygon> fences;
+        private final String[] names;
+        private final GeofenceIndex index;
+
+        private Snapshot(long version, Map<String, Polygon> fences) {
+            this.version = version;
+            this.fences = Collections.unmodifiableMap(fences);
+            this.names = new String[fences.size()];
+            GeofenceIndex.Builder builder = GeofenceIndex.builder();
+            int i = 0;
+            for (Map.Entry<String, Polygon> entry : fences.entrySet()) {
+                names[i] = entry.getKey();
+                builder.add(i++, entry.getValue());
+            }
+            this.index = builder.build();
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public int size() {
+            return names.length;
+        }
+
+        /**
+         * 获取围栏
+         *
+         * @param name 围栏名称
+         * @return 多边形, 不存在时返回null
+         */
+        public Polygon get(String name) {
+            return fences.get(name);
+        }
+
+        /**
+         * 获取所有围栏名称, 不可修改
+         */
+        public Set<String> names() {
+            return fences.keySet();
+        }
+
+        /**
+         * 查询包含给定点的一个围栏
+         *
+         * @param lng 经度
+         * @param lat 纬度
+         * @return 围栏名称, 没有命中时返回null
+         */
+        public String first(double lng, double lat) {
+            int id = index.first(lng, lat);
+            return id < 0 ? null : names[id];
+        }
+
+        /**
+         * 查询包含给定点的所有围栏, 每命中一个回调一次
+         *
+         * @param lng      经度
+         * @param lat      纬度
+         * @param consumer 回调
+         * @return 命中的围栏总数
+         */
+        public int search(double lng, double lat, FenceConsumer consumer) {
+            return index.search(lng, lat, (id, polygon) -> consumer.accept(names[id], polygon));
+        }
+
+        /**
+         * 查询与闭矩形相交的所有围栏, 每命中一个回调一次
+         *
+         * @param minX     矩形的最小经度
+         * @param minY     矩形的最小纬度
+         * @param maxX     矩形的最大经度
+         * @param maxY     矩形的最大纬度
+         * @param consumer 回调
+         * @return 命中的围栏总数
+         */
+        public int searchRect(double minX, double minY, double maxX, double maxY, FenceConsumer consumer) {
+            return index.searchRect(minX, minY, maxX, maxY, (id, polygon) -> consumer.accept(names[id], polygon));
+        }
+
+        /**
+         * 查询包含给定点的所有围栏名称
+         *
+         * @param lng 经度
+         * @param lat 纬度
+         * @return 围栏名称
+         */
+        public List<String> search(double lng, double lat) {
+            List<String> result = new ArrayList<>();
+            search(lng, lat, (name, polygon) -> result.add(name));
+            return result;
+        }
+    }
+
+    /**
+     * 一组按顺序生效的增加、删除、替换操作, 同一个围栏以最后一次操作为准. 非线程安全
+     */
+    public static final class Update {
+        /**
+         * 围栏名称到新多边形的映射, null表示删除
+         */
+        private final Map<String, Polygon> operations = new LinkedHashMap<>();
+
+        private Update() {
+        }
+
+        /**
+         * 增加围栏, 已存在时替换
+         *
+         * @param name    围栏名称
+         * @param polygon 多边形
+         * @return 更新
+         */
+        public Update put(String name, Polygon polygon) {
+            if (name == null || polygon == null) {
+                throw new IllegalArgumentException("围栏名称和多边形不能为null");
+            }
+            operations.put(name, polygon);
+            return this;
+        }
+
+        /**
+         * 删除围栏, 不存在时忽略
+         *
+         * @param name 围栏名称
+         * @return 更新
+         */
+        public Update remove(String name) {
+            if (name == null) {
+                throw new IllegalArgumentException("围栏名称不能为null");
+            }
+            operations.put(name, null);
+            return this;
+        }
+
+        public int size() {
+            return operations.size();
+        }
+    }
+
+    /**
+     * 命中围栏时的回调
+     */
+    public interface FenceConsumer {
+        /**
+         * 处理一个命中的围栏
+         *
+         * @param name    围栏名称
+         * @param polygon 多边形
+         */
+        void accept(String name, Polygon polygon);
+    }
+}
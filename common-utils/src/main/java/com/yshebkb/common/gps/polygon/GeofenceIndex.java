@@ -0,0 +1,464 @@
+package com.yshebkb.common.gps.polygon;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * 多个围栏多边形的空间索引, 查询一个点落在哪些围栏内, 或者哪些围栏与一个矩形(如地图的可视范围)相交
+ * <p>
+ * 一次性批量构建的打包R树: 按包围盒中心的Hilbert值排序后, 每{@value #NODE_SIZE}个相邻的包围盒合成一个上层节点,
+ * 直到只剩一个根节点. 所有节点的包围盒存放在一个double[]中, 子节点位置由下标推算, 不需要指针.
+ * 查询时先用包围盒筛选, 再调用{@link Polygon#contains(double, double)}精确判断, 围栏id和多边形按同一顺序存放,
+ * 命中后不需要再查一次Map. 点查询过程不创建任何对象.
+ * <p>
+ * 构建后不可变, 可以被多个线程共享. 顶点很多的围栏可以先调用{@link Polygon#prepare()}.
+ *
+ * @author whiteclaw
+ * created on 2026-10-18
+ */
+public final class GeofenceIndex {
+
+    /**
+     * 每个节点的子节点数
+     */
+    static final int NODE_SIZE = 16;
+
+    /**
+     * 按Hilbert顺序排列的围栏id和多边形
+     */
+    private final int[] ids;
+    private final Polygon[] polygons;
+
+    /**
+     * 节点包围盒, 第k个节点是[4k, 4k + 4), 依次为minX, minY, maxX, maxY.
+     * 前size个是围栏本身, 之后逐层向上, 最后一个是根节点
+     */
+    private final double[] boxes;
+
+    /**
+     * 第level层的节点是[levelStart[level], levelStart[level + 1])
+     */
+    private final int[] levelStart;
+
+    private GeofenceIndex(int[] ids, Polygon[] polygons, double[] boxes, int[] levelStart) {
+        this.ids = ids;
+        this.polygons = polygons;
+        this.boxes = boxes;
+        this.levelStart = levelStart;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * 查询包含给定点的所有围栏
+     *
+     * @param lng 经度
+     * @param lat 纬度
+     * @param out 围栏id的输出数组, 命中数超过数组长度时只写入前out.length个
+     * @return 命中的围栏总数, 可能大于out.length
+     */
+    public int search(double lng, double lat, int[] out) {
+        if (ids.length == 0) {
+            return 0;
+        }
+        return search(levelStart.length - 2, levelStart[levelStart.length - 2], lng, lat, out, 0);
+    }
+
+    /**
+     * 查询包含给定点的所有围栏, 每命中一个回调一次
+     *
+     * @param lng      经度
+     * @param lat      纬度
+     * @param consumer 回调
+     * @return 命中的围栏总数
+     */
+    public int search(double lng, double lat, FenceConsumer consumer) {
+        if (ids.length == 0) {
+            return 0;
+        }
+        return search(levelStart.length - 2, levelStart[levelStart.length - 2], lng, lat, consumer);
+    }
+
+    /**
+     * 判断给定点是否落在任意一个围栏内, 找到第一个就返回
+     *
+     * @param lng 经度
+     * @param lat 纬度
+     * @return 第一个命中的围栏id, 没有命中时返回-1
+     */
+    public int first(double lng, double lat) {
+        if (ids.length == 0) {
+            return -1;
+        }
+        int index = first(levelStart.length - 2, levelStart[levelStart.length - 2], lng, lat);
+        return index < 0 ? -1 : ids[index];
+    }
+
+    /**
+     * 查询与闭矩形相交的所有围栏, 每命中一个回调一次, 结果不需要先放进集合.
+     * 包围盒整个落在矩形内的节点, 其下的围栏全部命中, 不再逐个判断
+     *
+     * @param minX     矩形的最小经度
+     * @param minY     矩形的最小纬度
+     * @param maxX     矩形的最大经度
+     * @param maxY     矩形的最大纬度
+     * @param consumer 回调
+     * @return 命中的围栏总数
+     */
+    public int searchRect(double minX, double minY, double maxX, double maxY, FenceConsumer consumer) {
+        if (!(minX <= maxX && minY <= maxY)) {
+            throw new IllegalArgumentException("矩形的最小值不能大于最大值");
+        }
+        if (ids.length == 0) {
+            return 0;
+        }
+        return searchRect(levelStart.length - 2, levelStart[levelStart.length - 2], minX, minY, maxX, maxY, consumer);
+    }
+
+    /**
+     * 查询与闭矩形相交的所有围栏
+     *
+     * @param minX 矩形的最小经度
+     * @param minY 矩形的最小纬度
+     * @param maxX 矩形的最大经度
+     * @param maxY 矩形的最大纬度
+     * @param out  围栏id的输出数组, 命中数超过数组长度时只写入前out.length个
+     * @return 命中的围栏总数, 可能大于out.length
+     */
+    public int searchRect(double minX, double minY, double maxX, double maxY, int[] out) {
+        int[] found = new int[1];
+        return searchRect(minX, minY, maxX, maxY, (id, polygon) -> {
+            if (found[0] < out.length) {
+                out[found[0]] = id;
+            }
+            found[0]++;
+        });
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * 获取第index个围栏的id, 顺序与添加顺序无关
+     */
+    public int getId(int index) {
+        return ids[index];
+    }
+
+    /**
+     * 获取第index个围栏的多边形, 顺序与添加顺序无关
+     */
+    public Polygon getPolygon(int index) {
+        return polygons[index];
+    }
+
+    /**
+     * 获取树的层数, 包括围栏本身所在的叶子层
+     *
+     * @return 层数
+     */
+    public int getHeight() {
+        return levelStart.length - 1;
+    }
+
+    /**
+     * 获取索引本身占用的内存字节数(不含对象头和多边形)
+     *
+     * @return 内存字节数
+     */
+    public long getMemoryBytes() {
+        return (long) boxes.length * Double.BYTES + (long) ids.length * Integer.BYTES
+                + (long) polygons.length * 8 + (long) levelStart.length * Integer.BYTES;
+    }
+
+    /**
+     * 节点包围盒, 供{@link PolygonStore}写入文件
+     */
+    double[] boxes() {
+        return boxes;
+    }
+
+    int[] levelStart() {
+        return levelStart;
+    }
+
+    private int search(int level, int node, double lng, double lat, int[] out, int found) {
+        if (level == 0) {
+            if (polygons[node].contains(lng, lat)) {
+                if (found < out.length) {
+                    out[found] = ids[node];
+                }
+                found++;
+            }
+            return found;
+        }
+        int from = childStart(level, node);
+        int to = Math.min(from + NODE_SIZE, levelStart[level]);
+        for (int child = from; child < to; child++) {
+            if (inBox(child, lng, lat)) {
+                found = search(level - 1, child, lng, lat, out, found);
+            }
+        }
+        return found;
+    }
+
+    private int search(int level, int node, double lng, double lat, FenceConsumer consumer) {
+        if (level == 0) {
+            if (polygons[node].contains(lng, lat)) {
+                consumer.accept(ids[node], polygons[node]);
+                return 1;
+            }
+            return 0;
+        }
+        int found = 0;
+        int from = childStart(level, node);
+        int to = Math.min(from + NODE_SIZE, levelStart[level]);
+        for (int child = from; child < to; child++) {
+            if (inBox(child, lng, lat)) {
+                found += search(level - 1, child, lng, lat, consumer);
+            }
+        }
+        return found;
+    }
+
+    private int first(int level, int node, double lng, double lat) {
+        if (level == 0) {
+            return polygons[node].contains(lng, lat) ? node : -1;
+        }
+        int from = childStart(level, node);
+        int to = Math.min(from + NODE_SIZE, levelStart[level]);
+        for (int child = from; child < to; child++) {
+            if (inBox(child, lng, lat)) {
+                int index = first(level - 1, child, lng, lat);
+                if (index >= 0) {
+                    return index;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private int searchRect(int level, int node, double minX, double minY, double maxX, double maxY,
+                           FenceConsumer consumer) {
+        int i = node << 2;
+        if (boxes[i] > maxX || boxes[i + 1] > maxY || boxes[i + 2] < minX || boxes[i + 3] < minY) {
+            return 0;
+        }
+        if (boxes[i] >= minX && boxes[i + 1] >= minY && boxes[i + 2] <= maxX && boxes[i + 3] <= maxY) {
+            return acceptAll(level, node, consumer);
+        }
+        if (level == 0) {
+            if (polygons[node].intersects(minX, minY, maxX, maxY)) {
+                consumer.accept(ids[node], polygons[node]);
+                return 1;
+            }
+            return 0;
+        }
+        int found = 0;
+        int from = childStart(level, node);
+        int to = Math.min(from + NODE_SIZE, levelStart[level]);
+        for (int child = from; child < to; child++) {
+            found += searchRect(level - 1, child, minX, minY, maxX, maxY, consumer);
+        }
+        return found;
+    }
+
+    private int acceptAll(int level, int node, FenceConsumer consumer) {
+        if (level == 0) {
+            consumer.accept(ids[node], polygons[node]);
+            return 1;
+        }
+        int found = 0;
+        int from = childStart(level, node);
+        int to = Math.min(from + NODE_SIZE, levelStart[level]);
+        for (int child = from; child < to; child++) {
+            found += acceptAll(level - 1, child, consumer);
+        }
+        return found;
+    }
+
+    /**
+     * 查询包围盒与闭矩形相交的围栏, 回调它们在索引中的位置
+     */
+    void searchBoxes(double minX, double minY, double maxX, double maxY, IntConsumer consumer) {
+        if (ids.length > 0) {
+            searchBoxes(levelStart.length - 2, levelStart[levelStart.length - 2], minX, minY, maxX, maxY, consumer);
+        }
+    }
+
+    private void searchBoxes(int level, int node, double minX, double minY, double maxX, double maxY,
+                             IntConsumer consumer) {
+        int i = node << 2;
+        if (boxes[i] > maxX || boxes[i + 1] > maxY || boxes[i + 2] < minX || boxes[i + 3] < minY) {
+            return;
+        }
+        if (level == 0) {
+            consumer.accept(node);
+            return;
+        }
+        int from = childStart(level, node);
+        int to = Math.min(from + NODE_SIZE, levelStart[level]);
+        for (int child = from; child < to; child++) {
+            searchBoxes(level - 1, child, minX, minY, maxX, maxY, consumer);
+        }
+    }
+
+    /**
+     * 第level层(level > 0)节点的第一个子节点
+     */
+    private int childStart(int level, int node) {
+        return levelStart[level - 1] + (node - levelStart[level]) * NODE_SIZE;
+    }
+
+    private boolean inBox(int node, double lng, double lat) {
+        int i = node << 2;
+        return lng >= boxes[i] && lat >= boxes[i + 1] && lng <= boxes[i + 2] && lat <= boxes[i + 3];
+    }
+
+    /**
+     * 用Hilbert曲线把[0, 32768)²的网格坐标映射为一维序号, 空间上相邻的点序号也相近
+     */
+    static long hilbert(int x, int y) {
+        long d = 0;
+        int n = 1 << 15;
+        for (int s = n >> 1; s > 0; s >>= 1) {
+            int rx = (x & s) > 0 ? 1 : 0;
+            int ry = (y & s) > 0 ? 1 : 0;
+            d += (long) s * s * ((3 * rx) ^ ry);
+            if (ry == 0) {
+                if (rx == 1) {
+                    x = n - 1 - x;
+                    y = n - 1 - y;
+                }
+                int t = x;
+                x = y;
+                y = t;
+            }
+        }
+        return d;
+    }
+
+    /**
+     * 围栏索引的构建器, 非线程安全
+     */
+    public static class Builder {
+        private int[] ids = new int[16];
+        private Polygon[] polygons = new Polygon[16];
+        private int size = 0;
+
+        /**
+         * 添加一个围栏
+         *
+         * @param id      围栏id, 允许重复
+         * @param polygon 围栏多边形
+         * @return 构建器
+         */
+        public Builder add(int id, Polygon polygon) {
+            if (polygon == null) {
+                throw new IllegalArgumentException("polygon不能为null");
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size << 1);
+                polygons = Arrays.copyOf(polygons, size << 1);
+            }
+            ids[size] = id;
+            polygons[size] = polygon;
+            size++;
+            return this;
+        }
+
+        /**
+         * 构建索引, 构建后可以继续添加围栏并再次构建, 已构建的索引不受影响
+         *
+         * @return 索引
+         */
+        public GeofenceIndex build() {
+            int n = size;
+            double minX = Double.POSITIVE_INFINITY;
+            double minY = Double.POSITIVE_INFINITY;
+            double maxX = Double.NEGATIVE_INFINITY;
+            double maxY = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < n; i++) {
+                minX = Math.min(minX, polygons[i].getMinX());
+                minY = Math.min(minY, polygons[i].getMinY());
+                maxX = Math.max(maxX, polygons[i].getMaxX());
+                maxY = Math.max(maxY, polygons[i].getMaxY());
+            }
+
+            // Hilbert值不超过2^30, 放在高位, 低32位是原下标, 一次排序得到顺序
+            double width = maxX > minX ? maxX - minX : 1;
+            double height = maxY > minY ? maxY - minY : 1;
+            long[] keys = new long[n];
+            for (int i = 0; i < n; i++) {
+                Polygon polygon = polygons[i];
+                int x = (int) (32767 * ((polygon.getMinX() + polygon.getMaxX()) / 2 - minX) / width);
+                int y = (int) (32767 * ((polygon.getMinY() + polygon.getMaxY()) / 2 - minY) / height);
+                keys[i] = hilbert(x, y) << 32 | i;
+            }
+            Arrays.sort(keys);
+
+            // 各层节点数
+            int levels = 1;
+            int total = n;
+            for (int count = n; count > 1; count = (count + NODE_SIZE - 1) / NODE_SIZE) {
+                total += (count + NODE_SIZE - 1) / NODE_SIZE;
+                levels++;
+            }
+            int[] levelStart = new int[levels + 1];
+            double[] boxes = new double[total << 2];
+            int[] sortedIds = new int[n];
+            Polygon[] sortedPolygons = new Polygon[n];
+            for (int k = 0; k < n; k++) {
+                int i = (int) keys[k];
+                sortedIds[k] = ids[i];
+                sortedPolygons[k] = polygons[i];
+                boxes[k << 2] = polygons[i].getMinX();
+                boxes[(k << 2) + 1] = polygons[i].getMinY();
+                boxes[(k << 2) + 2] = polygons[i].getMaxX();
+                boxes[(k << 2) + 3] = polygons[i].getMaxY();
+            }
+
+            levelStart[1] = n;
+            for (int level = 1; level < levels; level++) {
+                int from = levelStart[level - 1];
+                int to = levelStart[level];
+                int node = to;
+                for (int child = from; child < to; child += NODE_SIZE) {
+                    double nodeMinX = Double.POSITIVE_INFINITY;
+                    double nodeMinY = Double.POSITIVE_INFINITY;
+                    double nodeMaxX = Double.NEGATIVE_INFINITY;
+                    double nodeMaxY = Double.NEGATIVE_INFINITY;
+                    for (int c = child, end = Math.min(child + NODE_SIZE, to); c < end; c++) {
+                        nodeMinX = Math.min(nodeMinX, boxes[c << 2]);
+                        nodeMinY = Math.min(nodeMinY, boxes[(c << 2) + 1]);
+                        nodeMaxX = Math.max(nodeMaxX, boxes[(c << 2) + 2]);
+                        nodeMaxY = Math.max(nodeMaxY, boxes[(c << 2) + 3]);
+                    }
+                    boxes[node << 2] = nodeMinX;
+                    boxes[(node << 2) + 1] = nodeMinY;
+                    boxes[(node << 2) + 2] = nodeMaxX;
+                    boxes[(node << 2) + 3] = nodeMaxY;
+                    node++;
+                }
+                levelStart[level + 1] = node;
+            }
+            return new GeofenceIndex(sortedIds, sortedPolygons, boxes, levelStart);
+        }
+    }
+
+    /**
+     * 命中围栏时的回调
+     */
+    public interface FenceConsumer {
+        /**
+         * 处理一个命中的围栏
+         *
+         * @param id      围栏id
+         * @param polygon 围栏多边形
+         */
+        void accept(int id, Polygon polygon);
+    }
+}
@@ -0,0 +1,403 @@
+package com.yshebkb.common.gps.polygon;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 按设备跟踪轨迹与围栏的进出关系, 产生进入、离开和停留事件
+ * <p>
+ * 每个设备保存当前所在的围栏和进入时间, 每收到一个定位点, 与上一次的结果比较后产生事件:
+ * <ul>
+ * <li>{@link EventType#ENTER} 进入一个围栏</li>
+ * <li>{@link EventType#EXIT} 离开一个围栏</li>
+ * <li>{@link EventType#DWELL} 在一个围栏内连续停留达到dwellMillis, 每次进入最多产生一次</li>
+ * </ul>
+ * 同一个定位点产生的事件依次是EXIT、ENTER、DWELL.
+ * <p>
+ * 平面被划分为边长cellSize度的格子. 设备进入一个新格子时, 用{@link GeofenceIndex}找出包围盒与格子相交的围栏,
+ * 分成完全包含格子的和边界穿过格子的两类. 之后在同一个格子内移动时, 只需要对边界穿过格子的围栏调用
+ * {@link Polygon#contains(double, double)}, 格子内没有围栏边界时直接跳过计算.
+ * <p>
+ * 设备状态存放在{@link ConcurrentHashMap}中, 每个设备单独加锁, 不同设备的定位点可以在多个线程中并发处理,
+ * 同一个设备的定位点按调用顺序处理, 时间戳早于上一个定位点的会被忽略. 事件在设备的锁内同步回调,
+ * 回调中不应有耗时操作.
+ *
+ * @author whiteclaw
+ * created on 2026-10-18
+ */
+public class GeofenceTracker {
+
+    /**
+     * 默认的格子边长(度), 约100米
+     */
+    public static final double DEFAULT_CELL_SIZE = 0.001;
+
+    private static final int[] EMPTY = new int[0];
+
+    /**
+     * 事件类型
+     */
+    public enum EventType {
+        ENTER, EXIT, DWELL
+    }
+
+    private final GeofenceIndex index;
+    private final long dwellMillis;
+    private final double cellSize;
+    private final EventListener listener;
+    private final ConcurrentHashMap<String, DeviceState> devices = new ConcurrentHashMap<>();
+
+    /**
+     * 已删除的设备的统计值
+     */
+    private final LongAdder removedFixes = new LongAdder();
+    private final LongAdder removedSkipped = new LongAdder();
+    private final LongAdder removedClassified = new LongAdder();
+
+    /**
+     * @param index       围栏索引
+     * @param dwellMillis 产生停留事件的停留时长(毫秒), 为0时不产生停留事件
+     * @param listener    事件回调
+     */
+    public GeofenceTracker(GeofenceIndex index, long dwellMillis, EventListener listener) {
+        this(index, dwellMillis, DEFAULT_CELL_SIZE, listener);
+    }
+
+    /**
+     * @param index       围栏索引
+     * @param dwellMillis 产生停留事件的停留时长(毫秒), 为0时不产生停留事件
+     * @param cellSize    格子边长(度), 格子越大, 设备越少跨越格子, 但格子内有围栏边界的概率越大
+     * @param listener    事件回调
+     */
+    public GeofenceTracker(GeofenceIndex index, long dwellMillis, double cellSize, EventListener listener) {
+        if (index == null || listener == null) {
+            throw new IllegalArgumentException("index和listener不能为null");
+        }
+        if (dwellMillis < 0) {
+            throw new IllegalArgumentException("dwellMillis不能为负数");
+        }
+        if (!(cellSize >= 1e-6 && cellSize <= 1)) {
+            throw new IllegalArgumentException("cellSize必须在1e-6到1之间");
+        }
+        this.index = index;
+        this.dwellMillis = dwellMillis;
+        this.cellSize = cellSize;
+        this.listener = listener;
+    }
+
+    /**
+     * 处理设备的一个定位点
+     *
+     * @param deviceId  设备id
+     * @param lng       经度
+     * @param lat       纬度
+     * @param timestamp 定位时间(毫秒)
+     */
+    public void update(String deviceId, double lng, double lat, long timestamp) {
+        while (true) {
+            DeviceState state = devices.get(deviceId);
+            if (state == null) {
+                state = devices.computeIfAbsent(deviceId, id -> new DeviceState());
+            }
+            synchronized (state) {
+                // 取得状态后、加锁前设备被并发删除, 用新的状态重试, 否则定位点会记在已删除的状态上
+                if (!state.removed) {
+                    update(deviceId, state, lng, lat, timestamp);
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * 在设备的锁内处理定位点
+     */
+    private void update(String deviceId, DeviceState state, double lng, double lat, long timestamp) {
+        state.fixes++;
+        if (timestamp < state.lastTime) {
+            return;
+        }
+        state.lastTime = timestamp;
+        long cellX = (long) Math.floor(lng / cellSize);
+        long cellY = (long) Math.floor(lat / cellSize);
+        boolean sameCell = state.hasCell && cellX == state.cellX && cellY == state.cellY;
+        if (!sameCell) {
+            classify(state, cellX, cellY);
+        }
+        if (sameCell && state.boundary.length == 0) {
+            // 格子内没有围栏边界, 所在的围栏不会变化
+            state.skipped++;
+        } else {
+            int count = members(state, lng, lat);
+            diff(deviceId, state, count, timestamp);
+        }
+        if (dwellMillis > 0) {
+            for (int k = 0; k < state.memberCount; k++) {
+                if (!state.dwelled[k] && timestamp - state.enterTimes[k] >= dwellMillis) {
+                    state.dwelled[k] = true;
+                    listener.onEvent(deviceId, index.getId(state.members[k]), EventType.DWELL, timestamp);
+                }
+            }
+        }
+    }
+
+    /**
+     * 获取设备当前所在的围栏
+     *
+     * @param deviceId 设备id
+     * @return 围栏id, 设备不存在时返回空数组
+     */
+    public int[] getFences(String deviceId) {
+        DeviceState state = devices.get(deviceId);
+        if (state == null) {
+            return EMPTY;
+        }
+        synchronized (state) {
+            int[] ids = new int[state.memberCount];
+            for (int k = 0; k < ids.length; k++) {
+                ids[k] = index.getId(state.members[k]);
+            }
+            return ids;
+        }
+    }
+
+    /**
+     * 删除设备的状态, 不产生事件. 设备再次出现时所在的围栏都会产生ENTER事件.
+     * 与同一设备的{@link #update}并发时, 定位点要么在删除前处理, 要么记在删除后新建的状态上
+     *
+     * @param deviceId 设备id
+     */
+    public void remove(String deviceId) {
+        DeviceState state = devices.remove(deviceId);
+        if (state != null) {
+            synchronized (state) {
+                state.removed = true;
+                removedFixes.add(state.fixes);
+                removedSkipped.add(state.skipped);
+                removedClassified.add(state.classified);
+            }
+        }
+    }
+
+    public int getDeviceCount() {
+        return devices.size();
+    }
+
+    /**
+     * 处理过的定位点数, 需要遍历所有设备, 有并发更新时是近似值
+     */
+    public long getFixCount() {
+        long count = removedFixes.sum();
+        for (DeviceState state : devices.values()) {
+            count += state.fixes;
+        }
+        return count;
+    }
+
+    /**
+     * 格子内没有围栏边界, 直接跳过计算的定位点数, 需要遍历所有设备, 有并发更新时是近似值
+     */
+    public long getSkippedCount() {
+        long count = removedSkipped.sum();
+        for (DeviceState state : devices.values()) {
+            count += state.skipped;
+        }
+        return count;
+    }
+
+    /**
+     * 设备进入新格子后对格子分类的次数, 需要遍历所有设备, 有并发更新时是近似值
+     */
+    public long getClassifyCount() {
+        long count = removedClassified.sum();
+        for (DeviceState state : devices.values()) {
+            count += state.classified;
+        }
+        return count;
+    }
+
+    /**
+     * 找出与格子相关的围栏, 分为完全包含格子的和边界穿过格子的
+     */
+    private void classify(DeviceState state, long cellX, long cellY) {
+        state.classified++;
+        // 格子的下标由浮点数除法得到, 略微扩大格子, 避免边上的点落在格子外
+        double pad = cellSize * 1e-6;
+        double minX = cellX * cellSize - pad;
+        double minY = cellY * cellSize - pad;
+        double maxX = (cellX + 1) * cellSize + pad;
+        double maxY = (cellY + 1) * cellSize + pad;
+        double centerX = (cellX + 0.5) * cellSize;
+        double centerY = (cellY + 0.5) * cellSize;
+        IntList inside = new IntList();
+        IntList boundary = new IntList();
+        index.searchBoxes(minX, minY, maxX, maxY, i -> {
+            Polygon polygon = index.getPolygon(i);
+            if (polygon.boundaryIntersects(minX, minY, maxX, maxY)) {
+                boundary.add(i);
+            } else if (polygon.contains(centerX, centerY)) {
+                inside.add(i);
+            }
+        });
+        state.inside = inside.toSortedArray();
+        state.boundary = boundary.toSortedArray();
+        state.cellX = cellX;
+        state.cellY = cellY;
+        state.hasCell = true;
+    }
+
+    /**
+     * 计算定位点所在的围栏, 按位置排序后写入state.scratch
+     *
+     * @return 围栏数
+     */
+    private int members(DeviceState state, double lng, double lat) {
+        int[] inside = state.inside;
+        int[] boundary = state.boundary;
+        int capacity = inside.length + boundary.length;
+        if (state.scratch.length < capacity) {
+            state.scratch = new int[capacity];
+        }
+        int[] scratch = state.scratch;
+        // 两个有序数组归并
+        int count = 0;
+        int a = 0;
+        int b = 0;
+        while (a < inside.length || b < boundary.length) {
+            if (b == boundary.length || (a < inside.length && inside[a] < boundary[b])) {
+                scratch[count++] = inside[a++];
+            } else {
+                int i = boundary[b++];
+                if (index.getPolygon(i).contains(lng, lat)) {
+                    scratch[count++] = i;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 比较新旧两组围栏, 产生事件并更新设备状态
+     */
+    private void diff(String deviceId, DeviceState state, int count, long timestamp) {
+        int[] now = state.scratch;
+        int[] before = state.members;
+        int beforeCount = state.memberCount;
+        if (count == beforeCount && arrayEquals(now, before, count)) {
+            return;
+        }
+        for (int a = 0, b = 0; a < beforeCount; a++) {
+            while (b < count && now[b] < before[a]) {
+                b++;
+            }
+            if (b == count || now[b] != before[a]) {
+                listener.onEvent(deviceId, index.getId(before[a]), EventType.EXIT, timestamp);
+            }
+        }
+
+        int[] members = new int[count];
+        long[] enterTimes = new long[count];
+        boolean[] dwelled = new boolean[count];
+        for (int b = 0, a = 0; b < count; b++) {
+            while (a < beforeCount && before[a] < now[b]) {
+                a++;
+            }
+            members[b] = now[b];
+            if (a < beforeCount && before[a] == now[b]) {
+                enterTimes[b] = state.enterTimes[a];
+                dwelled[b] = state.dwelled[a];
+            } else {
+                enterTimes[b] = timestamp;
+                listener.onEvent(deviceId, index.getId(now[b]), EventType.ENTER, timestamp);
+            }
+        }
+        state.members = members;
+        state.enterTimes = enterTimes;
+        state.dwelled = dwelled;
+        state.memberCount = count;
+    }
+
+    private static boolean arrayEquals(int[] a, int[] b, int count) {
+        for (int i = 0; i < count; i++) {
+            if (a[i] != b[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 一个设备的状态, 由设备自身的锁保护
+     */
+    private static final class DeviceState {
+        long lastTime = Long.MIN_VALUE;
+
+        /**
+         * 已从设备表中删除, 不再接受定位点
+         */
+        boolean removed;
+
+        /**
+         * 统计值, 只在锁内修改, volatile保证不加锁的读取能看到完整的最新值
+         */
+        volatile long fixes;
+        volatile long skipped;
+        volatile long classified;
+
+        boolean hasCell;
+        long cellX;
+        long cellY;
+        /**
+         * 当前格子中, 完全包含格子的围栏和边界穿过格子的围栏在索引中的位置, 升序
+         */
+        int[] inside = EMPTY;
+        int[] boundary = EMPTY;
+
+        /**
+         * 当前所在的围栏在索引中的位置(升序), 进入时间和是否已产生停留事件
+         */
+        int[] members = EMPTY;
+        long[] enterTimes = new long[0];
+        boolean[] dwelled = new boolean[0];
+        int memberCount;
+
+        int[] scratch = EMPTY;
+    }
+
+    private static final class IntList {
+        int[] values = new int[8];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size << 1);
+            }
+            values[size++] = value;
+        }
+
+        int[] toSortedArray() {
+            if (size == 0) {
+                return EMPTY;
+            }
+            int[] result = Arrays.copyOf(values, size);
+            Arrays.sort(result);
+            return result;
+        }
+    }
+
+    /**
+     * 围栏事件的回调
+     */
+    public interface EventListener {
+        /**
+         * 处理一个事件
+         *
+         * @param deviceId  设备id
+         * @param fenceId   围栏id
+         * @param type      事件类型
+         * @param timestamp 产生事件的定位点的时间
+         */
+        void onEvent(String deviceId, int fenceId, EventType type, long timestamp);
+    }
+}
@@ -12,10 +12,18 @@ public class Line {
     private double a = Double.NaN;
     private double b = Double.NaN;
     private boolean vertical = false;
+    private final double minX;
+    private final double maxX;
+    private final double minY;
+    private final double maxY;
 
     public Line(Point start, Point end) {
         this.start = start;
         this.end = end;
+        this.minX = Math.min(start.lng, end.lng);
+        this.maxX = Math.max(start.lng, end.lng);
+        this.minY = Math.min(start.lat, end.lat);
+        this.maxY = Math.max(start.lat, end.lat);
 
         if (this.end.lng - this.start.lng != 0) {
             a = ((this.end.lat - this.start.lat) / (this.end.lng - this.start.lng));
@@ -32,11 +40,6 @@ public class Line {
      * @return <code>True</code> if the point lays on the line, otherwise return <code>False</code>
      */
     public boolean isInside(Point point) {
-        double maxX = start.lng > end.lng ? start.lng : end.lng;
-        double minX = start.lng < end.lng ? start.lng : end.lng;
-        double maxY = start.lat > end.lat ? start.lat : end.lat;
-        double minY = start.lat < end.lat ? start.lat : end.lat;
-
         if ((point.lng >= minX && point.lng <= maxX) && (point.lat >= minY && point.lat <= maxY)) {
             return true;
         }
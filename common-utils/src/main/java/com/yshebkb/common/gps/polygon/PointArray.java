@@ -0,0 +1,343 @@
+package com.yshebkb.common.gps.polygon;
+
+import java.util.Arrays;
+
+/**
+ * 用基本类型数组存放的点序列, 代替{@code List<Point>}
+ * <p>
+ * 默认模式下经度和纬度分别存放在两个double[]中, 每个点16字节;
+ * 紧凑模式下以微度(1e-6°, 约0.1m)为单位存放在两个int[]中, 每个点8字节, 只能存放合法的经纬度.
+ * 而{@code List<Point>}每个点需要一个约32字节的Point对象和一个引用.
+ * <p>
+ * 通过{@link #view(int, int)}得到的视图和原序列共享底层数组, 视图不能追加元素;
+ * 原序列扩容后会换用新数组, 之后对原序列的修改不再反映到视图上.
+ * 非线程安全.
+ *
+ * @author whiteclaw
+ * created on 2026-10-18
+ */
+public final class PointArray {
+
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final double MICRO = 1e6;
+
+    /**
+     * 是否是紧凑模式
+     */
+    private final boolean compact;
+
+    /**
+     * 是否是视图, 视图不能追加元素
+     */
+    private final boolean view;
+
+    /**
+     * 第一个元素在底层数组中的位置, 只有视图不为0
+     */
+    private final int offset;
+
+    private double[] lngs;
+    private double[] lats;
+    private int[] lngE6;
+    private int[] latE6;
+    private int size;
+
+    private PointArray(boolean compact, int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("capacity不能为负数");
+        }
+        this.compact = compact;
+        this.view = false;
+        this.offset = 0;
+        if (compact) {
+            lngE6 = new int[capacity];
+            latE6 = new int[capacity];
+        } else {
+            lngs = new double[capacity];
+            lats = new double[capacity];
+        }
+    }
+
+    private PointArray(PointArray parent, int offset, int size) {
+        this.compact = parent.compact;
+        this.view = true;
+        this.offset = offset;
+        this.size = size;
+        this.lngs = parent.lngs;
+        this.lats = parent.lats;
+        this.lngE6 = parent.lngE6;
+        this.latE6 = parent.latE6;
+    }
+
+    /**
+     * 创建以double存放坐标的点序列
+     *
+     * @return 空的点序列
+     */
+    public static PointArray create() {
+        return new PointArray(false, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * 创建以double存放坐标的点序列
+     *
+     * @param capacity 初始容量
+     * @return 空的点序列
+     */
+    public static PointArray create(int capacity) {
+        return new PointArray(false, capacity);
+    }
+
+    /**
+     * 创建以微度int存放坐标的紧凑点序列
+     *
+     * @param capacity 初始容量
+     * @return 空的点序列
+     */
+    public static PointArray compact(int capacity) {
+        return new PointArray(true, capacity);
+    }
+
+    /**
+     * 用已有的经纬度数组创建点序列, 数组会被复制
+     *
+     * @param lngs 经度数组
+     * @param lats 纬度数组
+     * @return 点序列
+     */
+    public static PointArray of(double[] lngs, double[] lats) {
+        if (lngs.length != lats.length) {
+            throw new IllegalArgumentException("坐标数组长度不一致");
+        }
+        PointArray result = new PointArray(false, 0);
+        result.lngs = Arrays.copyOf(lngs, lngs.length);
+        result.lats = Arrays.copyOf(lats, lats.length);
+        result.size = lngs.length;
+        return result;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean isCompact() {
+        return compact;
+    }
+
+    public double getLng(int index) {
+        checkIndex(index);
+        return compact ? lngE6[offset + index] / MICRO : lngs[offset + index];
+    }
+
+    public double getLat(int index) {
+        checkIndex(index);
+        return compact ? latE6[offset + index] / MICRO : lats[offset + index];
+    }
+
+    /**
+     * 获取指定位置的点, 会创建新的Point对象, 热点路径请使用{@link #getLng(int)}和{@link #getLat(int)}
+     *
+     * @param index 位置
+     * @return 点
+     */
+    public Point get(int index) {
+        return new Point(getLng(index), getLat(index));
+    }
+
+    /**
+     * 修改指定位置的坐标
+     *
+     * @param index 位置
+     * @param lng   经度
+     * @param lat   纬度
+     */
+    public void set(int index, double lng, double lat) {
+        checkIndex(index);
+        if (compact) {
+            lngE6[offset + index] = toMicro(lng, 180);
+            latE6[offset + index] = toMicro(lat, 90);
+        } else {
+            lngs[offset + index] = lng;
+            lats[offset + index] = lat;
+        }
+    }
+
+    /**
+     * 追加一个点, 容量不足时自动扩容
+     *
+     * @param lng 经度
+     * @param lat 纬度
+     * @return 当前点序列
+     */
+    public PointArray add(double lng, double lat) {
+        if (view) {
+            throw new UnsupportedOperationException("视图不能追加元素");
+        }
+        grow(size + 1);
+        if (compact) {
+            lngE6[size] = toMicro(lng, 180);
+            latE6[size] = toMicro(lat, 90);
+        } else {
+            lngs[size] = lng;
+            lats[size] = lat;
+        }
+        size++;
+        return this;
+    }
+
+    public PointArray add(Point point) {
+        return add(point.lng, point.lat);
+    }
+
+    /**
+     * 追加另一个点序列中的全部点
+     *
+     * @param points 点序列
+     * @return 当前点序列
+     */
+    public PointArray addAll(PointArray points) {
+        if (view) {
+            throw new UnsupportedOperationException("视图不能追加元素");
+        }
+        int count = points.size;
+        grow(size + count);
+        for (int i = 0; i < count; i++) {
+            add(points.getLng(i), points.getLat(i));
+        }
+        return this;
+    }
+
+    /**
+     * 清空点序列, 保留已分配的容量
+     */
+    public void clear() {
+        if (view) {
+            throw new UnsupportedOperationException("视图不能清空");
+        }
+        size = 0;
+    }
+
+    /**
+     * 获取[from, to)区间的视图, 视图和当前序列共享底层数组
+     *
+     * @param from 起始位置(包含)
+     * @param to   结束位置(不包含)
+     * @return 视图
+     */
+    public PointArray view(int from, int to) {
+        if (from < 0 || to > size || from > to) {
+            throw new IndexOutOfBoundsException("from: " + from + ", to: " + to + ", size: " + size);
+        }
+        return new PointArray(this, offset + from, to - from);
+    }
+
+    /**
+     * 按顺序遍历所有点, 遍历过程中不创建对象
+     *
+     * @param consumer 回调
+     */
+    public void forEach(PointConsumer consumer) {
+        if (compact) {
+            for (int i = 0; i < size; i++) {
+                consumer.accept(i, lngE6[offset + i] / MICRO, latE6[offset + i] / MICRO);
+            }
+        } else {
+            for (int i = 0; i < size; i++) {
+                consumer.accept(i, lngs[offset + i], lats[offset + i]);
+            }
+        }
+    }
+
+    /**
+     * 复制经度到新数组
+     *
+     * @return 经度数组
+     */
+    public double[] toLngArray() {
+        double[] result = new double[size];
+        for (int i = 0; i < size; i++) {
+            result[i] = getLng(i);
+        }
+        return result;
+    }
+
+    /**
+     * 复制纬度到新数组
+     *
+     * @return 纬度数组
+     */
+    public double[] toLatArray() {
+        double[] result = new double[size];
+        for (int i = 0; i < size; i++) {
+            result[i] = getLat(i);
+        }
+        return result;
+    }
+
+    /**
+     * 获取已分配容量占用的内存字节数(不含对象头), 视图和原序列共享同一份内存
+     *
+     * @return 内存字节数
+     */
+    public long getMemoryBytes() {
+        return compact ? (long) lngE6.length * 2 * Integer.BYTES : (long) lngs.length * 2 * Double.BYTES;
+    }
+
+    private void grow(int minCapacity) {
+        int capacity = compact ? lngE6.length : lngs.length;
+        if (minCapacity <= capacity) {
+            return;
+        }
+        int newCapacity = Math.max(minCapacity, capacity + (capacity >> 1) + 1);
+        if (compact) {
+            lngE6 = Arrays.copyOf(lngE6, newCapacity);
+            latE6 = Arrays.copyOf(latE6, newCapacity);
+        } else {
+            lngs = Arrays.copyOf(lngs, newCapacity);
+            lats = Arrays.copyOf(lats, newCapacity);
+        }
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index: " + index + ", size: " + size);
+        }
+    }
+
+    private static int toMicro(double degree, double limit) {
+        if (!(degree >= -limit && degree <= limit)) {
+            throw new IllegalArgumentException("紧凑模式只能存放经纬度: " + degree);
+        }
+        return (int) Math.round(degree * MICRO);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("PointArray[");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append('(').append(getLng(i)).append(", ").append(getLat(i)).append(')');
+        }
+        return sb.append(']').toString();
+    }
+
+    /**
+     * 遍历点序列的回调
+     */
+    public interface PointConsumer {
+        /**
+         * 处理一个点
+         *
+         * @param index 位置
+         * @param lng   经度
+         * @param lat   纬度
+         */
+        void accept(int index, double lng, double lat);
+    }
+}
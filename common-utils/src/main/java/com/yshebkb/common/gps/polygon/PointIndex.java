@@ -0,0 +1,563 @@
+package com.yshebkb.common.gps.polygon;
+
+import com.yshebkb.common.gps.DistanceUtil;
+
+import java.util.Arrays;
+
+/**
+ * 点的空间索引, 查询最近的k个点和给定半径内的所有点
+ * <p>
+ * 一次性批量构建的隐式k-d树: 对[lo, hi)区间按经度或纬度(逐层交替)取中位数放在中间位置mid,
+ * 左边的点不大于它, 右边的点不小于它, 再对两边递归, 不超过{@value #LEAF_SIZE}个点时停止.
+ * 树的结构完全由下标推算, 坐标和id存放在几个基本类型数组中, 没有节点对象.
+ * <p>
+ * 距离是半径为{@link DistanceUtil#EARTH_RADIUS}的球面上的大圆距离, 与{@link DistanceUtil#haversine}一致.
+ * 查询时比较的是haversine公式中的中间量h = sin²(Δφ/2) + cosφ₁cosφ₂sin²(Δλ/2), 它随距离单调递增,
+ * 只有返回结果时才换算成米. 剪枝用到分割线的距离下界: 纬度方向是纬度差, 经度方向是到经线的最短距离,
+ * 都换算成h后与当前最远的候选比较. 半径查询先用经纬度矩形(球冠的外接矩形)筛选, 只对矩形内的点计算h.
+ * 经度差跨过180度经线时按较短的一侧计算.
+ * <p>
+ * 构建后不可变, 可以被多个线程共享, 查询过程不创建任何对象.
+ *
+ * @author whiteclaw
+ * created on 2026-10-18
+ */
+public final class PointIndex {
+
+    /**
+     * 叶子节点的最大点数, 叶子内顺序扫描
+     */
+    static final int LEAF_SIZE = 8;
+
+    /**
+     * 把度数之差换算成半角的弧度
+     */
+    private static final double HALF_RADIAN = Math.PI / 360;
+
+    /**
+     * 经纬度矩形筛选的余量(度), 避免恰好在半径上的点因舍入被排除
+     */
+    private static final double BOX_SLACK = 1e-9;
+
+    /**
+     * 按树的顺序排列的id和坐标, cosLats是纬度的余弦
+     */
+    private final int[] ids;
+    private final double[] lngs;
+    private final double[] lats;
+    private final double[] cosLats;
+
+    private PointIndex(int[] ids, double[] lngs, double[] lats, double[] cosLats) {
+        this.ids = ids;
+        this.lngs = lngs;
+        this.lats = lats;
+        this.cosLats = cosLats;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * 用一组点构建索引, 点的id是它在数组中的下标
+     *
+     * @param points 点
+     * @return 索引
+     */
+    public static PointIndex of(PointArray points) {
+        Builder builder = new Builder();
+        for (int i = 0; i < points.size(); i++) {
+            builder.add(i, points.getLng(i), points.getLat(i));
+        }
+        return builder.build();
+    }
+
+    /**
+     * 查询离给定点最近的点
+     *
+     * @param lng 经度
+     * @param lat 纬度
+     * @return 最近的点的id, 索引为空时返回-1
+     */
+    public int nearest(double lng, double lat) {
+        if (ids.length == 0) {
+            return -1;
+        }
+        double cosLat = Math.cos(Math.toRadians(lat));
+        return ids[nearest(0, ids.length, 0, lng, lat, cosLat, -1, Double.POSITIVE_INFINITY)];
+    }
+
+    /**
+     * 查询离给定点最近的k个点, 按距离从近到远输出
+     *
+     * @param lng          经度
+     * @param lat          纬度
+     * @param k            点数
+     * @param outIds       点id的输出数组, 长度不小于k
+     * @param outDistances 距离(米)的输出数组, 长度不小于k
+     * @return 输出的点数, 即k与索引大小中较小的一个
+     */
+    public int nearest(double lng, double lat, int k, int[] outIds, double[] outDistances) {
+        if (k < 0 || k > outIds.length || k > outDistances.length) {
+            throw new IllegalArgumentException("k不能为负数, 也不能超过输出数组的长度");
+        }
+        if (k == 0 || ids.length == 0) {
+            return 0;
+        }
+        // 输出数组先作为以h为键的最大堆, 堆顶是当前第k近的点
+        int count = nearest(0, ids.length, 0, lng, lat, Math.cos(Math.toRadians(lat)), k, outIds, outDistances, 0);
+        for (int end = count - 1; end > 0; end--) {
+            swap(outIds, outDistances, 0, end);
+            siftDown(outIds, outDistances, 0, end);
+        }
+        for (int i = 0; i < count; i++) {
+            outDistances[i] = toMeters(outDistances[i]);
+        }
+        return count;
+    }
+
+    /**
+     * 查询与给定点的距离不超过meters的所有点, 输出顺序不确定
+     *
+     * @param lng    经度
+     * @param lat    纬度
+     * @param meters 半径(米)
+     * @param out    点id的输出数组, 命中数超过数组长度时只写入前out.length个
+     * @return 命中的点的总数, 可能大于out.length
+     */
+    public int withinRadius(double lng, double lat, double meters, int[] out) {
+        if (ids.length == 0 || meters < 0) {
+            return 0;
+        }
+        double angle = meters / DistanceUtil.EARTH_RADIUS;
+        return withinRadius(0, ids.length, 0, lng, lat, Math.cos(Math.toRadians(lat)), maxH(angle),
+                latRange(angle), lngRange(lat, angle), out, 0);
+    }
+
+    /**
+     * 查询与给定点的距离不超过meters的所有点, 每命中一个回调一次
+     *
+     * @param lng      经度
+     * @param lat      纬度
+     * @param meters   半径(米)
+     * @param consumer 回调
+     * @return 命中的点的总数
+     */
+    public int withinRadius(double lng, double lat, double meters, NeighborConsumer consumer) {
+        if (ids.length == 0 || meters < 0) {
+            return 0;
+        }
+        double angle = meters / DistanceUtil.EARTH_RADIUS;
+        return withinRadius(0, ids.length, 0, lng, lat, Math.cos(Math.toRadians(lat)), maxH(angle),
+                latRange(angle), lngRange(lat, angle), consumer);
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * 获取索引占用的内存字节数(不含对象头)
+     *
+     * @return 内存字节数
+     */
+    public long getMemoryBytes() {
+        return (long) ids.length * (Integer.BYTES + 3 * Double.BYTES);
+    }
+
+    private int nearest(int lo, int hi, int depth, double lng, double lat, double cosLat,
+                        int k, int[] heapIds, double[] heap, int count) {
+        if (hi - lo <= LEAF_SIZE) {
+            for (int i = lo; i < hi; i++) {
+                count = offer(i, lng, lat, cosLat, k, heapIds, heap, count);
+            }
+            return count;
+        }
+        int mid = (lo + hi) >>> 1;
+        count = offer(mid, lng, lat, cosLat, k, heapIds, heap, count);
+        boolean lngAxis = (depth & 1) == 0;
+        double split = lngAxis ? lngs[mid] : lats[mid];
+        boolean left = (lngAxis ? lng : lat) < split;
+        count = left ? nearest(lo, mid, depth + 1, lng, lat, cosLat, k, heapIds, heap, count)
+                : nearest(mid + 1, hi, depth + 1, lng, lat, cosLat, k, heapIds, heap, count);
+        if (count < k || bound(lngAxis, lng, lat, cosLat, split) < heap[0]) {
+            count = left ? nearest(mid + 1, hi, depth + 1, lng, lat, cosLat, k, heapIds, heap, count)
+                    : nearest(lo, mid, depth + 1, lng, lat, cosLat, k, heapIds, heap, count);
+        }
+        return count;
+    }
+
+    /**
+     * 只查询最近的一个点, 当前最近的点和它的h放在局部变量中, 不需要候选堆. 访问顺序与k近邻查询相同
+     *
+     * @param best  当前最近的点在树中的位置, 没有时为-1
+     * @param bestH 当前最近的点的h
+     * @return 最近的点在树中的位置
+     */
+    private int nearest(int lo, int hi, int depth, double lng, double lat, double cosLat, int best, double bestH) {
+        if (hi - lo <= LEAF_SIZE) {
+            for (int i = lo; i < hi; i++) {
+                double h = h(i, lng, lat, cosLat, bestH);
+                if (h < bestH) {
+                    bestH = h;
+                    best = i;
+                }
+            }
+            return best;
+        }
+        int mid = (lo + hi) >>> 1;
+        double h = h(mid, lng, lat, cosLat, bestH);
+        if (h < bestH) {
+            bestH = h;
+            best = mid;
+        }
+        boolean lngAxis = (depth & 1) == 0;
+        double split = lngAxis ? lngs[mid] : lats[mid];
+        boolean left = (lngAxis ? lng : lat) < split;
+        int near = left ? nearest(lo, mid, depth + 1, lng, lat, cosLat, best, bestH)
+                : nearest(mid + 1, hi, depth + 1, lng, lat, cosLat, best, bestH);
+        if (near != best) {
+            best = near;
+            bestH = h(best, lng, lat, cosLat, Double.POSITIVE_INFINITY);
+        }
+        if (bound(lngAxis, lng, lat, cosLat, split) < bestH) {
+            best = left ? nearest(mid + 1, hi, depth + 1, lng, lat, cosLat, best, bestH)
+                    : nearest(lo, mid, depth + 1, lng, lat, cosLat, best, bestH);
+        }
+        return best;
+    }
+
+    /**
+     * 计算第i个点的h, 只看纬度差就不小于limit时直接返回这个下界
+     */
+    private double h(int i, double lng, double lat, double cosLat, double limit) {
+        double sinLat = Math.sin((lats[i] - lat) * HALF_RADIAN);
+        double h = sinLat * sinLat;
+        if (h >= limit) {
+            return h;
+        }
+        double sinLng = Math.sin((lngs[i] - lng) * HALF_RADIAN);
+        return h + cosLat * cosLats[i] * sinLng * sinLng;
+    }
+
+    /**
+     * 把第i个点放入候选堆
+     */
+    private int offer(int i, double lng, double lat, double cosLat, int k, int[] heapIds, double[] heap, int count) {
+        double sinLat = Math.sin((lats[i] - lat) * HALF_RADIAN);
+        double h = sinLat * sinLat;
+        if (count == k && h >= heap[0]) {
+            // 只看纬度差就比堆顶远
+            return count;
+        }
+        double sinLng = Math.sin((lngs[i] - lng) * HALF_RADIAN);
+        h += cosLat * cosLats[i] * sinLng * sinLng;
+        if (count < k) {
+            heap[count] = h;
+            heapIds[count] = ids[i];
+            siftUp(heapIds, heap, count);
+            return count + 1;
+        }
+        if (h < heap[0]) {
+            heap[0] = h;
+            heapIds[0] = ids[i];
+            siftDown(heapIds, heap, 0, k);
+        }
+        return count;
+    }
+
+    private int withinRadius(int lo, int hi, int depth, double lng, double lat, double cosLat,
+                             double maxH, double latRange, double lngRange, int[] out, int found) {
+        if (hi - lo <= LEAF_SIZE) {
+            for (int i = lo; i < hi; i++) {
+                if (within(i, lng, lat, cosLat, maxH, latRange, lngRange) >= 0) {
+                    if (found < out.length) {
+                        out[found] = ids[i];
+                    }
+                    found++;
+                }
+            }
+            return found;
+        }
+        int mid = (lo + hi) >>> 1;
+        if (within(mid, lng, lat, cosLat, maxH, latRange, lngRange) >= 0) {
+            if (found < out.length) {
+                out[found] = ids[mid];
+            }
+            found++;
+        }
+        boolean lngAxis = (depth & 1) == 0;
+        double split = lngAxis ? lngs[mid] : lats[mid];
+        boolean left = (lngAxis ? lng : lat) < split;
+        boolean far = bound(lngAxis, lng, lat, cosLat, split) <= maxH;
+        if (left || far) {
+            found = withinRadius(lo, mid, depth + 1, lng, lat, cosLat, maxH, latRange, lngRange, out, found);
+        }
+        if (!left || far) {
+            found = withinRadius(mid + 1, hi, depth + 1, lng, lat, cosLat, maxH, latRange, lngRange, out, found);
+        }
+        return found;
+    }
+
+    private int withinRadius(int lo, int hi, int depth, double lng, double lat, double cosLat,
+                             double maxH, double latRange, double lngRange, NeighborConsumer consumer) {
+        int found = 0;
+        if (hi - lo <= LEAF_SIZE) {
+            for (int i = lo; i < hi; i++) {
+                double h = within(i, lng, lat, cosLat, maxH, latRange, lngRange);
+                if (h >= 0) {
+                    consumer.accept(ids[i], toMeters(h));
+                    found++;
+                }
+            }
+            return found;
+        }
+        int mid = (lo + hi) >>> 1;
+        double h = within(mid, lng, lat, cosLat, maxH, latRange, lngRange);
+        if (h >= 0) {
+            consumer.accept(ids[mid], toMeters(h));
+            found++;
+        }
+        boolean lngAxis = (depth & 1) == 0;
+        double split = lngAxis ? lngs[mid] : lats[mid];
+        boolean left = (lngAxis ? lng : lat) < split;
+        boolean far = bound(lngAxis, lng, lat, cosLat, split) <= maxH;
+        if (left || far) {
+            found += withinRadius(lo, mid, depth + 1, lng, lat, cosLat, maxH, latRange, lngRange, consumer);
+        }
+        if (!left || far) {
+            found += withinRadius(mid + 1, hi, depth + 1, lng, lat, cosLat, maxH, latRange, lngRange, consumer);
+        }
+        return found;
+    }
+
+    /**
+     * 判断第i个点是否在半径内, 先用经纬度矩形筛选
+     *
+     * @return 在半径内时返回h, 否则返回-1
+     */
+    private double within(int i, double lng, double lat, double cosLat, double maxH, double latRange, double lngRange) {
+        double dLat = lats[i] - lat;
+        if (dLat > latRange || dLat < -latRange) {
+            return -1;
+        }
+        double dLng = Math.abs(lngs[i] - lng);
+        if (dLng > 180) {
+            dLng = 360 - dLng;
+        }
+        if (dLng > lngRange) {
+            return -1;
+        }
+        double sinLat = Math.sin(dLat * HALF_RADIAN);
+        double sinLng = Math.sin(dLng * HALF_RADIAN);
+        double h = sinLat * sinLat + cosLat * cosLats[i] * sinLng * sinLng;
+        return h <= maxH ? h : -1;
+    }
+
+    /**
+     * 分割线另一侧的点与查询点之间h的下界
+     *
+     * @param lngAxis 是否按经度分割
+     * @param split   分割线的经度或纬度
+     */
+    private static double bound(boolean lngAxis, double lng, double lat, double cosLat, double split) {
+        if (!lngAxis) {
+            double sinLat = Math.sin((lat - split) * HALF_RADIAN);
+            return sinLat * sinLat;
+        }
+        // 另一侧的经度差不小于到分割线的经度差, 也不小于绕过180度经线的经度差
+        double delta = Math.min(Math.abs(lng - split), 180 - (lng < split ? -lng : lng));
+        if (delta >= 90) {
+            delta = 90;
+        }
+        // 到经线的最短距离d满足sin(d) = cosφ·sinΔλ, h = sin²(d/2) = (1 - cos d) / 2
+        double s = cosLat * Math.sin(Math.toRadians(delta));
+        double s2 = s * s;
+        return s2 / (2 * (1 + Math.sqrt(1 - s2)));
+    }
+
+    private static double maxH(double angle) {
+        if (angle >= Math.PI) {
+            return 1;
+        }
+        double s = Math.sin(angle / 2);
+        return s * s;
+    }
+
+    private static double latRange(double angle) {
+        return Math.toDegrees(Math.min(angle, Math.PI)) + BOX_SLACK;
+    }
+
+    /**
+     * 半径为angle(弧度)的球冠的经度范围, 球冠包含极点时不限制
+     */
+    private static double lngRange(double lat, double angle) {
+        double phi = Math.toRadians(lat);
+        if (phi + angle >= Math.PI / 2 || phi - angle <= -Math.PI / 2) {
+            return 180;
+        }
+        return Math.toDegrees(Math.asin(Math.min(Math.sin(angle) / Math.cos(phi), 1))) + BOX_SLACK;
+    }
+
+    private static double toMeters(double h) {
+        return 2 * DistanceUtil.EARTH_RADIUS * Math.asin(Math.sqrt(Math.min(h, 1)));
+    }
+
+    private static void siftUp(int[] ids, double[] heap, int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (heap[parent] >= heap[i]) {
+                return;
+            }
+            swap(ids, heap, parent, i);
+            i = parent;
+        }
+    }
+
+    private static void siftDown(int[] ids, double[] heap, int i, int size) {
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) {
+                return;
+            }
+            if (child + 1 < size && heap[child + 1] > heap[child]) {
+                child++;
+            }
+            if (heap[i] >= heap[child]) {
+                return;
+            }
+            swap(ids, heap, i, child);
+            i = child;
+        }
+    }
+
+    private static void swap(int[] ids, double[] values, int i, int j) {
+        int id = ids[i];
+        ids[i] = ids[j];
+        ids[j] = id;
+        double value = values[i];
+        values[i] = values[j];
+        values[j] = value;
+    }
+
+    /**
+     * 点索引的构建器, 非线程安全
+     */
+    public static class Builder {
+        private int[] ids = new int[16];
+        private double[] lngs = new double[16];
+        private double[] lats = new double[16];
+        private int size = 0;
+
+        /**
+         * 添加一个点
+         *
+         * @param id  点id, 允许重复
+         * @param lng 经度, 取值范围[-180, 180]
+         * @param lat 纬度, 取值范围[-90, 90]
+         * @return 构建器
+         */
+        public Builder add(int id, double lng, double lat) {
+            if (!(lng >= -180 && lng <= 180 && lat >= -90 && lat <= 90)) {
+                throw new IllegalArgumentException("经纬度超出范围: " + lng + ", " + lat);
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size << 1);
+                lngs = Arrays.copyOf(lngs, size << 1);
+                lats = Arrays.copyOf(lats, size << 1);
+            }
+            ids[size] = id;
+            lngs[size] = lng;
+            lats[size] = lat;
+            size++;
+            return this;
+        }
+
+        public Builder add(int id, Point point) {
+            return add(id, point.getLng(), point.getLat());
+        }
+
+        /**
+         * 构建索引, 构建后可以继续添加点并再次构建, 已构建的索引不受影响
+         *
+         * @return 索引
+         */
+        public PointIndex build() {
+            int[] sortedIds = Arrays.copyOf(ids, size);
+            double[] sortedLngs = Arrays.copyOf(lngs, size);
+            double[] sortedLats = Arrays.copyOf(lats, size);
+            split(sortedIds, sortedLngs, sortedLats, 0, size, 0);
+            double[] cosLats = new double[size];
+            for (int i = 0; i < size; i++) {
+                cosLats[i] = Math.cos(Math.toRadians(sortedLats[i]));
+            }
+            return new PointIndex(sortedIds, sortedLngs, sortedLats, cosLats);
+        }
+
+        private static void split(int[] ids, double[] lngs, double[] lats, int lo, int hi, int depth) {
+            while (hi - lo > LEAF_SIZE) {
+                int mid = (lo + hi) >>> 1;
+                select(ids, lngs, lats, (depth & 1) == 0 ? lngs : lats, lo, hi - 1, mid);
+                split(ids, lngs, lats, lo, mid, depth + 1);
+                lo = mid + 1;
+                depth++;
+            }
+        }
+
+        /**
+         * 在[left, right]中选出第k小的点放在k处, 左边的都不大于它, 右边的都不小于它
+         */
+        private static void select(int[] ids, double[] lngs, double[] lats, double[] keys, int left, int right, int k) {
+            while (left < right) {
+                double pivot = keys[(left + right) >>> 1];
+                int i = left;
+                int j = right;
+                while (i <= j) {
+                    while (keys[i] < pivot) {
+                        i++;
+                    }
+                    while (keys[j] > pivot) {
+                        j--;
+                    }
+                    if (i <= j) {
+                        swap(ids, lngs, lats, i, j);
+                        i++;
+                        j--;
+                    }
+                }
+                if (k <= j) {
+                    right = j;
+                } else if (k >= i) {
+                    left = i;
+                } else {
+                    return;
+                }
+            }
+        }
+
+        private static void swap(int[] ids, double[] lngs, double[] lats, int i, int j) {
+            int id = ids[i];
+            ids[i] = ids[j];
+            ids[j] = id;
+            double lng = lngs[i];
+            lngs[i] = lngs[j];
+            lngs[j] = lng;
+            double lat = lats[i];
+            lats[i] = lats[j];
+            lats[j] = lat;
+        }
+    }
+
+    /**
+     * 半径查询命中时的回调
+     */
+    public interface NeighborConsumer {
+        /**
+         * 处理一个命中的点
+         *
+         * @param id       点id
+         * @param distance 距离(米)
+         */
+        void accept(int id, double distance);
+    }
+}
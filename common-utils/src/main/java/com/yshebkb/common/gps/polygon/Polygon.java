@@ -1,22 +1,99 @@
 package com.yshebkb.common.gps.polygon;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * The 2D polygon. <br>
+ * <p>
+ * The vertexes of all rings are kept in primitive arrays and {@link #contains(double, double)} runs a
+ * crossing-number test over them, so a containment query does not allocate any object.
+ * <p>
+ * A polygon is made of one or more parts (a multipolygon). Every part has an outer ring followed by
+ * any number of holes, and the holes must lie inside the outer ring of their part. Each ring keeps its own
+ * bounding box, so a query skips the parts and holes whose box does not contain the point.
  *
  * @author Roman Kushnarenko (sromku@gmail.com)
  * @see {@link Builder}
  */
 public class Polygon {
 
+    /**
+     * Batches smaller than this are checked in the calling thread, must be a multiple of 64
+     */
+    static final int BATCH_CHUNK = 1 << 14;
+
     private final BoundingBox boundingBox;
-    private final List<Line> sides;
 
-    private Polygon(List<Line> sides, BoundingBox boundingBox) {
-        this.sides = sides;
+    /**
+     * Vertexes of all rings, ring r occupies [ringStart[r], ringStart[r + 1])
+     */
+    private final double[] xs;
+    private final double[] ys;
+    private final int[] ringStart;
+
+    /**
+     * Part p consists of rings [partStart[p], partStart[p + 1]), the first one is the outer ring
+     */
+    private final int[] partStart;
+
+    /**
+     * Bounding box of ring r, as minX, minY, maxX, maxY at [4 * r, 4 * r + 4)
+     */
+    private final double[] ringBoxes;
+
+    /**
+     * Edge i goes from vertex i to the next vertex of the same ring, which is (nextXs[i], nextYs[i]).
+     * slopes[i] is dx/dy of the edge.
+     */
+    private final double[] nextXs;
+    private final double[] nextYs;
+    private final double[] slopes;
+
+    private volatile List<Line> sides;
+
+    /**
+     * Built by {@link #prepare()}, null until then
+     */
+    private volatile EdgeIndex edgeIndex;
+
+    private Polygon(double[] xs, double[] ys, int[] ringStart, int[] partStart, BoundingBox boundingBox) {
+        this.xs = xs;
+        this.ys = ys;
+        this.ringStart = ringStart;
+        this.partStart = partStart;
         this.boundingBox = boundingBox;
+        this.nextXs = new double[xs.length];
+        this.nextYs = new double[xs.length];
+        this.slopes = new double[xs.length];
+        this.ringBoxes = new double[(ringStart.length - 1) * 4];
+        for (int r = 0; r < ringStart.length - 1; r++) {
+            int from = ringStart[r];
+            int to = ringStart[r + 1];
+            double minX = Double.POSITIVE_INFINITY;
+            double minY = Double.POSITIVE_INFINITY;
+            double maxX = Double.NEGATIVE_INFINITY;
+            double maxY = Double.NEGATIVE_INFINITY;
+            for (int i = from; i < to; i++) {
+                int next = i + 1 == to ? from : i + 1;
+                nextXs[i] = xs[next];
+                nextYs[i] = ys[next];
+                slopes[i] = (xs[next] - xs[i]) / (ys[next] - ys[i]);
+                minX = Math.min(minX, xs[i]);
+                minY = Math.min(minY, ys[i]);
+                maxX = Math.max(maxX, xs[i]);
+                maxY = Math.max(maxY, ys[i]);
+            }
+            ringBoxes[r << 2] = minX;
+            ringBoxes[(r << 2) + 1] = minY;
+            ringBoxes[(r << 2) + 2] = maxX;
+            ringBoxes[(r << 2) + 3] = maxY;
+        }
     }
 
     /**
@@ -29,13 +106,19 @@ public class Polygon {
     }
 
     /**
-     * Builder of the polygon
+     * Builder of the polygon<br>
+     * The first ring is the outer ring. After {@link #close()} the next vertex starts a hole of the same part,
+     * after {@link #startPart()} it starts the outer ring of a new part.
      *
      * @author Roman Kushnarenko (sromku@gmail.com)
      */
     public static class Builder {
-        private List<Point> vertexes = new ArrayList<>();
-        private List<Line> sides = new ArrayList<>();
+        private PointArray vertexes = PointArray.create();
+        private int[] ringStart = new int[4];
+        private int rings = 0;
+        private int[] partStart = new int[4];
+        private int parts = 0;
+        private boolean newPart = true;
         private BoundingBox boundingBox = null;
 
         private boolean firstPoint = true;
@@ -49,26 +132,32 @@ public class Polygon {
          * @return The builder
          */
         public Builder addVertex(Point point) {
-            if (isClosed) {
+            return this.addVertex(point.lng, point.lat);
+        }
+
+        public Builder addVertex(double x, double y) {
+            if (isClosed || rings == 0) {
                 // each hole we start with the new array of vertex points
-                vertexes = new ArrayList<Point>();
+                startRing();
                 isClosed = false;
             }
 
-            updateBoundingBox(point);
-            vertexes.add(point);
-
-            // add line (edge) to the polygon
-            if (vertexes.size() > 1) {
-                Line line = new Line(vertexes.get(vertexes.size() - 2), point);
-                sides.add(line);
-            }
-
+            updateBoundingBox(x, y);
+            vertexes.add(x, y);
             return this;
         }
 
-        public Builder addVertex(double x, double y) {
-            return this.addVertex(new Point(x, y));
+        /**
+         * Add all points of the array as vertexes, in order.
+         *
+         * @param points The vertex points
+         * @return The builder
+         */
+        public Builder addVertices(PointArray points) {
+            for (int i = 0, size = points.size(); i < size; i++) {
+                addVertex(points.getLng(i), points.getLat(i));
+            }
+            return this;
         }
 
         /**
@@ -78,14 +167,23 @@ public class Polygon {
          */
         public Builder close() {
             validate();
-
-            // add last Line
-            sides.add(new Line(vertexes.get(vertexes.size() - 1), vertexes.get(0)));
             isClosed = true;
 
             return this;
         }
 
+        /**
+         * Close the current ring and start a new part (multipolygon). The next vertex starts its outer ring.
+         *
+         * @return The builder
+         */
+        public Builder startPart() {
+            close();
+            newPart = true;
+
+            return this;
+        }
+
         /**
          * Build the instance of the polygon shape.
          *
@@ -94,46 +192,57 @@ public class Polygon {
         public Polygon build() {
             validate();
 
-            // in case you forgot to close
-            if (!isClosed) {
-                // add last Line
-                sides.add(new Line(vertexes.get(vertexes.size() - 1), vertexes.get(0)));
-            }
+            // the last ring is always closed, whether close() was called or not
+            int[] starts = Arrays.copyOf(ringStart, rings + 1);
+            starts[rings] = vertexes.size();
+            int[] partStarts = Arrays.copyOf(partStart, parts + 1);
+            partStarts[parts] = rings;
+            return new Polygon(vertexes.toLngArray(), vertexes.toLatArray(), starts, partStarts, boundingBox);
+        }
 
-            return new Polygon(sides, boundingBox);
+        private void startRing() {
+            if (newPart) {
+                if (parts + 1 >= partStart.length) {
+                    partStart = Arrays.copyOf(partStart, partStart.length << 1);
+                }
+                partStart[parts++] = rings;
+                newPart = false;
+            }
+            if (rings + 1 >= ringStart.length) {
+                ringStart = Arrays.copyOf(ringStart, ringStart.length << 1);
+            }
+            ringStart[rings++] = vertexes.size();
         }
 
         /**
          * Update bounding box with a new point.<br>
-         *
-         * @param point New point
          */
-        private void updateBoundingBox(Point point) {
+        private void updateBoundingBox(double x, double y) {
             if (firstPoint) {
                 boundingBox = new BoundingBox();
-                boundingBox.xMax = point.lng;
-                boundingBox.xMin = point.lng;
-                boundingBox.yMax = point.lat;
-                boundingBox.yMin = point.lat;
+                boundingBox.xMax = x;
+                boundingBox.xMin = x;
+                boundingBox.yMax = y;
+                boundingBox.yMin = y;
 
                 firstPoint = false;
             } else {
                 // set bounding box
-                if (point.lng > boundingBox.xMax) {
-                    boundingBox.xMax = point.lng;
-                } else if (point.lng < boundingBox.xMin) {
-                    boundingBox.xMin = point.lng;
+                if (x > boundingBox.xMax) {
+                    boundingBox.xMax = x;
+                } else if (x < boundingBox.xMin) {
+                    boundingBox.xMin = x;
                 }
-                if (point.lat > boundingBox.yMax) {
-                    boundingBox.yMax = point.lat;
-                } else if (point.lat < boundingBox.yMin) {
-                    boundingBox.yMin = point.lat;
+                if (y > boundingBox.yMax) {
+                    boundingBox.yMax = y;
+                } else if (y < boundingBox.yMin) {
+                    boundingBox.yMin = y;
                 }
             }
         }
 
         private void validate() {
-            if (vertexes.size() < 3) {
+            if (rings == 0 || vertexes.size() - ringStart[rings - 1] < 3) {
                 throw new RuntimeException("Polygon must have at least 3 points");
             }
         }
@@ -146,79 +255,402 @@ public class Polygon {
      * @return <code>True</code> if the point is inside the polygon, otherwise return <code>False</code>
      */
     public boolean contains(Point point) {
-        if (inBoundingBox(point)) {
-            Line ray = createRay(point);
-            int intersection = 0;
-            for (Line side : sides) {
-                if (intersect(ray, side)) {
-                    intersection++;
+        return contains(point.lng, point.lat);
+    }
+
+    /**
+     * Check if the the given point is inside of the polygon, without creating any object.<br>
+     * A horizontal ray is cast from the point, and every edge it crosses flips the result (even-odd rule),
+     * so holes are subtracted from the rings containing them. Parts whose outer ring box does not contain
+     * the point are skipped together with their holes, and so are holes whose box does not contain it.
+     *
+     * @param x The longitude of the point
+     * @param y The latitude of the point
+     * @return <code>True</code> if the point is inside the polygon, otherwise return <code>False</code>
+     */
+    public boolean contains(double x, double y) {
+        if (!inBoundingBox(x, y)) {
+            return false;
+        }
+        EdgeIndex index = edgeIndex;
+        if (index != null) {
+            return contains(index, x, y);
+        }
+        boolean inside = false;
+        for (int p = 0, n = partStart.length - 1; p < n; p++) {
+            int outer = partStart[p];
+            if (!inRingBox(outer, x, y)) {
+                continue;
+            }
+            for (int r = outer, end = partStart[p + 1]; r < end; r++) {
+                // the crossings of a ring are even when the point is outside of its box
+                if (r == outer || inRingBox(r, x, y)) {
+                    inside ^= inRing(r, x, y);
                 }
             }
+        }
+        return inside;
+    }
 
-            /*
-             * If the number of intersections is odd, then the point is inside the polygon
-             */
-            return intersection % 2 != 0;
+    /**
+     * Check all the given points in parallel, using the common fork-join pool.
+     *
+     * @param lngs The longitudes of the points
+     * @param lats The latitudes of the points
+     * @return Bit i is set if point i is inside the polygon
+     */
+    public BitSet contains(double[] lngs, double[] lats) {
+        if (lngs.length != lats.length) {
+            throw new IllegalArgumentException("lngs and lats must have the same length");
         }
-        return false;
+        return contains(lngs, lats, 0, lngs.length, ForkJoinPool.commonPool());
     }
 
-    public boolean contains(double x, double y) {
-        return this.contains(new Point(x, y));
+    /**
+     * Check the points in [offset, offset + length) in parallel.<br>
+     * The points are split into chunks of whole 64-bit words, so the tasks never write the same word
+     * and the result needs no merging. Points outside the bounding box are rejected before any edge is tested.
+     *
+     * @param lngs   The longitudes of the points
+     * @param lats   The latitudes of the points
+     * @param offset The first point to check
+     * @param length The number of points to check
+     * @param pool   The pool running the tasks, its parallelism decides the number of threads
+     * @return Bit i is set if point i is inside the polygon, bits outside the range are clear
+     */
+    public BitSet contains(double[] lngs, double[] lats, int offset, int length, ForkJoinPool pool) {
+        if (offset < 0 || length < 0 || offset + length > lngs.length || offset + length > lats.length) {
+            throw new IndexOutOfBoundsException("offset: " + offset + ", length: " + length
+                    + ", lngs: " + lngs.length + ", lats: " + lats.length);
+        }
+        int end = offset + length;
+        long[] words = new long[(end + 63) >> 6];
+        if (length <= BATCH_CHUNK) {
+            containsRange(lngs, lats, offset, end, words);
+        } else {
+            pool.invoke(new ContainsTask(this, lngs, lats, offset, end, words));
+        }
+        return BitSet.valueOf(words);
     }
 
-    public List<Line> getSides() {
-        return sides;
+    /**
+     * Set the bits of the points in [from, to) that are inside of the polygon.
+     */
+    private void containsRange(double[] lngs, double[] lats, int from, int to, long[] words) {
+        double xMin = boundingBox.xMin;
+        double xMax = boundingBox.xMax;
+        double yMin = boundingBox.yMin;
+        double yMax = boundingBox.yMax;
+        for (int i = from; i < to; i++) {
+            double x = lngs[i];
+            double y = lats[i];
+            if (x >= xMin && x <= xMax && y >= yMin && y <= yMax && contains(x, y)) {
+                words[i >> 6] |= 1L << i;
+            }
+        }
     }
 
     /**
-     * By given ray and one side of the polygon, check if both lines intersect.
+     * Check if the polygon and the closed rectangle have any point in common.<br>
+     * The bounding boxes are compared first, then the edges are clipped to the rectangle, which also covers a
+     * polygon that lies inside of the rectangle. If no edge reaches the rectangle, it is either wholly inside
+     * of the polygon or wholly outside of it, so testing one corner decides.
      *
-     * @return <code>True</code> if both lines intersect, otherwise return <code>False</code>
+     * @param minX The minimum longitude of the rectangle
+     * @param minY The minimum latitude of the rectangle
+     * @param maxX The maximum longitude of the rectangle
+     * @param maxY The maximum latitude of the rectangle
+     * @return <code>True</code> if they intersect
      */
-    private boolean intersect(Line ray, Line side) {
-        Point intersectPoint = null;
+    public boolean intersects(double minX, double minY, double maxX, double maxY) {
+        if (minX > boundingBox.xMax || maxX < boundingBox.xMin || minY > boundingBox.yMax || maxY < boundingBox.yMin) {
+            return false;
+        }
+        if (minX <= boundingBox.xMin && maxX >= boundingBox.xMax && minY <= boundingBox.yMin && maxY >= boundingBox.yMax) {
+            return true;
+        }
+        return boundaryIntersects(minX, minY, maxX, maxY) || contains(minX, minY);
+    }
 
-        // if both vectors aren't from the kind of x=1 lines then go into
-        if (!ray.isVertical() && !side.isVertical()) {
-            // check if both vectors are parallel. If they are parallel then no intersection point will exist
-            if (ray.getA() - side.getA() == 0) {
-                return false;
+    /**
+     * Check if the given point is inside of a single ring, ignoring all other rings
+     *
+     * @param ring The index of the ring
+     * @param x    The longitude of the point
+     * @param y    The latitude of the point
+     * @return <code>True</code> if the point is inside the ring
+     */
+    public boolean ringContains(int ring, double x, double y) {
+        checkRing(ring);
+        return inRing(ring, x, y);
+    }
+
+    private boolean inRing(int ring, double x, double y) {
+        boolean inside = false;
+        for (int i = ringStart[ring], end = ringStart[ring + 1]; i < end; i++) {
+            if (crosses(i, x, y)) {
+                inside = !inside;
             }
+        }
+        return inside;
+    }
 
-            double x = ((side.getB() - ray.getB()) / (ray.getA() - side.getA())); // x = (b2-b1)/(a1-a2)
-            double y = side.getA() * x + side.getB(); // y = a2*x+b2
-            intersectPoint = new Point(x, y);
-        } else if (ray.isVertical() && !side.isVertical()) {
-            double x = ray.getStart().lng;
-            double y = side.getA() * x + side.getB();
-            intersectPoint = new Point(x, y);
-        } else if (!ray.isVertical() && side.isVertical()) {
-            double x = side.getStart().lng;
-            double y = ray.getA() * x + ray.getB();
-            intersectPoint = new Point(x, y);
-        } else {
-            return false;
+    /**
+     * Build an index of the edges, so that {@link #contains(double, double)} only tests the edges
+     * near the latitude of the point instead of all of them.<br>
+     * Building costs O(n) time and memory, it pays off for polygons with many vertexes that are queried
+     * many times. Calling it more than once has no effect, and it is safe to call it concurrently with queries.
+     *
+     * @return This polygon
+     */
+    public Polygon prepare() {
+        if (edgeIndex == null) {
+            synchronized (this) {
+                if (edgeIndex == null) {
+                    edgeIndex = new EdgeIndex(ys, nextYs, boundingBox.yMin, boundingBox.yMax);
+                }
+            }
         }
+        return this;
+    }
 
-        if (side.isInside(intersectPoint) && ray.isInside(intersectPoint)) {
-            return true;
+    /**
+     * Check if {@link #prepare()} has been called
+     *
+     * @return <code>True</code> if the edge index is built
+     */
+    public boolean isPrepared() {
+        return edgeIndex != null;
+    }
+
+    /**
+     * Get the sides (edges) of the polygon. The lines are created on the first call.
+     *
+     * @return The sides of all rings
+     */
+    public List<Line> getSides() {
+        List<Line> result = sides;
+        if (result == null) {
+            result = new ArrayList<>(xs.length);
+            for (int r = 0; r < ringStart.length - 1; r++) {
+                int from = ringStart[r];
+                int to = ringStart[r + 1];
+                for (int i = from; i < to; i++) {
+                    int next = i + 1 == to ? from : i + 1;
+                    result.add(new Line(new Point(xs[i], ys[i]), new Point(xs[next], ys[next])));
+                }
+            }
+            result = Collections.unmodifiableList(result);
+            sides = result;
+        }
+        return result;
+    }
+
+    /**
+     * Get the number of vertexes of all rings
+     *
+     * @return The number of vertexes
+     */
+    public int getVertexCount() {
+        return xs.length;
+    }
+
+    /**
+     * Get the number of rings, including the outer rings and the holes of all parts
+     *
+     * @return The number of rings
+     */
+    public int getRingCount() {
+        return ringStart.length - 1;
+    }
+
+    /**
+     * Get the number of parts, every part has one outer ring
+     *
+     * @return The number of parts
+     */
+    public int getPartCount() {
+        return partStart.length - 1;
+    }
+
+    /**
+     * Get the index of the outer ring of a part, its holes are the rings up to the outer ring of the next part
+     *
+     * @param part The index of the part
+     * @return The index of the outer ring
+     */
+    public int getPartRing(int part) {
+        if (part < 0 || part >= partStart.length - 1) {
+            throw new IndexOutOfBoundsException("part: " + part + ", parts: " + (partStart.length - 1));
+        }
+        return partStart[part];
+    }
+
+    /**
+     * Check if a ring is a hole, i.e. not the outer ring of its part
+     *
+     * @param ring The index of the ring
+     * @return <code>True</code> if the ring is a hole
+     */
+    public boolean isHole(int ring) {
+        checkRing(ring);
+        return Arrays.binarySearch(partStart, 0, partStart.length - 1, ring) < 0;
+    }
+
+    /**
+     * Get a copy of the vertexes of a ring
+     *
+     * @param ring The index of the ring
+     * @return The vertexes, without repeating the first one at the end
+     */
+    public PointArray getRing(int ring) {
+        checkRing(ring);
+        int from = ringStart[ring];
+        int to = ringStart[ring + 1];
+        return PointArray.of(Arrays.copyOfRange(xs, from, to), Arrays.copyOfRange(ys, from, to));
+    }
+
+    public double getRingMinX(int ring) {
+        checkRing(ring);
+        return ringBoxes[ring << 2];
+    }
+
+    public double getRingMinY(int ring) {
+        checkRing(ring);
+        return ringBoxes[(ring << 2) + 1];
+    }
+
+    public double getRingMaxX(int ring) {
+        checkRing(ring);
+        return ringBoxes[(ring << 2) + 2];
+    }
+
+    public double getRingMaxY(int ring) {
+        checkRing(ring);
+        return ringBoxes[(ring << 2) + 3];
+    }
+
+    public double getMinX() {
+        return boundingBox.xMin;
+    }
+
+    public double getMaxX() {
+        return boundingBox.xMax;
+    }
+
+    public double getMinY() {
+        return boundingBox.yMin;
+    }
+
+    public double getMaxY() {
+        return boundingBox.yMax;
+    }
+
+    private boolean contains(EdgeIndex index, double x, double y) {
+        int slab = index.slab(y);
+        int[] edges = index.edges();
+        boolean inside = false;
+        for (int k = index.from(slab), end = index.to(slab); k < end; k++) {
+            if (crosses(edges[k], x, y)) {
+                inside = !inside;
+            }
         }
+        return inside;
+    }
 
+    /**
+     * Check if any edge has a point in the closed box, rings whose bounding box misses it are skipped
+     */
+    boolean boundaryIntersects(double minX, double minY, double maxX, double maxY) {
+        for (int r = 0; r < ringStart.length - 1; r++) {
+            int b = r << 2;
+            if (ringBoxes[b] > maxX || ringBoxes[b + 1] > maxY || ringBoxes[b + 2] < minX || ringBoxes[b + 3] < minY) {
+                continue;
+            }
+            for (int i = ringStart[r], end = ringStart[r + 1]; i < end; i++) {
+                if (edgeIntersects(i, minX, minY, maxX, maxY)) {
+                    return true;
+                }
+            }
+        }
         return false;
     }
 
     /**
-     * Create a ray. The ray will be created by given point and on point outside of the polygon.<br>
-     * The outside point is calculated automatically.
+     * Check if edge i has any point in the closed box
+     */
+    boolean edgeIntersects(int i, double minX, double minY, double maxX, double maxY) {
+        return segmentIntersects(xs[i], ys[i], nextXs[i], nextYs[i], minX, minY, maxX, maxY);
+    }
+
+    /**
+     * Check if the segment has any point in the closed box, by clipping it to the box (Liang-Barsky).
+     */
+    static boolean segmentIntersects(double x1, double y1, double x2, double y2,
+                                     double minX, double minY, double maxX, double maxY) {
+        if (Math.max(x1, x2) < minX || Math.min(x1, x2) > maxX || Math.max(y1, y2) < minY || Math.min(y1, y2) > maxY) {
+            return false;
+        }
+        double dx = x2 - x1;
+        double dy = y2 - y1;
+        // the segment is x1 + t * dx, y1 + t * dy, narrow [t0, t1] by each side of the box
+        double t0 = 0;
+        double t1 = 1;
+        for (int side = 0; side < 4; side++) {
+            double p;
+            double q;
+            switch (side) {
+                case 0:
+                    p = -dx;
+                    q = x1 - minX;
+                    break;
+                case 1:
+                    p = dx;
+                    q = maxX - x1;
+                    break;
+                case 2:
+                    p = -dy;
+                    q = y1 - minY;
+                    break;
+                default:
+                    p = dy;
+                    q = maxY - y1;
+                    break;
+            }
+            if (p == 0) {
+                if (q < 0) {
+                    return false;
+                }
+            } else if (p < 0) {
+                t0 = Math.max(t0, q / p);
+            } else {
+                t1 = Math.min(t1, q / p);
+            }
+            if (t0 > t1) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Check if the horizontal ray from the given point to the positive x direction crosses edge i.
+     * The lower end of an edge is included and the upper end excluded, so a ray through a vertex is counted once.
      */
-    private Line createRay(Point point) {
-        // create outside point
-        double epsilon = (boundingBox.xMax - boundingBox.xMin) / 10e6;
-        Point outsidePoint = new Point(boundingBox.xMin - epsilon, boundingBox.yMin);
+    boolean crosses(int i, double x, double y) {
+        double y1 = ys[i];
+        return (y1 > y) != (nextYs[i] > y) && x < xs[i] + slopes[i] * (y - y1);
+    }
 
-        Line vector = new Line(outsidePoint, point);
-        return vector;
+    private boolean inRingBox(int ring, double x, double y) {
+        int i = ring << 2;
+        return x >= ringBoxes[i] && y >= ringBoxes[i + 1] && x <= ringBoxes[i + 2] && y <= ringBoxes[i + 3];
+    }
+
+    private void checkRing(int ring) {
+        if (ring < 0 || ring >= ringStart.length - 1) {
+            throw new IndexOutOfBoundsException("ring: " + ring + ", rings: " + (ringStart.length - 1));
+        }
     }
 
     /**
@@ -226,13 +658,51 @@ public class Polygon {
      *
      * @return <code>True</code> if the point in bounding box, otherwise return <code>False</code>
      */
-    private boolean inBoundingBox(Point point) {
-        if (point.lng < boundingBox.xMin || point.lng > boundingBox.xMax || point.lat < boundingBox.yMin || point.lat > boundingBox.yMax) {
+    private boolean inBoundingBox(double x, double y) {
+        if (x < boundingBox.xMin || x > boundingBox.xMax || y < boundingBox.yMin || y > boundingBox.yMax) {
             return false;
         }
         return true;
     }
 
+    /**
+     * Split [from, to) at multiples of {@link #BATCH_CHUNK} until a chunk is small enough to run.
+     */
+    private static class ContainsTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Polygon polygon;
+        private final double[] lngs;
+        private final double[] lats;
+        private final int from;
+        private final int to;
+        private final long[] words;
+
+        ContainsTask(Polygon polygon, double[] lngs, double[] lats, int from, int to, long[] words) {
+            this.polygon = polygon;
+            this.lngs = lngs;
+            this.lats = lats;
+            this.from = from;
+            this.to = to;
+            this.words = words;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= BATCH_CHUNK) {
+                polygon.containsRange(lngs, lats, from, to, words);
+                return;
+            }
+            // the middle is aligned to a chunk, so both halves own whole words
+            int middle = ((from + to) >>> 1) / BATCH_CHUNK * BATCH_CHUNK;
+            if (middle <= from) {
+                middle = from / BATCH_CHUNK * BATCH_CHUNK + BATCH_CHUNK;
+            }
+            invokeAll(new ContainsTask(polygon, lngs, lats, from, middle, words),
+                    new ContainsTask(polygon, lngs, lats, middle, to, words));
+        }
+    }
+
     private static class BoundingBox {
         public double xMax = Double.NEGATIVE_INFINITY;
         public double xMin = Double.NEGATIVE_INFINITY;
@@ -0,0 +1,492 @@
+package com.yshebkb.common.gps.polygon;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 围栏多边形的二进制文件格式, 读取时用{@link FileChannel#map}映射到内存, 不反序列化到堆上
+ * <p>
+ * 坐标以1e-7°(约1cm)为单位的整数存放, 文件结构(大端):
+ * <pre>
+ * 头部 32字节     magic, version, 围栏数, 索引层数(0表示没有索引), 围栏表位置(long), 索引位置(long)
+ * 顶点数据        每个围栏: varint环数, 每个环: varint(顶点数 × 2 + 是否外环), 之后是各顶点与前一个顶点的差值,
+ *                 经度和纬度分别用zigzag varint编码, 第一个顶点与围栏包围盒左下角相减
+ * 围栏表 32字节/个 id, 包围盒minX, minY, maxX, maxY, 顶点数据位置(long), 顶点数
+ * 索引            与{@link GeofenceIndex}相同的打包R树: 各层起始位置, 之后是非叶子节点的包围盒
+ * </pre>
+ * 带索引时围栏按Hilbert顺序存放. 查询时直接在映射的内存上逐个解码顶点做射线法判断, 不创建任何对象,
+ * 打开文件后即可查询, 耗时与文件大小无关. 坐标取整后, 离边界1cm以内的点的结果可能与原多边形不同.
+ * <p>
+ * 打开后线程安全. 文件不能超过2GB.
+ *
+ * @author whiteclaw
+ * created on 2026-10-18
+ */
+public final class PolygonStore implements Closeable {
+
+    static final int MAGIC = 0x50474653;
+    static final int VERSION = 1;
+    static final double SCALE = 1e7;
+
+    private static final int HEADER_BYTES = 32;
+    private static final int ENTRY_BYTES = 32;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final int count;
+    private final int tableOffset;
+    private final int indexOffset;
+
+    /**
+     * 第level层的节点是[levelStart[level], levelStart[level + 1]), 没有索引时为null
+     */
+    private final int[] levelStart;
+
+    private PolygonStore(FileChannel channel, ByteBuffer buffer) throws IOException {
+        this.channel = channel;
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IOException("不是围栏文件");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("不支持的版本: " + buffer.getInt(4));
+        }
+        this.count = buffer.getInt(8);
+        int levels = buffer.getInt(12);
+        this.tableOffset = (int) buffer.getLong(16);
+        this.indexOffset = (int) buffer.getLong(24);
+        if (levels > 0) {
+            levelStart = new int[levels + 1];
+            for (int i = 0; i <= levels; i++) {
+                levelStart[i] = buffer.getInt(indexOffset + i * Integer.BYTES);
+            }
+        } else {
+            levelStart = null;
+        }
+    }
+
+    /**
+     * 映射围栏文件
+     *
+     * @param path 文件路径
+     * @return 围栏集合
+     * @throws IOException 读取失败或者文件格式不对
+     */
+    public static PolygonStore open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("文件超过2GB: " + path);
+            }
+            return new PolygonStore(channel, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public static Writer writer() {
+        return new Writer();
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public boolean hasIndex() {
+        return levelStart != null;
+    }
+
+    public int getId(int index) {
+        return buffer.getInt(entry(index));
+    }
+
+    public double getMinX(int index) {
+        return buffer.getInt(entry(index) + 4) / SCALE;
+    }
+
+    public double getMinY(int index) {
+        return buffer.getInt(entry(index) + 8) / SCALE;
+    }
+
+    public double getMaxX(int index) {
+        return buffer.getInt(entry(index) + 12) / SCALE;
+    }
+
+    public double getMaxY(int index) {
+        return buffer.getInt(entry(index) + 16) / SCALE;
+    }
+
+    public int getVertexCount(int index) {
+        return buffer.getInt(entry(index) + 28);
+    }
+
+    /**
+     * 判断点是否在第index个围栏内, 直接解码映射的内存, 不创建任何对象
+     *
+     * @param index 围栏在文件中的位置
+     * @param lng   经度
+     * @param lat   纬度
+     * @return 在围栏内返回true
+     */
+    public boolean contains(int index, double lng, double lat) {
+        int entry = entry(index);
+        double x = lng * SCALE;
+        double y = lat * SCALE;
+        if (x < buffer.getInt(entry + 4) || y < buffer.getInt(entry + 8)
+                || x > buffer.getInt(entry + 12) || y > buffer.getInt(entry + 16)) {
+            return false;
+        }
+        int position = (int) buffer.getLong(entry + 20);
+        // 差值按int回绕相加, 坐标本身不超过int范围, 结果总是正确的
+        int vx = buffer.getInt(entry + 4);
+        int vy = buffer.getInt(entry + 8);
+        long read = readVarint(position);
+        int rings = (int) read;
+        position = (int) (read >>> 32);
+        boolean inside = false;
+        for (int r = 0; r < rings; r++) {
+            read = readVarint(position);
+            int vertexes = (int) read >>> 1;
+            position = (int) (read >>> 32);
+            double firstX = 0;
+            double firstY = 0;
+            double prevX = 0;
+            double prevY = 0;
+            for (int i = 0; i < vertexes; i++) {
+                read = readVarint(position);
+                vx += zigzag((int) read);
+                position = (int) (read >>> 32);
+                read = readVarint(position);
+                vy += zigzag((int) read);
+                position = (int) (read >>> 32);
+                if (i == 0) {
+                    firstX = vx;
+                    firstY = vy;
+                } else if (crosses(prevX, prevY, vx, vy, x, y)) {
+                    inside = !inside;
+                }
+                prevX = vx;
+                prevY = vy;
+            }
+            if (vertexes > 0 && crosses(prevX, prevY, firstX, firstY, x, y)) {
+                inside = !inside;
+            }
+        }
+        return inside;
+    }
+
+    /**
+     * 查询包含给定点的所有围栏, 有索引时走索引, 否则逐个比较包围盒
+     *
+     * @param lng 经度
+     * @param lat 纬度
+     * @param out 围栏id的输出数组, 命中数超过数组长度时只写入前out.length个
+     * @return 命中的围栏总数, 可能大于out.length
+     */
+    public int search(double lng, double lat, int[] out) {
+        if (count == 0) {
+            return 0;
+        }
+        if (levelStart == null) {
+            int found = 0;
+            for (int i = 0; i < count; i++) {
+                if (contains(i, lng, lat)) {
+                    if (found < out.length) {
+                        out[found] = getId(i);
+                    }
+                    found++;
+                }
+            }
+            return found;
+        }
+        int top = levelStart.length - 2;
+        return search(top, levelStart[top], lng * SCALE, lat * SCALE, lng, lat, out, 0);
+    }
+
+    /**
+     * 把第index个围栏解码为堆上的{@link Polygon}
+     *
+     * @param index 围栏在文件中的位置
+     * @return 多边形
+     */
+    public Polygon getPolygon(int index) {
+        int entry = entry(index);
+        int position = (int) buffer.getLong(entry + 20);
+        // 差值按int回绕相加, 坐标本身不超过int范围, 结果总是正确的
+        int vx = buffer.getInt(entry + 4);
+        int vy = buffer.getInt(entry + 8);
+        long read = readVarint(position);
+        int rings = (int) read;
+        position = (int) (read >>> 32);
+        Polygon.Builder builder = Polygon.Builder();
+        for (int r = 0; r < rings; r++) {
+            read = readVarint(position);
+            int header = (int) read;
+            position = (int) (read >>> 32);
+            if (r > 0) {
+                if ((header & 1) == 1) {
+                    builder.startPart();
+                } else {
+                    builder.close();
+                }
+            }
+            for (int i = 0, vertexes = header >>> 1; i < vertexes; i++) {
+                read = readVarint(position);
+                vx += zigzag((int) read);
+                position = (int) (read >>> 32);
+                read = readVarint(position);
+                vy += zigzag((int) read);
+                position = (int) (read >>> 32);
+                builder.addVertex(vx / SCALE, vy / SCALE);
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * 关闭文件. 已映射的内存在被垃圾回收前仍然有效
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private int search(int level, int node, double x, double y, double lng, double lat, int[] out, int found) {
+        if (level == 0) {
+            if (contains(node, lng, lat)) {
+                if (found < out.length) {
+                    out[found] = getId(node);
+                }
+                found++;
+            }
+            return found;
+        }
+        int from = levelStart[level - 1] + (node - levelStart[level]) * GeofenceIndex.NODE_SIZE;
+        int to = Math.min(from + GeofenceIndex.NODE_SIZE, levelStart[level]);
+        for (int child = from; child < to; child++) {
+            if (inBox(child, x, y)) {
+                found = search(level - 1, child, x, y, lng, lat, out, found);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * 叶子节点的包围盒在围栏表中, 其余节点在索引中
+     */
+    private boolean inBox(int node, double x, double y) {
+        int position = node < count
+                ? entry(node) + 4
+                : indexOffset + levelStart.length * Integer.BYTES + (node - count) * 4 * Integer.BYTES;
+        return x >= buffer.getInt(position) && y >= buffer.getInt(position + 4)
+                && x <= buffer.getInt(position + 8) && y <= buffer.getInt(position + 12);
+    }
+
+    private int entry(int index) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("index: " + index + ", size: " + count);
+        }
+        return tableOffset + index * ENTRY_BYTES;
+    }
+
+    /**
+     * 读取一个varint
+     *
+     * @return 高32位是下一个字节的位置, 低32位是读到的值
+     */
+    private long readVarint(int position) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get(position++);
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return (long) position << 32 | (value & 0xFFFFFFFFL);
+    }
+
+    private static int zigzag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * 与{@link Polygon}相同的半开规则
+     */
+    private static boolean crosses(double x1, double y1, double x2, double y2, double x, double y) {
+        return (y1 > y) != (y2 > y) && x < x1 + (x2 - x1) * (y - y1) / (y2 - y1);
+    }
+
+    /**
+     * 写入围栏文件, 非线程安全
+     */
+    public static class Writer {
+        private final GeofenceIndex.Builder fences = GeofenceIndex.builder();
+        private boolean index = true;
+
+        /**
+         * 添加一个围栏
+         *
+         * @param id      围栏id
+         * @param polygon 围栏多边形
+         * @return 当前writer
+         */
+        public Writer add(int id, Polygon polygon) {
+            fences.add(id, polygon);
+            return this;
+        }
+
+        /**
+         * 是否写入空间索引, 默认写入
+         *
+         * @param index 是否写入索引
+         * @return 当前writer
+         */
+        public Writer withIndex(boolean index) {
+            this.index = index;
+            return this;
+        }
+
+        /**
+         * 写入文件, 已存在的文件会被覆盖
+         *
+         * @param path 文件路径
+         * @throws IOException 写入失败
+         */
+        public void write(Path path) throws IOException {
+            // 借用GeofenceIndex排序和计算节点包围盒
+            GeofenceIndex sorted = fences.build();
+            int n = sorted.size();
+            long[] offsets = new long[n];
+            int[][] boxes = new int[n][];
+            int[] levelStart = sorted.levelStart();
+            int levels = index && n > 0 ? levelStart.length - 1 : 0;
+            long tableOffset;
+            long indexOffset;
+            try (CountingOutput out = new CountingOutput(new BufferedOutputStream(Files.newOutputStream(path), 1 << 16))) {
+                // 头部最后再写
+                out.write(new byte[HEADER_BYTES]);
+                for (int i = 0; i < n; i++) {
+                    Polygon polygon = sorted.getPolygon(i);
+                    boxes[i] = new int[]{floor(polygon.getMinX()), floor(polygon.getMinY()),
+                            ceil(polygon.getMaxX()), ceil(polygon.getMaxY())};
+                    offsets[i] = out.count;
+                    writePolygon(out, polygon, boxes[i][0], boxes[i][1]);
+                }
+
+                tableOffset = out.count;
+                DataOutputStream data = new DataOutputStream(out);
+                for (int i = 0; i < n; i++) {
+                    data.writeInt(sorted.getId(i));
+                    for (int v : boxes[i]) {
+                        data.writeInt(v);
+                    }
+                    data.writeLong(offsets[i]);
+                    data.writeInt(sorted.getPolygon(i).getVertexCount());
+                }
+
+                indexOffset = out.count;
+                if (levels > 0) {
+                    for (int start : levelStart) {
+                        data.writeInt(start);
+                    }
+                    double[] nodes = sorted.boxes();
+                    for (int node = n; node < levelStart[levels]; node++) {
+                        data.writeInt(floor(nodes[node << 2]));
+                        data.writeInt(floor(nodes[(node << 2) + 1]));
+                        data.writeInt(ceil(nodes[(node << 2) + 2]));
+                        data.writeInt(ceil(nodes[(node << 2) + 3]));
+                    }
+                }
+                data.flush();
+                if (out.count > Integer.MAX_VALUE) {
+                    throw new IOException("文件超过2GB");
+                }
+            }
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.putInt(MAGIC).putInt(VERSION).putInt(n).putInt(levels).putLong(tableOffset).putLong(indexOffset);
+            header.flip();
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                channel.write(header, 0);
+            }
+        }
+
+        private static void writePolygon(CountingOutput out, Polygon polygon, int startX, int startY) throws IOException {
+            int rings = polygon.getRingCount();
+            writeVarint(out, rings);
+            int prevX = startX;
+            int prevY = startY;
+            int part = 0;
+            for (int r = 0; r < rings; r++) {
+                boolean outer = part < polygon.getPartCount() && polygon.getPartRing(part) == r;
+                if (outer) {
+                    part++;
+                }
+                PointArray ring = polygon.getRing(r);
+                writeVarint(out, ring.size() << 1 | (outer ? 1 : 0));
+                for (int i = 0; i < ring.size(); i++) {
+                    int x = (int) Math.round(ring.getLng(i) * SCALE);
+                    int y = (int) Math.round(ring.getLat(i) * SCALE);
+                    writeVarint(out, zigzagEncode(x - prevX));
+                    writeVarint(out, zigzagEncode(y - prevY));
+                    prevX = x;
+                    prevY = y;
+                }
+            }
+        }
+
+        private static void writeVarint(OutputStream out, int value) throws IOException {
+            while ((value & ~0x7F) != 0) {
+                out.write((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            out.write(value);
+        }
+
+        private static int zigzagEncode(int value) {
+            return (value << 1) ^ (value >> 31);
+        }
+
+        private static int floor(double degree) {
+            return (int) Math.floor(degree * SCALE);
+        }
+
+        private static int ceil(double degree) {
+            return (int) Math.ceil(degree * SCALE);
+        }
+    }
+
+    /**
+     * 记录已写入字节数的输出流
+     */
+    private static class CountingOutput extends FilterOutputStream {
+        private long count;
+
+        CountingOutput(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
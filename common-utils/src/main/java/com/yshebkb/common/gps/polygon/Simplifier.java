@@ -0,0 +1,676 @@
+package com.yshebkb.common.gps.polygon;
+
+import java.util.Arrays;
+
+/**
+ * 折线和多边形的抽稀, 容差以米为单位
+ * <p>
+ * 经纬度先按包围盒中心纬度做等距圆柱投影换算成米, 跨度几百公里以内的数据误差可以忽略.
+ * 两种算法都只用基本类型数组, 不递归, 百万级的轨迹点也不会栈溢出:
+ * <ul>
+ * <li>{@link Method#DOUGLAS_PEUCKER} 保留到原折线距离超过容差的点, 用标记数组代替递归栈</li>
+ * <li>{@link Method#VISVALINGAM} 依次移除与相邻两点组成的三角形面积最小的点, 直到最小面积不小于容差的平方</li>
+ * </ul>
+ * 多边形的每个环单独抽稀, 至少保留3个顶点, 连续重复的顶点和重复的首尾点会先被去掉.
+ * 开启拓扑保护时, 抽稀后如果有两条边相交(包括不同的环之间), 就把这两条边各自恢复一个距离最远的原始顶点;
+ * 如果洞整体跑到了外环之外, 就恢复外环上离洞最近的边. 重复直到没有问题, 原本不自相交的多边形抽稀后也不会自相交.
+ *
+ * @author whiteclaw
+ * created on 2026-10-18
+ */
+public final class Simplifier {
+
+    /**
+     * 抽稀算法
+     */
+    public enum Method {
+        DOUGLAS_PEUCKER, VISVALINGAM
+    }
+
+    /**
+     * 赤道上每度的米数
+     */
+    static final double METERS_PER_DEGREE = 111319.49;
+
+    private Simplifier() {
+    }
+
+    /**
+     * 用Douglas-Peucker算法抽稀折线, 首尾点总是保留
+     *
+     * @param points    折线
+     * @param tolerance 容差, 单位米
+     * @return 抽稀后的折线
+     */
+    public static PointArray simplify(PointArray points, double tolerance) {
+        return simplify(points, tolerance, Method.DOUGLAS_PEUCKER);
+    }
+
+    /**
+     * 抽稀折线, 首尾点总是保留
+     *
+     * @param points    折线
+     * @param tolerance 容差, 单位米
+     * @param method    算法
+     * @return 抽稀后的折线
+     */
+    public static PointArray simplify(PointArray points, double tolerance, Method method) {
+        checkTolerance(tolerance);
+        int n = points.size();
+        double[] lngs = points.toLngArray();
+        double[] lats = points.toLatArray();
+        if (n <= 2) {
+            return PointArray.of(lngs, lats);
+        }
+        double[] x = new double[n];
+        double[] y = new double[n];
+        project(lngs, lats, n, x, y, center(lngs, n), center(lats, n));
+        boolean[] keep = new boolean[n];
+        run(method, x, y, 0, n - 1, tolerance, keep);
+        return collect(lngs, lats, n, keep);
+    }
+
+    /**
+     * 用Douglas-Peucker算法抽稀多边形, 开启拓扑保护
+     *
+     * @param polygon   多边形
+     * @param tolerance 容差, 单位米
+     * @return 抽稀后的多边形
+     */
+    public static Polygon simplify(Polygon polygon, double tolerance) {
+        return simplify(polygon, tolerance, Method.DOUGLAS_PEUCKER, true);
+    }
+
+    /**
+     * 抽稀多边形, 各部分和洞的结构不变
+     *
+     * @param polygon          多边形
+     * @param tolerance        容差, 单位米
+     * @param method           算法
+     * @param preserveTopology 是否保证抽稀后的边互不相交
+     * @return 抽稀后的多边形
+     */
+    public static Polygon simplify(Polygon polygon, double tolerance, Method method, boolean preserveTopology) {
+        checkTolerance(tolerance);
+        double lng0 = (polygon.getMinX() + polygon.getMaxX()) / 2;
+        double lat0 = (polygon.getMinY() + polygon.getMaxY()) / 2;
+        int rings = polygon.getRingCount();
+        // 每个环去重后的顶点, 末尾再放一个首点, 使环可以当作首尾相同的折线处理
+        double[][] lngs = new double[rings][];
+        double[][] lats = new double[rings][];
+        double[][] xs = new double[rings][];
+        double[][] ys = new double[rings][];
+        boolean[][] keep = new boolean[rings][];
+        for (int r = 0; r < rings; r++) {
+            PointArray ring = polygon.getRing(r);
+            int m = dedupe(ring, lngs, lats, r);
+            xs[r] = new double[m + 1];
+            ys[r] = new double[m + 1];
+            project(lngs[r], lats[r], m + 1, xs[r], ys[r], lng0, lat0);
+            keep[r] = new boolean[m + 1];
+            if (m < 3) {
+                // 退化的环不抽稀
+                Arrays.fill(keep[r], true);
+                continue;
+            }
+            run(method, xs[r], ys[r], 0, m, tolerance, keep[r]);
+            keepTriangle(xs[r], ys[r], m, keep[r]);
+        }
+        if (preserveTopology) {
+            int[] outer = new int[rings];
+            for (int part = 0, parts = polygon.getPartCount(); part < parts; part++) {
+                int first = polygon.getPartRing(part);
+                int end = part + 1 < parts ? polygon.getPartRing(part + 1) : rings;
+                outer[first] = -1;
+                for (int r = first + 1; r < end; r++) {
+                    outer[r] = first;
+                }
+            }
+            repair(xs, ys, keep, outer);
+        }
+
+        Polygon.Builder builder = Polygon.Builder();
+        int part = 0;
+        for (int r = 0; r < rings; r++) {
+            if (part + 1 < polygon.getPartCount() && r == polygon.getPartRing(part + 1)) {
+                builder.startPart();
+                part++;
+            } else if (r > 0) {
+                builder.close();
+            }
+            int m = lngs[r].length - 1;
+            for (int i = 0; i < m; i++) {
+                if (keep[r][i]) {
+                    builder.addVertex(lngs[r][i], lats[r][i]);
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * 在[from, to]区间上抽稀, 被保留的点在keep中标记为true
+     */
+    static void run(Method method, double[] x, double[] y, int from, int to, double tolerance, boolean[] keep) {
+        if (method == Method.VISVALINGAM) {
+            visvalingam(x, y, from, to, tolerance * tolerance, keep);
+        } else {
+            douglasPeucker(x, y, from, to, tolerance * tolerance, keep);
+        }
+    }
+
+    /**
+     * 不用递归的Douglas-Peucker算法. anchor是当前线段的起点, floater是anchor之后第一个已保留的点,
+     * 线段内有超出容差的点时保留最远的一个并把它作为新的floater, 否则anchor前进到floater.
+     * 处理顺序与递归版本的深度优先顺序相同, 只需要keep数组
+     */
+    static void douglasPeucker(double[] x, double[] y, int from, int to, double toleranceSquared, boolean[] keep) {
+        keep[from] = true;
+        keep[to] = true;
+        int anchor = from;
+        int floater = to;
+        while (anchor < to) {
+            int farthest = farthest(x, y, anchor, floater, toleranceSquared);
+            if (farthest >= 0) {
+                keep[farthest] = true;
+                floater = farthest;
+            } else {
+                anchor = floater;
+                floater = anchor + 1;
+                while (floater < to && !keep[floater]) {
+                    floater++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Visvalingam-Whyatt算法, 用按面积排序的二叉堆依次移除面积最小的点.
+     * 移除一个点后重新计算相邻点的面积, 新面积不小于刚移除的面积, 保证移除顺序单调
+     */
+    static void visvalingam(double[] x, double[] y, int from, int to, double areaTolerance, boolean[] keep) {
+        int n = to - from + 1;
+        for (int i = from; i <= to; i++) {
+            keep[i] = true;
+        }
+        if (n <= 2) {
+            return;
+        }
+        int[] prev = new int[n];
+        int[] next = new int[n];
+        double[] areas = new double[n];
+        AreaHeap heap = new AreaHeap(areas, n);
+        for (int i = 1; i < n - 1; i++) {
+            prev[i] = i - 1;
+            next[i] = i + 1;
+            areas[i] = area(x, y, from + i - 1, from + i, from + i + 1);
+            heap.push(i);
+        }
+        while (heap.size() > 0) {
+            int i = heap.peek();
+            double removed = areas[i];
+            if (removed >= areaTolerance) {
+                break;
+            }
+            heap.pop();
+            keep[from + i] = false;
+            int p = prev[i];
+            int q = next[i];
+            next[p] = q;
+            prev[q] = p;
+            if (p > 0) {
+                areas[p] = Math.max(area(x, y, from + prev[p], from + p, from + q), removed);
+                heap.update(p);
+            }
+            if (q < n - 1) {
+                areas[q] = Math.max(area(x, y, from + p, from + q, from + next[q]), removed);
+                heap.update(q);
+            }
+        }
+    }
+
+    /**
+     * 在(from, to)中找到距线段from-to最远且距离的平方超过limit的点
+     *
+     * @return 点的下标, 没有超过limit的点时返回-1
+     */
+    private static int farthest(double[] x, double[] y, int from, int to, double limit) {
+        int index = -1;
+        double max = limit;
+        for (int i = from + 1; i < to; i++) {
+            double d = distanceSquared(x[i], y[i], x[from], y[from], x[to], y[to]);
+            if (d > max) {
+                max = d;
+                index = i;
+            }
+        }
+        return index;
+    }
+
+    /**
+     * 点(px, py)到线段(ax, ay)-(bx, by)距离的平方
+     */
+    static double distanceSquared(double px, double py, double ax, double ay, double bx, double by) {
+        double dx = bx - ax;
+        double dy = by - ay;
+        double lengthSquared = dx * dx + dy * dy;
+        double t = lengthSquared == 0 ? 0 : ((px - ax) * dx + (py - ay) * dy) / lengthSquared;
+        if (t < 0) {
+            t = 0;
+        } else if (t > 1) {
+            t = 1;
+        }
+        double ex = ax + t * dx - px;
+        double ey = ay + t * dy - py;
+        return ex * ex + ey * ey;
+    }
+
+    private static double area(double[] x, double[] y, int a, int b, int c) {
+        return Math.abs((x[b] - x[a]) * (y[c] - y[a]) - (x[c] - x[a]) * (y[b] - y[a])) / 2;
+    }
+
+    /**
+     * 环抽稀后不足3个顶点时, 补上距首点最远的点和距这两点连线最远的点
+     */
+    private static void keepTriangle(double[] x, double[] y, int m, boolean[] keep) {
+        int kept = 0;
+        for (int i = 0; i < m; i++) {
+            if (keep[i]) {
+                kept++;
+            }
+        }
+        if (kept >= 3) {
+            return;
+        }
+        int far = farthest(x, y, 0, m, -1);
+        keep[far] = true;
+        int other = far > 1 ? farthest(x, y, 0, far, -1) : farthest(x, y, far, m, -1);
+        keep[other] = true;
+    }
+
+    /**
+     * 拓扑保护: 找出所有相交的非相邻边, 各恢复一个原始顶点; 洞整体跑到外环之外时, 恢复外环上离洞最近的边.
+     * 重复直到没有问题或者已无顶点可恢复
+     *
+     * @param outer 洞所属的外环, 外环本身是-1
+     */
+    private static void repair(double[][] xs, double[][] ys, boolean[][] keep, int[] outer) {
+        while (true) {
+            Segments segments = new Segments(xs, ys, keep);
+            boolean[] split = segments.findIntersections();
+            boolean changed = false;
+            for (int s = 0; s < segments.count; s++) {
+                if (split[s]) {
+                    changed |= split(xs, ys, keep, segments.ring[s], segments.from[s], segments.to[s]);
+                }
+            }
+            if (!changed) {
+                // 边不相交时, 洞要么整体在外环内, 要么整体在外环外, 检查洞的首点即可
+                for (int r = 0; r < outer.length; r++) {
+                    int o = outer[r];
+                    if (o >= 0 && !ringContains(xs[o], ys[o], keep[o], xs[r][0], ys[r][0])) {
+                        changed |= splitNearest(xs, ys, keep, o, xs[r][0], ys[r][0]);
+                    }
+                }
+            }
+            if (!changed) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 恢复环r在(from, to)之间距线段最远的原始顶点
+     *
+     * @return 是否有顶点可以恢复
+     */
+    private static boolean split(double[][] xs, double[][] ys, boolean[][] keep, int r, int from, int to) {
+        int i = farthest(xs[r], ys[r], from, to, -1);
+        if (i < 0) {
+            return false;
+        }
+        keep[r][i] = true;
+        return true;
+    }
+
+    /**
+     * 在环r中找到离点(px, py)最近且还有顶点可恢复的边, 恢复其中一个顶点
+     */
+    private static boolean splitNearest(double[][] xs, double[][] ys, boolean[][] keep, int r, double px, double py) {
+        double[] x = xs[r];
+        double[] y = ys[r];
+        int nearestFrom = -1;
+        int nearestTo = -1;
+        double min = Double.POSITIVE_INFINITY;
+        for (int from = 0, to = 1; to < x.length; to++) {
+            if (!keep[r][to]) {
+                continue;
+            }
+            if (to - from > 1) {
+                double d = distanceSquared(px, py, x[from], y[from], x[to], y[to]);
+                if (d < min) {
+                    min = d;
+                    nearestFrom = from;
+                    nearestTo = to;
+                }
+            }
+            from = to;
+        }
+        return nearestFrom >= 0 && split(xs, ys, keep, r, nearestFrom, nearestTo);
+    }
+
+    /**
+     * 用抽稀后保留的顶点组成的环做射线法判断
+     */
+    private static boolean ringContains(double[] x, double[] y, boolean[] keep, double px, double py) {
+        boolean inside = false;
+        for (int from = 0, to = 1; to < x.length; to++) {
+            if (!keep[to]) {
+                continue;
+            }
+            if ((y[from] > py) != (y[to] > py)
+                    && px < x[from] + (x[to] - x[from]) * (py - y[from]) / (y[to] - y[from])) {
+                inside = !inside;
+            }
+            from = to;
+        }
+        return inside;
+    }
+
+    private static int dedupe(PointArray ring, double[][] lngs, double[][] lats, int r) {
+        int n = ring.size();
+        double[] lng = new double[n + 1];
+        double[] lat = new double[n + 1];
+        int m = 0;
+        for (int i = 0; i < n; i++) {
+            double x = ring.getLng(i);
+            double y = ring.getLat(i);
+            if (m > 0 && x == lng[m - 1] && y == lat[m - 1]) {
+                continue;
+            }
+            lng[m] = x;
+            lat[m] = y;
+            m++;
+        }
+        while (m > 1 && lng[m - 1] == lng[0] && lat[m - 1] == lat[0]) {
+            m--;
+        }
+        lng[m] = lng[0];
+        lat[m] = lat[0];
+        lngs[r] = Arrays.copyOf(lng, m + 1);
+        lats[r] = Arrays.copyOf(lat, m + 1);
+        return m;
+    }
+
+    private static void project(double[] lngs, double[] lats, int n, double[] x, double[] y, double lng0, double lat0) {
+        double scaleX = METERS_PER_DEGREE * Math.cos(Math.toRadians(lat0));
+        for (int i = 0; i < n; i++) {
+            x[i] = (lngs[i] - lng0) * scaleX;
+            y[i] = (lats[i] - lat0) * METERS_PER_DEGREE;
+        }
+    }
+
+    /**
+     * 取值范围的中点
+     */
+    private static double center(double[] values, int n) {
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < n; i++) {
+            min = Math.min(min, values[i]);
+            max = Math.max(max, values[i]);
+        }
+        return (min + max) / 2;
+    }
+
+    private static PointArray collect(double[] lngs, double[] lats, int n, boolean[] keep) {
+        PointArray result = PointArray.create();
+        for (int i = 0; i < n; i++) {
+            if (keep[i]) {
+                result.add(lngs[i], lats[i]);
+            }
+        }
+        return result;
+    }
+
+    private static void checkTolerance(double tolerance) {
+        if (!(tolerance >= 0)) {
+            throw new IllegalArgumentException("tolerance不能为负数");
+        }
+    }
+
+    /**
+     * 按面积排序的最小堆, 记录每个点在堆中的位置, 以便面积变化后调整
+     */
+    private static class AreaHeap {
+        private final double[] areas;
+        private final int[] heap;
+        private final int[] position;
+        private int size;
+
+        AreaHeap(double[] areas, int capacity) {
+            this.areas = areas;
+            this.heap = new int[capacity];
+            this.position = new int[capacity];
+        }
+
+        int size() {
+            return size;
+        }
+
+        int peek() {
+            return heap[0];
+        }
+
+        void push(int i) {
+            heap[size] = i;
+            position[i] = size;
+            siftUp(size++);
+        }
+
+        void pop() {
+            int last = heap[--size];
+            if (size > 0) {
+                heap[0] = last;
+                position[last] = 0;
+                siftDown(0);
+            }
+        }
+
+        void update(int i) {
+            siftDown(siftUp(position[i]));
+        }
+
+        private int siftUp(int k) {
+            int i = heap[k];
+            while (k > 0) {
+                int parent = (k - 1) >> 1;
+                if (areas[heap[parent]] <= areas[i]) {
+                    break;
+                }
+                heap[k] = heap[parent];
+                position[heap[k]] = k;
+                k = parent;
+            }
+            heap[k] = i;
+            position[i] = k;
+            return k;
+        }
+
+        private void siftDown(int k) {
+            int i = heap[k];
+            while (true) {
+                int child = (k << 1) + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && areas[heap[child + 1]] < areas[heap[child]]) {
+                    child++;
+                }
+                if (areas[i] <= areas[heap[child]]) {
+                    break;
+                }
+                heap[k] = heap[child];
+                position[heap[k]] = k;
+                k = child;
+            }
+            heap[k] = i;
+            position[i] = k;
+        }
+    }
+
+    /**
+     * 抽稀后所有环的边, 用均匀网格找出相交的边
+     */
+    private static class Segments {
+        private final double[][] xs;
+        private final double[][] ys;
+        private int count;
+        private final int[] ring;
+        private final int[] from;
+        private final int[] to;
+        /**
+         * 环r的边是[ringStart[r], ringStart[r + 1])
+         */
+        private final int[] ringStart;
+
+        Segments(double[][] xs, double[][] ys, boolean[][] keep) {
+            this.xs = xs;
+            this.ys = ys;
+            int total = 0;
+            for (boolean[] k : keep) {
+                total += k.length;
+            }
+            ring = new int[total];
+            from = new int[total];
+            to = new int[total];
+            ringStart = new int[keep.length + 1];
+            for (int r = 0; r < keep.length; r++) {
+                ringStart[r] = count;
+                int last = 0;
+                for (int i = 1; i < keep[r].length; i++) {
+                    if (keep[r][i]) {
+                        ring[count] = r;
+                        from[count] = last;
+                        to[count] = i;
+                        count++;
+                        last = i;
+                    }
+                }
+            }
+            ringStart[keep.length] = count;
+        }
+
+        boolean[] findIntersections() {
+            boolean[] split = new boolean[count];
+            double minX = Double.POSITIVE_INFINITY;
+            double minY = Double.POSITIVE_INFINITY;
+            double maxX = Double.NEGATIVE_INFINITY;
+            double maxY = Double.NEGATIVE_INFINITY;
+            for (int s = 0; s < count; s++) {
+                minX = Math.min(minX, Math.min(x(s, from[s]), x(s, to[s])));
+                minY = Math.min(minY, Math.min(y(s, from[s]), y(s, to[s])));
+                maxX = Math.max(maxX, Math.max(x(s, from[s]), x(s, to[s])));
+                maxY = Math.max(maxY, Math.max(y(s, from[s]), y(s, to[s])));
+            }
+            int side = Math.max(1, (int) Math.sqrt(count));
+            double scaleX = maxX > minX ? side / (maxX - minX) : 0;
+            double scaleY = maxY > minY ? side / (maxY - minY) : 0;
+
+            // 两遍构建CSR格式的网格: 先统计每格的边数, 再填充
+            int[] cellStart = new int[side * side + 1];
+            int[] cellSegments = null;
+            for (int pass = 0; pass < 2; pass++) {
+                int[] cursor = pass == 0 ? null : cellStart.clone();
+                for (int s = 0; s < count; s++) {
+                    int c0 = cell(Math.min(x(s, from[s]), x(s, to[s])), minX, scaleX, side);
+                    int c1 = cell(Math.max(x(s, from[s]), x(s, to[s])), minX, scaleX, side);
+                    int r0 = cell(Math.min(y(s, from[s]), y(s, to[s])), minY, scaleY, side);
+                    int r1 = cell(Math.max(y(s, from[s]), y(s, to[s])), minY, scaleY, side);
+                    for (int row = r0; row <= r1; row++) {
+                        for (int col = c0; col <= c1; col++) {
+                            if (pass == 0) {
+                                cellStart[row * side + col + 1]++;
+                            } else {
+                                cellSegments[cursor[row * side + col]++] = s;
+                            }
+                        }
+                    }
+                }
+                if (pass == 0) {
+                    for (int c = 0; c < side * side; c++) {
+                        cellStart[c + 1] += cellStart[c];
+                    }
+                    cellSegments = new int[cellStart[side * side]];
+                }
+            }
+
+            for (int c = 0; c < side * side; c++) {
+                for (int a = cellStart[c]; a < cellStart[c + 1]; a++) {
+                    int s = cellSegments[a];
+                    for (int b = a + 1; b < cellStart[c + 1]; b++) {
+                        int t = cellSegments[b];
+                        if ((!split[s] || !split[t]) && !adjacent(s, t) && intersects(s, t)) {
+                            split[s] = true;
+                            split[t] = true;
+                        }
+                    }
+                }
+            }
+            return split;
+        }
+
+        private boolean adjacent(int s, int t) {
+            if (ring[s] != ring[t]) {
+                return false;
+            }
+            int first = ringStart[ring[s]];
+            int last = ringStart[ring[s] + 1] - 1;
+            int lo = Math.min(s, t);
+            int hi = Math.max(s, t);
+            return hi - lo == 1 || (lo == first && hi == last);
+        }
+
+        private boolean intersects(int s, int t) {
+            double ax = x(s, from[s]);
+            double ay = y(s, from[s]);
+            double bx = x(s, to[s]);
+            double by = y(s, to[s]);
+            double cx = x(t, from[t]);
+            double cy = y(t, from[t]);
+            double dx = x(t, to[t]);
+            double dy = y(t, to[t]);
+            double d1 = cross(cx, cy, dx, dy, ax, ay);
+            double d2 = cross(cx, cy, dx, dy, bx, by);
+            double d3 = cross(ax, ay, bx, by, cx, cy);
+            double d4 = cross(ax, ay, bx, by, dx, dy);
+            if (((d1 > 0 && d2 < 0) || (d1 < 0 && d2 > 0)) && ((d3 > 0 && d4 < 0) || (d3 < 0 && d4 > 0))) {
+                return true;
+            }
+            return (d1 == 0 && onSegment(cx, cy, dx, dy, ax, ay))
+                    || (d2 == 0 && onSegment(cx, cy, dx, dy, bx, by))
+                    || (d3 == 0 && onSegment(ax, ay, bx, by, cx, cy))
+                    || (d4 == 0 && onSegment(ax, ay, bx, by, dx, dy));
+        }
+
+        private double x(int s, int i) {
+            return xs[ring[s]][i];
+        }
+
+        private double y(int s, int i) {
+            return ys[ring[s]][i];
+        }
+
+        private static double cross(double ax, double ay, double bx, double by, double px, double py) {
+            return (bx - ax) * (py - ay) - (by - ay) * (px - ax);
+        }
+
+        private static boolean onSegment(double ax, double ay, double bx, double by, double px, double py) {
+            return px >= Math.min(ax, bx) && px <= Math.max(ax, bx) && py >= Math.min(ay, by) && py <= Math.max(ay, by);
+        }
+
+        private static int cell(double v, double min, double scale, int side) {
+            return Math.min((int) ((v - min) * scale), side - 1);
+        }
+    }
+}
@@ -0,0 +1,332 @@
+package com.yshebkb.common.structure;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * AVL平衡二叉查找树, 方法与{@link BinarySearchTree}相同
+ * <p>
+ * 每个节点记录子树高度, 插入和删除后沿查找路径自下而上旋转, 左右子树高度差不超过1, 树高不超过1.44log2(n),
+ * 按顺序插入(例如时间戳)时也不会退化成链表. 插入、删除和查找都是循环实现, 查找路径保存在数组中, 不使用递归.
+ * 重复添加已存在的元素不改变树, 也不计入节点个数
+ *
+ * @author whiteclaw
+ * created on 2026-10-18
+ */
+public class AvlTree<T extends Comparable<T>> {
+
+    /**
+     * 查找路径的最大长度, 节点数不超过2^31时AVL树的高度不超过45
+     */
+    private static final int MAX_DEPTH = 64;
+
+    /**
+     * 根节点
+     */
+    private Node<T> root;
+
+    /**
+     * 树当前节点的个数
+     */
+    private int size = 0;
+
+    /**
+     * 插入和删除时从根节点到当前节点的路径
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private final Node<T>[] path = new Node[MAX_DEPTH];
+
+    /**
+     * 往树里面添加数据
+     *
+     * @param e 新增元素
+     */
+    public void add(T e) {
+        if (root == null) {
+            root = new Node<>(e);
+            size++;
+            return;
+        }
+        int depth = 0;
+        Node<T> node = root;
+        while (true) {
+            path[depth++] = node;
+            int compare = node.data.compareTo(e);
+            if (compare == 0) {
+                clearPath(depth);
+                return;
+            }
+            Node<T> next = compare > 0 ? node.left : node.right;
+            if (next == null) {
+                if (compare > 0) {
+                    node.left = new Node<>(e);
+                } else {
+                    node.right = new Node<>(e);
+                }
+                break;
+            }
+            node = next;
+        }
+        size++;
+        rebalance(depth);
+    }
+
+    /**
+     * 删除指定元素
+     *
+     * @param e 要删除的元素
+     */
+    public void delete(T e) {
+        // 第一步, 找到要删除的元素所在节点, 路径中保存其所有祖先
+        int depth = 0;
+        Node<T> node = root;
+        while (node != null) {
+            int compare = node.data.compareTo(e);
+            if (compare == 0) {
+                break;
+            }
+            path[depth++] = node;
+            node = compare > 0 ? node.left : node.right;
+        }
+
+        // 没有找到, 不做处理
+        if (node == null) {
+            clearPath(depth);
+            return;
+        }
+
+        // 如果要删除的节点下面有两个子节点, 则找到右子树中最小的节点
+        // 将这个最小的节点的数据移到要删除的节点, 改为删除这个最小的节点
+        if (node.left != null && node.right != null) {
+            path[depth++] = node;
+            Node<T> minNode = node.right;
+            while (minNode.left != null) {
+                path[depth++] = minNode;
+                minNode = minNode.left;
+            }
+            node.data = minNode.data;
+            node = minNode;
+        }
+
+        // 删除是叶节点或者仅有一个子节点的节点
+        Node<T> child = node.left != null ? node.left : node.right;
+        replaceChild(depth > 0 ? path[depth - 1] : null, node, child);
+        size--;
+        rebalance(depth);
+    }
+
+    /**
+     * 查找是否存在指定元素
+     *
+     * @param e 要查找的元素
+     * @return 是否存在e
+     */
+    public boolean exists(T e) {
+        Node<T> node = root;
+        while (node != null) {
+            int compare = node.data.compareTo(e);
+            if (compare == 0) {
+                return true;
+            }
+            node = compare > 0 ? node.left : node.right;
+        }
+        return false;
+    }
+
+    /**
+     * 前序遍历树
+     *
+     * @return 按照遍历顺序的元素列表
+     */
+    public List<T> preOrder() {
+        List<T> result = new ArrayList<>(size);
+        preOrder(result, root);
+        return result;
+    }
+
+    private void preOrder(List<T> result, Node<T> node) {
+        if (node == null) {
+            return;
+        }
+        result.add(node.data);
+        preOrder(result, node.left);
+        preOrder(result, node.right);
+    }
+
+    /**
+     * 中序遍历树
+     *
+     * @return 按照遍历顺序的元素列表
+     */
+    public List<T> inOrder() {
+        List<T> result = new ArrayList<>(size);
+        inOrder(result, root);
+        return result;
+    }
+
+    private void inOrder(List<T> result, Node<T> node) {
+        if (node == null) {
+            return;
+        }
+        inOrder(result, node.left);
+        result.add(node.data);
+        inOrder(result, node.right);
+    }
+
+    /**
+     * 后序遍历树
+     *
+     * @return 按照遍历顺序的元素列表
+     */
+    public List<T> postOrder() {
+        List<T> result = new ArrayList<>(size);
+        postOrder(result, root);
+        return result;
+    }
+
+    private void postOrder(List<T> result, Node<T> node) {
+        if (node == null) {
+            return;
+        }
+        postOrder(result, node.left);
+        postOrder(result, node.right);
+        result.add(node.data);
+    }
+
+    /**
+     * 获取树的高度, 只有根节点时为0
+     *
+     * @return 当前树的高度
+     */
+    public int getHeight() {
+        return getHeight(root);
+    }
+
+    /**
+     * 获取指定树节点的高度
+     *
+     * @param node 指定节点
+     * @return 指定节点的高度
+     */
+    public int getHeight(Node<T> node) {
+        return node == null ? 0 : node.height - 1;
+    }
+
+    /**
+     * 获取节点个数
+     *
+     * @return 当前节点的个数
+     */
+    public int getSize() {
+        return size;
+    }
+
+    public Node<T> getRoot() {
+        return root;
+    }
+
+    /**
+     * 从路径的末端向根节点逐个更新高度并旋转, 子树的根和高度都不变时停止
+     *
+     * @param depth 路径长度
+     */
+    private void rebalance(int depth) {
+        for (int i = depth - 1; i >= 0; i--) {
+            Node<T> node = path[i];
+            int height = node.height;
+            Node<T> balanced = balance(node);
+            if (balanced != node) {
+                replaceChild(i > 0 ? path[i - 1] : null, node, balanced);
+            } else if (height == node.height) {
+                break;
+            }
+        }
+        clearPath(depth);
+    }
+
+    private void replaceChild(Node<T> parent, Node<T> node, Node<T> child) {
+        if (parent == null) {
+            root = child;
+        } else if (parent.left == node) {
+            parent.left = child;
+        } else {
+            parent.right = child;
+        }
+    }
+
+    /**
+     * 释放路径中的引用, 以免已删除的节点无法回收
+     */
+    private void clearPath(int depth) {
+        for (int i = 0; i < depth; i++) {
+            path[i] = null;
+        }
+    }
+
+    private static int height(Node<?> node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static <T> void updateHeight(Node<T> node) {
+        node.height = Math.max(height(node.left), height(node.right)) + 1;
+    }
+
+    /**
+     * 平衡以node为根的子树
+     *
+     * @return 平衡后子树的根
+     */
+    private static <T> Node<T> balance(Node<T> node) {
+        int diff = height(node.left) - height(node.right);
+        if (diff > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (diff < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        updateHeight(node);
+        return node;
+    }
+
+    private static <T> Node<T> rotateLeft(Node<T> node) {
+        Node<T> right = node.right;
+        node.right = right.left;
+        right.left = node;
+        updateHeight(node);
+        updateHeight(right);
+        return right;
+    }
+
+    private static <T> Node<T> rotateRight(Node<T> node) {
+        Node<T> left = node.left;
+        node.left = left.right;
+        left.right = node;
+        updateHeight(node);
+        updateHeight(left);
+        return left;
+    }
+
+    /**
+     * 节点
+     */
+    static class Node<T> {
+        Node<T> left;
+        T data;
+        Node<T> right;
+
+        /**
+         * 以该节点为根的子树的层数, 叶节点为1
+         */
+        int height = 1;
+
+        Node(T data) {
+            this.data = data;
+        }
+    }
+}
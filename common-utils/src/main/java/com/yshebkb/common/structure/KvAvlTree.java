@@ -0,0 +1,357 @@
+package com.yshebkb.common.structure;
+
+import java.util.LinkedHashMap;
+
+/**
+ * AVL平衡二叉查找树, 方法与{@link KvBinarySearchTree}相同, key相同时用{@link KvBinarySearchTree.ValueMergeFunction}合并值
+ * <p>
+ * 每个节点记录子树高度, 插入和删除后沿查找路径自下而上旋转, 左右子树高度差不超过1, 树高不超过1.44log2(n),
+ * 按顺序插入(例如时间戳)时也不会退化成链表. 插入、删除和查找都是循环实现, 查找路径保存在数组中, 不使用递归.
+ * 删除有两个子节点的节点时, 右子树中最小节点的key和值一起移到该节点
+ *
+ * @author whiteclaw
+ * created on 2026-10-18
+ */
+public class KvAvlTree<K extends Comparable<K>, V> {
+
+    /**
+     * 查找路径的最大长度, 节点数不超过2^31时AVL树的高度不超过45
+     */
+    private static final int MAX_DEPTH = 64;
+
+    /**
+     * 根节点
+     */
+    private Node<K, V> root;
+
+    /**
+     * 树当前节点的个数
+     */
+    private int size = 0;
+
+    /**
+     * 插入和删除时从根节点到当前节点的路径
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private final Node<K, V>[] path = new Node[MAX_DEPTH];
+
+    private final KvBinarySearchTree.ValueMergeFunction<V> mergeFunction;
+
+    public KvAvlTree(KvBinarySearchTree.ValueMergeFunction<V> mergeFunction) {
+        this.mergeFunction = mergeFunction;
+    }
+
+    /**
+     * 往树里面添加数据, key已存在时合并值
+     *
+     * @param key  新增元素
+     * @param data 新增元素的值
+     */
+    public void add(K key, V data) {
+        if (root == null) {
+            root = new Node<>(key, data);
+            size++;
+            return;
+        }
+        int depth = 0;
+        Node<K, V> node = root;
+        while (true) {
+            path[depth++] = node;
+            int compare = node.key.compareTo(key);
+            if (compare == 0) {
+                node.data = mergeFunction.apply(node.data, data);
+                clearPath(depth);
+                return;
+            }
+            Node<K, V> next = compare > 0 ? node.left : node.right;
+            if (next == null) {
+                if (compare > 0) {
+                    node.left = new Node<>(key, data);
+                } else {
+                    node.right = new Node<>(key, data);
+                }
+                break;
+            }
+            node = next;
+        }
+        size++;
+        rebalance(depth);
+    }
+
+    /**
+     * 删除指定元素
+     *
+     * @param key 要删除的元素
+     */
+    public void deleteKey(K key) {
+        // 第一步, 找到要删除的元素所在节点, 路径中保存其所有祖先
+        int depth = 0;
+        Node<K, V> node = root;
+        while (node != null) {
+            int compare = node.key.compareTo(key);
+            if (compare == 0) {
+                break;
+            }
+            path[depth++] = node;
+            node = compare > 0 ? node.left : node.right;
+        }
+
+        // 没有找到, 不做处理
+        if (node == null) {
+            clearPath(depth);
+            return;
+        }
+
+        // 如果要删除的节点下面有两个子节点, 则找到右子树中最小的节点
+        // 将这个最小的节点的数据移到要删除的节点, 改为删除这个最小的节点
+        if (node.left != null && node.right != null) {
+            path[depth++] = node;
+            Node<K, V> minNode = node.right;
+            while (minNode.left != null) {
+                path[depth++] = minNode;
+                minNode = minNode.left;
+            }
+            node.key = minNode.key;
+            node.data = minNode.data;
+            node = minNode;
+        }
+
+        // 删除是叶节点或者仅有一个子节点的节点
+        Node<K, V> child = node.left != null ? node.left : node.right;
+        replaceChild(depth > 0 ? path[depth - 1] : null, node, child);
+        size--;
+        rebalance(depth);
+    }
+
+    /**
+     * 查找是否存在指定元素
+     *
+     * @param e 要查找的元素
+     * @return 是否存在e
+     */
+    public boolean exists(K e) {
+        return find(e) != null;
+    }
+
+    /**
+     * 查找指定元素的值
+     *
+     * @param key 要查找的元素
+     * @return 元素的值, 不存在时返回null
+     */
+    public V get(K key) {
+        Node<K, V> node = find(key);
+        return node == null ? null : node.data;
+    }
+
+    private Node<K, V> find(K key) {
+        Node<K, V> node = root;
+        while (node != null) {
+            int compare = node.key.compareTo(key);
+            if (compare == 0) {
+                return node;
+            }
+            node = compare > 0 ? node.left : node.right;
+        }
+        return null;
+    }
+
+    /**
+     * 前序遍历树
+     *
+     * @return 按照遍历顺序的元素列表
+     */
+    public LinkedHashMap<K, V> preOrder() {
+        LinkedHashMap<K, V> result = new LinkedHashMap<>();
+        preOrder(result, root);
+        return result;
+    }
+
+    private void preOrder(LinkedHashMap<K, V> result, Node<K, V> node) {
+        if (node == null) {
+            return;
+        }
+        result.put(node.key, node.data);
+        preOrder(result, node.left);
+        preOrder(result, node.right);
+    }
+
+    /**
+     * 中序遍历树
+     *
+     * @return 按照遍历顺序的元素列表
+     */
+    public LinkedHashMap<K, V> inOrder() {
+        LinkedHashMap<K, V> result = new LinkedHashMap<>();
+        inOrder(result, root);
+        return result;
+    }
+
+    private void inOrder(LinkedHashMap<K, V> result, Node<K, V> node) {
+        if (node == null) {
+            return;
+        }
+        inOrder(result, node.left);
+        result.put(node.key, node.data);
+        inOrder(result, node.right);
+    }
+
+    /**
+     * 后序遍历树
+     *
+     * @return 按照遍历顺序的元素列表
+     */
+    public LinkedHashMap<K, V> postOrder() {
+        LinkedHashMap<K, V> result = new LinkedHashMap<>();
+        postOrder(result, root);
+        return result;
+    }
+
+    private void postOrder(LinkedHashMap<K, V> result, Node<K, V> node) {
+        if (node == null) {
+            return;
+        }
+        postOrder(result, node.left);
+        postOrder(result, node.right);
+        result.put(node.key, node.data);
+    }
+
+    /**
+     * 获取树的高度, 只有根节点时为0
+     *
+     * @return 当前树的高度
+     */
+    public int getHeight() {
+        return getHeight(root);
+    }
+
+    /**
+     * 获取指定树节点的高度
+     *
+     * @param node 指定节点
+     * @return 指定节点的高度
+     */
+    public int getHeight(Node<K, V> node) {
+        return node == null ? 0 : node.height - 1;
+    }
+
+    /**
+     * 获取节点个数
+     *
+     * @return 当前节点的个数
+     */
+    public int getSize() {
+        return size;
+    }
+
+    public Node<K, V> getRoot() {
+        return root;
+    }
+
+    /**
+     * 从路径的末端向根节点逐个更新高度并旋转, 子树的根和高度都不变时停止
+     *
+     * @param depth 路径长度
+     */
+    private void rebalance(int depth) {
+        for (int i = depth - 1; i >= 0; i--) {
+            Node<K, V> node = path[i];
+            int height = node.height;
+            Node<K, V> balanced = balance(node);
+            if (balanced != node) {
+                replaceChild(i > 0 ? path[i - 1] : null, node, balanced);
+            } else if (height == node.height) {
+                break;
+            }
+        }
+        clearPath(depth);
+    }
+
+    private void replaceChild(Node<K, V> parent, Node<K, V> node, Node<K, V> child) {
+        if (parent == null) {
+            root = child;
+        } else if (parent.left == node) {
+            parent.left = child;
+        } else {
+            parent.right = child;
+        }
+    }
+
+    /**
+     * 释放路径中的引用, 以免已删除的节点无法回收
+     */
+    private void clearPath(int depth) {
+        for (int i = 0; i < depth; i++) {
+            path[i] = null;
+        }
+    }
+
+    private static int height(Node<?, ?> node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static <K, V> void updateHeight(Node<K, V> node) {
+        node.height = Math.max(height(node.left), height(node.right)) + 1;
+    }
+
+    /**
+     * 平衡以node为根的子树
+     *
+     * @return 平衡后子树的根
+     */
+    private static <K, V> Node<K, V> balance(Node<K, V> node) {
+        int diff = height(node.left) - height(node.right);
+        if (diff > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (diff < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        updateHeight(node);
+        return node;
+    }
+
+    private static <K, V> Node<K, V> rotateLeft(Node<K, V> node) {
+        Node<K, V> right = node.right;
+        node.right = right.left;
+        right.left = node;
+        updateHeight(node);
+        updateHeight(right);
+        return right;
+    }
+
+    private static <K, V> Node<K, V> rotateRight(Node<K, V> node) {
+        Node<K, V> left = node.left;
+        node.left = left.right;
+        left.right = node;
+        updateHeight(node);
+        updateHeight(left);
+        return left;
+    }
+
+    /**
+     * 节点
+     */
+    static class Node<K, V> {
+        Node<K, V> left;
+        K key;
+        V data;
+        Node<K, V> right;
+
+        /**
+         * 以该节点为根的子树的层数, 叶节点为1
+         */
+        int height = 1;
+
+        Node(K key, V data) {
+            this.key = key;
+            this.data = data;
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.yshebkb.common.gps;
+
+import com.yshebkb.common.gps.polygon.Point;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author whiteclaw
+ * created on 2026-10-18
+ */
+class BaiduMapTransTest {
+
+    private static final double[] MCBAND = new double[]{1.289059486e7, 8362377.87, 5591021, 3481989.83, 1678043.12, 0};
+    private static final double[][] MC2LL = new double[][]{
+            {1.410526172116255e-8, 8.98305509648872e-6, -1.9939833816331, 200.9824383106796, -187.2403703815547, 91.6087516669843, -23.38765649603339, 2.57121317296198, -0.03801003308653, 1.73379812e7},
+            {-7.435856389565537e-9, 8.983055097726239e-6, -0.78625201886289, 96.32687599759846, -1.85204757529826, -59.36935905485877, 47.40033549296737, -16.50741931063887, 2.28786674699375, 1.026014486e7},
+            {-3.030883460898826e-8, 8.98305509983578e-6, 0.30071316287616, 59.74293618442277, 7.357984074871, -25.38371002664745, 13.45380521110908, -3.29883767235584, 0.32710905363475, 6856817.37},
+            {-1.981981304930552e-8, 8.983055099779535e-6, 0.03278182852591, 40.31678527705744, 0.65659298677277, -4.44255534477492, 0.85341911805263, 0.12923347998204, -0.04625736007561, 4482777.06},
+            {3.09191371068437e-9, 8.983055096812155e-6, 6.995724062e-5, 23.10934304144901, -2.3663490511e-4, -0.6321817810242, -0.00663494467273, 0.03430082397953, -0.00466043876332, 2555164.4},
+            {2.890871144776878e-9, 8.983055095805407e-6, -3.068298e-8, 7.47137025468032, -3.53937994e-6, -0.02145144861037, -1.234426596e-5, 1.0322952773e-4, -3.23890364e-6, 826088.5}
+    };
+
+    /**
+     * 原来基于DecimalFormat的实现, 作为对照
+     */
+    private static Point legacyTrans(double lng, double lat) {
+        double[] factor = null;
+        for (int i = 0; i < MCBAND.length; i++) {
+            if (lat >= MCBAND[i]) {
+                factor = MC2LL[i];
+                break;
+            }
+        }
+        if (factor == null) {
+            return null;
+        }
+        double x = factor[0] + factor[1] * Math.abs(lng);
+        double temp = Math.abs(lat) / factor[9];
+        double y = factor[2] + factor[3] * temp +
+                factor[4] * temp * temp +
+                factor[5] * temp * temp * temp +
+                factor[6] * temp * temp * temp * temp +
+                factor[7] * temp * temp * temp * temp * temp +
+                factor[8] * temp * temp * temp * temp * temp * temp;
+        x *= lng < 0 ? -1 : 1;
+        y *= lat < 0 ? -1 : 1;
+        DecimalFormat format = new DecimalFormat("#.000000");
+        return new Point(Double.parseDouble(format.format(x)), Double.parseDouble(format.format(y)));
+    }
+
+    static List<double[]> loadPoiCoordinates() throws Exception {
+        List<double[]> result = new ArrayList<>();
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(
+                BaiduMapTransTest.class.getClassLoader().getResourceAsStream("poi.csv"), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                String[] parts = line.split("\t")[1].split("\\|");
+                String polygon = parts[2].substring(parts[2].indexOf('-') + 1).replace(";", "");
+                String[] values = polygon.split(",");
+                for (int i = 0; i + 1 < values.length; i += 2) {
+                    result.add(new double[]{Double.parseDouble(values[i]), Double.parseDouble(values[i + 1])});
+                }
+            }
+        }
+        return result;
+    }
+
+    @Test
+    void transMatchesDecimalFormatImplementation() throws Exception {
+        for (double[] mc : loadPoiCoordinates()) {
+            assertEquals(legacyTrans(mc[0], mc[1]), BaiduMapTrans.trans(mc[0], mc[1]));
+        }
+        Random random = new Random(20190118L);
+        for (int i = 0; i < 200000; i++) {
+            double lng = (random.nextDouble() - 0.5) * 4e7;
+            double lat = random.nextDouble() * 1.5e7;
+            assertEquals(legacyTrans(lng, lat), BaiduMapTrans.trans(lng, lat));
+        }
+    }
+
+    @Test
+    void negativeLatitudeIsNotConverted() {
+        assertNull(BaiduMapTrans.trans(13535862.1634, -3644170.81869));
+        double[] lng = new double[]{13535862.1634, 13535862.1634};
+        double[] lat = new double[]{-3644170.81869, 3644170.81869};
+        BaiduMapTrans.trans(lng, lat);
+        assertEquals(Double.NaN, lng[0]);
+        assertEquals(Double.NaN, lat[0]);
+        assertEquals(BaiduMapTrans.trans(13535862.1634, 3644170.81869), new Point(lng[1], lat[1]));
+    }
+
+    @Test
+    void batchMatchesSinglePointAcrossThreads() throws Exception {
+        List<double[]> coordinates = loadPoiCoordinates();
+        // 打乱纬度带, 覆盖批量转换中纬度带缓存失效的情况
+        Random random = new Random(1);
+        for (int i = 0; i < 1000; i++) {
+            coordinates.add(new double[]{(random.nextDouble() - 0.5) * 4e7, random.nextDouble() * 1.5e7});
+        }
+        int size = coordinates.size();
+        double[] lng = new double[size];
+        double[] lat = new double[size];
+        for (int i = 0; i < size; i++) {
+            lng[i] = coordinates.get(i)[0];
+            lat[i] = coordinates.get(i)[1];
+        }
+        IntStream.range(0, 16).parallel().forEach(round -> {
+            double[] outLng = new double[size];
+            double[] outLat = new double[size];
+            BaiduMapTrans.trans(lng, lat, outLng, outLat);
+            for (int i = 0; i < size; i++) {
+                assertEquals(BaiduMapTrans.trans(lng[i], lat[i]), new Point(outLng[i], outLat[i]));
+            }
+        });
+    }
+
+    @Test
+    void mercatorRoundTripOnPoiData() throws Exception {
+        // 解码结果只保留6位小数(约0.1m), 再编码回来的误差在这个量级
+        for (double[] mc : loadPoiCoordinates()) {
+            Point ll = BaiduMapTrans.trans(mc[0], mc[1]);
+            Point back = BaiduMapTrans.bd09ToMercator(ll.lng, ll.lat);
+            assertEquals(mc[0], back.lng, 0.2);
+            assertEquals(mc[1], back.lat, 0.2);
+        }
+    }
+
+    @Test
+    void bd09RoundTripInChina() {
+        Random random = new Random(20190118L);
+        for (int i = 0; i < 200000; i++) {
+            double lng = 72 + random.nextDouble() * 66;
+            double lat = random.nextDouble() * 56;
+            Point mc = BaiduMapTrans.bd09ToMercator(lng, lat);
+            Point back = BaiduMapTrans.trans(mc.lng, mc.lat);
+            assertEquals(lng, back.lng, 1e-6);
+            // 45°附近LLBAND和MCBAND的分界不完全一致, 误差略大
+            assertEquals(lat, back.lat, 3e-6);
+        }
+    }
+
+    @Test
+    void bd09RoundTripAcrossAllBands() {
+        Random random = new Random(20190121L);
+        for (int i = 0; i < 200000; i++) {
+            double lng = -180 + random.nextDouble() * 360;
+            double lat = random.nextDouble() * 74;
+            Point mc = BaiduMapTrans.bd09ToMercator(lng, lat);
+            Point back = BaiduMapTrans.trans(mc.lng, mc.lat);
+            assertEquals(lng, back.lng, 1e-6);
+            assertEquals(lat, back.lat, 1e-4);
+        }
+    }
+
+    @Test
+    void mercatorNormalizesInput() {
+        assertEquals(BaiduMapTrans.bd09ToMercator(121.593886, 31.260394),
+                BaiduMapTrans.bd09ToMercator(121.593886 + 360, 31.260394));
+        assertEquals(BaiduMapTrans.bd09ToMercator(121.593886, 74),
+                BaiduMapTrans.bd09ToMercator(121.593886, 85));
+        assertEquals(BaiduMapTrans.bd09ToMercator(180, 31.260394), BaiduMapTrans.bd09ToMercator(540, 31.260394));
+        assertEquals(BaiduMapTrans.bd09ToMercator(-180, 31.260394), BaiduMapTrans.bd09ToMercator(-540, 31.260394));
+        assertEquals(BaiduMapTrans.bd09ToMercator(-179, 31.260394), BaiduMapTrans.bd09ToMercator(181, 31.260394));
+        assertEquals(BaiduMapTrans.bd09ToMercator(179, 31.260394), BaiduMapTrans.bd09ToMercator(-181, 31.260394));
+    }
+
+    @Test
+    void mercatorHandlesHugeAndInfiniteLongitude() {
+        // 1e20 = 360 * 277777777777777777777 + 280
+        assertEquals(BaiduMapTrans.bd09ToMercator(-80, 30), BaiduMapTrans.bd09ToMercator(1e20, 30));
+        assertEquals(BaiduMapTrans.bd09ToMercator(0, 30), BaiduMapTrans.bd09ToMercator(-360 * 0x1p60, 30));
+        double maxX = BaiduMapTrans.bd09ToMercator(180, 30).lng;
+        assertTrue(Math.abs(BaiduMapTrans.bd09ToMercator(-Double.MAX_VALUE, 30).lng) <= maxX);
+        assertTrue(Math.abs(BaiduMapTrans.bd09ToMercator(Double.MAX_VALUE, 30).lng) <= maxX);
+
+        double[] lng = new double[]{Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NaN, 121.593886};
+        double[] lat = new double[]{30, 30, 30, 31.260394};
+        double[] x = new double[lng.length];
+        double[] y = new double[lat.length];
+        BaiduMapTrans.bd09ToMercator(lng, lat, x, y);
+        for (int i = 0; i < 3; i++) {
+            Point point = BaiduMapTrans.bd09ToMercator(lng[i], lat[i]);
+            assertEquals(Double.NaN, point.lng);
+            assertEquals(Double.NaN, point.lat);
+            assertEquals(Double.NaN, x[i]);
+            assertEquals(Double.NaN, y[i]);
+        }
+        assertEquals(BaiduMapTrans.bd09ToMercator(lng[3], lat[3]), new Point(x[3], y[3]));
+    }
+
+    @Test
+    void batchMercatorMatchesSinglePoint() {
+        Random random = new Random(7);
+        int size = 5000;
+        double[] lng = new double[size];
+        double[] lat = new double[size];
+        for (int i = 0; i < size; i++) {
+            lng[i] = -200 + random.nextDouble() * 400;
+            lat[i] = -80 + random.nextDouble() * 160;
+        }
+        double[] x = new double[size];
+        double[] y = new double[size];
+        BaiduMapTrans.bd09ToMercator(lng, lat, x, y);
+        for (int i = 0; i < size; i++) {
+            assertEquals(BaiduMapTrans.bd09ToMercator(lng[i], lat[i]), new Point(x[i], y[i]));
+        }
+    }
+}
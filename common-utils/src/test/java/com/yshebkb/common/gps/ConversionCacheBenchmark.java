@@ -0,0 +1,74 @@
+package com.yshebkb.common.gps;
+
+import com.yshebkb.common.gps.polygon.Point;
+
+import java.util.Random;
+
+/**
+ * 车辆在少数停车点附近反复上报时, 直接转换与经过ConversionCache转换的耗时
+ *
+ * @author whiteclaw
+ * created on 2026-10-18
+ */
+public class ConversionCacheBenchmark {
+
+    private static final int SPOTS = 5000;
+    private static final int COUNT = 2_000_000;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        Random random = new Random(20190409L);
+        double[][] spots = ConversionCacheTest.randomSpots(random, SPOTS);
+        double[] lngs = new double[COUNT];
+        double[] lats = new double[COUNT];
+        double[] xs = new double[COUNT];
+        double[] ys = new double[COUNT];
+        double[] spotX = new double[SPOTS];
+        double[] spotY = new double[SPOTS];
+        BaiduMapTrans.bd09ToMercator(spots[0], spots[1], spotX, spotY);
+        for (int i = 0; i < COUNT; i++) {
+            int spot = random.nextInt(SPOTS);
+            // 停车时的GPS漂移在1e-6度以内, 百度墨卡托坐标保留2位小数, 同一地点重复上报相同的值
+            lngs[i] = spots[0][spot] + (random.nextDouble() - 0.5) * 1e-6;
+            lats[i] = spots[1][spot] + (random.nextDouble() - 0.5) * 1e-6;
+            xs[i] = spotX[spot];
+            ys[i] = spotY[spot];
+        }
+        double[] outX = new double[COUNT];
+        double[] outY = new double[COUNT];
+        ConversionCache bd09 = new ConversionCache(ConversionCache.Conversion.WGS84_TO_BD09, 16384);
+        ConversionCache mercator = new ConversionCache(ConversionCache.Conversion.BAIDU_MERCATOR_TO_BD09, 16384, 0.01);
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            double check = 0;
+            for (int i = 0; i < COUNT; i++) {
+                check += CoordinateTransformUtil.wgs84ToBD09(lats[i], lngs[i])[0];
+            }
+            double directBd09 = (System.nanoTime() - start) / (double) COUNT;
+
+            bd09.resetCounters();
+            start = System.nanoTime();
+            bd09.convert(lngs, lats, outX, outY);
+            double cachedBd09 = (System.nanoTime() - start) / (double) COUNT;
+            check += outY[COUNT - 1];
+
+            start = System.nanoTime();
+            for (int i = 0; i < COUNT; i++) {
+                Point point = BaiduMapTrans.trans(xs[i], ys[i]);
+                check += point.getLat();
+            }
+            double directMercator = (System.nanoTime() - start) / (double) COUNT;
+
+            mercator.resetCounters();
+            start = System.nanoTime();
+            mercator.convert(xs, ys, outX, outY);
+            double cachedMercator = (System.nanoTime() - start) / (double) COUNT;
+            check += outY[COUNT - 1];
+
+            System.out.printf("第%d轮 wgs84ToBD09 直接 %.1f ns/点 缓存 %.1f ns/点(命中率%.3f); "
+                            + "BaiduMapTrans 直接 %.1f ns/点 缓存 %.1f ns/点(命中率%.3f) (%.0f)%n",
+                    round + 1, directBd09, cachedBd09, bd09.getHitRatio(),
+                    directMercator, cachedMercator, mercator.getHitRatio(), check % 10);
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package com.yshebkb.common.gps;
+
+import com.yshebkb.common.gps.polygon.Point;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author whiteclaw
+ * created on 2026-10-18
+ */
+public class ConversionCacheTest {
+
+    /**
+     * count个停车点附近的经纬度
+     */
+    static double[][] randomSpots(Random random, int count) {
+        double[][] spots = new double[2][count];
+        for (int i = 0; i < count; i++) {
+            spots[0][i] = 115.5 + random.nextDouble() * 2;
+            spots[1][i] = 39.5 + random.nextDouble() * 1.5;
+        }
+        return spots;
+    }
+
+    private static void assertSameBits(double[] expected, double[] actual) {
+        assertEquals(Double.doubleToLongBits(expected[0]), Double.doubleToLongBits(actual[0]));
+        assertEquals(Double.doubleToLongBits(expected[1]), Double.doubleToLongBits(actual[1]));
+    }
+
+    @Test
+    void exactAndDisabledAreIdentical() {
+        double[][] spots = randomSpots(new Random(20190406L), 200);
+        ConversionCache.Conversion conversion = ConversionCache.Conversion.WGS84_TO_BD09;
+        ConversionCache exact = new ConversionCache(conversion, 1024, ConversionCache.EXACT);
+        ConversionCache quantized = new ConversionCache(conversion, 1024);
+        quantized.setEnabled(false);
+        double[] expected = new double[2];
+        double[] actual = new double[2];
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 200; i++) {
+                double lng = spots[0][i];
+                double lat = spots[1][i];
+                double[] bd09 = CoordinateTransformUtil.wgs84ToBD09(lat, lng);
+                expected[0] = bd09[1];
+                expected[1] = bd09[0];
+                exact.convert(lng, lat, actual);
+                assertSameBits(expected, actual);
+                quantized.convert(lng, lat, actual);
+                assertSameBits(expected, actual);
+            }
+        }
+        assertEquals(200, exact.getMissCount());
+        assertEquals(400, exact.getHitCount());
+        assertEquals(200, exact.size());
+        assertEquals(0, quantized.getHitCount() + quantized.getMissCount());
+        assertEquals(0, quantized.size());
+    }
+
+    @Test
+    void quantizedSharesCell() {
+        ConversionCache cache = new ConversionCache(ConversionCache.Conversion.WGS84_TO_GCJ02, 64);
+        Point first = cache.convert(116.3974101, 39.9087201);
+        // 同一个1e-6度的格子
+        Point second = cache.convert(116.3974098, 39.9087204);
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(first.getLng(), second.getLng());
+        assertEquals(first.getLat(), second.getLat());
+        // 结果是格子中心的转换结果
+        double[] gcj = CoordinateTransformUtil.wgs84ToGCJ02(39908720 * 1e-6, 116397410 * 1e-6);
+        assertEquals(gcj[1], first.getLng());
+        assertEquals(gcj[0], first.getLat());
+        double[] direct = CoordinateTransformUtil.wgs84ToGCJ02(39.9087201, 116.3974101);
+        assertEquals(direct[1], first.getLng(), 1e-6);
+        assertEquals(direct[0], first.getLat(), 1e-6);
+        assertEquals(0.5, cache.getHitRatio());
+
+        // 非有限值不进缓存
+        double[] out = new double[2];
+        cache.convert(Double.NaN, 39.9, out);
+        assertEquals(1, cache.size());
+        cache.resetCounters();
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getHitCount());
+    }
+
+    @Test
+    void mercatorAndFailures() {
+        ConversionCache cache = new ConversionCache(ConversionCache.Conversion.BAIDU_MERCATOR_TO_BD09, 64, 0.01);
+        Point mercator = BaiduMapTrans.bd09ToMercator(116.404, 39.915);
+        Point expected = BaiduMapTrans.trans(mercator.getLng(), mercator.getLat());
+        for (int i = 0; i < 3; i++) {
+            Point actual = cache.convert(mercator.getLng(), mercator.getLat());
+            assertEquals(expected.getLng(), actual.getLng(), 1e-9);
+            assertEquals(expected.getLat(), actual.getLat(), 1e-9);
+        }
+        assertEquals(2, cache.getHitCount());
+
+        ConversionCache.Conversion failing = (x, y, out) -> {
+            out[0] = Double.NaN;
+            out[1] = Double.NaN;
+        };
+        ConversionCache failures = new ConversionCache(failing, 8);
+        assertNull(failures.convert(1, 2));
+        assertNull(failures.convert(1, 2));
+        assertEquals(1, failures.getHitCount());
+
+        assertThrows(IllegalArgumentException.class, () -> new ConversionCache(failing, 0));
+        assertThrows(IllegalArgumentException.class, () -> new ConversionCache(failing, 8, -1));
+        assertThrows(IllegalArgumentException.class, () -> new ConversionCache(null, 8));
+        assertThrows(IllegalArgumentException.class,
+                () -> cache.convert(new double[2], new double[1], new double[2], new double[2]));
+    }
+
+    @Test
+    void tinyQuantumFallsBackToDirect() {
+        ConversionCache.Conversion identity = (x, y, out) -> {
+            out[0] = x;
+            out[1] = y;
+        };
+        // 墨卡托坐标除以1e-13后超过2^62, 取整会饱和为同一个键
+        ConversionCache cache = new ConversionCache(identity, 64, 1e-13);
+        double[] out = new double[2];
+        cache.convert(12958160.97, 4825923.77, out);
+        assertEquals(12958160.97, out[0]);
+        assertEquals(4825923.77, out[1]);
+        cache.convert(13535862.16, 3644170.82, out);
+        assertEquals(13535862.16, out[0]);
+        assertEquals(3644170.82, out[1]);
+        cache.convert(-13535862.16, 3644170.82, out);
+        assertEquals(-13535862.16, out[0]);
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getHitCount());
+
+        // 范围内的坐标照常缓存
+        cache.convert(1e5, 2e5, out);
+        cache.convert(1e5, 2e5, out);
+        assertEquals(1e5, out[0], 1e-9);
+        assertEquals(2e5, out[1], 1e-9);
+        assertEquals(1, cache.size());
+        assertEquals(1, cache.getHitCount());
+
+        ConversionCache subnormal = new ConversionCache(identity, 64, Double.MIN_VALUE);
+        subnormal.convert(1, 2, out);
+        subnormal.convert(3, 4, out);
+        assertEquals(3, out[0]);
+        assertEquals(4, out[1]);
+        assertEquals(0, subnormal.size());
+    }
+
+    @Test
+    void boundedWithClockEviction() {
+        int[] calls = new int[1];
+        ConversionCache.Conversion counting = (x, y, out) -> {
+            calls[0]++;
+            out[0] = x + 1;
+            out[1] = y - 1;
+        };
+        ConversionCache cache = new ConversionCache(counting, 1000, 1);
+        assertEquals(1024, cache.getCapacity());
+        Random random = new Random(20190407L);
+        double[] out = new double[2];
+        int hot = 100;
+        for (int i = 0; i < 200_000; i++) {
+            // 一半访问100个热点, 一半访问不重复的冷数据
+            int key = (i & 1) == 0 ? random.nextInt(hot) : hot + i;
+            cache.convert(key, key * 3, out);
+            assertEquals(key + 1.0, out[0]);
+            assertEquals(key * 3 - 1.0, out[1]);
+        }
+        assertTrue(cache.size() <= cache.getCapacity());
+        assertTrue(cache.getEvictionCount() > 90_000);
+        assertEquals(cache.getMissCount(), calls[0]);
+        // 冷数据全部未命中, 热点基本都命中
+        assertTrue(cache.getHitCount() > 99_000, "hits " + cache.getHitCount());
+        assertEquals(8, new ConversionCache(counting, 1).getCapacity());
+        assertEquals(16, new ConversionCache(counting, 9).getCapacity());
+    }
+
+    @Test
+    void concurrentAccess() throws Exception {
+        double[][] spots = randomSpots(new Random(20190408L), 5000);
+        ConversionCache cache = new ConversionCache(ConversionCache.Conversion.WGS84_TO_BD09, 2048,
+                ConversionCache.EXACT);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                long seed = t;
+                futures.add(executor.submit(() -> {
+                    Random random = new Random(seed);
+                    double[] out = new double[2];
+                    int checked = 0;
+                    for (int i = 0; i < 50_000; i++) {
+                        int index = random.nextInt(spots[0].length);
+                        cache.convert(spots[0][index], spots[1][index], out);
+                        double[] bd09 = CoordinateTransformUtil.wgs84ToBD09(spots[1][index], spots[0][index]);
+                        if (out[0] == bd09[1] && out[1] == bd09[0]) {
+                            checked++;
+                        }
+                    }
+                    return checked;
+                }));
+            }
+            for (Future<Integer> future : futures) {
+                assertEquals(50_000, future.get().intValue());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(200_000, cache.getHitCount() + cache.getMissCount());
+        assertTrue(cache.size() <= cache.getCapacity());
+    }
+}
@@ -0,0 +1,75 @@
+package com.yshebkb.common.gps;
+
+import com.yshebkb.common.gps.polygon.Point;
+
+import java.util.Random;
+
+/**
+ * 三种距离算法的耗时, 以及不同距离、纬度下与VINCENTY比较的相对误差
+ *
+ * @author whiteclaw
+ * created on 2026-10-18
+ */
+public class DistanceBenchmark {
+
+    private static final int COUNT = 1_000_000;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        Random random = new Random(20190310L);
+        double[] lng1 = new double[COUNT];
+        double[] lat1 = new double[COUNT];
+        double[] lng2 = new double[COUNT];
+        double[] lat2 = new double[COUNT];
+        double[] out = new double[COUNT];
+        for (int i = 0; i < COUNT; i++) {
+            lng1[i] = 115 + random.nextDouble() * 10;
+            lat1[i] = 25 + random.nextDouble() * 10;
+            lng2[i] = lng1[i] + (random.nextDouble() - 0.5) * 0.2;
+            lat2[i] = lat1[i] + (random.nextDouble() - 0.5) * 0.2;
+        }
+        for (int round = 0; round < ROUNDS; round++) {
+            StringBuilder line = new StringBuilder("第" + (round + 1) + "轮");
+            for (DistanceUtil.Mode mode : DistanceUtil.Mode.values()) {
+                long start = System.nanoTime();
+                DistanceUtil.distance(lng1, lat1, lng2, lat2, out, mode);
+                line.append(String.format(" %s %.1f ns", mode, (System.nanoTime() - start) / (double) COUNT));
+            }
+            long start = System.nanoTime();
+            DistanceUtil.distance(lng1[0], lat1[0], lng2, lat2, out, DistanceUtil.Mode.HAVERSINE);
+            line.append(String.format(", 一对多HAVERSINE %.1f ns", (System.nanoTime() - start) / (double) COUNT));
+            start = System.nanoTime();
+            DistanceUtil.destination(lng1, lat1, lng2, out, out, lat2.clone(), DistanceUtil.Mode.VINCENTY);
+            line.append(String.format(", 目标点VINCENTY %.1f ns", (System.nanoTime() - start) / (double) COUNT));
+            System.out.println(line);
+        }
+
+        System.out.println("与VINCENTY比较的最大相对误差(平均相对误差)");
+        double[] distances = {100, 1000, 10_000, 100_000, 1_000_000};
+        double[][] latRanges = {{0, 45}, {45, 70}, {70, 85}};
+        for (double[] latRange : latRanges) {
+            for (double distance : distances) {
+                double[] max = new double[3];
+                double[] sum = new double[3];
+                int samples = 20000;
+                for (int i = 0; i < samples; i++) {
+                    double lng = -180 + random.nextDouble() * 360;
+                    double lat = (random.nextBoolean() ? 1 : -1) * (latRange[0] + random.nextDouble() * (latRange[1] - latRange[0]));
+                    double bearing = random.nextDouble() * 360;
+                    Point target = DistanceUtil.destination(lng, lat, bearing, distance, DistanceUtil.Mode.VINCENTY);
+                    double exact = DistanceUtil.distance(lng, lat, target.getLng(), target.getLat(), DistanceUtil.Mode.VINCENTY);
+                    for (int m = 0; m < 3; m++) {
+                        // VINCENTY一列是正算再反算得到的距离与给定距离的误差
+                        double reference = m == 0 ? distance : exact;
+                        double error = Math.abs(DistanceUtil.distance(lng, lat, target.getLng(), target.getLat(),
+                                DistanceUtil.Mode.values()[m]) - reference) / reference;
+                        max[m] = Math.max(max[m], error);
+                        sum[m] += error;
+                    }
+                }
+                System.out.printf("  纬度%2.0f-%2.0f 距离%8.0fm: VINCENTY %.1e, HAVERSINE %.2e(%.2e), FLAT %.2e(%.2e)%n",
+                        latRange[0], latRange[1], distance, max[0], max[1], sum[1] / samples, max[2], sum[2] / samples);
+            }
+        }
+    }
+}
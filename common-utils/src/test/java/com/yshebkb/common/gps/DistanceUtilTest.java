@@ -0,0 +1,127 @@
+package com.yshebkb.common.gps;
+
+import com.yshebkb.common.gps.DistanceUtil.Mode;
+import com.yshebkb.common.gps.polygon.Point;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author whiteclaw
+ * created on 2026-10-18
+ */
+public class DistanceUtilTest {
+
+    /**
+     * Vincenty原文中的例子: Flinders Peak到Buninyong
+     */
+    @Test
+    void vincentyKnownValue() {
+        double lng1 = 144 + 25 / 60.0 + 29.52440 / 3600;
+        double lat1 = -(37 + 57 / 60.0 + 3.72030 / 3600);
+        double lng2 = 143 + 55 / 60.0 + 35.38390 / 3600;
+        double lat2 = -(37 + 39 / 60.0 + 10.15610 / 3600);
+        assertEquals(54972.271, DistanceUtil.distance(lng1, lat1, lng2, lat2, Mode.VINCENTY), 1e-3);
+        assertEquals(306 + 52 / 60.0 + 5.37 / 3600, DistanceUtil.bearing(lng1, lat1, lng2, lat2, Mode.VINCENTY), 1e-5);
+
+        Point target = DistanceUtil.destination(lng1, lat1, 306 + 52 / 60.0 + 5.37 / 3600, 54972.271, Mode.VINCENTY);
+        assertEquals(lng2, target.getLng(), 1e-8);
+        assertEquals(lat2, target.getLat(), 1e-8);
+    }
+
+    @Test
+    void roundTripAndErrorBounds() {
+        Random random = new Random(20190311L);
+        for (int i = 0; i < 20000; i++) {
+            double lng = -180 + random.nextDouble() * 360;
+            double lat = -70 + random.nextDouble() * 140;
+            double bearing = random.nextDouble() * 360;
+            double distance = Math.pow(10, 1 + random.nextDouble() * 6);
+            for (Mode mode : Mode.values()) {
+                Point target = DistanceUtil.destination(lng, lat, bearing, distance, mode);
+                assertTrue(target.getLng() >= -180 && target.getLng() < 180);
+                if (mode != Mode.FLAT || distance < 100_000) {
+                    assertEquals(distance, DistanceUtil.distance(lng, lat, target.getLng(), target.getLat(), mode),
+                            distance * 1e-6 + 1e-6);
+                    double actual = DistanceUtil.bearing(lng, lat, target.getLng(), target.getLat(), mode);
+                    double difference = Math.abs(actual - bearing);
+                    assertTrue(Math.min(difference, 360 - difference) < 1e-3);
+                }
+            }
+
+            Point target = DistanceUtil.destination(lng, lat, bearing, distance, Mode.VINCENTY);
+            double exact = DistanceUtil.distance(lng, lat, target.getLng(), target.getLat(), Mode.VINCENTY);
+            double haversine = DistanceUtil.distance(lng, lat, target.getLng(), target.getLat(), Mode.HAVERSINE);
+            assertEquals(exact, haversine, exact * 0.006);
+            assertEquals(haversine, DistanceUtil.haversine(lng, lat, target.getLng(), target.getLat()));
+            if (distance <= 10_000) {
+                assertEquals(exact, DistanceUtil.distance(lng, lat, target.getLng(), target.getLat(), Mode.FLAT), exact * 1e-6);
+            } else if (distance <= 100_000) {
+                assertEquals(exact, DistanceUtil.distance(lng, lat, target.getLng(), target.getLat(), Mode.FLAT), exact * 1e-4);
+            }
+        }
+    }
+
+    @Test
+    void specialCases() {
+        for (Mode mode : Mode.values()) {
+            assertEquals(0, DistanceUtil.distance(120, 30, 120, 30, mode));
+            assertEquals(0, DistanceUtil.bearing(120, 30, 120, 30, mode));
+            assertEquals(90, DistanceUtil.bearing(0, 0, 1, 0, mode), 1e-9);
+            assertEquals(0, DistanceUtil.bearing(120, 30, 120, 31, mode), 1e-9);
+            // 跨越180度经线
+            assertEquals(DistanceUtil.distance(179.9, 10, -179.9, 10, mode), DistanceUtil.distance(-0.1, 10, 0.1, 10, mode), 1e-6);
+        }
+        // 赤道上的点
+        assertEquals(111319.491, DistanceUtil.distance(0, 0, 1, 0, Mode.VINCENTY), 1e-3);
+        // 几乎对跖的点不收敛时退回到球面公式
+        double antipodal = DistanceUtil.distance(0, 0, 179.7, 0.1, Mode.VINCENTY);
+        assertTrue(antipodal > 19_900_000 && antipodal < 20_100_000);
+        assertEquals(DistanceUtil.distance(0, 0, 179.7, 0.1, Mode.HAVERSINE), antipodal, antipodal * 0.006);
+    }
+
+    @Test
+    void batchMatchesSingle() {
+        Random random = new Random(20190312L);
+        int n = 1000;
+        double[] lng1 = new double[n];
+        double[] lat1 = new double[n];
+        double[] lng2 = new double[n];
+        double[] lat2 = new double[n];
+        for (int i = 0; i < n; i++) {
+            lng1[i] = 115 + random.nextDouble() * 10;
+            lat1[i] = 25 + random.nextDouble() * 10;
+            lng2[i] = 115 + random.nextDouble() * 10;
+            lat2[i] = 25 + random.nextDouble() * 10;
+        }
+        double[] out = new double[n];
+        double[] outLng = new double[n];
+        double[] outLat = new double[n];
+        for (Mode mode : Mode.values()) {
+            DistanceUtil.distance(lng1, lat1, lng2, lat2, out, mode);
+            for (int i = 0; i < n; i++) {
+                assertEquals(DistanceUtil.distance(lng1[i], lat1[i], lng2[i], lat2[i], mode), out[i]);
+            }
+            DistanceUtil.distance(lng1[0], lat1[0], lng2, lat2, out, mode);
+            for (int i = 0; i < n; i++) {
+                assertEquals(DistanceUtil.distance(lng1[0], lat1[0], lng2[i], lat2[i], mode), out[i], 1e-6);
+            }
+            DistanceUtil.bearing(lng1, lat1, lng2, lat2, out, mode);
+            for (int i = 0; i < n; i++) {
+                assertEquals(DistanceUtil.bearing(lng1[i], lat1[i], lng2[i], lat2[i], mode), out[i]);
+            }
+            DistanceUtil.destination(lng1, lat1, out, lat2, outLng, outLat, mode);
+            for (int i = 0; i < n; i++) {
+                Point target = DistanceUtil.destination(lng1[i], lat1[i], out[i], lat2[i], mode);
+                assertEquals(target.getLng(), outLng[i]);
+                assertEquals(target.getLat(), outLat[i]);
+            }
+        }
+        assertThrows(IllegalArgumentException.class,
+                () -> DistanceUtil.distance(lng1, lat1, lng2, new double[1], out, Mode.FLAT));
+    }
+}
@@ -0,0 +1,69 @@
+package com.yshebkb.common.gps;
+
+import java.util.Random;
+
+/**
+ * GCJ02转WGS84一步近似和迭代求解的精度、迭代次数和耗时对比
+ *
+ * @author whiteclaw
+ * created on 2026-10-18
+ */
+public class GcjInverseBenchmark {
+
+    private static final int SIZE = 2_000_000;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        Random random = new Random(20181123L);
+        double[] wgsLat = new double[SIZE];
+        double[] wgsLon = new double[SIZE];
+        double[] gcjLat = new double[SIZE];
+        double[] gcjLon = new double[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            wgsLat[i] = 18 + random.nextDouble() * 30;
+            wgsLon[i] = 100 + random.nextDouble() * 25;
+        }
+        CoordinateTransformUtil.wgs84ToGCJ02(wgsLat, wgsLon, gcjLat, gcjLon);
+        double[] outLat = new double[SIZE];
+        double[] outLon = new double[SIZE];
+
+        double fastNs = Double.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            CoordinateTransformUtil.gcj02ToWGS84(gcjLat, gcjLon, outLat, outLon);
+            fastNs = Math.min(fastNs, (double) (System.nanoTime() - start) / SIZE);
+        }
+        System.out.printf("FAST             %7.2f ns/point  max error %.3fm%n", fastNs, maxError(wgsLat, wgsLon, outLat, outLon));
+
+        double[] tolerances = new double[]{1e-6, 1e-7, 1e-8, 1e-9};
+        for (double tolerance : tolerances) {
+            long iterations = 0;
+            int maxIterations = 0;
+            double preciseNs = Double.MAX_VALUE;
+            for (int round = 0; round < ROUNDS; round++) {
+                iterations = 0;
+                long start = System.nanoTime();
+                for (int i = 0; i < SIZE; i++) {
+                    int n = CoordinateTransformUtil.gcj02ToWGS84(gcjLat[i], gcjLon[i], tolerance,
+                            CoordinateTransformUtil.DEFAULT_MAX_ITERATIONS, outLat, i, outLon, i);
+                    iterations += n;
+                    maxIterations = Math.max(maxIterations, n);
+                }
+                preciseNs = Math.min(preciseNs, (double) (System.nanoTime() - start) / SIZE);
+            }
+            System.out.printf("PRECISE tol %.0e %7.2f ns/point  max error %.5fm  iterations avg %.2f max %d%n",
+                    tolerance, preciseNs, maxError(wgsLat, wgsLon, outLat, outLon),
+                    (double) iterations / SIZE, maxIterations);
+        }
+    }
+
+    private static double maxError(double[] expectLat, double[] expectLon, double[] lat, double[] lon) {
+        double max = 0;
+        for (int i = 0; i < lat.length; i++) {
+            double dy = (lat[i] - expectLat[i]) * 111320;
+            double dx = (lon[i] - expectLon[i]) * 111320 * Math.cos(Math.toRadians(expectLat[i]));
+            max = Math.max(max, Math.sqrt(dx * dx + dy * dy));
+        }
+        return max;
+    }
+}
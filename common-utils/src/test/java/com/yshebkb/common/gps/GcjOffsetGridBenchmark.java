@@ -0,0 +1,64 @@
+package com.yshebkb.common.gps;
+
+import java.util.Random;
+
+/**
+ * 精确公式和偏移网格批量转换WGS84到GCJ02的耗时对比
+ *
+ * @author whiteclaw
+ * created on 2026-10-18
+ */
+public class GcjOffsetGridBenchmark {
+
+    private static final int SIZE = 5_000_000;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        Random random = new Random(20190121L);
+        double[] lat = new double[SIZE];
+        double[] lon = new double[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            lat[i] = 22 + random.nextDouble() * 20;
+            lon[i] = 103 + random.nextDouble() * 18;
+        }
+        double[] exactLat = new double[SIZE];
+        double[] exactLon = new double[SIZE];
+        double[] outLat = new double[SIZE];
+        double[] outLon = new double[SIZE];
+
+        int[] resolutions = new int[]{16, 32, 64, 128, 256};
+        GcjOffsetGrid[] grids = new GcjOffsetGrid[resolutions.length];
+        for (int i = 0; i < resolutions.length; i++) {
+            grids[i] = new GcjOffsetGrid(resolutions[i]);
+            // 预热并加载所有分块, 计时不包含分块构建
+            grids[i].wgs84ToGCJ02(lat, lon, outLat, outLon);
+        }
+        CoordinateTransformUtil.wgs84ToGCJ02(lat, lon, exactLat, exactLon);
+
+        double exactNs = Double.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            CoordinateTransformUtil.wgs84ToGCJ02(lat, lon, exactLat, exactLon);
+            exactNs = Math.min(exactNs, (double) (System.nanoTime() - start) / SIZE);
+        }
+        System.out.printf("exact            %6.2f ns/point%n", exactNs);
+
+        for (GcjOffsetGrid grid : grids) {
+            double gridNs = Double.MAX_VALUE;
+            for (int round = 0; round < ROUNDS; round++) {
+                long start = System.nanoTime();
+                grid.wgs84ToGCJ02(lat, lon, outLat, outLon);
+                gridNs = Math.min(gridNs, (double) (System.nanoTime() - start) / SIZE);
+            }
+            double maxError = 0;
+            for (int i = 0; i < SIZE; i++) {
+                double dy = (outLat[i] - exactLat[i]) * 111320;
+                double dx = (outLon[i] - exactLon[i]) * 111320 * Math.cos(Math.toRadians(lat[i]));
+                maxError = Math.max(maxError, Math.sqrt(dx * dx + dy * dy));
+            }
+            System.out.printf("grid %4d cells/deg %6.2f ns/point  speedup %5.2fx  max error %.4fm  tiles %d  memory %dKB%n",
+                    grid.getCellsPerDegree(), gridNs, exactNs / gridNs, maxError,
+                    grid.getLoadedTiles(), grid.getMemoryBytes() >> 10);
+        }
+    }
+}
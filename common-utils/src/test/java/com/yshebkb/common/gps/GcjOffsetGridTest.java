@@ -0,0 +1,74 @@
+package com.yshebkb.common.gps;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author whiteclaw
+ * created on 2026-10-18
+ */
+class GcjOffsetGridTest {
+
+    /**
+     * 每度64格时文档给出的最大误差是0.22m
+     */
+    private static final double MAX_ERROR_METER = 0.22;
+
+    @Test
+    void interpolationErrorWithinDocumentedBound() {
+        GcjOffsetGrid grid = new GcjOffsetGrid();
+        Random random = new Random(20190121L);
+        for (int i = 0; i < 100000; i++) {
+            double lat = 18 + random.nextDouble() * 27;
+            double lon = 100 + random.nextDouble() * 22;
+            double latError = MAX_ERROR_METER / 111320;
+            double lonError = latError / Math.cos(Math.toRadians(lat));
+            double[] exact = CoordinateTransformUtil.wgs84ToGCJ02(lat, lon);
+            double[] fast = grid.wgs84ToGCJ02(lat, lon);
+            assertEquals(exact[0], fast[0], latError);
+            assertEquals(exact[1], fast[1], lonError);
+
+            exact = CoordinateTransformUtil.gcj02ToWGS84(lat, lon);
+            fast = grid.gcj02ToWGS84(lat, lon);
+            assertEquals(exact[0], fast[0], latError);
+            assertEquals(exact[1], fast[1], lonError);
+        }
+    }
+
+    @Test
+    void outOfChinaIsNotShifted() {
+        GcjOffsetGrid grid = GcjOffsetGrid.getDefault();
+        double[] result = grid.wgs84ToGCJ02(48.8566, 2.3522);
+        assertEquals(48.8566, result[0]);
+        assertEquals(2.3522, result[1]);
+    }
+
+    @Test
+    void boundaryOfChinaUsesLastTile() {
+        GcjOffsetGrid grid = new GcjOffsetGrid(16);
+        double[] exact = CoordinateTransformUtil.wgs84ToGCJ02(55.8271, 137.8347);
+        double[] fast = grid.wgs84ToGCJ02(55.8271, 137.8347);
+        assertEquals(exact[0], fast[0], 3.0 / 111320);
+        assertEquals(exact[1], fast[1], 3.0 / 111320 / Math.cos(Math.toRadians(55.8271)));
+    }
+
+    @Test
+    void batchMatchesSinglePoint() {
+        GcjOffsetGrid grid = new GcjOffsetGrid(32);
+        double[] lat = new double[]{31.260394, 39.9, 22.5, 10.0};
+        double[] lon = new double[]{121.593886, 116.4, 114.1, 10.0};
+        double[] outLat = new double[lat.length];
+        double[] outLon = new double[lon.length];
+        grid.wgs84ToGCJ02(lat, lon, outLat, outLon);
+        for (int i = 0; i < lat.length; i++) {
+            double[] expect = grid.wgs84ToGCJ02(lat[i], lon[i]);
+            assertEquals(expect[0], outLat[i]);
+            assertEquals(expect[1], outLon[i]);
+        }
+        assertTrue(grid.getLoadedTiles() > 0);
+    }
+}
@@ -0,0 +1,73 @@
+package com.yshebkb.common.gps;
+
+import java.util.Random;
+
+/**
+ * 移位掩码交错与逐位交错的Morton编码耗时, 以及geohash和矩形分解的耗时
+ *
+ * @author whiteclaw
+ * created on 2026-10-18
+ */
+public class GeoHashBenchmark {
+
+    private static final int COUNT = 1_000_000;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        Random random = new Random(20190328L);
+        double[] lngs = new double[COUNT];
+        double[] lats = new double[COUNT];
+        for (int i = 0; i < COUNT; i++) {
+            lngs[i] = 115 + random.nextDouble() * 10;
+            lats[i] = 25 + random.nextDouble() * 10;
+        }
+        long[] keys = new long[COUNT];
+        String[] hashes = new String[COUNT];
+        double[] outLng = new double[COUNT];
+        double[] outLat = new double[COUNT];
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            GeoHashUtil.encodeMorton(lngs, lats, keys);
+            double encode = (System.nanoTime() - start) / (double) COUNT;
+
+            start = System.nanoTime();
+            long check = 0;
+            for (int i = 0; i < COUNT; i++) {
+                check += bitLoopMorton(lngs[i], lats[i]);
+            }
+            double loop = (System.nanoTime() - start) / (double) COUNT;
+
+            start = System.nanoTime();
+            GeoHashUtil.decodeMorton(keys, outLng, outLat);
+            double decode = (System.nanoTime() - start) / (double) COUNT;
+
+            start = System.nanoTime();
+            GeoHashUtil.geohash(lngs, lats, 9, hashes);
+            double geohash = (System.nanoTime() - start) / (double) COUNT;
+
+            int queries = 10_000;
+            int ranges = 0;
+            start = System.nanoTime();
+            for (int i = 0; i < queries; i++) {
+                double lng = lngs[i];
+                double lat = lats[i];
+                ranges += GeoHashUtil.ranges(lng, lat, lng + 0.01, lat + 0.01, 16).length / 2;
+            }
+            double decompose = (System.nanoTime() - start) / 1000.0 / queries;
+
+            System.out.printf("第%d轮 编码 %.1f ns(逐位 %.1f ns), 解码 %.1f ns, geohash(9位) %.1f ns, "
+                            + "约1km矩形分解 %.2f us, 平均 %.1f 段 (%d)%n",
+                    round + 1, encode, loop, decode, geohash, decompose, ranges / (double) queries, check & 1);
+        }
+    }
+
+    private static long bitLoopMorton(double lng, double lat) {
+        long x = Math.min((long) ((lng + 180) / 360 * (1L << 31)), (1L << 31) - 1);
+        long y = Math.min((long) ((lat + 90) / 180 * (1L << 31)), (1L << 31) - 1);
+        long key = 0;
+        for (int bit = 30; bit >= 0; bit--) {
+            key = key << 2 | (x >>> bit & 1) << 1 | (y >>> bit & 1);
+        }
+        return key;
+    }
+}
@@ -0,0 +1,255 @@
+package com.yshebkb.common.gps;
+
+import com.yshebkb.common.gps.polygon.Point;
+import com.yshebkb.common.gps.polygon.PointArray;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author whiteclaw
+ * created on 2026-10-18
+ */
+public class GeoHashUtilTest {
+
+    private static final String BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz";
+
+    /**
+     * 逐位二分的geohash参考实现
+     */
+    private static String referenceGeohash(double lng, double lat, int precision) {
+        double[] lngRange = {-180, 180};
+        double[] latRange = {-90, 90};
+        StringBuilder builder = new StringBuilder();
+        int bits = 0;
+        int value = 0;
+        boolean even = true;
+        while (builder.length() < precision) {
+            double[] range = even ? lngRange : latRange;
+            double coordinate = even ? lng : lat;
+            double mid = (range[0] + range[1]) / 2;
+            value <<= 1;
+            if (coordinate >= mid) {
+                value |= 1;
+                range[0] = mid;
+            } else {
+                range[1] = mid;
+            }
+            even = !even;
+            if (++bits == 5) {
+                builder.append(BASE32.charAt(value));
+                bits = 0;
+                value = 0;
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * 逐位交错的Morton码参考实现
+     */
+    private static long referenceMorton(double lng, double lat) {
+        long x = Math.min((long) ((lng + 180) / 360 * (1L << 31)), (1L << 31) - 1);
+        long y = Math.min((long) ((lat + 90) / 180 * (1L << 31)), (1L << 31) - 1);
+        long key = 0;
+        for (int bit = 30; bit >= 0; bit--) {
+            key = key << 2 | (x >>> bit & 1) << 1 | (y >>> bit & 1);
+        }
+        return key;
+    }
+
+    @Test
+    void encodeMatchesReference() {
+        assertEquals("ezs42", GeoHashUtil.geohash(-5.603, 42.605, 5));
+        Random random = new Random(20190323L);
+        for (int i = 0; i < 20000; i++) {
+            double lng = -180 + random.nextDouble() * 360;
+            double lat = -90 + random.nextDouble() * 180;
+            long key = GeoHashUtil.encodeMorton(lng, lat);
+            assertEquals(referenceMorton(lng, lat), key);
+            assertTrue(key >= 0);
+            int precision = 1 + random.nextInt(GeoHashUtil.MAX_PRECISION);
+            assertEquals(referenceGeohash(lng, lat, precision), GeoHashUtil.geohash(lng, lat, precision));
+
+            Point center = GeoHashUtil.decodeMorton(key);
+            assertEquals(lng, center.getLng(), 2e-7);
+            assertEquals(lat, center.getLat(), 1e-7);
+
+            String geohash = GeoHashUtil.geohash(lng, lat, precision);
+            double[] bounds = GeoHashUtil.geohashBounds(geohash);
+            assertTrue(lng >= bounds[0] && lng <= bounds[2] && lat >= bounds[1] && lat <= bounds[3]);
+            Point decoded = GeoHashUtil.decodeGeohash(geohash);
+            assertEquals(geohash, GeoHashUtil.geohash(decoded, precision));
+        }
+        assertEquals((1L << 62) - 1, GeoHashUtil.encodeMorton(180, 90));
+        assertEquals(0, GeoHashUtil.encodeMorton(-180, -90));
+    }
+
+    @Test
+    void batchMatchesSingle() {
+        Random random = new Random(20190324L);
+        int n = 1000;
+        double[] lngs = new double[n];
+        double[] lats = new double[n];
+        for (int i = 0; i < n; i++) {
+            lngs[i] = 115 + random.nextDouble() * 10;
+            lats[i] = 25 + random.nextDouble() * 10;
+        }
+        long[] keys = new long[n];
+        GeoHashUtil.encodeMorton(lngs, lats, keys);
+        long[] fromPoints = new long[n];
+        GeoHashUtil.encodeMorton(PointArray.of(lngs, lats), fromPoints);
+        assertArrayEquals(keys, fromPoints);
+        String[] hashes = new String[n];
+        GeoHashUtil.geohash(lngs, lats, 9, hashes);
+        double[] outLng = new double[n];
+        double[] outLat = new double[n];
+        GeoHashUtil.decodeMorton(keys, outLng, outLat);
+        for (int i = 0; i < n; i++) {
+            assertEquals(GeoHashUtil.encodeMorton(lngs[i], lats[i]), keys[i]);
+            assertEquals(GeoHashUtil.geohash(lngs[i], lats[i], 9), hashes[i]);
+            Point center = GeoHashUtil.decodeMorton(keys[i]);
+            assertEquals(center.getLng(), outLng[i]);
+            assertEquals(center.getLat(), outLat[i]);
+        }
+        assertThrows(IllegalArgumentException.class, () -> GeoHashUtil.encodeMorton(lngs, new double[1], keys));
+        assertThrows(IllegalArgumentException.class, () -> GeoHashUtil.encodeMorton(181, 0));
+        assertThrows(IllegalArgumentException.class, () -> GeoHashUtil.encodeMorton(0, Double.NaN));
+        assertThrows(IllegalArgumentException.class, () -> GeoHashUtil.geohash(0, 0, 13));
+        assertThrows(IllegalArgumentException.class, () -> GeoHashUtil.decodeGeohash("wx4a"));
+        assertThrows(IllegalArgumentException.class, () -> GeoHashUtil.decodeMorton(-1));
+    }
+
+    @Test
+    void cellsAndNeighbors() {
+        Random random = new Random(20190325L);
+        long[] out = new long[8];
+        for (int i = 0; i < 2000; i++) {
+            double lng = -180 + random.nextDouble() * 360;
+            double lat = -89 + random.nextDouble() * 178;
+            long key = GeoHashUtil.encodeMorton(lng, lat);
+            int level = 1 + random.nextInt(GeoHashUtil.MAX_LEVEL);
+            long cell = GeoHashUtil.cell(key, level);
+            assertEquals(GeoHashUtil.cell(key, level - 1), GeoHashUtil.parent(cell));
+            assertTrue(key >= GeoHashUtil.rangeStart(cell, level) && key <= GeoHashUtil.rangeEnd(cell, level));
+            if (level < GeoHashUtil.MAX_LEVEL) {
+                long child = GeoHashUtil.cell(key, level + 1);
+                assertEquals(child, GeoHashUtil.child(cell, (int) (child & 3)));
+                assertEquals(GeoHashUtil.rangeStart(cell, level), GeoHashUtil.rangeStart(GeoHashUtil.child(cell, 0), level + 1));
+                assertEquals(GeoHashUtil.rangeEnd(cell, level), GeoHashUtil.rangeEnd(GeoHashUtil.child(cell, 3), level + 1));
+            }
+            double[] bounds = GeoHashUtil.cellBounds(cell, level);
+            assertTrue(lng >= bounds[0] && lng <= bounds[2] && lat >= bounds[1] && lat <= bounds[3]);
+
+            long east = GeoHashUtil.neighbor(cell, level, 1, 0);
+            double[] eastBounds = GeoHashUtil.cellBounds(east, level);
+            assertEquals(bounds[2] == 180 ? -180 : bounds[2], eastBounds[0], 1e-9);
+            assertEquals(bounds[1], eastBounds[1], 1e-9);
+            assertEquals(cell, GeoHashUtil.neighbor(east, level, -1, 0));
+            long north = GeoHashUtil.neighbor(cell, level, 0, 1);
+            if (north >= 0) {
+                assertEquals(bounds[3], GeoHashUtil.cellBounds(north, level)[1], 1e-9);
+                assertEquals(cell, GeoHashUtil.neighbor(north, level, 0, -1));
+            }
+            int count = GeoHashUtil.neighbors(cell, level, out);
+            assertTrue(count == 8 || level <= 1 || bounds[1] == -90 || bounds[3] == 90);
+        }
+        // 第1层共4个格子, 每个格子的邻居是另外3个
+        assertEquals(3, GeoHashUtil.neighbors(0, 1, out));
+        assertEquals(0, GeoHashUtil.neighbors(0, 0, out));
+        assertEquals(-1, GeoHashUtil.neighbor(0, 3, 0, -1));
+    }
+
+    @Test
+    void geohashNeighbors() {
+        assertNull(GeoHashUtil.geohashNeighbor("b", 0, 1));
+        Random random = new Random(20190326L);
+        for (int i = 0; i < 2000; i++) {
+            double lng = -180 + random.nextDouble() * 360;
+            double lat = -80 + random.nextDouble() * 160;
+            int precision = 2 + random.nextInt(GeoHashUtil.MAX_PRECISION - 1);
+            String geohash = GeoHashUtil.geohash(lng, lat, precision);
+            double[] bounds = GeoHashUtil.geohashBounds(geohash);
+            double width = bounds[2] - bounds[0];
+            double height = bounds[3] - bounds[1];
+            List<String> neighbors = GeoHashUtil.geohashNeighbors(geohash);
+            assertEquals(8, neighbors.size());
+            for (int dy = -1; dy <= 1; dy++) {
+                for (int dx = -1; dx <= 1; dx++) {
+                    if (dx == 0 && dy == 0) {
+                        continue;
+                    }
+                    double x = bounds[0] + width * (dx + 0.5);
+                    x = x >= 180 ? x - 360 : x < -180 ? x + 360 : x;
+                    String expected = GeoHashUtil.geohash(x, bounds[1] + height * (dy + 0.5), precision);
+                    assertEquals(expected, GeoHashUtil.geohashNeighbor(geohash, dx, dy));
+                    assertTrue(neighbors.contains(expected));
+                }
+            }
+        }
+    }
+
+    private static boolean covered(long[] ranges, long key) {
+        for (int i = 0; i < ranges.length; i += 2) {
+            if (key >= ranges[i] && key <= ranges[i + 1]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Test
+    void rangesCoverBox() {
+        Random random = new Random(20190327L);
+        for (int i = 0; i < 300; i++) {
+            double width = Math.pow(10, -4 + random.nextDouble() * 5);
+            double height = Math.pow(10, -4 + random.nextDouble() * 5);
+            double minLng = -170 + random.nextDouble() * 330;
+            double minLat = -80 + random.nextDouble() * 150;
+            double maxLng = minLng + width;
+            double maxLat = minLat + height;
+            int maxRanges = 1 + random.nextInt(64);
+            long[] ranges = GeoHashUtil.ranges(minLng, minLat, maxLng, maxLat, maxRanges);
+            assertTrue(ranges.length >= 2 && ranges.length / 2 <= maxRanges);
+            for (int k = 0; k < ranges.length; k += 2) {
+                assertTrue(ranges[k] <= ranges[k + 1]);
+                if (k > 0) {
+                    assertTrue(ranges[k] > ranges[k - 1] + 1);
+                }
+            }
+            for (int k = 0; k < 200; k++) {
+                double lng = minLng + random.nextDouble() * width;
+                double lat = minLat + random.nextDouble() * height;
+                assertTrue(covered(ranges, GeoHashUtil.encodeMorton(lng, lat)));
+            }
+            assertTrue(covered(ranges, GeoHashUtil.encodeMorton(minLng, minLat)));
+            assertTrue(covered(ranges, GeoHashUtil.encodeMorton(maxLng, maxLat)));
+
+            // 段数足够多时, 覆盖的范围不会离矩形太远
+            if (maxRanges >= 32) {
+                double size = Math.max(width, height);
+                for (int k = 0; k < 200; k++) {
+                    double lng = minLng - 4 * size + random.nextDouble() * (width + 8 * size);
+                    double lat = minLat - 4 * size + random.nextDouble() * (height + 8 * size);
+                    boolean far = lng < minLng - 2.5 * size || lng > maxLng + 2.5 * size
+                            || lat < minLat - 2.5 * size || lat > maxLat + 2.5 * size;
+                    if (far && lat > -90 && lat < 90 && lng > -180 && lng < 180) {
+                        assertFalse(covered(ranges, GeoHashUtil.encodeMorton(lng, lat)));
+                    }
+                }
+            }
+        }
+        assertArrayEquals(new long[]{0, (1L << 62) - 1}, GeoHashUtil.ranges(-180, -90, 180, 90, 1));
+        assertEquals(2, GeoHashUtil.ranges(120, 30, 120, 30, 4).length);
+        assertThrows(IllegalArgumentException.class, () -> GeoHashUtil.ranges(1, 0, 0, 0, 4));
+        assertThrows(IllegalArgumentException.class, () -> GeoHashUtil.ranges(0, 0, 1, 1, 0));
+    }
+}
@@ -0,0 +1,59 @@
+package com.yshebkb.common.gps;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * 热力图统计的耗时: 逐点转换后放进HashMap&lt;String, Integer&gt;, 单线程HeatMap和并行HeatMap
+ *
+ * @author whiteclaw
+ * created on 2026-10-18
+ */
+public class HeatMapBenchmark {
+
+    private static final int COUNT = 2_000_000;
+    private static final int ROUNDS = 5;
+    private static final int ZOOM = 12;
+
+    public static void main(String[] args) {
+        double[][] fixes = HeatMapTest.randomFixes(new Random(20190402L), COUNT);
+        double[] lngs = fixes[0];
+        double[] lats = fixes[1];
+        HeatMap.CoordinateTransform transform = (x, y, length) ->
+                CoordinateTransformUtil.wgs84ToGCJ02(y, x, y, x, 0, length);
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        System.out.println("并行度 " + pool.getParallelism());
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            Map<String, Integer> legacy = new HashMap<>();
+            for (int i = 0; i < COUNT; i++) {
+                double[] gcj = CoordinateTransformUtil.wgs84ToGCJ02(lats[i], lngs[i]);
+                String key = TileUtil.tileX(gcj[1], ZOOM) + "," + TileUtil.tileY(gcj[0], ZOOM) + ","
+                        + TileUtil.pixelX(gcj[1], ZOOM) + "," + TileUtil.pixelY(gcj[0], ZOOM);
+                legacy.merge(key, 1, Integer::sum);
+            }
+            double legacyNs = (System.nanoTime() - start) / (double) COUNT;
+
+            start = System.nanoTime();
+            HeatMap sequential = HeatMap.builder().zoom(ZOOM).transform(transform).build();
+            sequential.add(lngs, lats);
+            double sequentialNs = (System.nanoTime() - start) / (double) COUNT;
+
+            start = System.nanoTime();
+            HeatMap parallel = HeatMap.builder().zoom(ZOOM).transform(transform).build();
+            parallel.add(lngs, lats, pool);
+            double parallelNs = (System.nanoTime() - start) / (double) COUNT;
+
+            start = System.nanoTime();
+            HeatMap plain = HeatMap.builder().zoom(ZOOM).build();
+            plain.add(lngs, lats, pool);
+            double plainNs = (System.nanoTime() - start) / (double) COUNT;
+
+            System.out.printf("第%d轮 HashMap %.1f ns/点(%d格), HeatMap单线程 %.1f ns/点, 并行 %.1f ns/点(%d瓦片), "
+                            + "不转换坐标 %.1f ns/点%n",
+                    round + 1, legacyNs, legacy.size(), sequentialNs, parallelNs, parallel.getTileCount(), plainNs);
+        }
+    }
+}
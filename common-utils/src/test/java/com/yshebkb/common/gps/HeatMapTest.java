@@ -0,0 +1,199 @@
+package com.yshebkb.common.gps;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * @author whiteclaw
+ * created on 2026-10-18
+ */
+public class HeatMapTest {
+
+    /**
+     * 城市附近聚集的点, 模拟轨迹
+     */
+    static double[][] randomFixes(Random random, int count) {
+        double[] lngs = new double[count];
+        double[] lats = new double[count];
+        double lng = 116.4;
+        double lat = 39.9;
+        for (int i = 0; i < count; i++) {
+            if (random.nextInt(100) == 0) {
+                lng = 116 + random.nextDouble();
+                lat = 39.5 + random.nextDouble();
+            }
+            lng += (random.nextDouble() - 0.5) * 0.002;
+            lat += (random.nextDouble() - 0.5) * 0.002;
+            lngs[i] = lng;
+            lats[i] = lat;
+        }
+        return new double[][]{lngs, lats};
+    }
+
+    /**
+     * 逐点计算像素, 放进HashMap&lt;String, Integer&gt;的参考实现
+     */
+    private static Map<String, Integer> reference(double[] lngs, double[] lats, int zoom) {
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < lngs.length; i++) {
+            String key = TileUtil.tileX(lngs[i], zoom) + "," + TileUtil.tileY(lats[i], zoom) + ","
+                    + TileUtil.pixelX(lngs[i], zoom) + "," + TileUtil.pixelY(lats[i], zoom);
+            counts.merge(key, 1, Integer::sum);
+        }
+        return counts;
+    }
+
+    private static Map<String, Integer> toMap(HeatMap heatMap) {
+        Map<String, Integer> counts = new HashMap<>();
+        int resolution = heatMap.getResolution();
+        for (HeatMap.Grid grid : heatMap.getGrids()) {
+            for (int row = 0; row < resolution; row++) {
+                for (int col = 0; col < resolution; col++) {
+                    long count = grid.get(col, row);
+                    if (count > 0) {
+                        counts.put(grid.getX() + "," + grid.getY() + "," + col + "," + row, (int) count);
+                    }
+                }
+            }
+        }
+        return counts;
+    }
+
+    @Test
+    void countsMatchReference() {
+        Random random = new Random(20190330L);
+        double[][] fixes = randomFixes(random, 200_000);
+        HeatMap heatMap = HeatMap.builder().zoom(14).build();
+        heatMap.add(fixes[0], fixes[1]);
+        assertEquals(reference(fixes[0], fixes[1], 14), toMap(heatMap));
+        assertEquals(200_000, heatMap.getTotal());
+        long sum = 0;
+        for (HeatMap.Grid grid : heatMap.getGrids()) {
+            sum += grid.getTotal();
+        }
+        assertEquals(200_000, sum);
+
+        // 每个瓦片一个格子时就是瓦片计数
+        HeatMap coarse = HeatMap.builder().zoom(12).resolution(1).build();
+        coarse.add(fixes[0], fixes[1]);
+        for (int i = 0; i < 100; i++) {
+            HeatMap.Grid grid = coarse.getGrid(TileUtil.tileX(fixes[0][i], 12), TileUtil.tileY(fixes[1][i], 12));
+            assertEquals(grid.getTotal(), grid.get(0, 0));
+        }
+    }
+
+    @Test
+    void parallelAndIncrementalMatchSequential() {
+        Random random = new Random(20190331L);
+        double[][] fixes = randomFixes(random, 300_000);
+        HeatMap sequential = HeatMap.builder().zoom(13).resolution(64).build();
+        sequential.add(fixes[0], fixes[1]);
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            HeatMap parallel = HeatMap.builder().zoom(13).resolution(64).build();
+            parallel.add(fixes[0], fixes[1], pool);
+            assertEquals(toMap(sequential), toMap(parallel));
+
+            // 分批累加
+            HeatMap incremental = HeatMap.builder().zoom(13).resolution(64).longCounts().build();
+            incremental.add(fixes[0], fixes[1], 0, 100_000);
+            incremental.add(fixes[0], fixes[1], 100_000, 100_000);
+            double[] lngs = new double[100_000];
+            double[] lats = new double[100_000];
+            System.arraycopy(fixes[0], 200_000, lngs, 0, lngs.length);
+            System.arraycopy(fixes[1], 200_000, lats, 0, lats.length);
+            incremental.add(lngs, lats, pool);
+            assertEquals(toMap(sequential), toMap(incremental));
+            assertEquals(300_000, incremental.getTotal());
+
+            HeatMap merged = HeatMap.builder().zoom(13).resolution(64).build();
+            merged.merge(parallel);
+            merged.merge(parallel);
+            assertEquals(600_000, merged.getTotal());
+            for (HeatMap.Grid grid : sequential.getGrids()) {
+                HeatMap.Grid other = merged.getGrid(grid.getX(), grid.getY());
+                assertEquals(2 * grid.getTotal(), other.getTotal());
+                assertEquals(2 * grid.getMax(), other.getMax());
+            }
+            assertThrows(IllegalArgumentException.class, () -> merged.merge(incremental));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void transformIsAppliedToCopies() {
+        Random random = new Random(20190401L);
+        double[][] fixes = randomFixes(random, 100_000);
+        double[] lngs = fixes[0].clone();
+        double[] lats = fixes[1].clone();
+        HeatMap heatMap = HeatMap.builder().zoom(15).transform((x, y, length) ->
+                CoordinateTransformUtil.wgs84ToGCJ02(y, x, y, x, 0, length)).build();
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            heatMap.add(lngs, lats, pool);
+        } finally {
+            pool.shutdown();
+        }
+        assertArrayEquals(fixes[0], lngs);
+        assertArrayEquals(fixes[1], lats);
+
+        // 逐点累加与批量累加结果相同
+        HeatMap pointByPoint = HeatMap.builder().zoom(15).transform((x, y, length) ->
+                CoordinateTransformUtil.wgs84ToGCJ02(y, x, y, x, 0, length)).build();
+        for (int i = 0; i < lngs.length; i++) {
+            pointByPoint.add(lngs[i], lats[i]);
+        }
+        assertEquals(toMap(heatMap), toMap(pointByPoint));
+        assertEquals(heatMap.getTotal(), pointByPoint.getTotal());
+
+        CoordinateTransformUtil.wgs84ToGCJ02(lats, lngs);
+        HeatMap converted = HeatMap.builder().zoom(15).build();
+        converted.add(lngs, lats);
+        assertEquals(toMap(converted), toMap(heatMap));
+        HeatMap convertedPoints = HeatMap.builder().zoom(15).build();
+        for (int i = 0; i < lngs.length; i++) {
+            convertedPoints.add(lngs[i], lats[i]);
+        }
+        assertEquals(toMap(converted), toMap(convertedPoints));
+    }
+
+    @Test
+    void droppedAndArguments() {
+        HeatMap heatMap = HeatMap.builder().zoom(2).resolution(4).build();
+        heatMap.add(new double[]{0, 0, 181, Double.NaN, 180, -180}, new double[]{0, 86, 0, 0, 85, -85});
+        assertEquals(6, heatMap.getTotal());
+        assertEquals(3, heatMap.getDroppedCount());
+        assertEquals(3, heatMap.getTileCount());
+        assertEquals(1, heatMap.getGrid(2, 2).get(0, 0));
+        assertEquals(1, heatMap.getGrid(3, 0).get(3, 0));
+        assertEquals(1, heatMap.getGrid(0, 3).get(0, 3));
+        assertNull(heatMap.getGrid(1, 1));
+        List<HeatMap.Grid> grids = heatMap.getGrids();
+        assertEquals(0, grids.get(0).getX());
+        assertArrayEquals(new double[]{0, -66.51326044311186, 90, 0}, grids.get(1).getBounds(), 1e-9);
+
+        heatMap.add(10, 10);
+        assertEquals(7, heatMap.getTotal());
+        heatMap.clear();
+        assertEquals(0, heatMap.getTileCount());
+        assertEquals(0, heatMap.getTotal());
+
+        assertThrows(IllegalArgumentException.class, () -> HeatMap.builder().build());
+        assertThrows(IllegalArgumentException.class, () -> HeatMap.builder().zoom(3).resolution(3));
+        assertThrows(IllegalArgumentException.class, () -> HeatMap.builder().zoom(31));
+        assertThrows(IllegalArgumentException.class, () -> heatMap.add(new double[2], new double[1]));
+        assertThrows(IndexOutOfBoundsException.class, () -> heatMap.add(new double[2], new double[2], 1, 2));
+    }
+}
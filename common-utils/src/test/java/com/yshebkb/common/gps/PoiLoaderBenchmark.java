@@ -0,0 +1,63 @@
+package com.yshebkb.common.gps;
+
+import java.io.BufferedReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * POI文件加载的吞吐量(MB/s): {@link PoiLoader}与逐行split、Double.parseDouble的做法对比
+ *
+ * @author whiteclaw
+ * created on 2026-10-18
+ */
+public class PoiLoaderBenchmark {
+
+    private static final int COPIES = 2000;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws Exception {
+        byte[] poi = PoiLoaderTest.readPoiCsv();
+        Path path = Files.createTempFile("poi", ".csv");
+        try {
+            try (OutputStream out = Files.newOutputStream(path)) {
+                for (int i = 0; i < COPIES; i++) {
+                    out.write(poi);
+                }
+            }
+            double megabytes = Files.size(path) / 1024.0 / 1024.0;
+            System.out.printf("文件 %.1f MB, 处理器 %d%n", megabytes, Runtime.getRuntime().availableProcessors());
+
+            for (int round = 0; round < ROUNDS; round++) {
+                long start = System.nanoTime();
+                int legacy = legacyLoad(path);
+                long legacyNanos = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                List<PoiLoader.Poi> pois = PoiLoader.load(path);
+                long loaderNanos = System.nanoTime() - start;
+
+                System.out.printf("第%d轮 split: %.1f MB/s, PoiLoader: %.1f MB/s (%d/%d)%n", round + 1,
+                        megabytes / (legacyNanos / 1e9), megabytes / (loaderNanos / 1e9), legacy, pois.size());
+            }
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    private static int legacyLoad(Path path) throws Exception {
+        int count = 0;
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            StringBuilder content = new StringBuilder();
+            while ((line = reader.readLine()) != null) {
+                content.setLength(0);
+                content.append(line);
+                count += PoiLoaderTest.legacyLoad(content.toString()).size();
+            }
+        }
+        return count;
+    }
+}
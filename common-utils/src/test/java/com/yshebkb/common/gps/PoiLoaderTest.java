@@ -0,0 +1,130 @@
+package com.yshebkb.common.gps;
+
+import com.yshebkb.common.gps.polygon.PointArray;
+import com.yshebkb.common.gps.polygon.Polygon;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author whiteclaw
+ * created on 2026-10-18
+ */
+public class PoiLoaderTest {
+
+    static byte[] readPoiCsv() throws Exception {
+        try (InputStream in = PoiLoaderTest.class.getClassLoader().getResourceAsStream("poi.csv")) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        }
+    }
+
+    /**
+     * 用String.split和Double.parseDouble逐行解析, 作为对照
+     */
+    static List<PoiLoader.Poi> legacyLoad(String content) {
+        List<PoiLoader.Poi> result = new ArrayList<>();
+        for (String line : content.split("\n")) {
+            String[] columns = line.split("\t");
+            String[] parts = columns[1].split("\\|");
+            String ring = parts[2].substring(parts[2].indexOf('-') + 1).replace(";", "");
+            String[] values = ring.split(",");
+            PointArray points = PointArray.create(values.length / 2);
+            for (int i = 0; i + 1 < values.length; i += 2) {
+                points.add(Double.parseDouble(values[i]), Double.parseDouble(values[i + 1]));
+            }
+            BaiduMapTrans.trans(points);
+            result.add(new PoiLoader.Poi(Long.parseLong(columns[0]), Integer.parseInt(parts[0]),
+                    Polygon.Builder().addVertices(points).build()));
+        }
+        return result;
+    }
+
+    private static void assertSame(List<PoiLoader.Poi> expected, List<PoiLoader.Poi> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getId(), actual.get(i).getId());
+            assertEquals(expected.get(i).getType(), actual.get(i).getType());
+            PointArray a = expected.get(i).getPolygon().getRing(0);
+            PointArray b = actual.get(i).getPolygon().getRing(0);
+            assertEquals(a.size(), b.size());
+            for (int k = 0; k < a.size(); k++) {
+                assertEquals(a.getLng(k), b.getLng(k));
+                assertEquals(a.getLat(k), b.getLat(k));
+            }
+        }
+    }
+
+    @Test
+    void matchesLegacyParsing() throws Exception {
+        byte[] bytes = readPoiCsv();
+        List<PoiLoader.Poi> expected = legacyLoad(new String(bytes, StandardCharsets.UTF_8));
+        assertEquals(81, expected.size());
+
+        Path path = Files.createTempFile("poi", ".csv");
+        try {
+            Files.write(path, bytes);
+            assertSame(expected, PoiLoader.load(path));
+        } finally {
+            Files.delete(path);
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int chunks = 1; chunks <= 100; chunks += 9) {
+                assertSame(expected, PoiLoader.load(ByteBuffer.wrap(bytes), pool, chunks));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void lineEndingsAndHoles() {
+        String content = "\r\n7\t4|0,0;0,0|1-12000000,4000000,12100000,4000000,12100000,4100000,12000000,4100000;"
+                + "1-12040000,4040000,12060000,4040000,12060000,4060000,12040000,4060000;\r\n"
+                + "8\t2|x|1-12000000.5,4000000,12000100,4000000,12000000,4000100.25\r\n\r\n";
+        List<PoiLoader.Poi> pois = PoiLoader.load(ByteBuffer.wrap(content.getBytes(StandardCharsets.US_ASCII)),
+                ForkJoinPool.commonPool());
+        assertEquals(2, pois.size());
+        Polygon square = pois.get(0).getPolygon();
+        assertEquals(7, pois.get(0).getId());
+        assertEquals(2, square.getRingCount());
+        assertTrue(square.isHole(1));
+        double holeX = (square.getRingMinX(1) + square.getRingMaxX(1)) / 2;
+        double holeY = (square.getRingMinY(1) + square.getRingMaxY(1)) / 2;
+        assertFalse(square.contains(holeX, holeY));
+        assertTrue(square.contains((square.getMinX() + holeX) / 2, holeY));
+
+        assertEquals(8, pois.get(1).getId());
+        assertEquals(2, pois.get(1).getType());
+        assertEquals(3, pois.get(1).getPolygon().getVertexCount());
+        assertEquals(BaiduMapTrans.trans(12000000.5, 4000000).getLng(), pois.get(1).getPolygon().getRing(0).getLng(0));
+    }
+
+    @Test
+    void malformedLine() {
+        byte[] bytes = "1\t4|0,0;0,0|1-12000000,4000000,12000100\n".getBytes(StandardCharsets.US_ASCII);
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> PoiLoader.load(ByteBuffer.wrap(bytes), ForkJoinPool.commonPool()));
+        assertTrue(e.getMessage().contains("39"));
+    }
+}
@@ -0,0 +1,89 @@
+package com.yshebkb.common.gps;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.yshebkb.common.gps.polygon.Point;
+import com.yshebkb.common.gps.polygon.PointArray;
+import com.yshebkb.common.obj.JacksonUtil;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * 编码折线与JacksonUtil序列化轨迹的耗时和大小
+ *
+ * @author whiteclaw
+ * created on 2026-10-18
+ */
+public class PolylineBenchmark {
+
+    private static final int TRACKS = 1000;
+    private static final int POINTS = 1000;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        Random random = new Random(20190405L);
+        List<List<Point>> tracks = new ArrayList<>(TRACKS);
+        double[][] lngs = new double[TRACKS][POINTS];
+        double[][] lats = new double[TRACKS][POINTS];
+        for (int t = 0; t < TRACKS; t++) {
+            tracks.add(PolylineCodecTest.randomTrack(random, POINTS));
+            for (int i = 0; i < POINTS; i++) {
+                lngs[t][i] = tracks.get(t).get(i).getLng();
+                lats[t][i] = tracks.get(t).get(i).getLat();
+            }
+        }
+        PolylineCodec codec = PolylineCodec.getDefault();
+        TypeReference<List<Map<String, Double>>> type = new TypeReference<List<Map<String, Double>>>() {
+        };
+        ByteBuffer buffer = ByteBuffer.allocate(codec.maxEncodedLength(POINTS));
+        double points = (double) TRACKS * POINTS;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            long jsonBytes = 0;
+            String[] json = new String[TRACKS];
+            for (int t = 0; t < TRACKS; t++) {
+                json[t] = JacksonUtil.obj2Json(tracks.get(t));
+                jsonBytes += json[t].length();
+            }
+            double jsonEncode = (System.nanoTime() - start) / points;
+
+            start = System.nanoTime();
+            long check = 0;
+            for (int t = 0; t < TRACKS; t++) {
+                check += JacksonUtil.json2Obj(json[t], type).size();
+            }
+            double jsonDecode = (System.nanoTime() - start) / points;
+
+            start = System.nanoTime();
+            long polylineBytes = 0;
+            byte[][] encoded = new byte[TRACKS][];
+            for (int t = 0; t < TRACKS; t++) {
+                encoded[t] = codec.encode(tracks.get(t));
+                polylineBytes += encoded[t].length;
+            }
+            double listEncode = (System.nanoTime() - start) / points;
+
+            start = System.nanoTime();
+            for (int t = 0; t < TRACKS; t++) {
+                buffer.clear();
+                check += codec.encode(lngs[t], lats[t], buffer);
+            }
+            double arrayEncode = (System.nanoTime() - start) / points;
+
+            start = System.nanoTime();
+            for (int t = 0; t < TRACKS; t++) {
+                PointArray decoded = codec.decode(encoded[t]);
+                check += decoded.size();
+            }
+            double decode = (System.nanoTime() - start) / points;
+
+            System.out.printf("第%d轮 JSON 编码 %.1f ns/点 解码 %.1f ns/点 %.1f 字节/点; "
+                            + "折线 编码(List) %.1f ns/点 编码(数组) %.1f ns/点 解码 %.1f ns/点 %.1f 字节/点 (%d)%n",
+                    round + 1, jsonEncode, jsonDecode, jsonBytes / points,
+                    listEncode, arrayEncode, decode, polylineBytes / points, check & 1);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.yshebkb.common.gps;
+
+import com.yshebkb.common.gps.polygon.Point;
+import com.yshebkb.common.gps.polygon.PointArray;
+import org.junit.jupiter.api.Test;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author whiteclaw
+ * created on 2026-10-18
+ */
+public class PolylineCodecTest {
+
+    /**
+     * 轨迹, 每步约10到100米
+     */
+    static List<Point> randomTrack(Random random, int count) {
+        List<Point> points = new ArrayList<>(count);
+        double lng = 116 + random.nextDouble();
+        double lat = 39.5 + random.nextDouble();
+        for (int i = 0; i < count; i++) {
+            lng += (random.nextDouble() - 0.5) * 0.002;
+            lat += (random.nextDouble() - 0.5) * 0.002;
+            points.add(new Point(lng, lat));
+        }
+        return points;
+    }
+
+    @Test
+    void googleExample() {
+        List<Point> points = Arrays.asList(new Point(-120.2, 38.5), new Point(-120.95, 40.7), new Point(-126.453, 43.252));
+        String encoded = "_p~iF~ps|U_ulLnnqC_mqNvxq`@";
+        PolylineCodec codec = PolylineCodec.getDefault();
+        assertEquals(encoded, codec.encodeToString(points));
+        PointArray decoded = codec.decode(encoded);
+        assertEquals(3, decoded.size());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(points.get(i).getLng(), decoded.getLng(i), 1e-9);
+            assertEquals(points.get(i).getLat(), decoded.getLat(i), 1e-9);
+        }
+        assertEquals(3, PolylineCodec.count(encoded.getBytes(StandardCharsets.US_ASCII)));
+        assertEquals(0, codec.decode(new byte[0]).size());
+    }
+
+    @Test
+    void roundTrip() {
+        Random random = new Random(20190403L);
+        for (int precision = 0; precision <= PolylineCodec.MAX_PRECISION; precision++) {
+            PolylineCodec codec = new PolylineCodec(precision);
+            double tolerance = 0.5 / Math.pow(10, precision) + 1e-12;
+            List<Point> points = randomTrack(random, 1000);
+            // 加入跨越180度经线和大跨度的点
+            points.add(new Point(179.99999, 10));
+            points.add(new Point(-179.99999, -89.5));
+            points.add(new Point(180, 90));
+            int n = points.size();
+            double[] lngs = new double[n];
+            double[] lats = new double[n];
+            PointArray array = PointArray.create();
+            for (int i = 0; i < n; i++) {
+                lngs[i] = points.get(i).getLng();
+                lats[i] = points.get(i).getLat();
+                array.add(points.get(i));
+            }
+            byte[] encoded = codec.encode(points);
+            assertTrue(encoded.length <= codec.maxEncodedLength(n));
+            assertArrayEquals(encoded, codec.encode(array));
+            assertArrayEquals(encoded, codec.encode(lngs, lats));
+
+            PointArray decoded = codec.decode(encoded);
+            double[] outLng = new double[n];
+            double[] outLat = new double[n];
+            assertEquals(n, codec.decode(encoded, outLng, outLat));
+            assertEquals(n, decoded.size());
+            for (int i = 0; i < n; i++) {
+                assertEquals(lngs[i], decoded.getLng(i), tolerance);
+                assertEquals(lats[i], decoded.getLat(i), tolerance);
+                assertEquals(decoded.getLng(i), outLng[i]);
+                assertEquals(decoded.getLat(i), outLat[i]);
+            }
+            // 重新编码解码后的点得到相同的字节
+            assertArrayEquals(encoded, codec.encode(decoded));
+        }
+    }
+
+    @Test
+    void buffersAndOffsets() {
+        Random random = new Random(20190404L);
+        PolylineCodec codec = new PolylineCodec(6);
+        List<Point> points = randomTrack(random, 500);
+        double[] lngs = new double[points.size()];
+        double[] lats = new double[points.size()];
+        for (int i = 0; i < lngs.length; i++) {
+            lngs[i] = points.get(i).getLng();
+            lats[i] = points.get(i).getLat();
+        }
+        byte[] encoded = codec.encode(lngs, lats);
+
+        for (ByteBuffer buffer : new ByteBuffer[]{ByteBuffer.allocate(10_000), ByteBuffer.allocateDirect(10_000),
+                ByteBuffer.allocate(encoded.length + 10)}) {
+            buffer.put((byte) 'x');
+            assertEquals(encoded.length, codec.encode(lngs, lats, buffer));
+            assertEquals(encoded.length + 1, buffer.position());
+            buffer.flip();
+            buffer.get();
+            PointArray decoded = codec.decode(buffer);
+            assertEquals(lngs.length, decoded.size());
+            assertEquals(0, buffer.remaining());
+            assertArrayEquals(encoded, codec.encode(decoded));
+        }
+        ByteBuffer small = ByteBuffer.allocate(encoded.length - 1);
+        assertThrows(BufferOverflowException.class, () -> codec.encode(lngs, lats, small));
+        assertEquals(0, small.position());
+
+        // 写入数组中间, 只编码一部分点
+        byte[] out = new byte[encoded.length];
+        int written = codec.encode(lngs, lats, 0, 100, out, 3);
+        PointArray compact = PointArray.compact(100);
+        assertEquals(100, codec.decode(out, 3, written, compact));
+        for (int i = 0; i < 100; i++) {
+            assertEquals(lngs[i], compact.getLng(i), 1e-6);
+            assertEquals(lats[i], compact.getLat(i), 1e-6);
+        }
+        assertThrows(IndexOutOfBoundsException.class, () -> codec.encode(lngs, lats, 0, lngs.length, new byte[10], 0));
+        assertThrows(IndexOutOfBoundsException.class, () -> codec.encode(lngs, lats, 1, lngs.length, out, 0));
+    }
+
+    @Test
+    void malformedInput() {
+        PolylineCodec codec = PolylineCodec.getDefault();
+        // 只有纬度
+        assertThrows(IllegalArgumentException.class, () -> codec.decode("_p~iF"));
+        // 最后一个值不完整
+        assertThrows(IllegalArgumentException.class, () -> codec.decode("_p~iF~ps|"));
+        // 非法字符
+        assertThrows(IllegalArgumentException.class, () -> codec.decode("_p~iF~ps U"));
+        assertThrows(IllegalArgumentException.class, () -> codec.decode("_p~iF~ps中U"));
+        // 13个延续字节后才结束的数值超出long的范围
+        String overlong = "_p~iF" + String.join("", Collections.nCopies(13, "_")) + "?";
+        assertThrows(IllegalArgumentException.class, () -> codec.decode(overlong));
+        assertThrows(IllegalArgumentException.class,
+                () -> codec.decode(overlong.getBytes(StandardCharsets.US_ASCII), new double[1], new double[1]));
+        assertThrows(IndexOutOfBoundsException.class,
+                () -> codec.decode("_p~iF~ps|U_ulLnnqC".getBytes(StandardCharsets.US_ASCII), new double[1], new double[1]));
+        assertThrows(IllegalArgumentException.class, () -> codec.encode(new double[]{200}, new double[]{0}));
+        assertThrows(IllegalArgumentException.class, () -> codec.encode(new double[]{1}, new double[0]));
+        assertThrows(IllegalArgumentException.class, () -> new PolylineCodec(10));
+    }
+}
@@ -0,0 +1,89 @@
+package com.yshebkb.common.gps;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author whiteclaw
+ * created on 2026-10-18
+ */
+public class TileUtilTest {
+
+    /**
+     * OSM文档中的瓦片公式
+     */
+    static int referenceTileX(double lng, int zoom) {
+        return (int) Math.floor((lng + 180) / 360 * (1 << zoom));
+    }
+
+    static int referenceTileY(double lat, int zoom) {
+        double rad = Math.toRadians(lat);
+        return (int) Math.floor((1 - Math.log(Math.tan(rad) + 1 / Math.cos(rad)) / Math.PI) / 2 * (1 << zoom));
+    }
+
+    @Test
+    void tilesMatchReference() {
+        assertEquals(0, TileUtil.tileX(0, 0));
+        assertEquals(1, TileUtil.tileX(0, 1));
+        assertEquals(1, TileUtil.tileY(0, 1));
+        assertEquals(0, TileUtil.tileY(10, 1));
+        // 天安门
+        assertEquals(843, TileUtil.tileX(116.3975, 10));
+        assertEquals(388, TileUtil.tileY(39.9087, 10));
+
+        Random random = new Random(20190329L);
+        for (int i = 0; i < 20000; i++) {
+            double lng = -180 + random.nextDouble() * 360;
+            double lat = -85 + random.nextDouble() * 170;
+            int zoom = random.nextInt(21);
+            int x = TileUtil.tileX(lng, zoom);
+            int y = TileUtil.tileY(lat, zoom);
+            assertEquals(referenceTileX(lng, zoom), x);
+            assertEquals(referenceTileY(lat, zoom), y);
+
+            double worldX = TileUtil.worldX(lng, zoom);
+            double worldY = TileUtil.worldY(lat, zoom);
+            assertEquals((int) Math.floor(worldX) & 255, TileUtil.pixelX(lng, zoom));
+            assertEquals((int) Math.floor(worldY) & 255, TileUtil.pixelY(lat, zoom));
+            assertEquals(lng, TileUtil.lng(worldX, zoom), 1e-9);
+            assertEquals(lat, TileUtil.lat(worldY, zoom), 1e-9);
+
+            double[] bounds = TileUtil.tileBounds(x, y, zoom);
+            assertTrue(lng >= bounds[0] && lng <= bounds[2] && lat >= bounds[1] && lat <= bounds[3]);
+            long key = TileUtil.tileKey(x, y);
+            assertEquals(x, TileUtil.keyX(key));
+            assertEquals(y, TileUtil.keyY(key));
+        }
+    }
+
+    @Test
+    void edges() {
+        assertEquals(1023, TileUtil.tileX(180, 10));
+        assertEquals(255, TileUtil.pixelX(180, 10));
+        assertEquals(0, TileUtil.tileY(89, 10));
+        assertEquals(1023, TileUtil.tileY(-89, 10));
+        assertEquals(TileUtil.MAX_LATITUDE, TileUtil.tileBounds(0, 0, 0)[3], 1e-9);
+        assertEquals(-TileUtil.MAX_LATITUDE, TileUtil.tileBounds(0, 0, 0)[1], 1e-9);
+        assertEquals(Integer.MAX_VALUE, TileUtil.keyX(TileUtil.tileKey(Integer.MAX_VALUE, (1 << 30) - 1)));
+        assertEquals((1 << 30) - 1, TileUtil.keyY(TileUtil.tileKey(Integer.MAX_VALUE, (1 << 30) - 1)));
+
+        double[] lngs = {116.3975, 0};
+        double[] lats = {39.9087, 0};
+        double[] outX = new double[2];
+        double[] outY = new double[2];
+        TileUtil.worldXY(lngs, lats, 3, outX, outY);
+        assertEquals(TileUtil.worldX(116.3975, 3), outX[0]);
+        assertEquals(TileUtil.worldY(39.9087, 3), outY[0]);
+        assertEquals(1024, outX[1]);
+        assertEquals(1024, outY[1], 1e-9);
+
+        assertThrows(IllegalArgumentException.class, () -> TileUtil.tileX(0, 31));
+        assertThrows(IllegalArgumentException.class, () -> TileUtil.tileBounds(2, 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> TileUtil.worldXY(lngs, new double[1], 3, outX, outY));
+    }
+}
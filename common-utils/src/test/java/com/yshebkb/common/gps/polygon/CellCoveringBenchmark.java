@@ -0,0 +1,70 @@
+package com.yshebkb.common.gps.polygon;
+
+import java.util.Random;
+
+/**
+ * 不同深度的网格覆盖的内存、构建耗时、命中率和查询耗时, 用来选择深度
+ *
+ * @author whiteclaw
+ * created on 2026-10-18
+ */
+public class CellCoveringBenchmark {
+
+    private static final int QUERIES = 2_000_000;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        Random random = new Random(20190130L);
+        Polygon polygon = PolygonPrepareBenchmark.district(random, 2_000).prepare();
+        double[] xs = new double[QUERIES];
+        double[] ys = new double[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            xs[i] = polygon.getMinX() + random.nextDouble() * (polygon.getMaxX() - polygon.getMinX());
+            ys[i] = polygon.getMinY() + random.nextDouble() * (polygon.getMaxY() - polygon.getMinY());
+        }
+
+        double plainNs = Double.MAX_VALUE;
+        int expected = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            expected = 0;
+            long start = System.nanoTime();
+            for (int i = 0; i < QUERIES; i++) {
+                if (polygon.contains(xs[i], ys[i])) {
+                    expected++;
+                }
+            }
+            plainNs = Math.min(plainNs, (double) (System.nanoTime() - start) / QUERIES);
+        }
+        System.out.printf("prepared polygon %6.1f ns/query%n", plainNs);
+
+        for (int depth = 2; depth <= 12; depth += 2) {
+            long start = System.nanoTime();
+            CellCovering covering = new CellCovering(polygon, depth);
+            double buildMs = (System.nanoTime() - start) / 1e6;
+            double queryNs = Double.MAX_VALUE;
+            for (int round = 0; round < ROUNDS; round++) {
+                int inside = 0;
+                start = System.nanoTime();
+                for (int i = 0; i < QUERIES; i++) {
+                    if (covering.contains(xs[i], ys[i])) {
+                        inside++;
+                    }
+                }
+                queryNs = Math.min(queryNs, (double) (System.nanoTime() - start) / QUERIES);
+                if (inside != expected) {
+                    throw new IllegalStateException("covering gives different results");
+                }
+            }
+            // 查询本身不计数, 单独统计落在BOUNDARY格子中的点
+            int fallback = 0;
+            for (int i = 0; i < QUERIES; i++) {
+                if (covering.getState(xs[i], ys[i]) == CellCovering.CellState.BOUNDARY) {
+                    fallback++;
+                }
+            }
+            System.out.printf("depth %2d  memory %9d B  build %7.1f ms  resolved %6.2f%%  measured %6.2f%%  %6.1f ns/query%n",
+                    depth, covering.getMemoryBytes(), buildMs, covering.getResolvedRatio() * 100,
+                    100.0 * (QUERIES - fallback) / QUERIES, queryNs);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.yshebkb.common.gps.polygon;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author whiteclaw
+ * created on 2026-10-18
+ */
+public class CellCoveringTest {
+
+    @Test
+    void containsMatchesPolygon() throws Exception {
+        Random random = new Random(20190129L);
+        List<Polygon> polygons = PolygonTest.loadPoiPolygons();
+        for (int i = 0; i < 10; i++) {
+            polygons.add(PolygonTest.randomStar(random, 120, 30, 3 + random.nextInt(500), i % 2 == 0));
+        }
+        for (Polygon polygon : polygons) {
+            int depth = random.nextInt(10);
+            CellCovering covering = new CellCovering(polygon, depth);
+            int side = 1 << depth;
+            assertEquals((long) side * side,
+                    covering.getInsideCells() + covering.getOutsideCells() + covering.getBoundaryCells());
+            double width = polygon.getMaxX() - polygon.getMinX();
+            double height = polygon.getMaxY() - polygon.getMinY();
+            for (int k = 0; k < 5000; k++) {
+                double x = polygon.getMinX() - width * 0.1 + random.nextDouble() * width * 1.2;
+                double y = polygon.getMinY() - height * 0.1 + random.nextDouble() * height * 1.2;
+                if (k % 3 == 0) {
+                    // 恰好落在格子边界上的点
+                    x = polygon.getMinX() + random.nextInt(side + 1) * width / side;
+                }
+                assertEquals(polygon.contains(x, y), covering.contains(x, y));
+                CellCovering.CellState state = covering.getState(x, y);
+                if (state != CellCovering.CellState.BOUNDARY) {
+                    assertEquals(state == CellCovering.CellState.INSIDE, polygon.contains(x, y));
+                }
+            }
+        }
+    }
+
+    @Test
+    void deeperCoveringResolvesMore() {
+        Polygon polygon = PolygonTest.randomStar(new Random(7), 120, 30, 200, true);
+        double previous = -1;
+        long memory = 0;
+        for (int depth = 0; depth <= 10; depth++) {
+            CellCovering covering = new CellCovering(polygon, depth);
+            assertTrue(covering.getResolvedRatio() >= previous);
+            assertTrue(covering.getMemoryBytes() >= memory);
+            previous = covering.getResolvedRatio();
+            memory = covering.getMemoryBytes();
+        }
+        assertTrue(previous > 0.9);
+        assertThrows(IllegalArgumentException.class, () -> new CellCovering(polygon, CellCovering.MAX_DEPTH + 1));
+    }
+}
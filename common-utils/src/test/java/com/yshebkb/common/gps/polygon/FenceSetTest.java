@@ -0,0 +1,191 @@
+package com.yshebkb.common.gps.polygon;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author whiteclaw
+ * created on 2026-10-18
+ */
+public class FenceSetTest {
+
+    private static Polygon square(double x, double y, double size) {
+        return Polygon.Builder().addVertex(x, y).addVertex(x + size, y)
+                .addVertex(x + size, y + size).addVertex(x, y + size).build();
+    }
+
+    private static List<String> sorted(List<String> names) {
+        Collections.sort(names);
+        return names;
+    }
+
+    @Test
+    void applyMatchesMap() {
+        Random random = new Random(20190322L);
+        List<Polygon> polygons = GeofenceIndexTest.randomFences(random, 200, 120, 30, 0.2);
+        Map<String, Polygon> expected = new HashMap<>();
+        FenceSet set = new FenceSet();
+        assertEquals(0, set.snapshot().size());
+        assertNull(set.first(120.1, 30.1));
+
+        for (int round = 1; round <= 20; round++) {
+            FenceSet.Update update = FenceSet.update();
+            for (int k = 0; k < 30; k++) {
+                String name = "fence" + random.nextInt(100);
+                if (random.nextInt(4) == 0) {
+                    update.remove(name);
+                    expected.remove(name);
+                } else {
+                    Polygon polygon = polygons.get(random.nextInt(polygons.size()));
+                    update.put(name, polygon);
+                    expected.put(name, polygon);
+                }
+            }
+            FenceSet.Snapshot snapshot = set.apply(update);
+            assertEquals(round, snapshot.getVersion());
+            assertEquals(round, set.getVersion());
+            assertEquals(expected.keySet(), snapshot.names());
+            for (int i = 0; i < 200; i++) {
+                double lng = 120 + random.nextDouble() * 0.2;
+                double lat = 30 + random.nextDouble() * 0.2;
+                List<String> names = new ArrayList<>();
+                for (Map.Entry<String, Polygon> entry : expected.entrySet()) {
+                    if (entry.getValue().contains(lng, lat)) {
+                        names.add(entry.getKey());
+                    }
+                }
+                assertEquals(sorted(names), sorted(snapshot.search(lng, lat)));
+                String first = set.first(lng, lat);
+                assertTrue(first == null ? names.isEmpty() : names.contains(first));
+            }
+        }
+    }
+
+    @Test
+    void snapshotsAreImmutable() {
+        FenceSet set = new FenceSet(Collections.singletonMap("a", square(0, 0, 1)));
+        FenceSet.Snapshot before = set.snapshot();
+        FenceSet.Update update = FenceSet.update()
+                .put("b", square(2, 0, 1))
+                .put("a", square(0, 2, 1))
+                .remove("missing");
+        FenceSet.Snapshot after = set.apply(update);
+
+        assertEquals(0, before.getVersion());
+        assertEquals(Collections.singletonList("a"), before.search(0.5, 0.5));
+        assertTrue(before.search(0.5, 2.5).isEmpty());
+        assertNull(before.get("b"));
+        assertThrows(UnsupportedOperationException.class, () -> before.names().remove("a"));
+
+        assertSame(after, set.snapshot());
+        assertTrue(after.search(0.5, 0.5).isEmpty());
+        assertEquals("a", after.first(0.5, 2.5));
+        assertEquals("b", after.first(2.5, 0.5));
+        assertEquals(2, after.searchRect(-1, -1, 10, 10, (name, polygon) -> {
+        }));
+
+        // 同一个围栏以最后一次操作为准
+        set.apply(FenceSet.update().put("c", square(5, 5, 1)).remove("c").remove("b").put("b", square(7, 7, 1)));
+        assertNull(set.snapshot().get("c"));
+        assertEquals("b", set.first(7.5, 7.5));
+
+        assertThrows(IllegalArgumentException.class, () -> FenceSet.update().put("a", null));
+        assertThrows(IllegalArgumentException.class, () -> FenceSet.update().remove(null));
+        assertThrows(IllegalArgumentException.class, () -> new FenceSet(Collections.singletonMap("a", null)));
+    }
+
+    /**
+     * 每次更新把一组围栏整体移动到新位置, 并发的读线程不应看到移动了一半的状态
+     */
+    @Test
+    void readersSeeWholeVersions() throws Exception {
+        int groupSize = 50;
+        FenceSet set = new FenceSet();
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicReference<String> failure = new AtomicReference<>();
+        Thread[] readers = new Thread[3];
+        for (int t = 0; t < readers.length; t++) {
+            readers[t] = new Thread(() -> {
+                long lastVersion = -1;
+                while (!done.get()) {
+                    FenceSet.Snapshot snapshot = set.snapshot();
+                    if (snapshot.getVersion() < lastVersion) {
+                        failure.set("version went back");
+                    }
+                    lastVersion = snapshot.getVersion();
+                    int hits = snapshot.searchRect(lastVersion, 0, lastVersion + 0.5, 1, (name, polygon) -> {
+                    });
+                    int expected = lastVersion == 0 ? 0 : groupSize;
+                    if (hits != expected || snapshot.size() != expected) {
+                        failure.set("version " + lastVersion + " has " + hits + " fences");
+                    }
+                }
+            });
+            readers[t].start();
+        }
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            FenceSet.Snapshot last = null;
+            for (int version = 1; version <= 200; version++) {
+                FenceSet.Update update = FenceSet.update();
+                for (int k = 0; k < groupSize; k++) {
+                    update.put("fence" + k, square(version + k * 0.001, 0.2, 0.0005));
+                }
+                last = set.applyAsync(update, executor).get(10, TimeUnit.SECONDS);
+            }
+            assertEquals(200, last.getVersion());
+        } finally {
+            executor.shutdown();
+            done.set(true);
+            for (Thread reader : readers) {
+                reader.join();
+            }
+        }
+        assertNull(failure.get());
+    }
+
+    /**
+     * 多线程的线程池中异步更新也按提交顺序生效, 提交后修改update不影响已提交的更新
+     */
+    @Test
+    void asyncUpdatesApplyInSubmissionOrder() throws Exception {
+        FenceSet set = new FenceSet();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<CompletableFuture<FenceSet.Snapshot>> futures = new ArrayList<>();
+            Polygon last = null;
+            for (int i = 0; i < 100; i++) {
+                last = square(i, 0, 0.5);
+                FenceSet.Update update = FenceSet.update().put("a", last);
+                futures.add(set.applyAsync(update, executor));
+                update.remove("a").put("b", last);
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                assertEquals(i + 1, futures.get(i).get(10, TimeUnit.SECONDS).getVersion());
+            }
+            assertSame(last, set.snapshot().get("a"));
+            assertNull(set.snapshot().get("b"));
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.yshebkb.common.gps.polygon;
+
+import com.github.davidmoten.rtree.Entry;
+import com.github.davidmoten.rtree.RTree;
+import com.github.davidmoten.rtree.geometry.Geometries;
+import com.github.davidmoten.rtree.geometry.Geometry;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * {@link GeofenceIndex}与RTreeTest中RTree + HashMap用法的构建和查询耗时对比, 以及地图可视范围的矩形查询
+ *
+ * @author whiteclaw
+ * created on 2026-10-18
+ */
+public class GeofenceIndexBenchmark {
+
+    private static final int FENCES = 100_000;
+    private static final int QUERIES = 1_000_000;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        Random random = new Random(20190126L);
+        List<Polygon> fences = GeofenceIndexTest.randomFences(random, FENCES, 115, 25, 10);
+        double[] lngs = new double[QUERIES];
+        double[] lats = new double[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            lngs[i] = 115 + random.nextDouble() * 10;
+            lats[i] = 25 + random.nextDouble() * 10;
+        }
+
+        long start = System.nanoTime();
+        GeofenceIndex.Builder builder = GeofenceIndex.builder();
+        for (int i = 0; i < FENCES; i++) {
+            builder.add(i, fences.get(i));
+        }
+        GeofenceIndex index = builder.build();
+        System.out.printf("GeofenceIndex build %.1f ms, index %.1f MB%n",
+                (System.nanoTime() - start) / 1e6, index.getMemoryBytes() / 1048576.0);
+
+        start = System.nanoTime();
+        RTree<Integer, Geometry> rTree = RTree.create();
+        Map<Integer, Polygon> polygons = new HashMap<>();
+        for (int i = 0; i < FENCES; i++) {
+            Polygon fence = fences.get(i);
+            rTree = rTree.add(i, Geometries.rectangle(fence.getMinX(), fence.getMinY(), fence.getMaxX(), fence.getMaxY()));
+            polygons.put(i, fence);
+        }
+        System.out.printf("RTree build %.1f ms%n", (System.nanoTime() - start) / 1e6);
+
+        int[] out = new int[64];
+        long indexHits = 0;
+        double indexNs = Double.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            indexHits = 0;
+            start = System.nanoTime();
+            for (int i = 0; i < QUERIES; i++) {
+                indexHits += index.search(lngs[i], lats[i], out);
+            }
+            indexNs = Math.min(indexNs, (double) (System.nanoTime() - start) / QUERIES);
+        }
+        System.out.printf("GeofenceIndex %8.1f ns/query, hits %d%n", indexNs, indexHits);
+
+        int rTreeQueries = QUERIES / 10;
+        long rTreeHits = 0;
+        double rTreeNs = Double.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            rTreeHits = 0;
+            start = System.nanoTime();
+            for (int i = 0; i < rTreeQueries; i++) {
+                Iterator<Entry<Integer, Geometry>> iterator = rTree.search(Geometries.point(lngs[i], lats[i]))
+                        .toBlocking().getIterator();
+                while (iterator.hasNext()) {
+                    if (polygons.get(iterator.next().value()).contains(lngs[i], lats[i])) {
+                        rTreeHits++;
+                    }
+                }
+            }
+            rTreeNs = Math.min(rTreeNs, (double) (System.nanoTime() - start) / rTreeQueries);
+        }
+        System.out.printf("RTree+HashMap %8.1f ns/query, hits %d in the first %d queries%n", rTreeNs, rTreeHits, rTreeQueries);
+
+        // 约10km到50km见方的可视范围, 与只比较包围盒的RTree查询对比
+        int viewports = 10_000;
+        double[] sizes = new double[viewports];
+        for (int i = 0; i < viewports; i++) {
+            sizes[i] = 0.1 + random.nextDouble() * 0.4;
+        }
+        for (int round = 0; round < ROUNDS; round++) {
+            long exact = 0;
+            start = System.nanoTime();
+            for (int i = 0; i < viewports; i++) {
+                exact += index.searchRect(lngs[i], lats[i], lngs[i] + sizes[i], lats[i] + sizes[i], (id, polygon) -> {
+                });
+            }
+            double rectUs = (System.nanoTime() - start) / 1e3 / viewports;
+            long boxes = 0;
+            start = System.nanoTime();
+            for (int i = 0; i < viewports; i++) {
+                boxes += rTree.search(Geometries.rectangle(lngs[i], lats[i], lngs[i] + sizes[i], lats[i] + sizes[i]))
+                        .count().toBlocking().single();
+            }
+            double boxUs = (System.nanoTime() - start) / 1e3 / viewports;
+            System.out.printf("viewport searchRect %6.1f us/query, %.1f fences; RTree boxes only %6.1f us/query, %.1f fences%n",
+                    rectUs, (double) exact / viewports, boxUs, (double) boxes / viewports);
+        }
+    }
+}
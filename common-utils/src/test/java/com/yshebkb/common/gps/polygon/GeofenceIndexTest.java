@@ -0,0 +1,169 @@
+package com.yshebkb.common.gps.polygon;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author whiteclaw
+ * created on 2026-10-18
+ */
+public class GeofenceIndexTest {
+
+    /**
+     * 在给定范围内随机生成围栏, 大小不一, 互相重叠
+     */
+    static List<Polygon> randomFences(Random random, int count, double minX, double minY, double size) {
+        List<Polygon> fences = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            double radius = 0.001 + random.nextDouble() * random.nextDouble() * 0.05;
+            fences.add(PolygonTest.randomStar(random, minX + random.nextDouble() * size,
+                    minY + random.nextDouble() * size, 3 + random.nextInt(20), false));
+            Polygon star = fences.get(i);
+            // randomStar的半径在0.5到1.5之间, 缩小到radius
+            double cx = (star.getMinX() + star.getMaxX()) / 2;
+            double cy = (star.getMinY() + star.getMaxY()) / 2;
+            PointArray ring = star.getRing(0);
+            PointArray scaled = PointArray.create(ring.size());
+            for (int k = 0; k < ring.size(); k++) {
+                scaled.add(cx + (ring.getLng(k) - cx) * radius, cy + (ring.getLat(k) - cy) * radius);
+            }
+            fences.set(i, Polygon.Builder().addVertices(scaled).build());
+        }
+        return fences;
+    }
+
+    @Test
+    void searchMatchesBruteForce() throws Exception {
+        Random random = new Random(20190125L);
+        List<Polygon> fences = randomFences(random, 20000, 120, 30, 2);
+        fences.addAll(PolygonTest.loadPoiPolygons());
+        GeofenceIndex.Builder builder = GeofenceIndex.builder();
+        for (int i = 0; i < fences.size(); i++) {
+            builder.add(i, fences.get(i));
+        }
+        GeofenceIndex index = builder.build();
+        assertEquals(fences.size(), index.size());
+        assertTrue(index.getHeight() >= 4);
+
+        int[] out = new int[64];
+        int hits = 0;
+        for (int q = 0; q < 5000; q++) {
+            double lng;
+            double lat;
+            if (q % 2 == 0) {
+                lng = 119.9 + random.nextDouble() * 2.2;
+                lat = 29.9 + random.nextDouble() * 2.2;
+            } else {
+                Polygon fence = fences.get(random.nextInt(fences.size()));
+                lng = fence.getMinX() + random.nextDouble() * (fence.getMaxX() - fence.getMinX());
+                lat = fence.getMinY() + random.nextDouble() * (fence.getMaxY() - fence.getMinY());
+            }
+            List<Integer> expected = new ArrayList<>();
+            for (int i = 0; i < fences.size(); i++) {
+                if (fences.get(i).contains(lng, lat)) {
+                    expected.add(i);
+                }
+            }
+            int found = index.search(lng, lat, out);
+            assertEquals(expected.size(), found);
+            int[] actual = Arrays.copyOf(out, found);
+            Arrays.sort(actual);
+            assertArrayEquals(expected.stream().mapToInt(Integer::intValue).toArray(), actual);
+
+            int[] callbacks = new int[1];
+            assertEquals(found, index.search(lng, lat, (id, polygon) -> {
+                assertTrue(polygon == fences.get(id));
+                callbacks[0]++;
+            }));
+            assertEquals(found, callbacks[0]);
+            int first = index.first(lng, lat);
+            assertTrue(found == 0 ? first == -1 : expected.contains(first));
+            hits += found;
+        }
+        assertTrue(hits > 2500);
+    }
+
+    @Test
+    void searchRectMatchesBruteForce() throws Exception {
+        Random random = new Random(20190326L);
+        List<Polygon> fences = randomFences(random, 20000, 120, 30, 2);
+        fences.addAll(PolygonTest.loadPoiPolygons());
+        GeofenceIndex.Builder builder = GeofenceIndex.builder();
+        for (int i = 0; i < fences.size(); i++) {
+            builder.add(i, fences.get(i));
+        }
+        GeofenceIndex index = builder.build();
+
+        int[] out = new int[64];
+        for (int q = 0; q < 300; q++) {
+            // 从几十米到整个范围的可视区域
+            double size = Math.pow(10, -3.5 + random.nextDouble() * 4);
+            double minX = 119.9 + random.nextDouble() * 2.2;
+            double minY = 29.9 + random.nextDouble() * 2.2;
+            double maxX = minX + size * (0.5 + random.nextDouble());
+            double maxY = minY + size * (0.5 + random.nextDouble());
+            List<Integer> expected = new ArrayList<>();
+            for (int i = 0; i < fences.size(); i++) {
+                if (fences.get(i).intersects(minX, minY, maxX, maxY)) {
+                    expected.add(i);
+                }
+            }
+            List<Integer> actual = new ArrayList<>();
+            assertEquals(expected.size(), index.searchRect(minX, minY, maxX, maxY, (id, polygon) -> {
+                assertTrue(polygon == fences.get(id));
+                actual.add(id);
+            }));
+            actual.sort(null);
+            assertEquals(expected, actual);
+
+            int found = index.searchRect(minX, minY, maxX, maxY, out);
+            assertEquals(expected.size(), found);
+            for (int k = 0; k < Math.min(found, out.length); k++) {
+                assertTrue(expected.contains(out[k]));
+            }
+        }
+        assertEquals(fences.size(), index.searchRect(-180, -90, 180, 90, new int[0]));
+        assertEquals(0, GeofenceIndex.builder().build().searchRect(0, 0, 1, 1, new int[1]));
+        assertThrows(IllegalArgumentException.class, () -> index.searchRect(1, 0, 0, 1, out));
+    }
+
+    @Test
+    void outputArrayOverflow() {
+        GeofenceIndex.Builder builder = GeofenceIndex.builder();
+        for (int i = 0; i < 10; i++) {
+            builder.add(100 + i, Polygon.Builder().addVertex(-i - 1, -1).addVertex(i + 1, -1).addVertex(0, i + 1).build());
+        }
+        GeofenceIndex index = builder.build();
+        int[] out = new int[3];
+        assertEquals(10, index.search(0, 0, out));
+        for (int id : out) {
+            assertTrue(id >= 100 && id < 110);
+        }
+        assertEquals(0, index.search(5, 5, out));
+    }
+
+    @Test
+    void smallIndexes() {
+        GeofenceIndex empty = GeofenceIndex.builder().build();
+        assertEquals(0, empty.search(0, 0, new int[1]));
+        assertEquals(-1, empty.first(0, 0));
+
+        Polygon triangle = Polygon.Builder().addVertex(0, 0).addVertex(2, 0).addVertex(0, 2).build();
+        GeofenceIndex single = GeofenceIndex.builder().add(7, triangle).build();
+        assertEquals(1, single.getHeight());
+        assertEquals(7, single.first(0.5, 0.5));
+        assertEquals(-1, single.first(1.5, 1.5));
+        assertEquals(triangle, single.getPolygon(0));
+
+        assertThrows(IllegalArgumentException.class, () -> GeofenceIndex.builder().add(1, null));
+    }
+}
@@ -0,0 +1,97 @@
+package com.yshebkb.common.gps.polygon;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 围栏事件跟踪的吞吐量(定位点/秒), 与每个定位点都查一次{@link GeofenceIndex}的做法对比
+ *
+ * @author whiteclaw
+ * created on 2026-10-18
+ */
+public class GeofenceTrackerBenchmark {
+
+    private static final int FENCES = 20_000;
+    private static final int DEVICES = 100_000;
+    private static final int FIXES = 2_000_000;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws Exception {
+        Random random = new Random(20190322L);
+        List<Polygon> fences = GeofenceIndexTest.randomFences(random, FENCES, 120, 30, 2);
+        GeofenceIndex.Builder builder = GeofenceIndex.builder();
+        for (int i = 0; i < FENCES; i++) {
+            builder.add(i, fences.get(i));
+        }
+        GeofenceIndex index = builder.build();
+
+        // 每个设备每秒一个定位点, 每次移动约10米
+        String[] deviceIds = new String[DEVICES];
+        double[] lngs = new double[DEVICES];
+        double[] lats = new double[DEVICES];
+        for (int d = 0; d < DEVICES; d++) {
+            deviceIds[d] = "device" + d;
+            lngs[d] = 120 + random.nextDouble() * 2;
+            lats[d] = 30 + random.nextDouble() * 2;
+        }
+        int[] fixDevices = new int[FIXES];
+        double[] fixLngs = new double[FIXES];
+        double[] fixLats = new double[FIXES];
+        for (int i = 0; i < FIXES; i++) {
+            int d = i % DEVICES;
+            lngs[d] += (random.nextDouble() - 0.5) * 0.0002;
+            lats[d] += (random.nextDouble() - 0.5) * 0.0002;
+            fixDevices[i] = d;
+            fixLngs[i] = lngs[d];
+            fixLats[i] = lats[d];
+        }
+
+        int threads = Runtime.getRuntime().availableProcessors();
+        System.out.printf("%d个围栏, %d个设备, 处理器 %d%n", FENCES, DEVICES, threads);
+        LongAdder events = new LongAdder();
+        for (int round = 0; round < ROUNDS; round++) {
+            GeofenceTracker tracker = new GeofenceTracker(index, 60_000,
+                    (deviceId, fenceId, type, timestamp) -> events.increment());
+            long start = System.nanoTime();
+            for (int i = 0; i < FIXES; i++) {
+                tracker.update(deviceIds[fixDevices[i]], fixLngs[i], fixLats[i], i / DEVICES * 1000L);
+            }
+            long trackerNanos = System.nanoTime() - start;
+
+            GeofenceTracker parallel = new GeofenceTracker(index, 60_000,
+                    (deviceId, fenceId, type, timestamp) -> events.increment());
+            Thread[] workers = new Thread[threads];
+            start = System.nanoTime();
+            for (int t = 0; t < threads; t++) {
+                int from = t;
+                workers[t] = new Thread(() -> {
+                    // 按设备分区, 保证每个设备的定位点有序
+                    for (int i = 0; i < FIXES; i++) {
+                        if (fixDevices[i] % threads == from) {
+                            parallel.update(deviceIds[fixDevices[i]], fixLngs[i], fixLats[i], i / DEVICES * 1000L);
+                        }
+                    }
+                });
+                workers[t].start();
+            }
+            for (Thread worker : workers) {
+                worker.join();
+            }
+            long parallelNanos = System.nanoTime() - start;
+
+            int[] out = new int[64];
+            long found = 0;
+            start = System.nanoTime();
+            for (int i = 0; i < FIXES; i++) {
+                found += index.search(fixLngs[i], fixLats[i], out);
+            }
+            long searchNanos = System.nanoTime() - start;
+
+            System.out.printf("第%d轮 逐点查索引: %.2f M/s, GeofenceTracker: %.2f M/s (跳过%.0f%%, 分类%d), %d线程: %.2f M/s (%d)%n",
+                    round + 1, FIXES / (searchNanos / 1e3), FIXES / (trackerNanos / 1e3),
+                    100.0 * tracker.getSkippedCount() / tracker.getFixCount(), tracker.getClassifyCount(), threads,
+                    FIXES / (parallelNanos / 1e3), found);
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package com.yshebkb.common.gps.polygon;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author whiteclaw
+ * created on 2026-10-18
+ */
+public class GeofenceTrackerTest {
+
+    private static final long DWELL = 30_000;
+
+    private static List<Polygon> fences(Random random) {
+        List<Polygon> fences = GeofenceIndexTest.randomFences(random, 300, 120, 30, 0.2);
+        for (int i = 0; i < 20; i++) {
+            // 带洞的围栏, 缩小到约0.02度
+            Polygon star = PolygonTest.randomStar(random, 0, 0, 5 + random.nextInt(30), true);
+            double cx = 120 + random.nextDouble() * 0.2;
+            double cy = 30 + random.nextDouble() * 0.2;
+            Polygon.Builder builder = Polygon.Builder();
+            for (int r = 0; r < star.getRingCount(); r++) {
+                if (r > 0) {
+                    builder.close();
+                }
+                PointArray ring = star.getRing(r);
+                for (int k = 0; k < ring.size(); k++) {
+                    builder.addVertex(cx + ring.getLng(k) * 0.01, cy + ring.getLat(k) * 0.01);
+                }
+            }
+            fences.add(builder.build());
+        }
+        return fences;
+    }
+
+    private static GeofenceIndex index(List<Polygon> fences) {
+        GeofenceIndex.Builder builder = GeofenceIndex.builder();
+        for (int i = 0; i < fences.size(); i++) {
+            builder.add(i, fences.get(i));
+        }
+        return builder.build();
+    }
+
+    /**
+     * 逐个围栏判断的参考实现, 返回每个定位点的事件
+     */
+    private static List<List<String>> reference(List<Polygon> fences, double[][] track) {
+        List<List<String>> result = new ArrayList<>();
+        Map<Integer, Long> enterTimes = new HashMap<>();
+        Map<Integer, Boolean> dwelled = new HashMap<>();
+        for (double[] fix : track) {
+            List<String> events = new ArrayList<>();
+            long time = (long) fix[2];
+            for (int id = 0; id < fences.size(); id++) {
+                boolean inside = fences.get(id).contains(fix[0], fix[1]);
+                if (inside && !enterTimes.containsKey(id)) {
+                    enterTimes.put(id, time);
+                    dwelled.put(id, false);
+                    events.add("ENTER:" + id);
+                } else if (!inside && enterTimes.containsKey(id)) {
+                    enterTimes.remove(id);
+                    dwelled.remove(id);
+                    events.add("EXIT:" + id);
+                }
+                if (inside && !dwelled.get(id) && time - enterTimes.get(id) >= DWELL) {
+                    dwelled.put(id, true);
+                    events.add("DWELL:" + id);
+                }
+            }
+            Collections.sort(events);
+            result.add(events);
+        }
+        return result;
+    }
+
+    private static double[][] randomWalk(Random random) {
+        double[][] track = new double[3000][];
+        double lng = 120 + random.nextDouble() * 0.2;
+        double lat = 30 + random.nextDouble() * 0.2;
+        long time = 0;
+        for (int i = 0; i < track.length; i++) {
+            // 约20米一步, 偶尔停下或跳到别处
+            int move = random.nextInt(100);
+            if (move < 2) {
+                lng = 120 + random.nextDouble() * 0.2;
+                lat = 30 + random.nextDouble() * 0.2;
+            } else if (move > 20) {
+                lng += (random.nextDouble() - 0.5) * 0.0004;
+                lat += (random.nextDouble() - 0.5) * 0.0004;
+            }
+            time += 1000 + random.nextInt(5000);
+            track[i] = new double[]{lng, lat, time};
+        }
+        return track;
+    }
+
+    @Test
+    void eventsMatchBruteForce() {
+        Random random = new Random(20190320L);
+        List<Polygon> fences = fences(random);
+        GeofenceIndex index = index(fences);
+        List<String> events = new ArrayList<>();
+        GeofenceTracker tracker = new GeofenceTracker(index, DWELL,
+                (deviceId, fenceId, type, timestamp) -> events.add(type + ":" + fenceId));
+        int total = 0;
+        for (int device = 0; device < 10; device++) {
+            double[][] track = randomWalk(random);
+            List<List<String>> expected = reference(fences, track);
+            for (int i = 0; i < track.length; i++) {
+                events.clear();
+                tracker.update("device" + device, track[i][0], track[i][1], (long) track[i][2]);
+                Collections.sort(events);
+                assertEquals(expected.get(i), events);
+                total += events.size();
+            }
+        }
+        assertTrue(total > 500);
+        assertEquals(30000, tracker.getFixCount());
+        assertTrue(tracker.getSkippedCount() > 10000);
+        assertEquals(10, tracker.getDeviceCount());
+    }
+
+    @Test
+    void concurrentDevices() throws Exception {
+        Random random = new Random(20190321L);
+        List<Polygon> fences = fences(random);
+        GeofenceIndex index = index(fences);
+        double[][][] tracks = new double[16][][];
+        for (int i = 0; i < tracks.length; i++) {
+            tracks[i] = randomWalk(random);
+        }
+
+        Map<String, List<String>> sequential = new HashMap<>();
+        GeofenceTracker single = new GeofenceTracker(index, DWELL, (deviceId, fenceId, type, timestamp) ->
+                sequential.computeIfAbsent(deviceId, id -> new ArrayList<>()).add(type + ":" + fenceId + "@" + timestamp));
+        for (int i = 0; i < tracks.length; i++) {
+            for (double[] fix : tracks[i]) {
+                single.update("device" + i, fix[0], fix[1], (long) fix[2]);
+            }
+        }
+
+        Map<String, List<String>> concurrent = new ConcurrentHashMap<>();
+        GeofenceTracker shared = new GeofenceTracker(index, DWELL, (deviceId, fenceId, type, timestamp) ->
+                concurrent.computeIfAbsent(deviceId, id -> new ArrayList<>()).add(type + ":" + fenceId + "@" + timestamp));
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            int thread = t;
+            threads[t] = new Thread(() -> {
+                // 每个线程负责4个设备, 交替发送定位点
+                for (int k = 0; k < tracks[0].length; k++) {
+                    for (int i = thread; i < tracks.length; i += threads.length) {
+                        shared.update("device" + i, tracks[i][k][0], tracks[i][k][1], (long) tracks[i][k][2]);
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(sequential, concurrent);
+        for (int i = 0; i < tracks.length; i++) {
+            assertArrayEquals(single.getFences("device" + i), shared.getFences("device" + i));
+        }
+    }
+
+    @Test
+    void concurrentUpdateAndRemove() throws Exception {
+        Polygon square = Polygon.Builder().addVertex(0, 0).addVertex(1, 0).addVertex(1, 1).addVertex(0, 1).build();
+        GeofenceIndex index = GeofenceIndex.builder().add(42, square).build();
+        AtomicInteger enters = new AtomicInteger();
+        AtomicInteger exits = new AtomicInteger();
+        GeofenceTracker tracker = new GeofenceTracker(index, 0, 0.1, (deviceId, fenceId, type, timestamp) -> {
+            if (type == GeofenceTracker.EventType.ENTER) {
+                enters.incrementAndGet();
+            } else if (type == GeofenceTracker.EventType.EXIT) {
+                exits.incrementAndGet();
+            }
+        });
+        int fixes = 200000;
+        AtomicBoolean done = new AtomicBoolean();
+        Thread updater = new Thread(() -> {
+            for (int k = 0; k < fixes; k++) {
+                tracker.update("a", 0.5, 0.5, k);
+            }
+            done.set(true);
+        });
+        int[] removes = new int[1];
+        Thread remover = new Thread(() -> {
+            while (!done.get()) {
+                tracker.remove("a");
+                removes[0]++;
+            }
+        });
+        updater.start();
+        remover.start();
+        updater.join();
+        remover.join();
+
+        // 并发删除时定位点不会记在已删除的状态上, 每个定位点都被统计
+        assertEquals(fixes, tracker.getFixCount());
+        assertEquals(0, exits.get());
+        assertTrue(enters.get() >= 1 && enters.get() <= removes[0] + 1);
+        // 最后一个定位点之后可能又被删除, 设备还在时离开围栏产生EXIT
+        int inside = tracker.getFences("a").length;
+        tracker.update("a", 2, 2, fixes);
+        assertEquals(inside, exits.get());
+    }
+
+    @Test
+    void stateAndArguments() {
+        Polygon square = Polygon.Builder().addVertex(0, 0).addVertex(1, 0).addVertex(1, 1).addVertex(0, 1).build();
+        GeofenceIndex index = GeofenceIndex.builder().add(42, square).build();
+        List<String> events = new ArrayList<>();
+        GeofenceTracker tracker = new GeofenceTracker(index, 0, 0.1,
+                (deviceId, fenceId, type, timestamp) -> events.add(deviceId + ":" + type + ":" + fenceId));
+
+        tracker.update("a", 0.5, 0.5, 100);
+        assertArrayEquals(new int[]{42}, tracker.getFences("a"));
+        // 早于上一个定位点的被忽略
+        tracker.update("a", 2, 2, 50);
+        assertArrayEquals(new int[]{42}, tracker.getFences("a"));
+        tracker.update("a", 2, 2, 200);
+        assertEquals(0, tracker.getFences("a").length);
+        assertEquals(0, tracker.getFences("b").length);
+
+        tracker.update("b", 0.55, 0.55, 100);
+        tracker.remove("b");
+        tracker.update("b", 0.55, 0.55, 300);
+        assertEquals(Arrays.asList("a:ENTER:42", "a:EXIT:42", "b:ENTER:42", "b:ENTER:42"), events);
+
+        assertThrows(IllegalArgumentException.class, () -> new GeofenceTracker(index, -1, (d, f, t, s) -> {
+        }));
+        assertThrows(IllegalArgumentException.class, () -> new GeofenceTracker(index, 0, 0, (d, f, t, s) -> {
+        }));
+        assertThrows(IllegalArgumentException.class, () -> new GeofenceTracker(null, 0, (d, f, t, s) -> {
+        }));
+    }
+}
@@ -0,0 +1,101 @@
+package com.yshebkb.common.gps.polygon;
+
+import com.yshebkb.common.gps.BaiduMapTrans;
+import com.yshebkb.common.gps.CoordinateTransformUtil;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author whiteclaw
+ * created on 2026-10-18
+ */
+class PointArrayTest {
+
+    @Test
+    void addGrowsAndKeepsOrder() {
+        PointArray points = PointArray.create(1);
+        for (int i = 0; i < 100; i++) {
+            points.add(100 + i * 0.1, 30 + i * 0.01);
+        }
+        assertEquals(100, points.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(100 + i * 0.1, points.getLng(i));
+            assertEquals(30 + i * 0.01, points.getLat(i));
+        }
+        assertEquals(new Point(100.5, 30.05), points.get(5));
+        assertThrows(IndexOutOfBoundsException.class, () -> points.getLng(100));
+    }
+
+    @Test
+    void compactModeStoresMicroDegrees() {
+        PointArray points = PointArray.compact(2);
+        points.add(121.5938864, 31.2603945).add(-73.985656, 40.748433);
+        assertTrue(points.isCompact());
+        assertEquals(121.593886, points.getLng(0));
+        assertEquals(31.260395, points.getLat(0));
+        assertEquals(-73.985656, points.getLng(1));
+        assertEquals(16, points.getMemoryBytes());
+        assertThrows(IllegalArgumentException.class, () -> points.add(13535862.1634, 3644170.81869));
+        assertEquals(2, points.size());
+    }
+
+    @Test
+    void viewSharesStorage() {
+        PointArray points = PointArray.create();
+        for (int i = 0; i < 10; i++) {
+            points.add(i, i);
+        }
+        PointArray view = points.view(2, 5);
+        assertEquals(3, view.size());
+        assertEquals(2.0, view.getLng(0));
+        view.set(0, 20, 20);
+        assertEquals(20.0, points.getLng(2));
+        PointArray nested = view.view(1, 3);
+        assertEquals(3.0, nested.getLat(0));
+        assertThrows(UnsupportedOperationException.class, () -> view.add(1, 1));
+        assertThrows(IndexOutOfBoundsException.class, () -> view.getLng(3));
+        assertThrows(IndexOutOfBoundsException.class, () -> points.view(5, 11));
+    }
+
+    @Test
+    void forEachVisitsAllPoints() {
+        PointArray points = PointArray.of(new double[]{1, 2, 3}, new double[]{4, 5, 6});
+        double[] sum = new double[1];
+        points.forEach((index, lng, lat) -> sum[0] += index + lng + lat);
+        assertEquals(3 + 6 + 15, sum[0]);
+        PointArray copy = PointArray.compact(0).addAll(points).addAll(points);
+        assertEquals(6, copy.size());
+        assertEquals(3.0, copy.getLng(5));
+    }
+
+    @Test
+    void convertersAcceptPointArray() {
+        double[] lat = new double[]{31.260394, 39.915, 22.5};
+        double[] lng = new double[]{121.593886, 116.404, 114.1};
+        PointArray points = PointArray.of(lng, lat);
+        CoordinateTransformUtil.wgs84ToBD09(points);
+        CoordinateTransformUtil.wgs84ToBD09(lat, lng);
+        for (int i = 0; i < lat.length; i++) {
+            assertEquals(lat[i], points.getLat(i));
+            assertEquals(lng[i], points.getLng(i));
+        }
+
+        PointArray mercator = PointArray.create().add(13535862.1634, 3644170.81869).add(13535944.846, 3644241.07482);
+        BaiduMapTrans.trans(mercator);
+        assertEquals(BaiduMapTrans.trans(13535862.1634, 3644170.81869), mercator.get(0));
+        assertEquals(BaiduMapTrans.trans(13535944.846, 3644241.07482), mercator.get(1));
+    }
+
+    @Test
+    void polygonBuiltFromPointArray() {
+        PointArray square = PointArray.create().add(0, 0).add(10, 0).add(10, 10).add(0, 10);
+        Polygon polygon = Polygon.Builder().addVertices(square).build();
+        assertTrue(polygon.contains(5, 5));
+        assertFalse(polygon.contains(15, 5));
+        assertEquals(4, polygon.getSides().size());
+    }
+}
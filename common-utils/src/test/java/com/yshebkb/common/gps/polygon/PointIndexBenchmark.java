@@ -0,0 +1,82 @@
+package com.yshebkb.common.gps.polygon;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * 点索引的构建耗时、最近10个点和500米半径查询的延迟分位数, 点均匀分布在约100km见方的城市范围内
+ *
+ * @author whiteclaw
+ * created on 2026-10-18
+ */
+public class PointIndexBenchmark {
+
+    private static final int QUERIES = 200_000;
+    private static final int K = 10;
+    private static final double RADIUS = 500;
+
+    public static void main(String[] args) {
+        for (int size : new int[]{1_000_000, 10_000_000}) {
+            run(size);
+        }
+    }
+
+    private static void run(int size) {
+        Random random = new Random(20190303L);
+        PointIndex.Builder builder = PointIndex.builder();
+        for (int i = 0; i < size; i++) {
+            builder.add(i, 120 + random.nextDouble(), 30 + random.nextDouble());
+        }
+        long start = System.nanoTime();
+        PointIndex index = builder.build();
+        System.out.printf("%,d个点: 构建 %d ms, 内存 %.1f MB%n", size, (System.nanoTime() - start) / 1_000_000,
+                index.getMemoryBytes() / 1024.0 / 1024.0);
+
+        double[] lngs = new double[QUERIES];
+        double[] lats = new double[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            lngs[i] = 120 + random.nextDouble();
+            lats[i] = 30 + random.nextDouble();
+        }
+        int[] ids = new int[K];
+        double[] distances = new double[K];
+        int[] out = new int[8192];
+        long[] latency = new long[QUERIES];
+        // 预热
+        for (int i = 0; i < QUERIES; i++) {
+            index.nearest(lngs[i], lats[i], K, ids, distances);
+            index.withinRadius(lngs[i], lats[i], RADIUS, out);
+        }
+
+        for (int i = 0; i < QUERIES; i++) {
+            long begin = System.nanoTime();
+            index.nearest(lngs[i], lats[i], K, ids, distances);
+            latency[i] = System.nanoTime() - begin;
+        }
+        report("最近" + K + "个点", latency);
+
+        long found = 0;
+        for (int i = 0; i < QUERIES; i++) {
+            long begin = System.nanoTime();
+            found += index.withinRadius(lngs[i], lats[i], RADIUS, out);
+            latency[i] = System.nanoTime() - begin;
+        }
+        report(RADIUS + "米半径(平均" + found / QUERIES + "个)", latency);
+    }
+
+    private static void report(String name, long[] latency) {
+        long[] sorted = latency.clone();
+        Arrays.sort(sorted);
+        long total = 0;
+        for (long nanos : sorted) {
+            total += nanos;
+        }
+        System.out.printf("  %s: 平均 %.2f µs, p50 %.2f µs, p90 %.2f µs, p99 %.2f µs, p99.9 %.2f µs, %.0f QPS%n", name,
+                total / 1000.0 / sorted.length, percentile(sorted, 0.5), percentile(sorted, 0.9),
+                percentile(sorted, 0.99), percentile(sorted, 0.999), sorted.length * 1e9 / total);
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        return sorted[(int) (p * (sorted.length - 1))] / 1000.0;
+    }
+}
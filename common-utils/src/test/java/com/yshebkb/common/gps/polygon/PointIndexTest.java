@@ -0,0 +1,123 @@
+package com.yshebkb.common.gps.polygon;
+
+import com.yshebkb.common.gps.DistanceUtil;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * @author whiteclaw
+ * created on 2026-10-18
+ */
+public class PointIndexTest {
+
+    private static void checkQueries(Random random, PointArray points, double[][] queries, double radius) {
+        PointIndex index = PointIndex.of(points);
+        int n = points.size();
+        double[] distances = new double[n];
+        Integer[] order = new Integer[n];
+        int[] ids = new int[20];
+        double[] found = new double[20];
+        int[] out = new int[n];
+        for (double[] query : queries) {
+            for (int i = 0; i < n; i++) {
+                distances[i] = DistanceUtil.haversine(query[0], query[1], points.getLng(i), points.getLat(i));
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> Double.compare(distances[a], distances[b]));
+
+            int k = 1 + random.nextInt(ids.length);
+            int count = index.nearest(query[0], query[1], k, ids, found);
+            assertEquals(Math.min(k, n), count);
+            for (int i = 0; i < count; i++) {
+                // 距离相同的点顺序不确定, 只比较距离
+                assertEquals(distances[order[i]], found[i], 1e-6);
+                assertEquals(distances[ids[i]], found[i], 1e-6);
+            }
+            int nearest = index.nearest(query[0], query[1]);
+            assertEquals(distances[order[0]], distances[nearest], 1e-6);
+            // 单点查询与k = 1的查询访问顺序相同, 距离相同时也返回同一个点
+            index.nearest(query[0], query[1], 1, ids, found);
+            assertEquals(ids[0], nearest);
+
+            List<Integer> expected = new ArrayList<>();
+            for (int i = 0; i < n; i++) {
+                if (distances[i] <= radius) {
+                    expected.add(i);
+                }
+            }
+            int hits = index.withinRadius(query[0], query[1], radius, out);
+            assertEquals(expected.size(), hits);
+            int[] actual = Arrays.copyOf(out, hits);
+            Arrays.sort(actual);
+            assertArrayEquals(expected.stream().mapToInt(Integer::intValue).toArray(), actual);
+            assertEquals(hits, index.withinRadius(query[0], query[1], radius,
+                    (id, distance) -> assertEquals(distances[id], distance, 1e-6)));
+        }
+    }
+
+    @Test
+    void matchesBruteForce() {
+        Random random = new Random(20190301L);
+        PointArray points = PointArray.create(20000);
+        for (int i = 0; i < 20000; i++) {
+            points.add(120 + random.nextDouble(), 30 + random.nextDouble());
+        }
+        // 重复的点
+        for (int i = 0; i < 100; i++) {
+            points.add(points.getLng(i), points.getLat(i));
+        }
+        double[][] queries = new double[300][];
+        for (int i = 0; i < queries.length; i++) {
+            queries[i] = new double[]{119.9 + random.nextDouble() * 1.2, 29.9 + random.nextDouble() * 1.2};
+        }
+        checkQueries(random, points, queries, 500);
+        checkQueries(random, points, queries, 5000);
+    }
+
+    @Test
+    void antimeridianAndPoles() {
+        Random random = new Random(20190302L);
+        PointArray points = PointArray.create();
+        for (int i = 0; i < 5000; i++) {
+            points.add(-180 + random.nextDouble() * 360, -90 + random.nextDouble() * 180);
+        }
+        for (int i = 0; i < 500; i++) {
+            points.add(random.nextBoolean() ? 179.5 + random.nextDouble() * 0.5 : -180 + random.nextDouble() * 0.5,
+                    random.nextDouble() * 2);
+            points.add(-180 + random.nextDouble() * 360, 89 + random.nextDouble());
+        }
+        double[][] queries = {
+                {179.9, 1}, {-179.9, 1}, {180, 0.5}, {-180, 0}, {0, 90}, {45, 89.5}, {-120, -89.9}, {10, 20}
+        };
+        checkQueries(random, points, queries, 100_000);
+        checkQueries(random, points, queries, 3_000_000);
+        checkQueries(random, points, queries, 30_000_000);
+    }
+
+    @Test
+    void smallIndexes() {
+        PointIndex empty = PointIndex.builder().build();
+        assertEquals(-1, empty.nearest(0, 0));
+        assertEquals(0, empty.withinRadius(0, 0, 1000, new int[1]));
+
+        PointIndex index = PointIndex.builder().add(7, 120, 30).add(8, new Point(120.001, 30)).build();
+        int[] ids = new int[5];
+        double[] distances = new double[5];
+        assertEquals(2, index.nearest(120.0004, 30, 5, ids, distances));
+        assertArrayEquals(new int[]{7, 8}, Arrays.copyOf(ids, 2));
+        assertEquals(1, index.withinRadius(120, 30, 50, new int[1]));
+        assertEquals(0, index.nearest(0, 0, 0, ids, distances));
+
+        assertThrows(IllegalArgumentException.class, () -> index.nearest(0, 0, 6, ids, distances));
+        assertThrows(IllegalArgumentException.class, () -> PointIndex.builder().add(1, 181, 0));
+        assertThrows(IllegalArgumentException.class, () -> PointIndex.builder().add(1, 0, Double.NaN));
+    }
+}
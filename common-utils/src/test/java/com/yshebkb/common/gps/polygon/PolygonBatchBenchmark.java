@@ -0,0 +1,62 @@
+package com.yshebkb.common.gps.polygon;
+
+import java.util.BitSet;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * {@link Polygon#contains(double[], double[], int, int, ForkJoinPool)}在不同线程数下的耗时, 用来观察加速比
+ *
+ * @author whiteclaw
+ * created on 2026-10-18
+ */
+public class PolygonBatchBenchmark {
+
+    private static final int SIZE = 10_000_000;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        Random random = new Random(20190128L);
+        Polygon polygon = PolygonPrepareBenchmark.district(random, 5_000).prepare();
+        double[] lngs = new double[SIZE];
+        double[] lats = new double[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            lngs[i] = 118.4 + random.nextDouble() * 3.2;
+            lats[i] = 28.4 + random.nextDouble() * 3.2;
+        }
+
+        long start = System.nanoTime();
+        int expected = 0;
+        for (int i = 0; i < SIZE; i++) {
+            if (polygon.contains(lngs[i], lats[i])) {
+                expected++;
+            }
+        }
+        double loopMs = (System.nanoTime() - start) / 1e6;
+        System.out.printf("single loop      %8.1f ms%n", loopMs);
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        double baseMs = 0;
+        // 线程数依次为1, 2, 4...直到CPU核数
+        for (int threads = 1; ; threads = Math.min(threads * 2, cores)) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            double bestMs = Double.MAX_VALUE;
+            for (int round = 0; round < ROUNDS; round++) {
+                start = System.nanoTime();
+                BitSet result = polygon.contains(lngs, lats, 0, SIZE, pool);
+                bestMs = Math.min(bestMs, (System.nanoTime() - start) / 1e6);
+                if (result.cardinality() != expected) {
+                    throw new IllegalStateException("batch result differs from the single loop");
+                }
+            }
+            pool.shutdown();
+            if (threads == 1) {
+                baseMs = bestMs;
+            }
+            System.out.printf("%2d threads       %8.1f ms  speedup %.2f%n", threads, bestMs, baseMs / bestMs);
+            if (threads == cores) {
+                break;
+            }
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.yshebkb.common.gps.polygon;
+
+import java.util.Random;
+
+/**
+ * 多边形建立边索引的耗时与查询耗时的对比, 用来判断顶点数多少、查询多少次之后值得调用{@link Polygon#prepare()}
+ *
+ * @author whiteclaw
+ * created on 2026-10-18
+ */
+public class PolygonPrepareBenchmark {
+
+    private static final int QUERIES = 1_000_000;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        int[] sizes = new int[]{10, 1_000, 100_000};
+        Random random = new Random(20190123L);
+        double[] xs = new double[QUERIES];
+        double[] ys = new double[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            xs[i] = 118.4 + random.nextDouble() * 3.2;
+            ys[i] = 28.4 + random.nextDouble() * 3.2;
+        }
+
+        for (int size : sizes) {
+            long seed = random.nextLong();
+            double buildNs = Double.MAX_VALUE;
+            double plainNs = Double.MAX_VALUE;
+            double preparedNs = Double.MAX_VALUE;
+            int queries = size >= 100_000 ? QUERIES / 100 : QUERIES;
+            int inside = 0;
+            for (int round = 0; round < ROUNDS; round++) {
+                Polygon plain = district(new Random(seed), size);
+                Polygon prepared = district(new Random(seed), size);
+
+                long start = System.nanoTime();
+                prepared.prepare();
+                buildNs = Math.min(buildNs, System.nanoTime() - start);
+
+                start = System.nanoTime();
+                for (int i = 0; i < queries; i++) {
+                    if (plain.contains(xs[i], ys[i])) {
+                        inside++;
+                    }
+                }
+                plainNs = Math.min(plainNs, (double) (System.nanoTime() - start) / queries);
+
+                start = System.nanoTime();
+                for (int i = 0; i < queries; i++) {
+                    if (prepared.contains(xs[i], ys[i])) {
+                        inside--;
+                    }
+                }
+                preparedNs = Math.min(preparedNs, (double) (System.nanoTime() - start) / queries);
+            }
+            if (inside != 0) {
+                throw new IllegalStateException("prepared polygon gives different results");
+            }
+            double breakEven = plainNs > preparedNs ? buildNs / (plainNs - preparedNs) : Double.POSITIVE_INFINITY;
+            System.out.printf("%7d vertexes  build %10.1f us  plain %10.1f ns/query  prepared %6.1f ns/query  break even after %.0f queries%n",
+                    size, buildNs / 1000, plainNs, preparedNs, breakEven);
+        }
+    }
+
+    /**
+     * 模拟行政区边界: 半径缓慢起伏并带少量噪声, 任意一条水平线只和少数几条边相交
+     */
+    static Polygon district(Random random, int vertexes) {
+        Polygon.Builder builder = Polygon.Builder();
+        double phase = random.nextDouble() * Math.PI;
+        for (int i = 0; i < vertexes; i++) {
+            double angle = 2 * Math.PI * i / vertexes;
+            double radius = 1.2 + 0.3 * Math.sin(5 * angle + phase) + 0.1 * Math.sin(17 * angle)
+                    + random.nextDouble() * 0.01;
+            builder.addVertex(120 + radius * Math.cos(angle), 30 + radius * Math.sin(angle));
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,77 @@
+package com.yshebkb.common.gps.polygon;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 围栏文件的写入、打开到第一次查询的耗时和查询耗时, 与堆上的{@link GeofenceIndex}对比
+ *
+ * @author whiteclaw
+ * created on 2026-10-18
+ */
+public class PolygonStoreBenchmark {
+
+    private static final int FENCES = 100_000;
+    private static final int QUERIES = 1_000_000;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws Exception {
+        Random random = new Random(20190202L);
+        List<Polygon> fences = GeofenceIndexTest.randomFences(random, FENCES, 115, 25, 10);
+        double[] lngs = new double[QUERIES];
+        double[] lats = new double[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            lngs[i] = 115 + random.nextDouble() * 10;
+            lats[i] = 25 + random.nextDouble() * 10;
+        }
+        GeofenceIndex.Builder builder = GeofenceIndex.builder();
+        PolygonStore.Writer writer = PolygonStore.writer();
+        long vertexes = 0;
+        for (int i = 0; i < FENCES; i++) {
+            builder.add(i, fences.get(i));
+            writer.add(i, fences.get(i));
+            vertexes += fences.get(i).getVertexCount();
+        }
+        GeofenceIndex index = builder.build();
+
+        Path path = Files.createTempFile("fences", ".bin");
+        try {
+            long start = System.nanoTime();
+            writer.write(path);
+            System.out.printf("write %.1f ms, %d fences, %d vertexes, file %.1f MB (%.1f bytes/vertex)%n",
+                    (System.nanoTime() - start) / 1e6, FENCES, vertexes, Files.size(path) / 1048576.0,
+                    (double) Files.size(path) / vertexes);
+
+            int[] out = new int[64];
+            start = System.nanoTime();
+            try (PolygonStore store = PolygonStore.open(path)) {
+                int found = store.search(lngs[0], lats[0], out);
+                System.out.printf("open and first query %.3f ms, found %d%n", (System.nanoTime() - start) / 1e6, found);
+
+                double storeNs = Double.MAX_VALUE;
+                double indexNs = Double.MAX_VALUE;
+                for (int round = 0; round < ROUNDS; round++) {
+                    long hits = 0;
+                    start = System.nanoTime();
+                    for (int i = 0; i < QUERIES; i++) {
+                        hits += store.search(lngs[i], lats[i], out);
+                    }
+                    storeNs = Math.min(storeNs, (double) (System.nanoTime() - start) / QUERIES);
+                    start = System.nanoTime();
+                    for (int i = 0; i < QUERIES; i++) {
+                        hits -= index.search(lngs[i], lats[i], out);
+                    }
+                    indexNs = Math.min(indexNs, (double) (System.nanoTime() - start) / QUERIES);
+                    if (Math.abs(hits) > QUERIES / 1000) {
+                        throw new IllegalStateException("store and index differ in " + hits + " hits");
+                    }
+                }
+                System.out.printf("PolygonStore  %7.1f ns/query%nGeofenceIndex %7.1f ns/query%n", storeNs, indexNs);
+            }
+        } finally {
+            Files.delete(path);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.yshebkb.common.gps.polygon;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author whiteclaw
+ * created on 2026-10-18
+ */
+public class PolygonStoreTest {
+
+    @Test
+    void searchMatchesGeofenceIndex() throws Exception {
+        Random random = new Random(20190201L);
+        List<Polygon> fences = GeofenceIndexTest.randomFences(random, 5000, 120, 30, 2);
+        fences.addAll(PolygonTest.loadPoiPolygons());
+        fences.add(PolygonTest.randomStar(random, 121, 31, 50, true));
+        PolygonStore.Writer writer = PolygonStore.writer();
+        for (int i = 0; i < fences.size(); i++) {
+            writer.add(i, fences.get(i));
+        }
+        Path indexed = Files.createTempFile("fences", ".bin");
+        Path plain = Files.createTempFile("fences", ".bin");
+        try {
+            writer.write(indexed);
+            writer.withIndex(false).write(plain);
+            try (PolygonStore store = PolygonStore.open(indexed); PolygonStore scan = PolygonStore.open(plain)) {
+                assertTrue(store.hasIndex());
+                assertFalse(scan.hasIndex());
+                assertEquals(fences.size(), store.size());
+
+                // 用取整后的多边形建立的索引作为对照
+                GeofenceIndex.Builder builder = GeofenceIndex.builder();
+                for (int i = 0; i < store.size(); i++) {
+                    Polygon decoded = store.getPolygon(i);
+                    Polygon original = fences.get(store.getId(i));
+                    assertEquals(original.getVertexCount(), decoded.getVertexCount());
+                    assertEquals(original.getRingCount(), decoded.getRingCount());
+                    assertEquals(original.getPartCount(), decoded.getPartCount());
+                    assertEquals(original.getVertexCount(), store.getVertexCount(i));
+                    assertEquals(original.getMinX(), decoded.getMinX(), 1e-7);
+                    assertTrue(store.getMinX(i) <= decoded.getMinX() && store.getMaxY(i) >= decoded.getMaxY());
+                    builder.add(store.getId(i), decoded);
+                }
+                GeofenceIndex index = builder.build();
+
+                int[] expected = new int[64];
+                int[] actual = new int[64];
+                int[] scanned = new int[64];
+                int hits = 0;
+                for (int q = 0; q < 20000; q++) {
+                    double lng = 119.9 + random.nextDouble() * 2.2;
+                    double lat = 29.9 + random.nextDouble() * 2.2;
+                    int count = index.search(lng, lat, expected);
+                    assertEquals(count, store.search(lng, lat, actual));
+                    assertEquals(count, scan.search(lng, lat, scanned));
+                    Arrays.sort(expected, 0, count);
+                    Arrays.sort(actual, 0, count);
+                    Arrays.sort(scanned, 0, count);
+                    assertArrayEquals(Arrays.copyOf(expected, count), Arrays.copyOf(actual, count));
+                    assertArrayEquals(Arrays.copyOf(expected, count), Arrays.copyOf(scanned, count));
+                    hits += count;
+                }
+                assertTrue(hits > 1000);
+            }
+        } finally {
+            Files.delete(indexed);
+            Files.delete(plain);
+        }
+    }
+
+    @Test
+    void emptyAndInvalidFiles() throws Exception {
+        Path path = Files.createTempFile("fences", ".bin");
+        try {
+            PolygonStore.writer().write(path);
+            try (PolygonStore store = PolygonStore.open(path)) {
+                assertEquals(0, store.size());
+                assertEquals(0, store.search(120, 30, new int[1]));
+                assertThrows(IndexOutOfBoundsException.class, () -> store.getId(0));
+            }
+            Files.write(path, new byte[]{1, 2, 3});
+            assertThrows(IOException.class, () -> PolygonStore.open(path));
+        } finally {
+            Files.delete(path);
+        }
+    }
+}
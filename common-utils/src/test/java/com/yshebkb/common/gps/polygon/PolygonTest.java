@@ -0,0 +1,397 @@
+package com.yshebkb.common.gps.polygon;
+
+import com.yshebkb.common.gps.BaiduMapTrans;
+import org.junit.jupiter.api.Test;
+
+import java.awt.geom.Path2D;
+import java.awt.geom.Rectangle2D;
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author whiteclaw
+ * created on 2026-10-18
+ */
+class PolygonTest {
+
+    /**
+     * 读取poi.csv中的多边形, 坐标转换为bd09
+     */
+    static List<Polygon> loadPoiPolygons() throws Exception {
+        List<Polygon> result = new ArrayList<>();
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(
+                PolygonTest.class.getClassLoader().getResourceAsStream("poi.csv"), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                String[] parts = line.split("\t")[1].split("\\|");
+                String ring = parts[2].substring(parts[2].indexOf('-') + 1).replace(";", "");
+                String[] values = ring.split(",");
+                PointArray points = PointArray.create(values.length / 2);
+                for (int i = 0; i + 1 < values.length; i += 2) {
+                    points.add(Double.parseDouble(values[i]), Double.parseDouble(values[i + 1]));
+                }
+                BaiduMapTrans.trans(points);
+                result.add(Polygon.Builder().addVertices(points).build());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 随机生成星形多边形, 可以带一个洞
+     */
+    static Polygon randomStar(Random random, double cx, double cy, int vertexes, boolean hole) {
+        Polygon.Builder builder = Polygon.Builder();
+        for (int i = 0; i < vertexes; i++) {
+            double angle = 2 * Math.PI * i / vertexes;
+            double radius = 0.5 + random.nextDouble();
+            builder.addVertex(cx + radius * Math.cos(angle), cy + radius * Math.sin(angle));
+        }
+        if (hole) {
+            builder.close();
+            for (int i = 0; i < 4; i++) {
+                double angle = 2 * Math.PI * i / 4 + 0.3;
+                builder.addVertex(cx + 0.3 * Math.cos(angle), cy + 0.3 * Math.sin(angle));
+            }
+        }
+        return builder.build();
+    }
+
+    @Test
+    void containsMatchesLegacyImplementation() throws Exception {
+        Random random = new Random(20190121L);
+        List<Polygon> polygons = loadPoiPolygons();
+        for (int i = 0; i < 50; i++) {
+            polygons.add(randomStar(random, 120, 30, 3 + random.nextInt(200), i % 2 == 0));
+        }
+        for (Polygon polygon : polygons) {
+            double width = polygon.getMaxX() - polygon.getMinX();
+            double height = polygon.getMaxY() - polygon.getMinY();
+            for (int i = 0; i < 2000; i++) {
+                double x = polygon.getMinX() - width * 0.1 + random.nextDouble() * width * 1.2;
+                double y = polygon.getMinY() - height * 0.1 + random.nextDouble() * height * 1.2;
+                boolean contains = polygon.contains(x, y);
+                assertEquals(reference(polygon, x, y), contains);
+                if (!LegacyContains.grazesVertex(polygon, x, y)) {
+                    assertEquals(LegacyContains.contains(polygon, x, y), contains);
+                }
+                assertEquals(polygon.contains(x, y), polygon.contains(new Point(x, y)));
+            }
+        }
+    }
+
+    /**
+     * 用java.awt.geom.Path2D的奇偶规则作为独立的对照
+     */
+    static boolean reference(Polygon polygon, double x, double y) {
+        Path2D.Double path = new Path2D.Double(Path2D.WIND_EVEN_ODD);
+        Point start = null;
+        for (Line side : polygon.getSides()) {
+            if (start == null) {
+                start = side.getStart();
+                path.moveTo(start.lng, start.lat);
+            }
+            path.lineTo(side.getEnd().lng, side.getEnd().lat);
+            if (side.getEnd().equals(start)) {
+                path.closePath();
+                start = null;
+            }
+        }
+        return path.contains(x, y);
+    }
+
+    @Test
+    void preparedMatchesUnprepared() throws Exception {
+        Random random = new Random(20190122L);
+        List<Polygon> polygons = loadPoiPolygons();
+        List<Polygon> prepared = loadPoiPolygons();
+        for (int i = 0; i < 20; i++) {
+            long seed = random.nextLong();
+            int vertexes = 3 + random.nextInt(5000);
+            polygons.add(randomStar(new Random(seed), 120, 30, vertexes, i % 2 == 0));
+            prepared.add(randomStar(new Random(seed), 120, 30, vertexes, i % 2 == 0).prepare());
+        }
+        for (int p = 0; p < polygons.size(); p++) {
+            Polygon polygon = polygons.get(p);
+            Polygon index = prepared.get(p).prepare();
+            assertFalse(polygon.isPrepared());
+            assertTrue(index.isPrepared());
+            double width = polygon.getMaxX() - polygon.getMinX();
+            double height = polygon.getMaxY() - polygon.getMinY();
+            for (int i = 0; i < 2000; i++) {
+                double x = polygon.getMinX() - width * 0.1 + random.nextDouble() * width * 1.2;
+                double y = polygon.getMinY() - height * 0.1 + random.nextDouble() * height * 1.2;
+                assertEquals(polygon.contains(x, y), index.contains(x, y));
+            }
+            // 纬度恰好等于顶点纬度时也要一致
+            for (Line side : polygon.getSides()) {
+                double x = polygon.getMinX() + random.nextDouble() * width;
+                double y = side.getStart().lat;
+                assertEquals(polygon.contains(x, y), index.contains(x, y));
+            }
+        }
+    }
+
+    @Test
+    void holeIsExcluded() {
+        Polygon polygon = Polygon.Builder()
+                .addVertex(0, 0).addVertex(10, 0).addVertex(10, 10).addVertex(0, 10).close()
+                .addVertex(4, 4).addVertex(6, 4).addVertex(6, 6).addVertex(4, 6)
+                .build();
+        assertTrue(polygon.contains(2, 2));
+        assertFalse(polygon.contains(5, 5));
+        assertFalse(polygon.contains(11, 5));
+        assertEquals(8, polygon.getSides().size());
+        assertEquals(8, polygon.getVertexCount());
+    }
+
+    @Test
+    void multipolygonWithHoles() {
+        Random random = new Random(20190124L);
+        Polygon.Builder builder = Polygon.Builder();
+        List<Polygon> outers = new ArrayList<>();
+        List<Polygon> holes = new ArrayList<>();
+        for (int part = 0; part < 3; part++) {
+            double left = part * 20;
+            Polygon outer = Polygon.Builder()
+                    .addVertex(left, 0).addVertex(left + 10, 0).addVertex(left + 10, 10).addVertex(left, 10).build();
+            outers.add(outer);
+            if (part > 0) {
+                builder.startPart();
+            }
+            builder.addVertices(outer.getRing(0));
+            // 每个部分有一排互不相交的洞
+            for (int i = 0; i < 9; i++) {
+                Polygon hole = randomStar(random, left + 1 + i + 0.5 * random.nextDouble(), 5, 6, false);
+                hole = Polygon.Builder().addVertices(scale(hole.getRing(0), left + 1.5 + i, 5, 0.3)).build();
+                holes.add(hole);
+                builder.close().addVertices(hole.getRing(0));
+            }
+        }
+        Polygon polygon = builder.build();
+        Polygon prepared = builder.build().prepare();
+        assertEquals(3, polygon.getPartCount());
+        assertEquals(30, polygon.getRingCount());
+        assertEquals(10, polygon.getPartRing(1));
+        assertFalse(polygon.isHole(0));
+        assertTrue(polygon.isHole(1));
+        assertFalse(polygon.isHole(20));
+        assertEquals(20, polygon.getRingMinX(10));
+        assertEquals(30, polygon.getRingMaxX(10));
+
+        for (int i = 0; i < 100000; i++) {
+            double x = random.nextDouble() * 62 - 1;
+            double y = random.nextDouble() * 12 - 1;
+            boolean expected = false;
+            for (Polygon outer : outers) {
+                expected |= outer.contains(x, y);
+            }
+            for (Polygon hole : holes) {
+                expected &= !hole.contains(x, y);
+            }
+            assertEquals(expected, polygon.contains(x, y));
+            assertEquals(expected, prepared.contains(x, y));
+            assertEquals(expected, reference(polygon, x, y));
+        }
+    }
+
+    /**
+     * 把环缩放到以(cx, cy)为中心
+     */
+    private static PointArray scale(PointArray ring, double cx, double cy, double size) {
+        double sumX = 0;
+        double sumY = 0;
+        for (int i = 0; i < ring.size(); i++) {
+            sumX += ring.getLng(i);
+            sumY += ring.getLat(i);
+        }
+        PointArray result = PointArray.create(ring.size());
+        for (int i = 0; i < ring.size(); i++) {
+            result.add(cx + (ring.getLng(i) - sumX / ring.size()) * size, cy + (ring.getLat(i) - sumY / ring.size()) * size);
+        }
+        return result;
+    }
+
+    @Test
+    void batchContainsMatchesSingle() throws Exception {
+        Random random = new Random(20190127L);
+        Polygon polygon = randomStar(random, 120, 30, 300, true).prepare();
+        int size = Polygon.BATCH_CHUNK * 5 + 77;
+        double[] lngs = new double[size];
+        double[] lats = new double[size];
+        for (int i = 0; i < size; i++) {
+            lngs[i] = 118 + random.nextDouble() * 4;
+            lats[i] = 28 + random.nextDouble() * 4;
+        }
+        BitSet all = polygon.contains(lngs, lats);
+        for (int i = 0; i < size; i++) {
+            assertEquals(polygon.contains(lngs[i], lats[i]), all.get(i));
+        }
+        assertTrue(all.cardinality() > 0);
+
+        ForkJoinPool pool = new ForkJoinPool(3);
+        try {
+            int[][] ranges = new int[][]{{0, 0}, {5, 100}, {63, 1}, {1000, Polygon.BATCH_CHUNK * 3 + 5}, {77, size - 77}};
+            for (int[] range : ranges) {
+                BitSet part = polygon.contains(lngs, lats, range[0], range[1], pool);
+                BitSet expected = (BitSet) all.clone();
+                expected.clear(0, range[0]);
+                expected.clear(range[0] + range[1], size);
+                assertEquals(expected, part);
+            }
+        } finally {
+            pool.shutdown();
+        }
+        assertThrows(IllegalArgumentException.class, () -> polygon.contains(new double[2], new double[3]));
+        assertThrows(IndexOutOfBoundsException.class, () -> polygon.contains(lngs, lats, size - 1, 2, ForkJoinPool.commonPool()));
+    }
+
+    @Test
+    void intersectsRectangle() throws Exception {
+        Random random = new Random(20190325L);
+        List<Polygon> polygons = loadPoiPolygons();
+        for (int i = 0; i < 50; i++) {
+            polygons.add(randomStar(random, 120, 30, 3 + random.nextInt(100), i % 2 == 0));
+        }
+        int hits = 0;
+        for (Polygon polygon : polygons) {
+            double width = polygon.getMaxX() - polygon.getMinX();
+            double height = polygon.getMaxY() - polygon.getMinY();
+            for (int i = 0; i < 500; i++) {
+                double size = Math.pow(10, -3 + random.nextDouble() * 3.5);
+                double minX = polygon.getMinX() - width * 0.2 + random.nextDouble() * width * 1.4;
+                double minY = polygon.getMinY() - height * 0.2 + random.nextDouble() * height * 1.4;
+                double maxX = minX + width * size * random.nextDouble();
+                double maxY = minY + height * size * random.nextDouble();
+                boolean expected = reference(polygon, minX, minY);
+                Rectangle2D rectangle = new Rectangle2D.Double(minX, minY, maxX - minX, maxY - minY);
+                for (Line side : polygon.getSides()) {
+                    expected |= rectangle.intersectsLine(side.getStart().lng, side.getStart().lat,
+                            side.getEnd().lng, side.getEnd().lat);
+                }
+                assertEquals(expected, polygon.intersects(minX, minY, maxX, maxY));
+                hits += expected ? 1 : 0;
+            }
+        }
+        assertTrue(hits > 10000);
+
+        // 落在洞里, 包含整个多边形, 在凹口里
+        Polygon ring = Polygon.Builder().addVertex(0, 0).addVertex(10, 0).addVertex(10, 10).addVertex(0, 10).close()
+                .addVertex(2, 2).addVertex(8, 2).addVertex(8, 8).addVertex(2, 8).build();
+        assertFalse(ring.intersects(3, 3, 7, 7));
+        assertTrue(ring.intersects(1, 1, 9, 9));
+        assertTrue(ring.intersects(-1, -1, 11, 11));
+        assertTrue(ring.intersects(0.5, 0.5, 1, 1));
+        assertTrue(ring.intersects(10, 10, 12, 12));
+        assertFalse(ring.intersects(10.5, 0, 12, 12));
+        Polygon notch = Polygon.Builder().addVertex(0, 0).addVertex(10, 0).addVertex(5, 1).addVertex(10, 10)
+                .addVertex(0, 10).build();
+        assertFalse(notch.intersects(8, 0.5, 9, 1));
+    }
+
+    @Test
+    void polygonNeedsThreeVertexes() {
+        assertThrows(RuntimeException.class, () -> Polygon.Builder().addVertex(0, 0).addVertex(1, 1).build());
+        assertThrows(RuntimeException.class, () -> Polygon.Builder()
+                .addVertex(0, 0).addVertex(1, 0).addVertex(1, 1).close().addVertex(2, 2).build());
+    }
+
+    @Test
+    void containsDoesNotAllocate() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+            return;
+        }
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) bean;
+        Polygon polygon = randomStar(new Random(1), 0, 0, 500, true);
+        long threadId = Thread.currentThread().getId();
+        int inside = 0;
+        long before = threadBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < 100000; i++) {
+            if (polygon.contains((i % 300) / 100.0 - 1.5, (i % 7) / 3.5 - 1)) {
+                inside++;
+            }
+        }
+        long allocated = threadBean.getThreadAllocatedBytes(threadId) - before;
+        assertTrue(inside > 0);
+        assertTrue(allocated < 1024, "allocated " + allocated + " bytes");
+    }
+
+    /**
+     * 原来基于Line对象的射线法, 作为对照
+     */
+    static class LegacyContains {
+
+        static boolean contains(Polygon polygon, double px, double py) {
+            if (px < polygon.getMinX() || px > polygon.getMaxX() || py < polygon.getMinY() || py > polygon.getMaxY()) {
+                return false;
+            }
+            Point point = new Point(px, py);
+            double epsilon = (polygon.getMaxX() - polygon.getMinX()) / 10e6;
+            Line ray = new Line(new Point(polygon.getMinX() - epsilon, polygon.getMinY()), point);
+            int intersection = 0;
+            for (Line side : polygon.getSides()) {
+                if (intersect(ray, side)) {
+                    intersection++;
+                }
+            }
+            return intersection % 2 != 0;
+        }
+
+        /**
+         * 原来的射线从包围盒左下角外侧出发, 当射线几乎穿过某个顶点时, 相邻两条边都会被计数, 结果不可靠
+         */
+        static boolean grazesVertex(Polygon polygon, double px, double py) {
+            double epsilon = (polygon.getMaxX() - polygon.getMinX()) / 10e6;
+            double ox = polygon.getMinX() - epsilon;
+            double oy = polygon.getMinY();
+            double dx = px - ox;
+            double dy = py - oy;
+            double length = Math.sqrt(dx * dx + dy * dy);
+            for (Line side : polygon.getSides()) {
+                Point v = side.getStart();
+                double t = ((v.lng - ox) * dx + (v.lat - oy) * dy) / (length * length);
+                double distance = Math.abs((v.lng - ox) * dy - (v.lat - oy) * dx) / length;
+                if (t >= -1e-9 && t <= 1 + 1e-9 && distance < 1e-9) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static boolean intersect(Line ray, Line side) {
+            Point intersectPoint;
+            if (!ray.isVertical() && !side.isVertical()) {
+                if (ray.getA() - side.getA() == 0) {
+                    return false;
+                }
+                double x = ((side.getB() - ray.getB()) / (ray.getA() - side.getA()));
+                double y = side.getA() * x + side.getB();
+                intersectPoint = new Point(x, y);
+            } else if (ray.isVertical() && !side.isVertical()) {
+                double x = ray.getStart().lng;
+                double y = side.getA() * x + side.getB();
+                intersectPoint = new Point(x, y);
+            } else if (!ray.isVertical() && side.isVertical()) {
+                double x = side.getStart().lng;
+                double y = ray.getA() * x + ray.getB();
+                intersectPoint = new Point(x, y);
+            } else {
+                return false;
+            }
+            return side.isInside(intersectPoint) && ray.isInside(intersectPoint);
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.yshebkb.common.gps.polygon;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author whiteclaw
+ * created on 2026-10-18
+ */
+public class SimplifierTest {
+
+    private static final double METERS = Simplifier.METERS_PER_DEGREE;
+
+    /**
+     * 在(120, 30)附近随机游走的轨迹, 步长约stepMeters
+     */
+    static PointArray randomWalk(Random random, int size, double stepMeters) {
+        PointArray points = PointArray.create(size);
+        double lng = 120;
+        double lat = 30;
+        double heading = 0;
+        for (int i = 0; i < size; i++) {
+            points.add(lng, lat);
+            heading += random.nextGaussian() * 0.3;
+            lng += Math.cos(heading) * stepMeters / METERS / Math.cos(Math.toRadians(30));
+            lat += Math.sin(heading) * stepMeters / METERS;
+        }
+        return points;
+    }
+
+    @Test
+    void douglasPeuckerMatchesRecursiveVersion() {
+        Random random = new Random(20190131L);
+        for (int round = 0; round < 20; round++) {
+            int n = 3 + random.nextInt(2000);
+            double[] x = new double[n];
+            double[] y = new double[n];
+            for (int i = 1; i < n; i++) {
+                x[i] = x[i - 1] + random.nextGaussian() * 10;
+                y[i] = y[i - 1] + random.nextGaussian() * 10;
+            }
+            double tolerance = random.nextDouble() * 50;
+            boolean[] keep = new boolean[n];
+            Simplifier.douglasPeucker(x, y, 0, n - 1, tolerance * tolerance, keep);
+            boolean[] expected = new boolean[n];
+            expected[0] = true;
+            expected[n - 1] = true;
+            recursive(x, y, 0, n - 1, tolerance, expected);
+            for (int i = 0; i < n; i++) {
+                assertEquals(expected[i], keep[i]);
+            }
+        }
+    }
+
+    private static void recursive(double[] x, double[] y, int from, int to, double tolerance, boolean[] keep) {
+        int index = -1;
+        double max = tolerance;
+        for (int i = from + 1; i < to; i++) {
+            double d = Math.sqrt(Simplifier.distanceSquared(x[i], y[i], x[from], y[from], x[to], y[to]));
+            if (d > max) {
+                max = d;
+                index = i;
+            }
+        }
+        if (index >= 0) {
+            keep[index] = true;
+            recursive(x, y, from, index, tolerance, keep);
+            recursive(x, y, index, to, tolerance, keep);
+        }
+    }
+
+    @Test
+    void removedPointsStayWithinTolerance() {
+        PointArray points = randomWalk(new Random(1), 5000, 20);
+        for (Simplifier.Method method : Simplifier.Method.values()) {
+            PointArray simplified = Simplifier.simplify(points, 30, method);
+            assertTrue(simplified.size() < points.size() / 3, method + " " + simplified.size());
+            assertEquals(points.getLng(0), simplified.getLng(0));
+            assertEquals(points.getLat(points.size() - 1), simplified.getLat(simplified.size() - 1));
+            if (method == Simplifier.Method.DOUGLAS_PEUCKER) {
+                // 每个被移除的点到它所在的抽稀后线段的距离不超过容差
+                int segment = 0;
+                for (int i = 0; i < points.size(); i++) {
+                    if (points.getLng(i) == simplified.getLng(segment + 1) && points.getLat(i) == simplified.getLat(segment + 1)) {
+                        segment = Math.min(segment + 1, simplified.size() - 2);
+                        continue;
+                    }
+                    assertTrue(distanceMeters(points, i, simplified, segment) <= 30 + 1e-6);
+                }
+            }
+        }
+        assertEquals(points.size(), Simplifier.simplify(points, 0).size());
+        assertThrows(IllegalArgumentException.class, () -> Simplifier.simplify(points, -1));
+    }
+
+    private static double distanceMeters(PointArray points, int i, PointArray line, int segment) {
+        double scaleX = METERS * Math.cos(Math.toRadians(30));
+        return Math.sqrt(Simplifier.distanceSquared(
+                points.getLng(i) * scaleX, points.getLat(i) * METERS,
+                line.getLng(segment) * scaleX, line.getLat(segment) * METERS,
+                line.getLng(segment + 1) * scaleX, line.getLat(segment + 1) * METERS));
+    }
+
+    @Test
+    void millionPointTrajectory() {
+        PointArray points = randomWalk(new Random(2), 1_000_000, 5);
+        for (Simplifier.Method method : Simplifier.Method.values()) {
+            PointArray simplified = Simplifier.simplify(points, 10, method);
+            assertTrue(simplified.size() > 2 && simplified.size() < points.size() / 5);
+        }
+    }
+
+    @Test
+    void poiPolygonsStaySimple() throws Exception {
+        List<Polygon> polygons = PolygonTest.loadPoiPolygons();
+        int before = 0;
+        int after = 0;
+        for (Polygon polygon : polygons) {
+            for (Simplifier.Method method : Simplifier.Method.values()) {
+                Polygon simplified = Simplifier.simplify(polygon, 20, method, true);
+                assertTrue(simplified.getVertexCount() >= 3);
+                assertEquals(polygon.getRingCount(), simplified.getRingCount());
+                if (!selfIntersects(polygon)) {
+                    assertFalse(selfIntersects(simplified));
+                }
+                if (method == Simplifier.Method.DOUGLAS_PEUCKER) {
+                    before += polygon.getVertexCount();
+                    after += simplified.getVertexCount();
+                }
+            }
+        }
+        assertTrue(after < before, before + " -> " + after);
+    }
+
+    @Test
+    void holeNearBumpKeepsBump() {
+        double dx = 1 / (METERS * Math.cos(Math.toRadians(30)));
+        double dy = 1 / METERS;
+        // 1000m的正方形, 上边有一个向外凸出30m的小块, 洞在小块里
+        Polygon polygon = Polygon.Builder()
+                .addVertex(120, 30).addVertex(120 + 1000 * dx, 30).addVertex(120 + 1000 * dx, 30 + 1000 * dy)
+                .addVertex(120 + 600 * dx, 30 + 1000 * dy).addVertex(120 + 600 * dx, 30 + 1030 * dy)
+                .addVertex(120 + 400 * dx, 30 + 1030 * dy).addVertex(120 + 400 * dx, 30 + 1000 * dy)
+                .addVertex(120, 30 + 1000 * dy).close()
+                .addVertex(120 + 450 * dx, 30 + 1005 * dy).addVertex(120 + 550 * dx, 30 + 1005 * dy)
+                .addVertex(120 + 550 * dx, 30 + 1025 * dy).addVertex(120 + 450 * dx, 30 + 1025 * dy)
+                .build();
+        Polygon naive = Simplifier.simplify(polygon, 50, Simplifier.Method.DOUGLAS_PEUCKER, false);
+        assertEquals(4, naive.getRing(0).size());
+        // 不保护拓扑时洞跑到了外环之外
+        assertFalse(naive.ringContains(0, 120 + 500 * dx, 30 + 1010 * dy));
+
+        Polygon simplified = Simplifier.simplify(polygon, 50);
+        assertFalse(selfIntersects(simplified));
+        assertTrue(simplified.ringContains(0, 120 + 500 * dx, 30 + 1010 * dy));
+        assertFalse(simplified.contains(120 + 500 * dx, 30 + 1010 * dy));
+    }
+
+    /**
+     * 逐对检查所有不相邻的边是否相交
+     */
+    static boolean selfIntersects(Polygon polygon) {
+        List<Line> sides = polygon.getSides();
+        int n = sides.size();
+        for (int a = 0; a < n; a++) {
+            for (int b = a + 1; b < n; b++) {
+                Line s = sides.get(a);
+                Line t = sides.get(b);
+                if (s.getEnd().equals(t.getStart()) || t.getEnd().equals(s.getStart())
+                        || s.getStart().equals(s.getEnd()) || t.getStart().equals(t.getEnd())) {
+                    continue;
+                }
+                if (Polygon.segmentIntersects(s.getStart().lng, s.getStart().lat, s.getEnd().lng, s.getEnd().lat,
+                        Math.min(t.getStart().lng, t.getEnd().lng), Math.min(t.getStart().lat, t.getEnd().lat),
+                        Math.max(t.getStart().lng, t.getEnd().lng), Math.max(t.getStart().lat, t.getEnd().lat))
+                        && properlyIntersect(s, t)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean properlyIntersect(Line s, Line t) {
+        double d1 = cross(t.getStart(), t.getEnd(), s.getStart());
+        double d2 = cross(t.getStart(), t.getEnd(), s.getEnd());
+        double d3 = cross(s.getStart(), s.getEnd(), t.getStart());
+        double d4 = cross(s.getStart(), s.getEnd(), t.getEnd());
+        return d1 * d2 <= 0 && d3 * d4 <= 0;
+    }
+
+    private static double cross(Point a, Point b, Point p) {
+        return (b.lng - a.lng) * (p.lat - a.lat) - (b.lat - a.lat) * (p.lng - a.lng);
+    }
+}
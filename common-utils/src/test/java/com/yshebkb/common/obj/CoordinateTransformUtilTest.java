@@ -1,9 +1,14 @@
 package com.yshebkb.common.obj;
 
 import com.yshebkb.common.gps.CoordinateTransformUtil;
+import com.yshebkb.common.gps.CoordinateTransformUtil.Precision;
 import org.junit.jupiter.api.Test;
 
+import java.util.Random;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  * @author whiteclaw
@@ -39,4 +44,166 @@ class CoordinateTransformUtilTest {
     @Test
     void gcj02ToWGS84() {
     }
+
+    @Test
+    void batchConversionMatchesSinglePoint() {
+        Random random = new Random(20190121L);
+        int size = 1000;
+        double[] lat = new double[size];
+        double[] lon = new double[size];
+        for (int i = 0; i < size; i++) {
+            // 覆盖国内和国外两种情况
+            lat[i] = -10 + random.nextDouble() * 70;
+            lon[i] = 60 + random.nextDouble() * 90;
+        }
+        double[] outLat = new double[size];
+        double[] outLon = new double[size];
+
+        CoordinateTransformUtil.wgs84ToGCJ02(lat, lon, outLat, outLon);
+        for (int i = 0; i < size; i++) {
+            double[] expect = CoordinateTransformUtil.wgs84ToGCJ02(lat[i], lon[i]);
+            assertEquals(expect[0], outLat[i]);
+            assertEquals(expect[1], outLon[i]);
+        }
+        CoordinateTransformUtil.gcj02ToWGS84(lat, lon, outLat, outLon);
+        for (int i = 0; i < size; i++) {
+            double[] expect = CoordinateTransformUtil.gcj02ToWGS84(lat[i], lon[i]);
+            assertEquals(expect[0], outLat[i]);
+            assertEquals(expect[1], outLon[i]);
+        }
+        CoordinateTransformUtil.gcj02ToBD09(lat, lon, outLat, outLon);
+        for (int i = 0; i < size; i++) {
+            double[] expect = CoordinateTransformUtil.gcj02ToBD09(lat[i], lon[i]);
+            assertEquals(expect[0], outLat[i]);
+            assertEquals(expect[1], outLon[i]);
+        }
+        CoordinateTransformUtil.bd09ToGCJ02(lat, lon, outLat, outLon);
+        for (int i = 0; i < size; i++) {
+            double[] expect = CoordinateTransformUtil.bd09ToGCJ02(lat[i], lon[i]);
+            assertEquals(expect[0], outLat[i]);
+            assertEquals(expect[1], outLon[i]);
+        }
+        CoordinateTransformUtil.wgs84ToBD09(lat, lon, outLat, outLon);
+        for (int i = 0; i < size; i++) {
+            double[] expect = CoordinateTransformUtil.wgs84ToBD09(lat[i], lon[i]);
+            assertEquals(expect[0], outLat[i]);
+            assertEquals(expect[1], outLon[i]);
+        }
+        CoordinateTransformUtil.bd09ToWGS84(lat, lon, outLat, outLon);
+        for (int i = 0; i < size; i++) {
+            double[] expect = CoordinateTransformUtil.bd09ToWGS84(lat[i], lon[i]);
+            assertEquals(expect[0], outLat[i]);
+            assertEquals(expect[1], outLon[i]);
+        }
+    }
+
+    @Test
+    void batchConversionInPlace() {
+        double[] lat = new double[]{BD09[0], 31.260394, 45.0};
+        double[] lon = new double[]{BD09[1], 121.593886, 10.0};
+        double[][] expect = new double[lat.length][];
+        for (int i = 0; i < lat.length; i++) {
+            expect[i] = CoordinateTransformUtil.bd09ToWGS84(lat[i], lon[i]);
+        }
+        CoordinateTransformUtil.bd09ToWGS84(lat, lon);
+        for (int i = 0; i < lat.length; i++) {
+            assertEquals(expect[i][0], lat[i]);
+            assertEquals(expect[i][1], lon[i]);
+        }
+    }
+
+    @Test
+    void preciseInverseRecoversWGS84() {
+        Random random = new Random(20181123L);
+        double maxFastError = 0;
+        for (int i = 0; i < 10000; i++) {
+            double lat = 18 + random.nextDouble() * 30;
+            double lon = 100 + random.nextDouble() * 25;
+            double[] gcj = CoordinateTransformUtil.wgs84ToGCJ02(lat, lon);
+            double[] precise = CoordinateTransformUtil.gcj02ToWGS84(gcj[0], gcj[1], Precision.PRECISE);
+            assertEquals(lat, precise[0], CoordinateTransformUtil.DEFAULT_TOLERANCE);
+            assertEquals(lon, precise[1], CoordinateTransformUtil.DEFAULT_TOLERANCE);
+
+            double[] fast = CoordinateTransformUtil.gcj02ToWGS84(gcj[0], gcj[1], Precision.FAST);
+            maxFastError = Math.max(maxFastError, Math.abs(fast[0] - lat));
+
+            double[] bd = CoordinateTransformUtil.wgs84ToBD09(lat, lon);
+            double[] wgs = CoordinateTransformUtil.bd09ToWGS84(bd[0], bd[1], Precision.PRECISE);
+            assertEquals(lat, wgs[0], 2 * CoordinateTransformUtil.DEFAULT_TOLERANCE);
+            assertEquals(lon, wgs[1], 2 * CoordinateTransformUtil.DEFAULT_TOLERANCE);
+        }
+        assertTrue(maxFastError > 1e-6);
+    }
+
+    @Test
+    void preciseInverseWithCustomTolerance() {
+        double[] gcj = CoordinateTransformUtil.wgs84ToGCJ02(WGS84[0], WGS84[1]);
+        double[] result = CoordinateTransformUtil.gcj02ToWGS84(gcj[0], gcj[1], 1e-10, 20);
+        assertEquals(WGS84[0], result[0], 1e-10);
+        assertEquals(WGS84[1], result[1], 1e-10);
+
+        double[] fast = CoordinateTransformUtil.gcj02ToWGS84(gcj[0], gcj[1]);
+        double[] noIteration = CoordinateTransformUtil.gcj02ToWGS84(gcj[0], gcj[1], 1e-10, 0);
+        assertEquals(fast[0], noIteration[0]);
+        assertEquals(fast[1], noIteration[1]);
+    }
+
+    @Test
+    void preciseBatchMatchesSinglePoint() {
+        double[] lat = new double[]{BD09[0], 31.260394, 45.0, 39.915};
+        double[] lon = new double[]{BD09[1], 121.593886, 10.0, 116.404};
+        double[] outLat = new double[lat.length];
+        double[] outLon = new double[lon.length];
+        CoordinateTransformUtil.bd09ToWGS84(lat, lon, outLat, outLon, Precision.PRECISE);
+        for (int i = 0; i < lat.length; i++) {
+            double[] expect = CoordinateTransformUtil.bd09ToWGS84(lat[i], lon[i], Precision.PRECISE);
+            assertEquals(expect[0], outLat[i]);
+            assertEquals(expect[1], outLon[i]);
+        }
+        CoordinateTransformUtil.gcj02ToWGS84(lat, lon, outLat, outLon, Precision.PRECISE);
+        for (int i = 0; i < lat.length; i++) {
+            double[] expect = CoordinateTransformUtil.gcj02ToWGS84(lat[i], lon[i], Precision.PRECISE);
+            assertEquals(expect[0], outLat[i]);
+            assertEquals(expect[1], outLon[i]);
+        }
+        CoordinateTransformUtil.bd09ToGCJ02(lat, lon, outLat, outLon, Precision.PRECISE);
+        for (int i = 0; i < lat.length; i++) {
+            double[] expect = CoordinateTransformUtil.bd09ToGCJ02(lat[i], lon[i], Precision.PRECISE);
+            assertEquals(expect[0], outLat[i]);
+            assertEquals(expect[1], outLon[i]);
+        }
+    }
+
+    @Test
+    void preciseBatchRangesAndArguments() {
+        double[] lat = new double[]{BD09[0], 31.260394, 45.0, 39.915};
+        double[] lon = new double[]{BD09[1], 121.593886, 10.0, 116.404};
+        double[] outLat = new double[lat.length];
+        double[] outLon = new double[lon.length];
+        // 只转换中间两个点, 其余位置不变
+        CoordinateTransformUtil.gcj02ToWGS84(lat, lon, outLat, outLon, 1, 2, Precision.PRECISE);
+        assertEquals(0.0, outLat[0]);
+        assertEquals(0.0, outLon[3]);
+        for (int i = 1; i < 3; i++) {
+            double[] expect = CoordinateTransformUtil.gcj02ToWGS84(lat[i], lon[i], Precision.PRECISE);
+            assertEquals(expect[0], outLat[i]);
+            assertEquals(expect[1], outLon[i]);
+        }
+        CoordinateTransformUtil.bd09ToWGS84(lat, lon, outLat, outLon, 0, lat.length, 1e-10, 20);
+        for (int i = 0; i < lat.length; i++) {
+            double[] expect = CoordinateTransformUtil.bd09ToWGS84(lat[i], lon[i], Precision.PRECISE);
+            assertEquals(expect[0], outLat[i], 1e-9);
+            assertEquals(expect[1], outLon[i], 1e-9);
+        }
+
+        assertThrows(IllegalArgumentException.class,
+                () -> CoordinateTransformUtil.gcj02ToWGS84(lat, lon, outLat, outLon, null));
+        assertThrows(IllegalArgumentException.class,
+                () -> CoordinateTransformUtil.bd09ToGCJ02(lat, lon, outLat, outLon, 0, 4, null));
+        assertThrows(IllegalArgumentException.class, () -> CoordinateTransformUtil.bd09ToWGS84(1, 2, null));
+        assertThrows(IllegalArgumentException.class,
+                () -> CoordinateTransformUtil.gcj02ToWGS84(lat, lon, outLat, outLon, 0, 4, -1, 10));
+        assertThrows(IndexOutOfBoundsException.class,
+                () -> CoordinateTransformUtil.bd09ToWGS84(lat, lon, outLat, outLon, 3, 2, Precision.PRECISE));
+    }
 }
@@ -0,0 +1,13 @@
+package com.yshebkb.common.obj.exampledomain;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class Sample {
+    Integer id;
+    String name;
+}
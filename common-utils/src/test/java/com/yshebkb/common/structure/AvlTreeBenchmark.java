@@ -0,0 +1,87 @@
+package com.yshebkb.common.structure;
+
+import java.util.Random;
+import java.util.TreeMap;
+
+/**
+ * 1000万个key顺序插入和随机插入的耗时: AvlTree, KvAvlTree, TreeMap和BinarySearchTree.
+ * BinarySearchTree顺序插入时退化成链表, 只插入{@link #UNBALANCED_COUNT}个, 更多时递归的add会栈溢出.
+ * 需要约3G堆内存, 例如-Xmx3g
+ *
+ * @author whiteclaw
+ * created on 2026-10-18
+ */
+public class AvlTreeBenchmark {
+
+    private static final int COUNT = 10_000_000;
+    private static final int UNBALANCED_COUNT = 5_000;
+    private static final int ROUNDS = 3;
+
+    public static void main(String[] args) {
+        Integer[] sorted = new Integer[COUNT];
+        for (int i = 0; i < COUNT; i++) {
+            sorted[i] = i;
+        }
+        Integer[] shuffled = sorted.clone();
+        Random random = new Random(20181227L);
+        for (int i = COUNT - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            Integer swap = shuffled[i];
+            shuffled[i] = shuffled[j];
+            shuffled[j] = swap;
+        }
+        for (int round = 0; round < ROUNDS; round++) {
+            for (Integer[] keys : new Integer[][]{sorted, shuffled}) {
+                String order = keys == sorted ? "顺序" : "随机";
+
+                long start = System.nanoTime();
+                AvlTree<Integer> avl = new AvlTree<>();
+                for (Integer key : keys) {
+                    avl.add(key);
+                }
+                double avlAdd = (System.nanoTime() - start) / (double) COUNT;
+                start = System.nanoTime();
+                int found = 0;
+                for (Integer key : shuffled) {
+                    if (avl.exists(key)) {
+                        found++;
+                    }
+                }
+                double avlExists = (System.nanoTime() - start) / (double) COUNT;
+                int avlHeight = avl.getHeight();
+                avl = null;
+
+                start = System.nanoTime();
+                KvAvlTree<Integer, Integer> kvAvl = new KvAvlTree<>(Integer::sum);
+                for (Integer key : keys) {
+                    kvAvl.add(key, key);
+                }
+                double kvAvlAdd = (System.nanoTime() - start) / (double) COUNT;
+                kvAvl = null;
+
+                start = System.nanoTime();
+                TreeMap<Integer, Integer> treeMap = new TreeMap<>();
+                for (Integer key : keys) {
+                    treeMap.merge(key, key, Integer::sum);
+                }
+                double treeMapAdd = (System.nanoTime() - start) / (double) COUNT;
+                treeMap = null;
+
+                int bstCount = keys == sorted ? UNBALANCED_COUNT : COUNT;
+                start = System.nanoTime();
+                BinarySearchTree<Integer> bst = new BinarySearchTree<>();
+                for (int i = 0; i < bstCount; i++) {
+                    bst.add(keys[i]);
+                }
+                double bstAdd = (System.nanoTime() - start) / (double) bstCount;
+                int bstHeight = bst.getHeight();
+                bst = null;
+
+                System.out.printf("第%d轮 %s插入 AvlTree %.1f ns/个(高%d, 查找 %.1f ns/个, %d) KvAvlTree %.1f ns/个 "
+                                + "TreeMap %.1f ns/个 BinarySearchTree(%d个) %.1f ns/个(最左/最右链长%d)%n",
+                        round + 1, order, avlAdd, avlHeight, avlExists, found, kvAvlAdd, treeMapAdd,
+                        bstCount, bstAdd, bstHeight);
+            }
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.yshebkb.common.structure;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author whiteclaw
+ * created on 2026-10-18
+ */
+public class AvlTreeTest {
+
+    /**
+     * 检查高度记录正确且左右子树高度差不超过1, 返回子树的层数
+     */
+    static <T extends Comparable<T>> int checkBalanced(AvlTree.Node<T> node) {
+        if (node == null) {
+            return 0;
+        }
+        int left = checkBalanced(node.left);
+        int right = checkBalanced(node.right);
+        assertTrue(Math.abs(left - right) <= 1);
+        assertEquals(Math.max(left, right) + 1, node.height);
+        return node.height;
+    }
+
+    @Test
+    void sortedInsertStaysBalanced() {
+        AvlTree<Integer> tree = new AvlTree<>();
+        int count = 1_000_000;
+        for (int i = 0; i < count; i++) {
+            tree.add(i);
+        }
+        tree.add(10);
+        assertEquals(count, tree.getSize());
+        // 完全平衡的树高为19, AVL树不超过1.44倍
+        assertTrue(tree.getHeight() <= 28, "height " + tree.getHeight());
+        checkBalanced(tree.getRoot());
+        assertTrue(tree.exists(0));
+        assertTrue(tree.exists(count - 1));
+        assertFalse(tree.exists(count));
+        assertEquals(count, tree.inOrder().size());
+        assertEquals(Integer.valueOf(count - 1), tree.inOrder().get(count - 1));
+    }
+
+    @Test
+    void randomOperationsMatchTreeSet() {
+        Random random = new Random(20181225L);
+        AvlTree<Integer> tree = new AvlTree<>();
+        TreeSet<Integer> expected = new TreeSet<>();
+        for (int i = 0; i < 200_000; i++) {
+            int value = random.nextInt(5000);
+            if (random.nextInt(3) == 0) {
+                tree.delete(value);
+                expected.remove(value);
+            } else {
+                tree.add(value);
+                expected.add(value);
+            }
+            if (i % 10_000 == 0) {
+                checkBalanced(tree.getRoot());
+            }
+        }
+        checkBalanced(tree.getRoot());
+        assertEquals(expected.size(), tree.getSize());
+        assertEquals(new ArrayList<>(expected), tree.inOrder());
+        for (int value = -1; value <= 5000; value++) {
+            assertEquals(expected.contains(value), tree.exists(value));
+        }
+        for (Integer value : expected) {
+            tree.delete(value);
+        }
+        assertEquals(0, tree.getSize());
+        assertEquals(0, tree.getHeight());
+        assertEquals(null, tree.getRoot());
+    }
+
+    @Test
+    void traversals() {
+        AvlTree<String> tree = new AvlTree<>();
+        for (String s : new String[]{"a", "b", "c", "d", "e", "f", "g"}) {
+            tree.add(s);
+        }
+        assertEquals(2, tree.getHeight());
+        assertEquals(Arrays.asList("d", "b", "a", "c", "f", "e", "g"), tree.preOrder());
+        assertEquals(Arrays.asList("a", "b", "c", "d", "e", "f", "g"), tree.inOrder());
+        assertEquals(Arrays.asList("a", "c", "b", "e", "g", "f", "d"), tree.postOrder());
+        tree.delete("d");
+        assertEquals(Arrays.asList("e", "b", "a", "c", "f", "g"), tree.preOrder());
+        assertEquals(1, tree.getHeight(tree.getRoot().left));
+    }
+}
@@ -0,0 +1,82 @@
+package com.yshebkb.common.structure;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author whiteclaw
+ * created on 2026-10-18
+ */
+public class KvAvlTreeTest {
+
+    static <K extends Comparable<K>, V> int checkBalanced(KvAvlTree.Node<K, V> node) {
+        if (node == null) {
+            return 0;
+        }
+        int left = checkBalanced(node.left);
+        int right = checkBalanced(node.right);
+        assertTrue(Math.abs(left - right) <= 1);
+        assertEquals(Math.max(left, right) + 1, node.height);
+        return node.height;
+    }
+
+    @Test
+    void mergeMatchesTreeMap() {
+        Random random = new Random(20181226L);
+        KvAvlTree<Long, Integer> tree = new KvAvlTree<>(Integer::sum);
+        TreeMap<Long, Integer> expected = new TreeMap<>();
+        long timestamp = 1_545_696_000_000L;
+        for (int i = 0; i < 200_000; i++) {
+            // 时间戳基本有序, 偶尔重复或回退
+            timestamp += random.nextInt(10) - 1;
+            int value = random.nextInt(100);
+            if (random.nextInt(5) == 0) {
+                long key = timestamp - random.nextInt(1000);
+                tree.deleteKey(key);
+                expected.remove(key);
+            } else {
+                tree.add(timestamp, value);
+                expected.merge(timestamp, value, Integer::sum);
+            }
+        }
+        checkBalanced(tree.getRoot());
+        assertEquals(expected.size(), tree.getSize());
+        Map<Long, Integer> inOrder = tree.inOrder();
+        assertEquals(new ArrayList<>(expected.keySet()), new ArrayList<>(inOrder.keySet()));
+        assertEquals(new ArrayList<>(expected.values()), new ArrayList<>(inOrder.values()));
+        for (Map.Entry<Long, Integer> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), tree.get(entry.getKey()));
+        }
+        assertNull(tree.get(0L));
+        assertFalse(tree.exists(0L));
+    }
+
+    @Test
+    void deleteMovesKeyAndValue() {
+        KvAvlTree<Integer, String> tree = new KvAvlTree<>((v1, v2) -> v1 + v2);
+        for (int i = 1; i <= 7; i++) {
+            tree.add(i, "v" + i);
+        }
+        tree.add(4, "!");
+        assertEquals("v4!", tree.get(4));
+        // 根节点4有两个子节点, 由右子树中最小的5替换
+        tree.deleteKey(4);
+        assertEquals(6, tree.getSize());
+        assertEquals(Arrays.asList(5, 2, 1, 3, 6, 7), new ArrayList<>(tree.preOrder().keySet()));
+        assertEquals("v5", tree.get(5));
+        assertTrue(tree.exists(5));
+        assertFalse(tree.exists(4));
+        assertEquals(Arrays.asList(1, 3, 2, 7, 6, 5), new ArrayList<>(tree.postOrder().keySet()));
+        checkBalanced(tree.getRoot());
+    }
+}